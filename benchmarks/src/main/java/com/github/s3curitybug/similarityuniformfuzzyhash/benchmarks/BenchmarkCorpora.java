@@ -0,0 +1,231 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash.benchmarks;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class provides utility methods to build the data sets the benchmarks run over: synthetic
+ * byte arrays and the corpora inside the library test resources directory.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class BenchmarkCorpora {
+
+    /**
+     * System property which can be used to indicate the path to the corpora directory.
+     */
+    public static final String CORPORA_PATH_PROPERTY = "sufh.corpora";
+
+    /**
+     * Candidate paths to the corpora directory, used when the system property is not set.
+     * The first one applies when running from the project directory, the second one when running
+     * from the benchmarks directory.
+     */
+    private static final String[] DEFAULT_CORPORA_PATHS = {
+            "src/test/resources",
+            "../src/test/resources"};
+
+    /**
+     * Name prefix of the synthetic corpora. A synthetic corpus name is the prefix followed by the
+     * amount of documents, e.g. Synthetic-1000.
+     */
+    public static final String SYNTHETIC_PREFIX = "Synthetic-";
+
+    /**
+     * Seed for the pseudo random generation of synthetic data, so that every fork and every run
+     * benchmarks the same bytes.
+     */
+    private static final long RANDOM_SEED = 0x5eedL;
+
+    /**
+     * Alphabet of the synthetic text. Synthetic data is text-like (printable
+     * ASCII words separated by spaces) so that it behaves like the test resources and not like
+     * compressed data.
+     */
+    private static final String SYNTHETIC_ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Maximum synthetic word length.
+     */
+    private static final int SYNTHETIC_MAX_WORD_LENGTH = 10;
+
+    /**
+     * Private constructor.
+     */
+    private BenchmarkCorpora() {
+
+    }
+
+    /**
+     * @return The corpora directory.
+     */
+    public static File getCorporaDirectory() {
+
+        String path = System.getProperty(CORPORA_PATH_PROPERTY);
+        if (path != null) {
+            return checkDirectory(new File(path));
+        }
+
+        for (String defaultPath : DEFAULT_CORPORA_PATHS) {
+            File directory = new File(defaultPath);
+            if (directory.isDirectory()) {
+                return directory;
+            }
+        }
+
+        throw new IllegalStateException(String.format(
+                "Corpora directory not found. Set the system property %s.",
+                CORPORA_PATH_PROPERTY));
+
+    }
+
+    /**
+     * Reads all the files of a corpus (a directory inside the corpora directory), recursively.
+     * 
+     * @param corpus Corpus name (LoremIpsum, Html, RandomText, InsidePdf, InsideDoc, Images...).
+     * @return List of byte arrays with the contents of the corpus files, sorted by file path.
+     * @throws IOException If an IOException occurs reading any of the files.
+     */
+    public static List<byte[]> readCorpus(
+            String corpus)
+            throws IOException {
+
+        File directory = checkDirectory(new File(getCorporaDirectory(), corpus));
+
+        List<File> files = new ArrayList<>(FileUtils.listFiles(directory, null, true));
+        files.sort(null);
+
+        List<byte[]> contents = new ArrayList<>(files.size());
+        for (File file : files) {
+            contents.add(FileUtils.readFileToByteArray(file));
+        }
+
+        return contents;
+
+    }
+
+    /**
+     * Generates synthetic text-like data.
+     * 
+     * @param size Size in bytes.
+     * @param random Pseudo random generator.
+     * @return Byte array of synthetic data.
+     */
+    public static byte[] syntheticData(
+            int size,
+            Random random) {
+
+        byte[] data = new byte[size];
+
+        int i = 0;
+        while (i < size) {
+            int wordLength = 1 + random.nextInt(SYNTHETIC_MAX_WORD_LENGTH);
+            for (int j = 0; j < wordLength && i < size; j++) {
+                data[i++] = (byte) SYNTHETIC_ALPHABET.charAt(
+                        random.nextInt(SYNTHETIC_ALPHABET.length()));
+            }
+            if (i < size) {
+                data[i++] = ' ';
+            }
+        }
+
+        return data;
+
+    }
+
+    /**
+     * Generates a synthetic corpus of related documents: every document is a copy of a common
+     * base document with a run of its bytes replaced by new synthetic data, so that comparisons
+     * find both shared and unshared blocks.
+     * 
+     * @param nDocuments Amount of documents.
+     * @param documentSize Size in bytes of each document.
+     * @return List of byte arrays with the synthetic documents.
+     */
+    public static List<byte[]> syntheticCorpus(
+            int nDocuments,
+            int documentSize) {
+
+        Random random = new Random(RANDOM_SEED);
+        byte[] base = syntheticData(documentSize, random);
+
+        List<byte[]> documents = new ArrayList<>(nDocuments);
+        for (int i = 0; i < nDocuments; i++) {
+            byte[] document = Arrays.copyOf(base, base.length);
+            int replacedLength = random.nextInt(documentSize / 2 + 1);
+            int replacedStart = random.nextInt(documentSize - replacedLength + 1);
+            byte[] replacement = syntheticData(replacedLength, random);
+            System.arraycopy(replacement, 0, document, replacedStart, replacedLength);
+            documents.add(document);
+        }
+
+        return documents;
+
+    }
+
+    /**
+     * Returns a corpus by name, either synthetic or read from the corpora directory.
+     * 
+     * @param corpus Corpus name. SYNTHETIC_PREFIX followed by the amount of documents for a
+     *        synthetic corpus.
+     * @param documentSize Size in bytes of each document of a synthetic corpus.
+     * @return List of byte arrays with the corpus documents.
+     * @throws IOException If an IOException occurs reading any of the corpus files.
+     */
+    public static List<byte[]> corpus(
+            String corpus,
+            int documentSize)
+            throws IOException {
+
+        if (corpus.startsWith(SYNTHETIC_PREFIX)) {
+            int nDocuments = Integer.parseInt(corpus.substring(SYNTHETIC_PREFIX.length()));
+            return syntheticCorpus(nDocuments, documentSize);
+        } else {
+            return readCorpus(corpus);
+        }
+
+    }
+
+    /**
+     * @param documents Collection of byte arrays.
+     * @return Sum of their sizes in bytes.
+     */
+    public static long totalSize(
+            Collection<byte[]> documents) {
+
+        long totalSize = 0;
+
+        for (byte[] document : documents) {
+            totalSize += document.length;
+        }
+
+        return totalSize;
+
+    }
+
+    /**
+     * @param directory A directory.
+     * @return The directory, if it exists.
+     */
+    private static File checkDirectory(
+            File directory) {
+
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a directory.",
+                    directory.getPath()));
+        }
+
+        return directory;
+
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * This class provides a main method to run the benchmarks via command line.
+ * It accepts the same arguments as the JMH command line (benchmarks regular expression, -p, -f,
+ * -wi, -i, -rf...), and always adds the GC profiler, so that allocation rates are reported along
+ * with throughput. The corpora directory is propagated to the forked JVMs.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Private constructor.
+     */
+    private BenchmarkRunner() {
+
+    }
+
+    /**
+     * Main method.
+     * 
+     * @param args Run arguments (JMH command line arguments).
+     * @throws CommandLineOptionException If the arguments are not valid JMH arguments.
+     * @throws RunnerException If an error occurs running the benchmarks.
+     */
+    public static void main(
+            String[] args)
+            throws CommandLineOptionException, RunnerException {
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        ChainedOptionsBuilder optionsBuilder = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class);
+
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            optionsBuilder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        }
+
+        optionsBuilder.jvmArgsAppend(String.format(
+                "-D%s=%s",
+                BenchmarkCorpora.CORPORA_PATH_PROPERTY,
+                BenchmarkCorpora.getCorporaDirectory().getAbsolutePath()));
+
+        new Runner(optionsBuilder.build()).run();
+
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Uniform Fuzzy Hash computation (computeUniformFuzzyHash through the byte array
+ * constructor), over synthetic data of several sizes and over the test resources corpora, for
+ * several factors.
+ * Throughput is reported both in operations per second and, through the auxiliary counter, in
+ * megabytes per second.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashComputationBenchmark {
+
+    /**
+     * Amount of bytes in a megabyte.
+     */
+    private static final double BYTES_PER_MEGABYTE = 1000 * 1000;
+
+    /**
+     * Synthetic input state.
+     */
+    @State(Scope.Benchmark)
+    public static class SyntheticInput {
+
+        /**
+         * Factor.
+         */
+        @Param({"11", "101", "1001", "50001"})
+        public int factor;
+
+        /**
+         * Input size in bytes.
+         */
+        @Param({"1024", "65536", "1048576", "16777216"})
+        public int size;
+
+        /**
+         * Input data.
+         */
+        public byte[] data;
+
+        /**
+         * Generates the input data.
+         */
+        @Setup(Level.Trial)
+        public void setup() {
+
+            data = BenchmarkCorpora.syntheticData(size, new Random(size));
+
+        }
+
+    }
+
+    /**
+     * Corpus input state.
+     */
+    @State(Scope.Benchmark)
+    public static class CorpusInput {
+
+        /**
+         * Factor.
+         */
+        @Param({"11", "1001", "50001"})
+        public int factor;
+
+        /**
+         * Corpus name.
+         */
+        @Param({"LoremIpsum", "Html", "RandomText", "InsidePdf", "InsideDoc", "Images"})
+        public String corpus;
+
+        /**
+         * Corpus documents.
+         */
+        public List<byte[]> documents;
+
+        /**
+         * Corpus size in megabytes.
+         */
+        public double megabytes;
+
+        /**
+         * Reads the corpus.
+         * 
+         * @throws IOException If an IOException occurs reading the corpus.
+         */
+        @Setup(Level.Trial)
+        public void setup()
+                throws IOException {
+
+            documents = BenchmarkCorpora.readCorpus(corpus);
+            megabytes = BenchmarkCorpora.totalSize(documents) / BYTES_PER_MEGABYTE;
+
+        }
+
+    }
+
+    /**
+     * Auxiliary counters. JMH reports them as rates, so megabytes is reported in MB/s.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        /**
+         * Hashed megabytes.
+         */
+        public double megabytes;
+
+        /**
+         * Resets the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+
+            megabytes = 0;
+
+        }
+
+    }
+
+    /**
+     * Hashes a synthetic byte array.
+     * 
+     * @param input Synthetic input.
+     * @param counters Auxiliary counters.
+     * @return The hash.
+     */
+    @Benchmark
+    public UniformFuzzyHash synthetic(
+            SyntheticInput input,
+            Counters counters) {
+
+        UniformFuzzyHash hash = new UniformFuzzyHash(input.data, input.factor);
+        counters.megabytes += input.size / BYTES_PER_MEGABYTE;
+        return hash;
+
+    }
+
+    /**
+     * Hashes all the documents of a corpus.
+     * 
+     * @param input Corpus input.
+     * @param counters Auxiliary counters.
+     * @param blackhole Blackhole to consume the hashes.
+     */
+    @Benchmark
+    public void corpus(
+            CorpusInput input,
+            Counters counters,
+            Blackhole blackhole) {
+
+        for (byte[] document : input.documents) {
+            blackhole.consume(new UniformFuzzyHash(document, input.factor));
+        }
+        counters.megabytes += input.megabytes;
+
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash;
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHashes;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Uniform Fuzzy Hashes comparison: the similarity between pairs of hashes, and the
+ * similarity between all the hashes of a corpus (computeAllHashesSimilarities), over synthetic
+ * corpora of several sizes and over the test resources corpora.
+ * Throughput is reported both in operations per second and, through the auxiliary counter, in
+ * comparisons per second.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    /**
+     * Hashes state.
+     */
+    @State(Scope.Benchmark)
+    public static class Hashes {
+
+        /**
+         * Factor.
+         */
+        @Param({"11", "1001"})
+        public int factor;
+
+        /**
+         * Corpus name. Synthetic corpora names include their amount of documents.
+         */
+        @Param({"Synthetic-10", "Synthetic-100", "Synthetic-1000",
+                "LoremIpsum", "Html", "RandomText", "InsidePdf"})
+        public String corpus;
+
+        /**
+         * Size in bytes of each document of a synthetic corpus.
+         */
+        @Param({"16384"})
+        public int documentSize;
+
+        /**
+         * Identified hashes.
+         */
+        public Map<Integer, UniformFuzzyHash> hashes;
+
+        /**
+         * Hashes array.
+         */
+        public UniformFuzzyHash[] hashesArray;
+
+        /**
+         * Computes the hashes, and the sets of blocks they use for comparisons, so that their
+         * construction is not measured.
+         * 
+         * @throws IOException If an IOException occurs reading the corpus.
+         */
+        @Setup(Level.Trial)
+        public void setup()
+                throws IOException {
+
+            List<byte[]> documents =
+                    BenchmarkCorpora.corpus(corpus, documentSize);
+
+            hashes = UniformFuzzyHashes.computeHashesFromByteArrays(
+                    UniformFuzzyHashes.collectionToMap(documents), factor);
+            hashesArray = hashes.values().toArray(new UniformFuzzyHash[hashes.size()]);
+
+            for (UniformFuzzyHash hash : hashesArray) {
+                hash.getBlocksSet();
+            }
+
+        }
+
+    }
+
+    /**
+     * Auxiliary counters. JMH reports them as rates, so comparisons is reported in comparisons/s.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        /**
+         * Performed comparisons.
+         */
+        public long comparisons;
+
+        /**
+         * Resets the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+
+            comparisons = 0;
+
+        }
+
+    }
+
+    /**
+     * Computes the similarity of every hash of the corpus to the first one.
+     * 
+     * @param state Hashes.
+     * @param counters Auxiliary counters.
+     * @param blackhole Blackhole to consume the similarities.
+     */
+    @Benchmark
+    public void similarityToAll(
+            Hashes state,
+            Counters counters,
+            Blackhole blackhole) {
+
+        UniformFuzzyHash hash = state.hashesArray[0];
+        for (UniformFuzzyHash other : state.hashesArray) {
+            blackhole.consume(hash.similarity(other));
+        }
+        counters.comparisons += state.hashesArray.length;
+
+    }
+
+    /**
+     * Computes the similarity between all the hashes of the corpus.
+     * 
+     * @param state Hashes.
+     * @param counters Auxiliary counters.
+     * @return The similarities.
+     */
+    @Benchmark
+    public Map<Integer, Map<Integer, Double>> allHashesSimilarities(
+            Hashes state,
+            Counters counters) {
+
+        Map<Integer, Map<Integer, Double>> similarities =
+                UniformFuzzyHashes.computeAllHashesSimilarities(state.hashes);
+        counters.comparisons += (long) state.hashesArray.length * state.hashesArray.length;
+        return similarities;
+
+    }
+
+}
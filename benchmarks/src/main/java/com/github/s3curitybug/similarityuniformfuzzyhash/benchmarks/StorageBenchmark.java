@@ -0,0 +1,205 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash;
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHashes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Uniform Fuzzy Hashes storage paths: the string representation of hashes
+ * (toString), their rebuild from it (rebuildFromString), and the load of a text file of hashes
+ * (loadHashesFromTextFile), over synthetic corpora of several sizes and over the test resources
+ * corpora.
+ * Throughput is reported both in operations per second and, through the auxiliary counter, in
+ * hashes per second.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    /**
+     * Hashes state.
+     */
+    @State(Scope.Benchmark)
+    public static class Hashes {
+
+        /**
+         * Factor.
+         */
+        @Param({"11", "1001"})
+        public int factor;
+
+        /**
+         * Corpus name. Synthetic corpora names include their amount of documents.
+         */
+        @Param({"Synthetic-100", "Synthetic-10000", "LoremIpsum", "Html", "InsidePdf"})
+        public String corpus;
+
+        /**
+         * Size in bytes of each document of a synthetic corpus.
+         */
+        @Param({"16384"})
+        public int documentSize;
+
+        /**
+         * Identified hashes.
+         */
+        public Map<Integer, UniformFuzzyHash> hashes;
+
+        /**
+         * String representations of the hashes.
+         */
+        public String[] hashesStrings;
+
+        /**
+         * Text file where the hashes are saved.
+         */
+        public File textFile;
+
+        /**
+         * Computes the hashes and saves them into a temporary text file.
+         * 
+         * @throws IOException If an IOException occurs reading the corpus or writing the file.
+         */
+        @Setup(Level.Trial)
+        public void setup()
+                throws IOException {
+
+            List<byte[]> documents = BenchmarkCorpora.corpus(corpus, documentSize);
+
+            hashes = UniformFuzzyHashes.computeHashesFromByteArrays(
+                    UniformFuzzyHashes.collectionToMap(documents), factor);
+            hashesStrings = UniformFuzzyHashes.hashesToStrings(hashes).values()
+                    .toArray(new String[hashes.size()]);
+
+            textFile = File.createTempFile("sufh-benchmark-", ".sufh");
+            UniformFuzzyHashes.saveHashesToTextFile(hashes, textFile, false);
+
+        }
+
+        /**
+         * Deletes the temporary text file.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() {
+
+            if (textFile != null) {
+                textFile.delete();
+            }
+
+        }
+
+    }
+
+    /**
+     * Auxiliary counters. JMH reports them as rates, so hashes is reported in hashes/s.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        /**
+         * Processed hashes.
+         */
+        public long hashes;
+
+        /**
+         * Resets the counters.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+
+            hashes = 0;
+
+        }
+
+    }
+
+    /**
+     * Builds the string representations of all the hashes.
+     * 
+     * @param state Hashes.
+     * @param counters Auxiliary counters.
+     * @param blackhole Blackhole to consume the strings.
+     */
+    @Benchmark
+    public void toString(
+            Hashes state,
+            Counters counters,
+            Blackhole blackhole) {
+
+        for (UniformFuzzyHash hash : state.hashes.values()) {
+            blackhole.consume(hash.toString());
+        }
+        counters.hashes += state.hashes.size();
+
+    }
+
+    /**
+     * Rebuilds all the hashes from their string representations.
+     * 
+     * @param state Hashes.
+     * @param counters Auxiliary counters.
+     * @param blackhole Blackhole to consume the hashes.
+     */
+    @Benchmark
+    public void rebuildFromString(
+            Hashes state,
+            Counters counters,
+            Blackhole blackhole) {
+
+        for (String hashString : state.hashesStrings) {
+            blackhole.consume(UniformFuzzyHash.rebuildFromString(hashString));
+        }
+        counters.hashes += state.hashesStrings.length;
+
+    }
+
+    /**
+     * Loads all the hashes from the text file.
+     * 
+     * @param state Hashes.
+     * @param counters Auxiliary counters.
+     * @return The loaded hashes.
+     * @throws IOException If an IOException occurs reading the file.
+     */
+    @Benchmark
+    public Map<String, UniformFuzzyHash> loadHashesFromTextFile(
+            Hashes state,
+            Counters counters)
+            throws IOException {
+
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashes.loadHashesFromTextFile(state.textFile);
+        counters.hashes += hashes.size();
+        return hashes;
+
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.io.File;
+
+/**
+ * This class emits Java Flight Recorder events around the Uniform Fuzzy Hashes computation,
+ * comparison and storage.
+ * This is the Java 8 version, in which every method does nothing. The library jar is a
+ * multi-release jar, and on Java 11 or later this class is replaced by the version in
+ * src/main/java11, which emits the events.
+ * Every event is begun before the operation, obtaining an event object (which can be null), and
+ * committed after it, with the operation data.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+final class FlightRecorderEvents {
+
+    /**
+     * Private constructor.
+     */
+    private FlightRecorderEvents() {
+
+    }
+
+    /**
+     * Begins a hash computation event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginHashComputation() {
+
+        return null;
+
+    }
+
+    /**
+     * Commits a hash computation event.
+     * 
+     * @param event The event returned by beginHashComputation.
+     * @param dataSize Size in bytes of the hashed data.
+     * @param factor Factor of the hash.
+     * @param blocks Amount of blocks of the hash.
+     */
+    static void commitHashComputation(
+            Object event,
+            int dataSize,
+            int factor,
+            int blocks) {
+
+    }
+
+    /**
+     * Begins a blocks set build event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginBlocksSetBuild() {
+
+        return null;
+
+    }
+
+    /**
+     * Commits a blocks set build event.
+     * 
+     * @param event The event returned by beginBlocksSetBuild.
+     * @param dataSize Size in bytes of the data of the hash.
+     * @param blocks Amount of blocks of the hash.
+     */
+    static void commitBlocksSetBuild(
+            Object event,
+            int dataSize,
+            int blocks) {
+
+    }
+
+    /**
+     * Begins a similarity event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginSimilarity() {
+
+        return null;
+
+    }
+
+    /**
+     * Commits a similarity event.
+     * 
+     * @param event The event returned by beginSimilarity.
+     * @param factor Factor of both hashes.
+     * @param blocks Amount of blocks of the hash.
+     * @param otherBlocks Amount of blocks of the other hash.
+     * @param similarity The computed similarity.
+     */
+    static void commitSimilarity(
+            Object event,
+            int factor,
+            int blocks,
+            int otherBlocks,
+            double similarity) {
+
+    }
+
+    /**
+     * Begins a text file load event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginTextFileLoad() {
+
+        return null;
+
+    }
+
+    /**
+     * Commits a text file load event.
+     * 
+     * @param event The event returned by beginTextFileLoad.
+     * @param file The loaded file.
+     * @param hashes Amount of loaded hashes.
+     */
+    static void commitTextFileLoad(
+            Object event,
+            File file,
+            int hashes) {
+
+    }
+
+    /**
+     * Begins a text file save event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginTextFileSave() {
+
+        return null;
+
+    }
+
+    /**
+     * Commits a text file save event.
+     * 
+     * @param event The event returned by beginTextFileSave.
+     * @param file The saved file.
+     * @param hashes Amount of saved hashes.
+     */
+    static void commitTextFileSave(
+            Object event,
+            File file,
+            int hashes) {
+
+    }
+
+}
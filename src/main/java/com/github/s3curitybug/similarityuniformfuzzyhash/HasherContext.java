@@ -0,0 +1,784 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class computes Uniform Fuzzy Hashes reusing its resources between computations: the
+ * constants of the last used factor, a chunk to read input streams, channels and direct buffers,
+ * and growable arrays to accumulate the blocks. Only the computed hash, with an exactly sized list
+ * of blocks, is allocated for each computation, which keeps the allocation rate low when hashing
+ * lots of small inputs.
+ * Data is hashed in place, in a streaming way: byte arrays and buffers with an accessible array
+ * are read directly, and the rest of inputs are read chunk by chunk, so they are never copied as a
+ * whole. A computation can also be driven manually, calling begin, update as many times as needed,
+ * and finish.
+ * A context is not thread-safe: each thread must use its own one, such as the one returned by
+ * forCurrentThread. Block arrays bigger than MAX_RETAINED_BUFFER_SIZE are released after being
+ * used, so that a single big input does not keep its memory retained.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class HasherContext {
+
+    /**
+     * Maximum size in bytes of the buffers retained between computations.
+     */
+    public static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Size in bytes of the reading chunk.
+     */
+    public static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Initial capacity of the blocks arrays.
+     */
+    private static final int INITIAL_BLOCKS_CAPACITY = 256;
+
+    /**
+     * Maximum size in bytes of the rolling window.
+     */
+    private static final int MAX_WINDOW_SIZE = Integer.BYTES + 5;
+
+    /**
+     * Context of each thread.
+     */
+    private static final ThreadLocal<HasherContext> THREAD_CONTEXTS =
+            new ThreadLocal<HasherContext>() {
+
+                @Override
+                protected HasherContext initialValue() {
+
+                    return new HasherContext();
+
+                }
+
+            };
+
+    /**
+     * Last used factor (0 if none).
+     */
+    private int factor;
+
+    /**
+     * Size in bytes of the rolling window for the last used factor.
+     */
+    private int windowSize;
+
+    /**
+     * Window size shifter for the last used factor.
+     */
+    private int windowSizeShifter;
+
+    /**
+     * Reading chunk.
+     */
+    private byte[] chunk;
+
+    /**
+     * Hashes of the accumulated blocks.
+     */
+    private int[] blockHashes;
+
+    /**
+     * Ending byte positions (0 based) of the accumulated blocks.
+     */
+    private int[] blockEndingBytePositions;
+
+    /**
+     * Whether a computation is in progress.
+     */
+    private boolean computing;
+
+    /**
+     * Last data bytes of the computation in progress, as a circular array of windowSize bytes.
+     */
+    private final byte[] window;
+
+    /**
+     * Position in the window of the oldest data byte of the computation in progress.
+     */
+    private int windowIndex;
+
+    /**
+     * Rolling window hash of the computation in progress.
+     */
+    private long windowHash;
+
+    /**
+     * Block hash of the computation in progress.
+     */
+    private long blockHash;
+
+    /**
+     * Size in bytes of the data of the computation in progress.
+     */
+    private int dataSize;
+
+    /**
+     * Amount of accumulated blocks of the computation in progress.
+     */
+    private int nBlocks;
+
+    /**
+     * Metrics start time of the computation in progress.
+     */
+    private long startTime;
+
+    /**
+     * Flight recorder event of the computation in progress.
+     */
+    private Object event;
+
+    /**
+     * Creates an empty context.
+     */
+    public HasherContext() {
+
+        this.factor = 0;
+        this.windowSize = 0;
+        this.windowSizeShifter = 0;
+        this.chunk = null;
+        this.blockHashes = null;
+        this.blockEndingBytePositions = null;
+        this.computing = false;
+        this.window = new byte[MAX_WINDOW_SIZE];
+
+    }
+
+    /**
+     * @return The context of the current thread.
+     */
+    public static HasherContext forCurrentThread() {
+
+        return THREAD_CONTEXTS.get();
+
+    }
+
+    /**
+     * Obtains a context to compute a hash at once: the context of the current thread, unless a
+     * computation is in progress in it, in which case a new context is created.
+     * 
+     * @return An idle context.
+     */
+    protected static HasherContext acquire() {
+
+        HasherContext context = THREAD_CONTEXTS.get();
+
+        return context.computing ? new HasherContext() : context;
+
+    }
+
+    /**
+     * Begins a computation.
+     * 
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     */
+    public void begin(
+            int factor) {
+
+        if (computing) {
+            throw new IllegalStateException("A computation is already in progress.");
+        }
+
+        // Factor constants.
+        prepareFactor(factor);
+
+        if (blockHashes == null) {
+            blockHashes = new int[INITIAL_BLOCKS_CAPACITY];
+            blockEndingBytePositions = new int[INITIAL_BLOCKS_CAPACITY];
+        }
+
+        windowIndex = 0;
+        windowHash = 0;
+        blockHash = 0;
+        dataSize = 0;
+        nBlocks = 0;
+
+        // Metrics start time and flight recorder event.
+        startTime = UniformFuzzyHashMetrics.startTime();
+        event = FlightRecorderEvents.beginHashComputation();
+
+        computing = true;
+
+    }
+
+    /**
+     * Adds a byte array of data to the computation in progress.
+     * 
+     * @param data Byte array of data.
+     */
+    public void update(
+            byte[] data) {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        update(data, 0, data.length);
+
+    }
+
+    /**
+     * Adds a range of a byte array of data to the computation in progress.
+     * 
+     * @param data Byte array of data.
+     * @param offset Offset of the range.
+     * @param length Length of the range.
+     */
+    public void update(
+            byte[] data,
+            int offset,
+            int length) {
+
+        checkComputing();
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range (offset %d, length %d) out of data bounds (length %d).",
+                    offset,
+                    length,
+                    data.length));
+        }
+
+        checkDataSize(length);
+
+        process(data, offset, length);
+
+    }
+
+    /**
+     * Adds the remaining bytes of a buffer of data to the computation in progress, leaving its
+     * position at its limit. Buffers with an accessible array are read in place, and the rest
+     * (direct and read-only buffers) chunk by chunk.
+     * 
+     * @param data Buffer of data.
+     */
+    public void update(
+            ByteBuffer data) {
+
+        checkComputing();
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        checkDataSize(data.remaining());
+
+        if (data.hasArray()) {
+            process(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            data.position(data.limit());
+            return;
+        }
+
+        byte[] chunk = accessChunk();
+
+        while (data.hasRemaining()) {
+            int length = Math.min(data.remaining(), chunk.length);
+            data.get(chunk, 0, length);
+            process(chunk, 0, length);
+        }
+
+    }
+
+    /**
+     * Finishes the computation in progress.
+     * 
+     * @return The Uniform Fuzzy Hash of all the data added since the computation began.
+     */
+    public UniformFuzzyHash finish() {
+
+        List<UniformFuzzyHashBlock> blocks = finishBlocks();
+
+        return new UniformFuzzyHash(factor, dataSize, blocks);
+
+    }
+
+    /**
+     * Discards the computation in progress, if any.
+     */
+    public void reset() {
+
+        computing = false;
+        event = null;
+        releaseBuffers();
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of a byte array of data.
+     * 
+     * @param data Byte array of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHash hash(
+            byte[] data,
+            int factor) {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        return hash(data, 0, data.length, factor);
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of a range of a byte array of data, reading it in place.
+     * 
+     * @param data Byte array of data.
+     * @param offset Offset of the range.
+     * @param length Length of the range.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHash hash(
+            byte[] data,
+            int offset,
+            int length,
+            int factor) {
+
+        return new UniformFuzzyHash(factor, length, computeBlocks(data, offset, length, factor));
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of the remaining bytes of a buffer of data, without changing
+     * its position. Buffers with an accessible array are read in place, and the rest (direct and
+     * read-only buffers) chunk by chunk.
+     * 
+     * @param data Buffer of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHash hash(
+            ByteBuffer data,
+            int factor) {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        begin(factor);
+
+        try {
+            update(data.duplicate());
+            return finish();
+        } finally {
+            reset();
+        }
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of an input stream of data, reading it chunk by chunk until
+     * its end. The input stream is not closed.
+     * 
+     * @param data Input stream of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     * @throws IOException If an IOException occurs reading the input stream of data.
+     */
+    public UniformFuzzyHash hash(
+            InputStream data,
+            int factor)
+            throws IOException {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        begin(factor);
+
+        try {
+            byte[] chunk = accessChunk();
+            int length;
+            while ((length = data.read(chunk, 0, chunk.length)) >= 0) {
+                checkDataSize(length);
+                process(chunk, 0, length);
+            }
+            return finish();
+        } finally {
+            reset();
+        }
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of a readable channel of data, reading it chunk by chunk
+     * until its end. The channel must be in blocking mode, and it is not closed.
+     * 
+     * @param data Readable channel of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     * @throws IOException If an IOException occurs reading the channel of data.
+     */
+    public UniformFuzzyHash hash(
+            ReadableByteChannel data,
+            int factor)
+            throws IOException {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        begin(factor);
+
+        try {
+            byte[] chunk = accessChunk();
+            ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+            int length;
+            while ((length = data.read(chunkBuffer)) >= 0) {
+                checkDataSize(length);
+                process(chunk, 0, length);
+                chunkBuffer.clear();
+            }
+            return finish();
+        } finally {
+            reset();
+        }
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hash of a file of data, reading it chunk by chunk.
+     * 
+     * @param data File of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The Uniform Fuzzy Hash.
+     * @throws IOException If an IOException occurs reading the file of data.
+     */
+    public UniformFuzzyHash hash(
+            File data,
+            int factor)
+            throws IOException {
+
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
+        }
+
+        if (!data.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "File %s does not exist.",
+                    data.getName()));
+        }
+
+        if (!data.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    data.getName()));
+        }
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        try (InputStream inputStream = new FileInputStream(data)) {
+            return hash(inputStream, factor);
+        }
+
+    }
+
+    /**
+     * Computes the blocks of a range of a byte array of data at once.
+     * 
+     * @param data Byte array of data.
+     * @param offset Offset of the range.
+     * @param length Length of the range.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @return The exactly sized list of blocks.
+     */
+    protected List<UniformFuzzyHashBlock> computeBlocks(
+            byte[] data,
+            int offset,
+            int length,
+            int factor) {
+
+        begin(factor);
+
+        try {
+            update(data, offset, length);
+            return finishBlocks();
+        } finally {
+            reset();
+        }
+
+    }
+
+    /**
+     * Main algorithm computation: adds a range of a byte array of data to the computation in
+     * progress.
+     * 
+     * @param data Byte array of data.
+     * @param offset Offset of the range.
+     * @param length Length of the range.
+     */
+    private void process(
+            byte[] data,
+            int offset,
+            int length) {
+
+        // Factor.
+        final int factor = this.factor;
+
+        // Size in bytes of the rolling window.
+        final int windowSize = this.windowSize;
+
+        // Window size shifter.
+        // Used to extract old data from the window.
+        final int windowSizeShifter = this.windowSizeShifter;
+
+        // Window hash match value to produce a block.
+        // Any number between 0 and factor - 1 should be valid.
+        final int windowHashMatchValue = factor - 1;
+
+        // Last data bytes.
+        final byte[] window = this.window;
+
+        // State of the computation in progress.
+        int windowIndex = this.windowIndex;
+        long windowHash = this.windowHash;
+        long blockHash = this.blockHash;
+        int position = this.dataSize;
+
+        // Hash computation.
+        for (int i = offset; i < offset + length; i++, position++) {
+
+            // Unsigned datum.
+            int datum = data[i] & 0xFF;
+
+            // Window update.
+            // The replaced datum is the one which leaves the window.
+            int oldDatum = window[windowIndex] & 0xFF;
+            window[windowIndex] = (byte) datum;
+            if (++windowIndex == windowSize) {
+                windowIndex = 0;
+            }
+
+            // Window hash shift, new datum addition and old datum extraction.
+            if (position < windowSize) {
+
+                windowHash = ((windowHash << Byte.SIZE) + (datum)) % factor;
+
+            } else {
+
+                windowHash = ((windowHash << Byte.SIZE) + (datum)
+                        - (oldDatum * windowSizeShifter)) % factor;
+
+                // Due to the subtraction, the modulo result might be negative.
+                if (windowHash < 0) {
+                    windowHash += factor;
+                }
+
+            }
+
+            // Block hash shift and new datum addition.
+            blockHash = ((blockHash << Byte.SIZE) + datum) % UniformFuzzyHash.BLOCK_HASH_MODULO;
+
+            // Possible window hash match (block production).
+            // Match is only checked if the initial window has already been computed.
+            if (windowHash == windowHashMatchValue && position >= windowSize - 1) {
+
+                // New block accumulation.
+                addBlock((int) blockHash, position);
+
+                // Block hash reset.
+                blockHash = 0;
+
+            }
+
+        }
+
+        this.windowIndex = windowIndex;
+        this.windowHash = windowHash;
+        this.blockHash = blockHash;
+        this.dataSize = position;
+
+    }
+
+    /**
+     * Finishes the computation in progress.
+     * 
+     * @return The exactly sized list of blocks.
+     */
+    private List<UniformFuzzyHashBlock> finishBlocks() {
+
+        checkComputing();
+
+        // Last data byte always produces a block.
+        int lastBlockEndingBytePosition = nBlocks == 0 ? -1 : blockEndingBytePositions[nBlocks - 1];
+        if (dataSize - 1 > lastBlockEndingBytePosition) {
+            addBlock((int) blockHash, dataSize - 1);
+        }
+
+        // Blocks.
+        UniformFuzzyHashBlock[] blocks = new UniformFuzzyHashBlock[nBlocks];
+        int blockStartingBytePosition = 0;
+
+        for (int i = 0; i < nBlocks; i++) {
+            blocks[i] = new UniformFuzzyHashBlock(
+                    blockHashes[i], blockStartingBytePosition, blockEndingBytePositions[i]);
+            blockStartingBytePosition = blockEndingBytePositions[i] + 1;
+        }
+
+        // Metrics and flight recorder event.
+        UniformFuzzyHashMetrics.recordHashComputation(startTime, dataSize, nBlocks);
+        FlightRecorderEvents.commitHashComputation(event, dataSize, factor, nBlocks);
+
+        reset();
+
+        return Arrays.asList(blocks);
+
+    }
+
+    /**
+     * Accumulates a block, growing the blocks arrays if needed.
+     * 
+     * @param blockHash Hash of the block.
+     * @param blockEndingBytePosition Ending byte position (0 based) of the block.
+     */
+    private void addBlock(
+            int blockHash,
+            int blockEndingBytePosition) {
+
+        if (nBlocks == blockHashes.length) {
+            blockHashes = Arrays.copyOf(blockHashes, nBlocks * 2);
+            blockEndingBytePositions = Arrays.copyOf(blockEndingBytePositions, nBlocks * 2);
+        }
+
+        blockHashes[nBlocks] = blockHash;
+        blockEndingBytePositions[nBlocks] = blockEndingBytePosition;
+        nBlocks++;
+
+    }
+
+    /**
+     * Checks that a computation is in progress.
+     */
+    private void checkComputing() {
+
+        if (!computing) {
+            throw new IllegalStateException("No computation is in progress.");
+        }
+
+    }
+
+    /**
+     * Checks that some more data bytes can be added to the computation in progress.
+     * 
+     * @param length Amount of data bytes to add.
+     */
+    private void checkDataSize(
+            int length) {
+
+        if (length > Integer.MAX_VALUE - dataSize) {
+            throw new IllegalArgumentException(String.format(
+                    "Data is too big (more than %d bytes).",
+                    Integer.MAX_VALUE));
+        }
+
+    }
+
+    /**
+     * Checks a factor and computes its constants, unless it was the last used factor.
+     * 
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     */
+    private void prepareFactor(
+            int factor) {
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        if (factor == this.factor) {
+            return;
+        }
+
+        // Size in bytes of the rolling window.
+        // Size in bytes of factor + 5.
+        windowSize = sizeInBytes(factor) + 5;
+
+        // Window size shifter.
+        // (2 ^ (8 * windowSize)) % factor.
+        windowSizeShifter = shiftBytesMod(windowSize, factor);
+
+        this.factor = factor;
+
+    }
+
+    /**
+     * @return The reading chunk, allocating it if needed.
+     */
+    private byte[] accessChunk() {
+
+        if (chunk == null) {
+            chunk = new byte[CHUNK_SIZE];
+        }
+
+        return chunk;
+
+    }
+
+    /**
+     * Releases the buffers which are bigger than the maximum retained size.
+     */
+    private void releaseBuffers() {
+
+        if (blockHashes != null
+                && (long) blockHashes.length * Integer.BYTES * 2 > MAX_RETAINED_BUFFER_SIZE) {
+            blockHashes = null;
+            blockEndingBytePositions = null;
+        }
+
+    }
+
+    /**
+     * @param number Any integer number.
+     * @return The size in bytes of the number.
+     */
+    private static int sizeInBytes(
+            int number) {
+
+        return ((Integer.SIZE - Integer.numberOfLeadingZeros(number) - 1) / Byte.SIZE) + 1;
+
+    }
+
+    /**
+     * @param bytesShift Amount of bytes to shift.
+     * @param modulo Modulo of the operation.
+     * @return (2 ^ (8 * bytesShift)) % modulo.
+     */
+    private static int shiftBytesMod(
+            int bytesShift,
+            int modulo) {
+
+        long ret = 1;
+
+        for (int i = 0; i < bytesShift; i++) {
+            ret = (ret << Byte.SIZE) % modulo;
+        }
+
+        return (int) ret;
+
+    }
+
+}
@@ -0,0 +1,512 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class keeps the Uniform Fuzzy Hashes of the files inside a directory (identified by their
+ * names) current. The directory files are hashed once, and then the directory is watched, and only
+ * the files which are created or modified are hashed again. The changes are notified to listeners.
+ * This class is not thread safe: the events must be processed by a single thread.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class HashesDirectoryWatcher implements Closeable {
+
+    /**
+     * Time in milliseconds during which more events are awaited after an event, so that files which
+     * are being written generate a single change.
+     */
+    public static final long SETTLE_DELAY_MILLIS = 100;
+
+    /**
+     * Listener of the changes of the hashes of a watched directory.
+     */
+    public interface Listener {
+
+        /**
+         * Notifies a change of the hashes of a watched directory.
+         * 
+         * @param updatedHashes Map of identified Uniform Fuzzy Hashes of the files which were
+         *        created or whose content was modified.
+         * @param removedIdentifiers Identifiers of the files which were deleted.
+         * @param hashes Map of identified Uniform Fuzzy Hashes of all the directory files, after
+         *        the change.
+         * @throws IOException If an IOException occurs processing the change.
+         */
+        void hashesChanged(
+                Map<String, UniformFuzzyHash> updatedHashes,
+                Set<String> removedIdentifiers,
+                Map<String, UniformFuzzyHash> hashes)
+                throws IOException;
+
+    }
+
+    /**
+     * Listener which updates a text file of Uniform Fuzzy Hashes incrementally: the updated hashes
+     * are appended to the file (when the file is loaded, later lines override earlier ones), and
+     * the file is only rewritten when files are deleted.
+     */
+    public static class TextFileListener implements Listener {
+
+        /**
+         * The text file of hashes.
+         */
+        private final File file;
+
+        /**
+         * Constructor.
+         * 
+         * @param file The text file of hashes.
+         */
+        public TextFileListener(
+                File file) {
+
+            if (file == null) {
+                throw new NullPointerException("File is null.");
+            }
+
+            this.file = file;
+
+        }
+
+        @Override
+        public void hashesChanged(
+                Map<String, UniformFuzzyHash> updatedHashes,
+                Set<String> removedIdentifiers,
+                Map<String, UniformFuzzyHash> hashes)
+                throws IOException {
+
+            if (!removedIdentifiers.isEmpty() && file.exists()) {
+                Map<String, UniformFuzzyHash> fileHashes =
+                        UniformFuzzyHashes.loadHashesFromTextFile(file);
+                fileHashes.keySet().removeAll(removedIdentifiers);
+                fileHashes.putAll(updatedHashes);
+                UniformFuzzyHashes.saveHashesToTextFile(fileHashes, file, false);
+            } else if (!updatedHashes.isEmpty()) {
+                UniformFuzzyHashes.saveHashesToTextFile(updatedHashes, file, true);
+            }
+
+        }
+
+    }
+
+    /**
+     * Watched directory.
+     */
+    private final Path directory;
+
+    /**
+     * Relation between data length and the hash mean number of blocks for each file.
+     */
+    private final int factor;
+
+    /**
+     * True to watch files inside directories recursively. False to ignore directories.
+     */
+    private final boolean nested;
+
+    /**
+     * Watch service.
+     */
+    private final WatchService watchService;
+
+    /**
+     * Watched directories by watch key.
+     */
+    private final Map<WatchKey, Path> watchedDirectories;
+
+    /**
+     * Last modification time of the hashed files, by path.
+     */
+    private final Map<Path, Long> hashedFiles;
+
+    /**
+     * Map of identified Uniform Fuzzy Hashes of the directory files.
+     */
+    private final Map<String, UniformFuzzyHash> hashes;
+
+    /**
+     * Listeners of the changes.
+     */
+    private final List<Listener> listeners;
+
+    /**
+     * Hashes the files inside a directory and starts watching it.
+     * 
+     * @param directory Directory of files.
+     * @param factor Relation between data length and the hash mean number of blocks for each file
+     *        of data. Must be greater than 2 and must be odd.
+     * @param nested True to hash and watch files inside directories recursively. False to ignore
+     *        directories.
+     * @throws IOException If an IOException occurs reading any of the files or watching the
+     *         directory.
+     */
+    public HashesDirectoryWatcher(
+            File directory,
+            int factor,
+            boolean nested)
+            throws IOException {
+
+        // Parameters check.
+        if (directory == null) {
+            throw new NullPointerException("Directory is null.");
+        }
+
+        if (!directory.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "Directory %s does not exist.",
+                    directory.getName()));
+        }
+
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a directory.",
+                    directory.getName()));
+        }
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        this.directory = directory.toPath().toAbsolutePath();
+        this.factor = factor;
+        this.nested = nested;
+        this.watchService = this.directory.getFileSystem().newWatchService();
+        this.watchedDirectories = new HashMap<>();
+        this.hashedFiles = new HashMap<>();
+        this.hashes = new LinkedHashMap<>();
+        this.listeners = new ArrayList<>();
+
+        // Initial hash.
+        Set<Path> files = new LinkedHashSet<>();
+        scan(this.directory, files);
+
+        for (Path file : files) {
+            hashFile(file);
+        }
+
+    }
+
+    /**
+     * Adds a listener of the changes.
+     * 
+     * @param listener The listener.
+     */
+    public void addListener(
+            Listener listener) {
+
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+
+        listeners.add(listener);
+
+    }
+
+    /**
+     * Waits for the changes of the watched directory, hashes again the created and modified files,
+     * and notifies the listeners, until this watcher is closed or the current thread is
+     * interrupted.
+     * 
+     * @throws IOException If an IOException occurs reading any of the files or in any of the
+     *         listeners.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public void watch()
+            throws IOException, InterruptedException {
+
+        try {
+            while (true) {
+                processEvents(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            }
+        } catch (ClosedWatchServiceException closedWatchServiceException) {
+            return;
+        }
+
+    }
+
+    /**
+     * Waits for changes of the watched directory during a maximum time. If there are any, hashes
+     * again the created and modified files, and notifies the listeners.
+     * Files whose content has not changed are not notified.
+     * 
+     * @param timeout Maximum time to wait.
+     * @param unit Time unit of the timeout.
+     * @return The amount of hashes which were updated or removed.
+     * @throws IOException If an IOException occurs reading any of the files or in any of the
+     *         listeners.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public int processEvents(
+            long timeout,
+            TimeUnit unit)
+            throws IOException, InterruptedException {
+
+        WatchKey key = watchService.poll(timeout, unit);
+
+        if (key == null) {
+            return 0;
+        }
+
+        // Collect the changed paths.
+        Set<Path> changedPaths = new LinkedHashSet<>();
+        Set<Path> deletedPaths = new LinkedHashSet<>();
+        boolean overflow = false;
+
+        while (key != null) {
+
+            Path watchedDirectory = watchedDirectories.get(key);
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+
+                if (event.kind() == OVERFLOW || watchedDirectory == null) {
+                    overflow = true;
+                    continue;
+                }
+
+                Path path = watchedDirectory.resolve((Path) event.context());
+
+                if (event.kind() == ENTRY_DELETE) {
+                    changedPaths.remove(path);
+                    deletedPaths.add(path);
+                } else {
+                    deletedPaths.remove(path);
+                    changedPaths.add(path);
+                }
+
+            }
+
+            if (!key.reset()) {
+                watchedDirectories.remove(key);
+            }
+
+            key = watchService.poll(SETTLE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+        }
+
+        // Events were lost: rescan the whole directory.
+        if (overflow) {
+            Set<Path> files = new LinkedHashSet<>();
+            scan(directory, files);
+            for (Path file : files) {
+                Long lastModified = hashedFiles.get(file);
+                if (lastModified == null
+                        || lastModified != Files.getLastModifiedTime(file).toMillis()) {
+                    changedPaths.add(file);
+                }
+            }
+            for (Path file : hashedFiles.keySet()) {
+                if (!files.contains(file)) {
+                    deletedPaths.add(file);
+                }
+            }
+        }
+
+        // Hash again the created and modified files.
+        Map<String, UniformFuzzyHash> updatedHashes = new LinkedHashMap<>();
+        Set<String> removedIdentifiers = new LinkedHashSet<>();
+
+        for (Path path : deletedPaths) {
+            removePath(path, removedIdentifiers);
+        }
+
+        for (Path path : changedPaths) {
+
+            if (Files.isDirectory(path)) {
+                if (nested) {
+                    Set<Path> files = new LinkedHashSet<>();
+                    scan(path, files);
+                    for (Path file : files) {
+                        hashChangedFile(file, updatedHashes, removedIdentifiers);
+                    }
+                }
+            } else if (Files.isRegularFile(path)) {
+                hashChangedFile(path, updatedHashes, removedIdentifiers);
+            } else {
+                removePath(path, removedIdentifiers);
+            }
+
+        }
+
+        if (updatedHashes.isEmpty() && removedIdentifiers.isEmpty()) {
+            return 0;
+        }
+
+        // Notify the listeners.
+        Map<String, UniformFuzzyHash> unmodifiableUpdatedHashes =
+                Collections.unmodifiableMap(updatedHashes);
+        Set<String> unmodifiableRemovedIdentifiers =
+                Collections.unmodifiableSet(removedIdentifiers);
+
+        for (Listener listener : listeners) {
+            listener.hashesChanged(unmodifiableUpdatedHashes, unmodifiableRemovedIdentifiers,
+                    getHashes());
+        }
+
+        return updatedHashes.size() + removedIdentifiers.size();
+
+    }
+
+    /**
+     * Stops watching the directory.
+     * 
+     * @throws IOException If an IOException occurs closing the watch service.
+     */
+    @Override
+    public void close()
+            throws IOException {
+
+        watchService.close();
+
+    }
+
+    /**
+     * @return The unmodifiable map of identified Uniform Fuzzy Hashes of the directory files.
+     */
+    public Map<String, UniformFuzzyHash> getHashes() {
+
+        return Collections.unmodifiableMap(hashes);
+
+    }
+
+    /**
+     * Lists the files inside a directory (recursively if nested is true), registering the
+     * directories in the watch service.
+     * 
+     * @param dir The directory.
+     * @param files Set where the files are added.
+     * @throws IOException If an IOException occurs listing the directory or registering it.
+     */
+    private void scan(
+            Path dir,
+            Set<Path> files)
+            throws IOException {
+
+        if (!watchedDirectories.containsValue(dir)) {
+            WatchKey key = dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            watchedDirectories.put(key, dir);
+        }
+
+        File[] dirFiles = dir.toFile().listFiles();
+
+        if (dirFiles == null) {
+            return;
+        }
+
+        for (File file : dirFiles) {
+            if (file.isFile()) {
+                files.add(file.toPath());
+            } else if (file.isDirectory() && nested) {
+                scan(file.toPath(), files);
+            }
+        }
+
+    }
+
+    /**
+     * Hashes a file and stores its hash.
+     * 
+     * @param file The file.
+     * @return The Uniform Fuzzy Hash of the file.
+     * @throws IOException If an IOException occurs reading the file.
+     */
+    private UniformFuzzyHash hashFile(
+            Path file)
+            throws IOException {
+
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        UniformFuzzyHash hash = new UniformFuzzyHash(file.toFile(), factor);
+
+        hashedFiles.put(file, lastModified);
+        hashes.put(file.getFileName().toString(), hash);
+
+        return hash;
+
+    }
+
+    /**
+     * Hashes again a created or modified file, and adds its hash to the updated hashes if its
+     * content has changed. If the file can not be read anymore, it is removed.
+     * 
+     * @param file The file.
+     * @param updatedHashes Map of updated hashes.
+     * @param removedIdentifiers Set of removed identifiers.
+     * @throws IOException If an IOException occurs reading the file.
+     */
+    private void hashChangedFile(
+            Path file,
+            Map<String, UniformFuzzyHash> updatedHashes,
+            Set<String> removedIdentifiers)
+            throws IOException {
+
+        String identifier = file.getFileName().toString();
+        UniformFuzzyHash previousHash = hashes.get(identifier);
+        UniformFuzzyHash hash;
+
+        try {
+            hash = hashFile(file);
+        } catch (IOException ioException) {
+            if (!Files.exists(file)) {
+                removePath(file, removedIdentifiers);
+                return;
+            }
+            throw ioException;
+        }
+
+        removedIdentifiers.remove(identifier);
+
+        if (!hash.equals(previousHash)) {
+            updatedHashes.put(identifier, hash);
+        }
+
+    }
+
+    /**
+     * Removes the hashes of a deleted file, or of all the files inside a deleted directory.
+     * 
+     * @param path The deleted path.
+     * @param removedIdentifiers Set where the removed identifiers are added.
+     */
+    private void removePath(
+            Path path,
+            Set<String> removedIdentifiers) {
+
+        Iterator<Entry<Path, Long>> iterator = hashedFiles.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            Path file = iterator.next().getKey();
+            if (file.startsWith(path)) {
+                iterator.remove();
+                String identifier = file.getFileName().toString();
+                if (hashes.remove(identifier) != null) {
+                    removedIdentifiers.add(identifier);
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.github.s3curitybug.similarityuniformfuzzyhash;
 
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.CSV_SEPARATOR;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.IGNORE_MARK;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.NEW_LINE;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.formatDecimal;
@@ -14,13 +15,22 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 
 import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 /**
  * This class provides a main method to run the Uniform Fuzzy Hash jar via command line.
@@ -30,12 +40,35 @@ import java.util.Map;
  */
 public final class Main {
 
+    /**
+     * File argument which stands for the standard input.
+     */
+    private static final String STANDARD_INPUT_ARG = "-";
+
+    /**
+     * Argument of the option COMPUTE_PATHS_HASHES for paths separated by NUL characters.
+     */
+    private static final String NUL_SEPARATED_PATHS_ARG = "0";
+
+    /**
+     * Divisor of the maximum memory of the JVM which gives the default memory budget.
+     */
+    private static final int DEFAULT_MAX_MEMORY_DIVISOR = 4;
+
+    /**
+     * Suffixes of the memory budget units (kibibytes, mebibytes and gibibytes).
+     */
+    private static final String MEMORY_UNITS = "KMG";
+
     /**
      * Compute options.
      */
     private static final ArgsOptions[] COMPUTE_OPTIONS = {
             ArgsOptions.COMPUTE_FILE_HASH,
-            ArgsOptions.COMPUTE_DIRECTORY_HASHES};
+            ArgsOptions.COMPUTE_DIRECTORY_HASHES,
+            ArgsOptions.COMPUTE_ARCHIVE_HASHES,
+            ArgsOptions.COMPUTE_PATHS_HASHES,
+            ArgsOptions.WATCH};
 
     /**
      * Functional options.
@@ -44,8 +77,11 @@ public final class Main {
             ArgsOptions.REPRESENT_VISUALLY,
             ArgsOptions.COMPARE,
             ArgsOptions.COMPARE_VISUALLY,
+            ArgsOptions.LOCATE,
             ArgsOptions.COMPARE_TO_ALL,
-            ArgsOptions.COMPARE_ALL};
+            ArgsOptions.COMPARE_ALL,
+            ArgsOptions.CLUSTER,
+            ArgsOptions.SERVE};
 
     /**
      * Enum of arguments options.
@@ -65,7 +101,7 @@ public final class Main {
          */
         COMPUTE_FILE_HASH(
                 "cfh", "computeFileHash", "<file> [<file>] ...",
-                "Compute file hash (one file per argument).",
+                "Compute file hash (one file per argument, or - for the standard input).",
                 false, 1, -1),
 
         /**
@@ -76,6 +112,32 @@ public final class Main {
                 "Compute directory hashes (one directory per argument).",
                 false, 1, -1),
 
+        /**
+         * Compute archive hashes.
+         */
+        COMPUTE_ARCHIVE_HASHES(
+                "cah", "computeArchiveHashes", "<archive> [<archive>] ...",
+                "Compute archive hashes (one archive per argument): "
+                        + "the hashes of the members of zip, tar or gzipped tar archives, "
+                        + "named archive" + UniformFuzzyHashArchives.MEMBER_SEPARATOR + "member, "
+                        + "without extracting them to disk. "
+                        + "Archives are read in parallel.",
+                false, 1, -1),
+
+        /**
+         * Compute paths hashes.
+         */
+        COMPUTE_PATHS_HASHES(
+                "cph", "computePathsHashes", "[0]",
+                "Compute the hashes of the files whose paths are read from the standard input, "
+                        + "one per line, or separated by NUL characters if the argument 0 "
+                        + "is introduced (as written by find -print0). "
+                        + "Files are hashed in parallel, and each hash is printed, named by its "
+                        + "path, as soon as it is computed, "
+                        + "so that any amount of files can be hashed in a pipeline. "
+                        + "It can only be combined with factor and toJsonLines.",
+                false, 0, 1),
+
         /**
          * Factor.
          */
@@ -103,6 +165,20 @@ public final class Main {
                 "Load saved hashes from text file (one file per argument).",
                 false, 1, -1),
 
+        /**
+         * Query text file.
+         */
+        QUERY_TEXT_FILE(
+                "qtf", "queryTextFile", "<file>",
+                "For compareToAll, compare to the hashes saved in a text file "
+                        + "reading them from disk instead of loading them, "
+                        + "through an index cached next to it ("
+                        + UniformFuzzyHashTextFileIndex.INDEX_EXTENSION + "). "
+                        + "The compared hash can be computed, or denoted by its name "
+                        + "in the text file. "
+                        + "With sortingBy, only the rowsLimit best results are kept.",
+                false, 1, 1),
+
         /**
          * Represent visually.
          */
@@ -140,6 +216,23 @@ public final class Main {
                         + "Compare visually two hashes denoted by their names.",
                 false, 0, 2),
 
+        /**
+         * Locate.
+         */
+        LOCATE(
+                "loc", "locate", "[<name>] [<name>]",
+                "Locate the fragments of a hash (query) inside another one (target): "
+                        + "the byte ranges where runs of blocks of the query "
+                        + "appear in the target."
+                        + NEW_LINE + "-With no arguments: "
+                        + "Locate the first computed file hash inside the second one."
+                        + NEW_LINE + "-With one argument: "
+                        + "Locate the computed file hash inside a hash denoted by its name."
+                        + NEW_LINE + "-With two arguments: "
+                        + "Locate a hash denoted by its name (first argument) "
+                        + "inside another one (second argument).",
+                false, 0, 2),
+
         /**
          * To all.
          */
@@ -190,6 +283,19 @@ public final class Main {
                 "Line wrap length for visual representations.",
                 false, 1, 1),
 
+        /**
+         * Overview.
+         */
+        OVERVIEW(
+                "ov", "overview", "[<columns>] [<rows>]",
+                "Represent visually as an overview of a fixed amount of cells, "
+                        + "each one aggregating the blocks of an equal part of the bytes, "
+                        + "with a number of columns (first argument, "
+                        + VisualRepresentation.DEFAULT_OVERVIEW_COLUMNS + " by default) "
+                        + "and a number of rows (second argument, "
+                        + VisualRepresentation.DEFAULT_OVERVIEW_ROWS + " by default).",
+                false, 0, 2),
+
         /**
          * To CSV.
          */
@@ -198,6 +304,29 @@ public final class Main {
                 "For tables, save to CSV file, overwriting it, instead of printing the table.",
                 false, 1, 1),
 
+        /**
+         * To HTML.
+         */
+        TO_HTML(
+                "html", "toHtml", "<file>",
+                "For compareToAll, save an HTML report, overwriting it, "
+                        + "with a sortable table of the types of similarity "
+                        + "and strips of the matched regions of each hash, "
+                        + "instead of printing the table.",
+                false, 1, 1),
+
+        /**
+         * To JSON Lines.
+         */
+        TO_JSON_LINES(
+                "jsonl", "toJsonLines", "[<file>]",
+                "Write the computed and loaded hashes, or the results of compare, "
+                        + "compareToAll or compareAll, as JSON Lines (one JSON object per line) "
+                        + "as soon as they are computed, instead of printing them. "
+                        + "They are written to a file, overwriting it, "
+                        + "or to the standard output if no argument is introduced.",
+                false, 0, 1),
+
         /**
          * Sorting by.
          */
@@ -243,6 +372,146 @@ public final class Main {
                 "mb", "markBelow", "<decimal>",
                 "For tables, mark all similarities below "
                         + "this threshold (0-1) with a color.",
+                false, 1, 1),
+
+        /**
+         * Generate corpus.
+         */
+        GENERATE_CORPUS(
+                "gc", "generateCorpus", "<directory> <number> [<seed>] ...",
+                "Generate a synthetic corpus of files with controlled similarity "
+                        + "into a directory (first argument), "
+                        + "with a number of files (second argument), "
+                        + "deriving them from seed files or all the files inside seed directories "
+                        + "(one per argument), or from random seeds if none is introduced. "
+                        + "The ground truth is saved into the file "
+                        + SyntheticCorpusGenerator.GROUND_TRUTH_FILE_NAME + ".",
+                false, 2, -1),
+
+        /**
+         * Corpus sizes.
+         */
+        CORPUS_SIZES(
+                "gcs", "corpusSizes", "<number> <number>",
+                "Minimum and maximum size in bytes of the synthetic corpus files.",
+                false, 2, 2),
+
+        /**
+         * Corpus edits.
+         */
+        CORPUS_EDITS(
+                "gce", "corpusEdits", "<number> [<number>]",
+                "Number of edits (insertions, deletions, reorderings and shared segments) "
+                        + "applied to each synthetic corpus file, "
+                        + "and maximum size in bytes of each edit.",
+                false, 1, 2),
+
+        /**
+         * Random seed.
+         */
+        RANDOM_SEED(
+                "seed", "randomSeed", "<number>",
+                "Random seed for the synthetic corpus generation. "
+                        + "The same seed and options always generate the same corpus.",
+                false, 1, 1),
+
+        /**
+         * Serve.
+         */
+        SERVE(
+                "serve", "serve", "<port> [<host>]",
+                "Start a long-running HTTP server on a port (first argument) of a host "
+                        + "(second argument, " + UniformFuzzyHashServer.DEFAULT_HOST
+                        + " by default), which keeps all the computed and loaded hashes "
+                        + "in memory and answers hash, compare and top-K queries "
+                        + "with JSON responses.",
+                false, 1, 2),
+
+        /**
+         * Watch.
+         */
+        WATCH(
+                "w", "watch", "<directory>",
+                "Compute directory hashes and keep watching the directory: "
+                        + "created or modified files are hashed again, "
+                        + "appended to the text files of the option "
+                        + "saveToTextFile, and compared to all "
+                        + "computed and loaded hashes.",
+                false, 1, 1),
+
+        /**
+         * Locality-sensitive hashing.
+         */
+        LSH(
+                "lsh", "localitySensitiveHashing", "[<bands>] [<rows>]",
+                "For compareToAll and compareAll, only compare hashes "
+                        + "whose sketches collide in at least one band "
+                        + "(locality-sensitive hashing), "
+                        + "with a number of bands (first argument, "
+                        + UniformFuzzyHashLshIndex.DEFAULT_BANDS + " by default) "
+                        + "of a number of rows (second argument, "
+                        + UniformFuzzyHashLshIndex.DEFAULT_ROWS + " by default). "
+                        + "More bands find more similar hashes, "
+                        + "more rows compare fewer hashes.",
+                false, 0, 2),
+
+        /**
+         * Cluster.
+         */
+        CLUSTER(
+                "cl", "cluster", "<threshold> [<similarityType>]",
+                String.format(
+                        "Group all computed and loaded hashes into clusters, "
+                                + "joining the hashes with a type of similarity "
+                                + "(second argument) above or equal to a threshold "
+                                + "(first argument, 0 to 1)."
+                                + NEW_LINE + "-Possible types: %s."
+                                + NEW_LINE + "-Default type if no second argument "
+                                + "is introduced: %s.",
+                        String.join(CSV_SEPARATOR, SimilarityTypes.names()),
+                        UniformFuzzyHashClusters.DEFAULT_SIMILARITY_TYPE.getName()),
+                false, 1, 2),
+
+        /**
+         * Threshold.
+         */
+        THRESHOLD(
+                "th", "threshold", "<threshold> [<similarityType>]",
+                String.format(
+                        "For compareToAll and compareAll, only show the hashes "
+                                + "with a type of similarity (second argument) "
+                                + "above or equal to a threshold (first argument, 0 to 1), "
+                                + "skipping the hashes whose sizes make it unreachable."
+                                + NEW_LINE + "-Possible types: %s."
+                                + NEW_LINE + "-Default type if no second argument "
+                                + "is introduced: %s.",
+                        String.join(CSV_SEPARATOR, SimilarityTypes.names()),
+                        SimilarityTypes.SIMILARITY.getName()),
+                false, 1, 2),
+
+        /**
+         * Threads.
+         */
+        THREADS(
+                "t", "threads", "<number>",
+                "Amount of threads used to compute the hashes of computeDirectoryHashes, "
+                        + "computeArchiveHashes and computePathsHashes, to load the text files "
+                        + "of loadFromTextFile, to compare hashes in compareToAll and compareAll, "
+                        + "and to serve requests in serve. "
+                        + "Default value: the amount of available processors.",
+                false, 1, 1),
+
+        /**
+         * Max memory.
+         */
+        MAX_MEMORY(
+                "mem", "maxMemory", "<bytes>",
+                "Memory budget in bytes, or with the suffix K, M or G, "
+                        + "bounding the files hashed at once in computeDirectoryHashes, "
+                        + "the lines read but not parsed yet in loadFromTextFile, "
+                        + "and the tiles of similarities computed at once in compareAll "
+                        + "(but not the whole matrix of similarities they are joined into). "
+                        + "Default value: a quarter of the maximum memory of the JVM.",
                 false, 1, 1);
 
         /**
@@ -385,6 +654,232 @@ public final class Main {
 
     }
 
+    /**
+     * Listener of a watched directory which compares the updated hashes to all the computed and
+     * loaded hashes, and prints the results.
+     */
+    private static final class CompareToAllListener implements HashesDirectoryWatcher.Listener {
+
+        /**
+         * Map of computed and loaded hashes, which is kept current.
+         */
+        private final Map<String, UniformFuzzyHash> computedAndLoadedHashes;
+
+        /**
+         * Type of similarity used as sort criterion, or null not to sort.
+         */
+        private final SimilarityTypes sortCriterion;
+
+        /**
+         * True to sort ascending, false to sort descending.
+         */
+        private final boolean sortAscending;
+
+        /**
+         * Maximum number of rows printed for each updated hash.
+         */
+        private final int rowsLimit;
+
+        /**
+         * Maximum number of characters of the printed names.
+         */
+        private final int truncateNames;
+
+        /**
+         * Threshold above which similarities are marked.
+         */
+        private final double markAbove;
+
+        /**
+         * Threshold below which similarities are marked.
+         */
+        private final double markBelow;
+
+        /**
+         * Constructor.
+         * 
+         * @param computedAndLoadedHashes Map of computed and loaded hashes, which is kept current.
+         * @param sortCriterion Type of similarity used as sort criterion, or null not to sort.
+         * @param sortAscending True to sort ascending, false to sort descending.
+         * @param rowsLimit Maximum number of rows printed for each updated hash.
+         * @param truncateNames Maximum number of characters of the printed names.
+         * @param markAbove Threshold above which similarities are marked.
+         * @param markBelow Threshold below which similarities are marked.
+         */
+        private CompareToAllListener(
+                Map<String, UniformFuzzyHash> computedAndLoadedHashes,
+                SimilarityTypes sortCriterion,
+                boolean sortAscending,
+                int rowsLimit,
+                int truncateNames,
+                double markAbove,
+                double markBelow) {
+
+            this.computedAndLoadedHashes = computedAndLoadedHashes;
+            this.sortCriterion = sortCriterion;
+            this.sortAscending = sortAscending;
+            this.rowsLimit = rowsLimit;
+            this.truncateNames = truncateNames;
+            this.markAbove = markAbove;
+            this.markBelow = markBelow;
+
+        }
+
+        @Override
+        public void hashesChanged(
+                Map<String, UniformFuzzyHash> updatedHashes,
+                Set<String> removedIdentifiers,
+                Map<String, UniformFuzzyHash> hashes) {
+
+            computedAndLoadedHashes.keySet().removeAll(removedIdentifiers);
+            computedAndLoadedHashes.putAll(updatedHashes);
+
+            for (String removedIdentifier : removedIdentifiers) {
+                System.out.println(IGNORE_MARK + " Removed: " + removedIdentifier);
+            }
+
+            for (Entry<String, UniformFuzzyHash> entry : updatedHashes.entrySet()) {
+                System.out.println(IGNORE_MARK + " Updated: " + entry.getKey());
+                Map<String, Map<SimilarityTypes, Double>> similarities = UniformFuzzyHashes
+                        .computeHashToHashesSimilarities(entry.getValue(), computedAndLoadedHashes);
+                if (sortCriterion != null) {
+                    similarities = UniformFuzzyHashes.sortSimilarities(
+                            similarities, sortCriterion, sortAscending);
+                }
+                UniformFuzzyHashes.printHashToHashesSimilaritiesTable(
+                        similarities, rowsLimit, truncateNames, markAbove, markBelow);
+            }
+
+        }
+
+    }
+
+    /**
+     * Listener of a paths list hasher which prints each computed hash as soon as it is computed,
+     * as a text line or as a JSON line, and prints the files which could not be hashed to the
+     * standard error.
+     */
+    private static final class PrintHashListener implements PathsListHasher.Listener {
+
+        /**
+         * JSON Lines writer, or null to print the hashes as text lines.
+         */
+        private final UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter;
+
+        /**
+         * Constructor.
+         * 
+         * @param jsonLinesWriter JSON Lines writer, or null to print the hashes as text lines.
+         */
+        private PrintHashListener(
+                UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter) {
+
+            this.jsonLinesWriter = jsonLinesWriter;
+
+        }
+
+        @Override
+        public void hashComputed(
+                String path,
+                UniformFuzzyHash hash)
+                throws IOException {
+
+            if (jsonLinesWriter != null) {
+                jsonLinesWriter.writeHash(path, hash);
+            } else {
+                System.out.println(UniformFuzzyHashes.hashToTextLine(path, hash));
+            }
+
+        }
+
+        @Override
+        public void hashFailed(
+                String path,
+                IOException exception) {
+
+            System.err.println(IGNORE_MARK + " " + exception.getMessage());
+
+        }
+
+    }
+
+    /**
+     * Listener of a text file query which writes each similarity as a JSON line.
+     */
+    private static final class WriteSimilaritiesListener
+            implements UniformFuzzyHashTextFileIndex.Listener {
+
+        /**
+         * Name of the compared hash.
+         */
+        private final String name;
+
+        /**
+         * JSON Lines writer.
+         */
+        private final UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter;
+
+        /**
+         * Constructor.
+         * 
+         * @param name Name of the compared hash.
+         * @param jsonLinesWriter JSON Lines writer.
+         */
+        private WriteSimilaritiesListener(
+                String name,
+                UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter) {
+
+            this.name = name;
+            this.jsonLinesWriter = jsonLinesWriter;
+
+        }
+
+        @Override
+        public void similaritiesComputed(
+                String identifier,
+                Map<SimilarityTypes, Double> similarities)
+                throws IOException {
+
+            jsonLinesWriter.writeSimilarities(name, identifier, similarities);
+
+        }
+
+    }
+
+    /**
+     * Listener of a text file query which puts the similarities in a map.
+     */
+    private static final class PutSimilaritiesListener
+            implements UniformFuzzyHashTextFileIndex.Listener {
+
+        /**
+         * Map of identified similarities.
+         */
+        private final Map<String, Map<SimilarityTypes, Double>> similarities;
+
+        /**
+         * Constructor.
+         * 
+         * @param similarities Map of identified similarities.
+         */
+        private PutSimilaritiesListener(
+                Map<String, Map<SimilarityTypes, Double>> similarities) {
+
+            this.similarities = similarities;
+
+        }
+
+        @Override
+        public void similaritiesComputed(
+                String identifier,
+                Map<SimilarityTypes, Double> similarities) {
+
+            this.similarities.put(identifier, similarities);
+
+        }
+
+    }
+
     /**
      * Private constructor.
      */
@@ -418,35 +913,91 @@ public final class Main {
             // Obtain values.
             String[] cfhArgs = parsedOptions.get(ArgsOptions.COMPUTE_FILE_HASH);
             String[] cdhArgs = parsedOptions.get(ArgsOptions.COMPUTE_DIRECTORY_HASHES);
+            String[] cahArgs = parsedOptions.get(ArgsOptions.COMPUTE_ARCHIVE_HASHES);
+            String[] cphArgs = parsedOptions.get(ArgsOptions.COMPUTE_PATHS_HASHES);
+            String cphArg = getOptionFirstArg(cphArgs);
             String[] fArgs = parsedOptions.get(ArgsOptions.FACTOR);
             String[] stfArgs = parsedOptions.get(ArgsOptions.SAVE_TO_TEXT_FILE);
             String[] ltfArgs = parsedOptions.get(ArgsOptions.LOAD_FROM_TEXT_FILE);
+            String[] qtfArgs = parsedOptions.get(ArgsOptions.QUERY_TEXT_FILE);
+            String qtfArg = getOptionFirstArg(qtfArgs);
             String[] rvArgs = parsedOptions.get(ArgsOptions.REPRESENT_VISUALLY);
             String rvArg = getOptionFirstArg(rvArgs);
             String[] xArgs = parsedOptions.get(ArgsOptions.COMPARE);
             String[] xvArgs = parsedOptions.get(ArgsOptions.COMPARE_VISUALLY);
+            String[] locArgs = parsedOptions.get(ArgsOptions.LOCATE);
             String[] xyaArgs = parsedOptions.get(ArgsOptions.COMPARE_TO_ALL);
             String[] xaArgs = parsedOptions.get(ArgsOptions.COMPARE_ALL);
             String[] rArgs = parsedOptions.get(ArgsOptions.RECURSIVE);
             String[] oArgs = parsedOptions.get(ArgsOptions.OVERWRITE);
             String[] wrapArgs = parsedOptions.get(ArgsOptions.LINE_WRAP);
+            String[] ovArgs = parsedOptions.get(ArgsOptions.OVERVIEW);
             String[] csvArgs = parsedOptions.get(ArgsOptions.TO_CSV);
             String csvArg = getOptionFirstArg(csvArgs);
+            String[] htmlArgs = parsedOptions.get(ArgsOptions.TO_HTML);
+            String htmlArg = getOptionFirstArg(htmlArgs);
+            String[] jsonlArgs = parsedOptions.get(ArgsOptions.TO_JSON_LINES);
+            String jsonlArg = getOptionFirstArg(jsonlArgs);
             String[] sortArgs = parsedOptions.get(ArgsOptions.SORTING_BY);
             String sortArg = getOptionFirstArg(sortArgs);
             String[] limitArgs = parsedOptions.get(ArgsOptions.ROWS_LIMIT);
             String[] truncArgs = parsedOptions.get(ArgsOptions.TRUNCATE_NAMES);
             String[] maArgs = parsedOptions.get(ArgsOptions.MARK_ABOVE);
             String[] mbArgs = parsedOptions.get(ArgsOptions.MARK_BELOW);
+            String[] gcArgs = parsedOptions.get(ArgsOptions.GENERATE_CORPUS);
+            String[] gcsArgs = parsedOptions.get(ArgsOptions.CORPUS_SIZES);
+            String[] gceArgs = parsedOptions.get(ArgsOptions.CORPUS_EDITS);
+            String[] seedArgs = parsedOptions.get(ArgsOptions.RANDOM_SEED);
+            String[] serveArgs = parsedOptions.get(ArgsOptions.SERVE);
+            String[] wArgs = parsedOptions.get(ArgsOptions.WATCH);
+            String[] lshArgs = parsedOptions.get(ArgsOptions.LSH);
+            String[] clArgs = parsedOptions.get(ArgsOptions.CLUSTER);
+            String[] thArgs = parsedOptions.get(ArgsOptions.THRESHOLD);
+            String[] tArgs = parsedOptions.get(ArgsOptions.THREADS);
+            String[] memArgs = parsedOptions.get(ArgsOptions.MAX_MEMORY);
 
             int factor = getOptionFirstArgInt(fArgs, 0, ArgsOptions.FACTOR);
             int lineWrap = getOptionFirstArgInt(wrapArgs, DEFAULT_LINE_WRAP, ArgsOptions.LINE_WRAP);
+            int overviewColumns = getOptionArgInt(ovArgs, 0,
+                    VisualRepresentation.DEFAULT_OVERVIEW_COLUMNS, ArgsOptions.OVERVIEW);
+            int overviewRows = getOptionArgInt(ovArgs, 1,
+                    VisualRepresentation.DEFAULT_OVERVIEW_ROWS, ArgsOptions.OVERVIEW);
             int rowsLimit = getOptionFirstArgInt(limitArgs, -1, ArgsOptions.ROWS_LIMIT);
             int truncateNames = getOptionFirstArgInt(truncArgs, -1, ArgsOptions.TRUNCATE_NAMES);
 
             double markAbove = getOptionFirstArgDouble(maArgs, -1, ArgsOptions.MARK_ABOVE);
             double markBelow = getOptionFirstArgDouble(mbArgs, -1, ArgsOptions.MARK_BELOW);
 
+            int corpusFiles = gcArgs == null ? 0
+                    : getOptionArgInt(gcArgs, 1, 0, ArgsOptions.GENERATE_CORPUS);
+            int corpusMinSize = getOptionArgInt(gcsArgs, 0,
+                    SyntheticCorpusGenerator.DEFAULT_MIN_SIZE, ArgsOptions.CORPUS_SIZES);
+            int corpusMaxSize = getOptionArgInt(gcsArgs, 1,
+                    SyntheticCorpusGenerator.DEFAULT_MAX_SIZE, ArgsOptions.CORPUS_SIZES);
+            int corpusEdits = getOptionArgInt(gceArgs, 0,
+                    SyntheticCorpusGenerator.DEFAULT_EDITS, ArgsOptions.CORPUS_EDITS);
+            int corpusMaxEditSize = getOptionArgInt(gceArgs, 1,
+                    SyntheticCorpusGenerator.DEFAULT_MAX_EDIT_SIZE, ArgsOptions.CORPUS_EDITS);
+            int randomSeed = getOptionFirstArgInt(seedArgs, 0, ArgsOptions.RANDOM_SEED);
+            int servePort = getOptionFirstArgInt(serveArgs, 0, ArgsOptions.SERVE);
+            int lshBands = getOptionArgInt(lshArgs, 0,
+                    UniformFuzzyHashLshIndex.DEFAULT_BANDS, ArgsOptions.LSH);
+            int lshRows = getOptionArgInt(lshArgs, 1,
+                    UniformFuzzyHashLshIndex.DEFAULT_ROWS, ArgsOptions.LSH);
+            double clusterThreshold = getOptionFirstArgDouble(clArgs, 0, ArgsOptions.CLUSTER);
+            SimilarityTypes clusterSimilarityType = getOptionArgSimilarityType(clArgs, 1,
+                    UniformFuzzyHashClusters.DEFAULT_SIMILARITY_TYPE, ArgsOptions.CLUSTER);
+            double threshold = getOptionFirstArgDouble(thArgs, 0, ArgsOptions.THRESHOLD);
+            SimilarityTypes thresholdSimilarityType = getOptionArgSimilarityType(thArgs, 1,
+                    SimilarityTypes.SIMILARITY, ArgsOptions.THRESHOLD);
+            int threads = getOptionFirstArgInt(tArgs,
+                    Runtime.getRuntime().availableProcessors(), ArgsOptions.THREADS);
+            long maxMemory = getOptionFirstArgMemory(memArgs,
+                    Runtime.getRuntime().maxMemory() / DEFAULT_MAX_MEMORY_DIVISOR,
+                    ArgsOptions.MAX_MEMORY);
+            String serveHost = serveArgs != null && serveArgs.length > 1 ? serveArgs[1]
+                    : UniformFuzzyHashServer.DEFAULT_HOST;
+
             boolean recursive = rArgs != null;
             boolean overwrite = oArgs != null;
 
@@ -500,13 +1051,16 @@ public final class Main {
                         ArgsOptions.toDisplayCsv(COMPUTE_OPTIONS)));
             }
 
-            if (nFunctionalOptions > 0 && nComputeOptions == 0 && ltfArgs == null) {
+            if (nFunctionalOptions > 0 && nComputeOptions == 0
+                    && ltfArgs == null && qtfArgs == null) {
                 throw new IllegalStateException(String.format(
                         "In order to use any of these options: %s, "
                                 + "at least one of these options must be introduced: %s, %s.",
                         ArgsOptions.toDisplayCsv(FUNCTIONAL_OPTIONS),
                         ArgsOptions.toDisplayCsv(COMPUTE_OPTIONS),
-                        ArgsOptions.LOAD_FROM_TEXT_FILE.display()));
+                        ArgsOptions.toDisplayCsv(
+                                ArgsOptions.LOAD_FROM_TEXT_FILE,
+                                ArgsOptions.QUERY_TEXT_FILE)));
             }
 
             if (nFunctionalOptions > 1) {
@@ -562,6 +1116,19 @@ public final class Main {
                 }
             }
 
+            if (locArgs != null) {
+                if (locArgs.length == 0 && !checkNArgs(cfhArgs, 2)
+                        || locArgs.length == 1 && !checkNArgs(cfhArgs, 1)) {
+                    throw new IllegalStateException(String.format(
+                            "Please, introduce two arguments for the option %s, "
+                                    + "or one argument and the option %s with one argument, "
+                                    + "or no arguments and the option %s with two arguments.",
+                            ArgsOptions.LOCATE.display(),
+                            ArgsOptions.COMPUTE_FILE_HASH.display(),
+                            ArgsOptions.COMPUTE_FILE_HASH.display()));
+                }
+            }
+
             if (xyaArgs != null) {
                 if (xyaArgs.length == 0 && !checkNArgs(cfhArgs, 1)) {
                     throw new IllegalStateException(String.format(
@@ -573,12 +1140,15 @@ public final class Main {
             }
 
             if (rArgs != null) {
-                if (cdhArgs == null) {
+                if (cdhArgs == null && gcArgs == null && wArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
-                                    + "the option %s is introduced.",
+                                    + "at least one of these options is introduced: %s.",
                             ArgsOptions.RECURSIVE.display(),
-                            ArgsOptions.COMPUTE_DIRECTORY_HASHES.display()));
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPUTE_DIRECTORY_HASHES,
+                                    ArgsOptions.GENERATE_CORPUS,
+                                    ArgsOptions.WATCH)));
                 }
             }
 
@@ -604,71 +1174,293 @@ public final class Main {
                 }
             }
 
+            if (ovArgs != null) {
+                if (rvArgs == null && xvArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.OVERVIEW.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.REPRESENT_VISUALLY,
+                                    ArgsOptions.COMPARE_VISUALLY)));
+                }
+            }
+
             if (csvArg != null) {
-                if (xyaArgs == null && xaArgs == null) {
+                if (xyaArgs == null && xaArgs == null && clArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
                                     + "at least one of these options is introduced: %s.",
                             ArgsOptions.TO_CSV.display(),
                             ArgsOptions.toDisplayCsv(
                                     ArgsOptions.COMPARE_TO_ALL,
-                                    ArgsOptions.COMPARE_ALL)));
+                                    ArgsOptions.COMPARE_ALL,
+                                    ArgsOptions.CLUSTER)));
                 }
             }
 
-            if (sortArg != null) {
+            if (htmlArg != null) {
                 if (xyaArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
                                     + "the option %s is introduced.",
-                            ArgsOptions.SORTING_BY.display(),
+                            ArgsOptions.TO_HTML.display(),
                             ArgsOptions.COMPARE_TO_ALL.display()));
                 }
             }
 
-            if (limitArgs != null) {
-                if (xyaArgs == null) {
+            if (jsonlArg != null) {
+                if (nFunctionalOptions > 0
+                        && xArgs == null && xyaArgs == null && xaArgs == null) {
                     throw new IllegalStateException(String.format(
-                            "The option %s is only valid if "
-                                    + "the option %s is introduced.",
-                            ArgsOptions.ROWS_LIMIT.display(),
-                            ArgsOptions.COMPARE_TO_ALL.display()));
+                            "The option %s is only valid if no functional option "
+                                    + "or one of these options is introduced: %s.",
+                            ArgsOptions.TO_JSON_LINES.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPARE,
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL)));
+                }
+                if (csvArg != null || htmlArg != null || wArgs != null) {
+                    throw new IllegalStateException(String.format(
+                            "These options are mutually exclusive: %s.",
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.TO_CSV,
+                                    ArgsOptions.TO_HTML,
+                                    ArgsOptions.TO_JSON_LINES,
+                                    ArgsOptions.WATCH)));
                 }
             }
 
-            if (truncArgs != null) {
-                if (xyaArgs == null && xaArgs == null) {
+            if (sortArg != null) {
+                if (xyaArgs == null && wArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
                                     + "at least one of these options is introduced: %s.",
-                            ArgsOptions.TRUNCATE_NAMES.display(),
+                            ArgsOptions.SORTING_BY.display(),
                             ArgsOptions.toDisplayCsv(
                                     ArgsOptions.COMPARE_TO_ALL,
-                                    ArgsOptions.COMPARE_ALL)));
+                                    ArgsOptions.WATCH)));
                 }
             }
 
-            if (maArgs != null) {
-                if (xyaArgs == null && xaArgs == null) {
+            if (limitArgs != null) {
+                if (xyaArgs == null && wArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
                                     + "at least one of these options is introduced: %s.",
-                            ArgsOptions.MARK_ABOVE.display(),
+                            ArgsOptions.ROWS_LIMIT.display(),
                             ArgsOptions.toDisplayCsv(
                                     ArgsOptions.COMPARE_TO_ALL,
-                                    ArgsOptions.COMPARE_ALL)));
+                                    ArgsOptions.WATCH)));
                 }
             }
 
-            if (mbArgs != null) {
-                if (xyaArgs == null && xaArgs == null) {
+            if (truncArgs != null) {
+                if (xyaArgs == null && xaArgs == null && wArgs == null) {
                     throw new IllegalStateException(String.format(
                             "The option %s is only valid if "
                                     + "at least one of these options is introduced: %s.",
-                            ArgsOptions.MARK_BELOW.display(),
+                            ArgsOptions.TRUNCATE_NAMES.display(),
                             ArgsOptions.toDisplayCsv(
                                     ArgsOptions.COMPARE_TO_ALL,
-                                    ArgsOptions.COMPARE_ALL)));
+                                    ArgsOptions.COMPARE_ALL,
+                                    ArgsOptions.WATCH)));
+                }
+            }
+
+            if (maArgs != null) {
+                if (xyaArgs == null && xaArgs == null && wArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.MARK_ABOVE.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL,
+                                    ArgsOptions.WATCH)));
+                }
+            }
+
+            if (mbArgs != null) {
+                if (xyaArgs == null && xaArgs == null && wArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.MARK_BELOW.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL,
+                                    ArgsOptions.WATCH)));
+                }
+            }
+
+            if (gcArgs != null) {
+                if (corpusFiles < 0) {
+                    throw new IllegalArgumentException(String.format(
+                            "The number of files of the option %s must not be negative.",
+                            ArgsOptions.GENERATE_CORPUS.display()));
+                }
+            }
+
+            if (gcsArgs != null) {
+                if (gcArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "the option %s is introduced.",
+                            ArgsOptions.CORPUS_SIZES.display(),
+                            ArgsOptions.GENERATE_CORPUS.display()));
+                }
+            }
+
+            if (gceArgs != null) {
+                if (gcArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "the option %s is introduced.",
+                            ArgsOptions.CORPUS_EDITS.display(),
+                            ArgsOptions.GENERATE_CORPUS.display()));
+                }
+            }
+
+            if (seedArgs != null) {
+                if (gcArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "the option %s is introduced.",
+                            ArgsOptions.RANDOM_SEED.display(),
+                            ArgsOptions.GENERATE_CORPUS.display()));
+                }
+            }
+
+            if (lshArgs != null) {
+                if (xyaArgs == null && xaArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.LSH.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL)));
+                }
+            }
+
+            if (thArgs != null) {
+                if (xyaArgs == null && xaArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.THRESHOLD.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL)));
+                }
+                if (threshold < 0 || threshold > 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "Option %s must be a decimal number between 0 and 1.",
+                            ArgsOptions.THRESHOLD.display()));
+                }
+                if (lshArgs != null) {
+                    throw new IllegalStateException(String.format(
+                            "These options are mutually exclusive: %s.",
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.THRESHOLD,
+                                    ArgsOptions.LSH)));
+                }
+            }
+
+            if (qtfArg != null) {
+                if (xyaArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "the option %s is introduced.",
+                            ArgsOptions.QUERY_TEXT_FILE.display(),
+                            ArgsOptions.COMPARE_TO_ALL.display()));
+                }
+                if (xyaArgs.length > 1) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "the option %s has no more than one argument.",
+                            ArgsOptions.QUERY_TEXT_FILE.display(),
+                            ArgsOptions.COMPARE_TO_ALL.display()));
+                }
+                if (htmlArg != null || lshArgs != null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is not compatible with any of these options: %s.",
+                            ArgsOptions.QUERY_TEXT_FILE.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.TO_HTML,
+                                    ArgsOptions.LSH)));
+                }
+            }
+
+            if (cphArg != null) {
+                if (!cphArg.isEmpty() && !cphArg.equals(NUL_SEPARATED_PATHS_ARG)) {
+                    throw new IllegalArgumentException(String.format(
+                            "The only possible argument for option %s is %s.",
+                            ArgsOptions.COMPUTE_PATHS_HASHES.display(),
+                            NUL_SEPARATED_PATHS_ARG));
+                }
+                if (nComputeOptions > 1 || nFunctionalOptions > 0
+                        || stfArgs != null || ltfArgs != null || qtfArgs != null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "no other options than %s are introduced.",
+                            ArgsOptions.COMPUTE_PATHS_HASHES.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.FACTOR,
+                                    ArgsOptions.TO_JSON_LINES)));
+                }
+            }
+
+            if (tArgs != null) {
+                if (cdhArgs == null && cahArgs == null && cphArgs == null && ltfArgs == null
+                        && xyaArgs == null && xaArgs == null && serveArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.THREADS.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPUTE_DIRECTORY_HASHES,
+                                    ArgsOptions.COMPUTE_ARCHIVE_HASHES,
+                                    ArgsOptions.COMPUTE_PATHS_HASHES,
+                                    ArgsOptions.LOAD_FROM_TEXT_FILE,
+                                    ArgsOptions.COMPARE_TO_ALL,
+                                    ArgsOptions.COMPARE_ALL,
+                                    ArgsOptions.SERVE)));
+                }
+                if (threads < 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "Option %s must be a positive integer.",
+                            ArgsOptions.THREADS.display()));
+                }
+            }
+
+            if (memArgs != null) {
+                if (cdhArgs == null && ltfArgs == null && xaArgs == null) {
+                    throw new IllegalStateException(String.format(
+                            "The option %s is only valid if "
+                                    + "at least one of these options is introduced: %s.",
+                            ArgsOptions.MAX_MEMORY.display(),
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.COMPUTE_DIRECTORY_HASHES,
+                                    ArgsOptions.LOAD_FROM_TEXT_FILE,
+                                    ArgsOptions.COMPARE_ALL)));
+                }
+                if (maxMemory < 1) {
+                    throw new IllegalArgumentException(String.format(
+                            "Option %s must be positive.",
+                            ArgsOptions.MAX_MEMORY.display()));
+                }
+            }
+
+            if (serveArgs != null) {
+                if (wArgs != null) {
+                    throw new IllegalStateException(String.format(
+                            "These options are mutually exclusive: %s.",
+                            ArgsOptions.toDisplayCsv(
+                                    ArgsOptions.SERVE,
+                                    ArgsOptions.WATCH)));
                 }
             }
 
@@ -693,11 +1485,39 @@ public final class Main {
             UniformFuzzyHash compareHash1 = null;
             UniformFuzzyHash compareHash2 = null;
 
+            HashesDirectoryWatcher watcher = null;
+
+            if (gcArgs != null) {
+                directory = new File(gcArgs[0]);
+                SyntheticCorpusGenerator generator;
+                if (gcArgs.length == 2) {
+                    generator = new SyntheticCorpusGenerator(
+                            SyntheticCorpusGenerator.DEFAULT_RANDOM_SEEDS, corpusMaxSize,
+                            randomSeed);
+                } else {
+                    List<File> seedFiles = new ArrayList<>(gcArgs.length - 2);
+                    for (int i = 2; i < gcArgs.length; i++) {
+                        seedFiles.add(new File(gcArgs[i]));
+                    }
+                    generator = new SyntheticCorpusGenerator(
+                            SyntheticCorpusGenerator.readSeedsFromFiles(seedFiles, recursive),
+                            randomSeed);
+                }
+                generator.setSizes(corpusMinSize, corpusMaxSize);
+                generator.setEdits(corpusEdits, corpusMaxEditSize);
+                generator.generate(directory, corpusFiles);
+            }
+
             if (cfhArgs != null) {
                 for (String cfhArg : cfhArgs) {
-                    file = new File(cfhArg);
-                    name = file.getName();
-                    hash = new UniformFuzzyHash(file, factor);
+                    if (cfhArg.equals(STANDARD_INPUT_ARG)) {
+                        name = STANDARD_INPUT_ARG;
+                        hash = new UniformFuzzyHash(System.in, factor);
+                    } else {
+                        file = new File(cfhArg);
+                        name = file.getName();
+                        hash = new UniformFuzzyHash(file, factor);
+                    }
                     if (computedFileHash1 == null) {
                         computedFileHashName1 = name;
                         computedFileHash1 = hash;
@@ -714,12 +1534,45 @@ public final class Main {
                 for (String cdhArg : cdhArgs) {
                     directory = new File(cdhArg);
                     hashes = UniformFuzzyHashes.computeHashesFromDirectoryFiles(
-                            directory, factor, recursive);
+                            directory, factor, recursive, threads, maxMemory);
                     computedHashes.putAll(hashes);
                     computedAndLoadedHashes.putAll(hashes);
                 }
             }
 
+            if (cahArgs != null) {
+                List<File> archives = new ArrayList<>(cahArgs.length);
+                for (String cahArg : cahArgs) {
+                    archives.add(new File(cahArg));
+                }
+                hashes = UniformFuzzyHashArchives.computeHashesFromArchives(
+                        archives, factor, threads);
+                computedHashes.putAll(hashes);
+                computedAndLoadedHashes.putAll(hashes);
+            }
+
+            if (cphArg != null) {
+                char separator = cphArg.isEmpty() ? PathsListHasher.NEW_LINE_SEPARATOR
+                        : PathsListHasher.NUL_SEPARATOR;
+                PathsListHasher pathsListHasher = new PathsListHasher(factor, threads);
+                if (jsonlArg != null) {
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        pathsListHasher.hash(System.in, separator,
+                                new PrintHashListener(jsonLinesWriter));
+                    }
+                } else {
+                    pathsListHasher.hash(System.in, separator, new PrintHashListener(null));
+                }
+            }
+
+            if (wArgs != null) {
+                directory = new File(wArgs[0]);
+                watcher = new HashesDirectoryWatcher(directory, factor, recursive);
+                computedHashes.putAll(watcher.getHashes());
+                computedAndLoadedHashes.putAll(watcher.getHashes());
+            }
+
             if (stfArgs != null) {
                 for (String stfArg : stfArgs) {
                     file = new File(stfArg);
@@ -730,14 +1583,20 @@ public final class Main {
             if (ltfArgs != null) {
                 for (String ltfArg : ltfArgs) {
                     file = new File(ltfArg);
-                    hashes = UniformFuzzyHashes.loadHashesFromTextFile(file);
+                    hashes = UniformFuzzyHashes.loadHashesFromTextFile(file, threads, maxMemory);
                     loadedHashes.putAll(hashes);
                     computedAndLoadedHashes.putAll(hashes);
                 }
             }
 
-            if (stfArgs == null && nFunctionalOptions == 0) {
-                if (!computedHashes.isEmpty() && !loadedHashes.isEmpty()) {
+            if (stfArgs == null && nFunctionalOptions == 0 && cphArgs == null) {
+                if (jsonlArg != null) {
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        jsonLinesWriter.writeHashes(computedHashes);
+                        jsonLinesWriter.writeHashes(loadedHashes);
+                    }
+                } else if (!computedHashes.isEmpty() && !loadedHashes.isEmpty()) {
                     System.out.println();
                     System.out.println(IGNORE_MARK + " Computed Hashes:");
                     UniformFuzzyHashes.printHashes(computedHashes);
@@ -759,8 +1618,13 @@ public final class Main {
                             computedAndLoadedHashes, rvArg);
                     hash = computedAndLoadedHashes.get(name);
                 }
-                VisualRepresentation.print(hash,
-                        DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, lineWrap, true);
+                if (ovArgs != null) {
+                    VisualRepresentation.printOverview(hash,
+                            DEFAULT_BASE, overviewColumns, overviewRows, true);
+                } else {
+                    VisualRepresentation.print(hash,
+                            DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, lineWrap, true);
+                }
             }
 
             if (xArgs != null) {
@@ -783,7 +1647,15 @@ public final class Main {
                             computedAndLoadedHashes, xArgs[1]);
                     compareHash2 = computedAndLoadedHashes.get(compareHashName2);
                 }
-                System.out.println(formatDecimal(compareHash1.similarity(compareHash2)));
+                if (jsonlArg != null) {
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        jsonLinesWriter.writeSimilarity(compareHashName1, compareHashName2,
+                                compareHash1.similarity(compareHash2));
+                    }
+                } else {
+                    System.out.println(formatDecimal(compareHash1.similarity(compareHash2)));
+                }
             }
 
             if (xvArgs != null) {
@@ -806,15 +1678,119 @@ public final class Main {
                             computedAndLoadedHashes, xvArgs[1]);
                     compareHash2 = computedAndLoadedHashes.get(compareHashName2);
                 }
-                VisualRepresentation.printCompared(
-                        compareHash1, compareHash2,
-                        DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, lineWrap, true);
+                if (ovArgs != null) {
+                    VisualRepresentation.printOverviewCompared(
+                            compareHash1, compareHash2,
+                            DEFAULT_BASE, overviewColumns, overviewRows, true);
+                } else {
+                    VisualRepresentation.printCompared(
+                            compareHash1, compareHash2,
+                            DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, lineWrap, true);
+                }
                 System.out.println(" Similarity: "
                         + formatDecimal(compareHash1.similarity(compareHash2)));
                 System.out.println();
             }
 
-            if (xyaArgs != null) {
+            if (locArgs != null) {
+                if (locArgs.length == 0) {
+                    compareHashName1 = computedFileHashName1;
+                    compareHash1 = computedFileHash1;
+                    compareHashName2 = computedFileHashName2;
+                    compareHash2 = computedFileHash2;
+                } else if (locArgs.length == 1) {
+                    compareHashName1 = computedFileHashName1;
+                    compareHash1 = computedFileHash1;
+                    compareHashName2 = getComputedOrLoadedHashName(
+                            computedAndLoadedHashes, locArgs[0]);
+                    compareHash2 = computedAndLoadedHashes.get(compareHashName2);
+                } else if (locArgs.length == 2) {
+                    compareHashName1 = getComputedOrLoadedHashName(
+                            computedAndLoadedHashes, locArgs[0]);
+                    compareHash1 = computedAndLoadedHashes.get(compareHashName1);
+                    compareHashName2 = getComputedOrLoadedHashName(
+                            computedAndLoadedHashes, locArgs[1]);
+                    compareHash2 = computedAndLoadedHashes.get(compareHashName2);
+                }
+                List<UniformFuzzyHashLocator.Location> locations =
+                        new UniformFuzzyHashLocator(compareHash2).locate(compareHash1);
+                for (UniformFuzzyHashLocator.Location location : locations) {
+                    System.out.println(location);
+                }
+                long locatedSize = UniformFuzzyHashLocator.computeQueryCoverage(locations);
+                System.out.println(String.format(
+                        "%s Located bytes of %s inside %s: %d of %d (%s).",
+                        IGNORE_MARK,
+                        compareHashName1,
+                        compareHashName2,
+                        locatedSize,
+                        compareHash1.getDataSize(),
+                        formatDecimal(compareHash1.getDataSize() == 0 ? 0
+                                : (double) locatedSize / compareHash1.getDataSize())));
+            }
+
+            if (xyaArgs != null && qtfArg != null) {
+                UniformFuzzyHashTextFileIndex textFileIndex =
+                        new UniformFuzzyHashTextFileIndex(new File(qtfArg));
+                if (xyaArgs.length == 0) {
+                    compareHashName1 = computedFileHashName1;
+                    compareHash1 = computedFileHash1;
+                } else if (computedAndLoadedHashes.containsKey(xyaArgs[0])) {
+                    compareHashName1 = xyaArgs[0];
+                    compareHash1 = computedAndLoadedHashes.get(compareHashName1);
+                } else {
+                    compareHashName1 = xyaArgs[0];
+                    compareHash1 = textFileIndex.findHash(compareHashName1);
+                    if (compareHash1 == null) {
+                        throw new IllegalStateException(String.format(
+                                "Hash %s has not been computed or loaded, "
+                                        + "and it is not in the text file %s.",
+                                compareHashName1,
+                                qtfArg));
+                    }
+                }
+                SimilarityTypes querySimilarityType = thArgs != null
+                        ? thresholdSimilarityType : null;
+                Map<String, Map<SimilarityTypes, Double>> similarities = null;
+                if (sortCriterion != null) {
+                    // Only the best rows are kept.
+                    similarities = textFileIndex.computeTopSimilarities(compareHash1,
+                            querySimilarityType, threshold, sortCriterion, sortAscending,
+                            rowsLimit > 0 ? rowsLimit : Integer.MAX_VALUE,
+                            threads);
+                } else if (jsonlArg != null) {
+                    // Streamed as they are read.
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        textFileIndex.compareToAll(compareHash1, querySimilarityType,
+                                threshold, rowsLimit > 0 ? rowsLimit : -1, threads,
+                                new WriteSimilaritiesListener(compareHashName1, jsonLinesWriter));
+                    }
+                } else {
+                    similarities = new LinkedHashMap<>();
+                    textFileIndex.compareToAll(compareHash1, querySimilarityType,
+                            threshold, rowsLimit > 0 ? rowsLimit : -1, threads,
+                            new PutSimilaritiesListener(similarities));
+                }
+                if (similarities != null) {
+                    if (jsonlArg != null) {
+                        try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                                openJsonLinesWriter(jsonlArg)) {
+                            jsonLinesWriter.writeHashToHashesSimilarities(
+                                    compareHashName1, similarities, rowsLimit);
+                        }
+                    } else if (csvArg != null) {
+                        file = new File(csvArg);
+                        UniformFuzzyHashes.saveHashToHashesSimilaritiesAsCsv(
+                                similarities, file, rowsLimit);
+                    } else {
+                        UniformFuzzyHashes.printHashToHashesSimilaritiesTable(
+                                similarities, rowsLimit, truncateNames, markAbove, markBelow);
+                    }
+                }
+            }
+
+            if (xyaArgs != null && qtfArg == null) {
                 if (xyaArgs.length == 0) {
                     compareHashName1 = computedFileHashName1;
                     compareHash1 = computedFileHash1;
@@ -834,20 +1810,62 @@ public final class Main {
                         hashes.put(name, hash);
                     }
                 }
-                Map<String, Map<SimilarityTypes, Double>> similarities = UniformFuzzyHashes
-                        .computeHashToHashesSimilarities(compareHash1, hashes);
+                Map<String, Map<SimilarityTypes, Double>> similarities = null;
+                if (jsonlArg != null && lshArgs == null && thArgs == null
+                        && sortCriterion == null) {
+                    // Streamed as they are computed.
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        jsonLinesWriter.compareToAll(
+                                compareHashName1, compareHash1, hashes, rowsLimit);
+                    }
+                } else if (lshArgs != null) {
+                    UniformFuzzyHashLshIndex<String> index =
+                            new UniformFuzzyHashLshIndex<>(lshBands, lshRows);
+                    index.addAll(hashes);
+                    similarities = index.computeHashToHashesSimilarities(compareHash1);
+                } else if (thArgs != null) {
+                    similarities = UniformFuzzyHashes.computeHashToHashesSimilarities(
+                            compareHash1, hashes, thresholdSimilarityType, threshold, threads);
+                } else {
+                    similarities = UniformFuzzyHashes
+                            .computeHashToHashesSimilarities(compareHash1, hashes, threads);
+                }
                 if (sortCriterion != null) {
                     similarities = UniformFuzzyHashes.sortSimilarities(
                             similarities, sortCriterion, sortAscending);
                 }
-                if (csvArg == null) {
+                if (csvArg == null && htmlArg == null && jsonlArg == null) {
                     UniformFuzzyHashes.printHashToHashesSimilaritiesTable(
                             similarities, rowsLimit, truncateNames, markAbove, markBelow);
-                } else {
+                }
+                if (csvArg != null) {
                     file = new File(csvArg);
                     UniformFuzzyHashes.saveHashToHashesSimilaritiesAsCsv(
                             similarities, file, rowsLimit);
                 }
+                if (htmlArg != null) {
+                    file = new File(htmlArg);
+                    try (UniformFuzzyHashHtmlReport<String> report =
+                            new UniformFuzzyHashHtmlReport<>(
+                                    file, compareHashName1, compareHash1)) {
+                        for (Entry<String, Map<SimilarityTypes, Double>> entry
+                                : similarities.entrySet()) {
+                            if (rowsLimit > 0 && report.getRows() == rowsLimit) {
+                                break;
+                            }
+                            report.add(entry.getKey(), hashes.get(entry.getKey()),
+                                    entry.getValue());
+                        }
+                    }
+                }
+                if (jsonlArg != null && similarities != null) {
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        jsonLinesWriter.writeHashToHashesSimilarities(
+                                compareHashName1, similarities, rowsLimit);
+                    }
+                }
             }
 
             if (xaArgs != null) {
@@ -862,9 +1880,33 @@ public final class Main {
                         hashes.put(name, hash);
                     }
                 }
-                Map<String, Map<String, Double>> similarities = UniformFuzzyHashes
-                        .computeAllHashesSimilarities(hashes);
-                if (csvArg == null) {
+                Map<String, Map<String, Double>> similarities = null;
+                if (jsonlArg != null && lshArgs == null && thArgs == null) {
+                    // Streamed as they are computed.
+                    try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                            openJsonLinesWriter(jsonlArg)) {
+                        jsonLinesWriter.compareAll(hashes);
+                    }
+                } else if (lshArgs != null) {
+                    UniformFuzzyHashLshIndex<String> index =
+                            new UniformFuzzyHashLshIndex<>(lshBands, lshRows);
+                    index.addAll(hashes);
+                    similarities = index.computeAllHashesSimilarities();
+                } else if (thArgs != null) {
+                    similarities = UniformFuzzyHashes.computeAllHashesSimilarities(
+                            hashes, thresholdSimilarityType, threshold, threads, maxMemory);
+                } else {
+                    similarities = UniformFuzzyHashes.computeAllHashesSimilarities(
+                            hashes, threads, maxMemory);
+                }
+                if (jsonlArg != null) {
+                    if (similarities != null) {
+                        try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                                openJsonLinesWriter(jsonlArg)) {
+                            jsonLinesWriter.writeAllHashesSimilarities(similarities);
+                        }
+                    }
+                } else if (csvArg == null) {
                     UniformFuzzyHashes.printAllHashesSimilaritiesTable(
                             similarities, truncateNames, markAbove, markBelow);
                 } else {
@@ -874,6 +1916,54 @@ public final class Main {
                 }
             }
 
+            if (clArgs != null) {
+                UniformFuzzyHashClusters<String> clusters = new UniformFuzzyHashClusters<>(
+                        clusterThreshold, clusterSimilarityType);
+                clusters.addAll(computedAndLoadedHashes);
+                if (csvArg == null) {
+                    int clusterNumber = 1;
+                    for (List<String> cluster : clusters.getClusters()) {
+                        System.out.println(String.format(
+                                "# Cluster %d (%d hashes)",
+                                clusterNumber,
+                                cluster.size()));
+                        for (String clusterName : cluster) {
+                            System.out.println(clusterName);
+                        }
+                        clusterNumber++;
+                    }
+                } else {
+                    file = new File(csvArg);
+                    clusters.saveClustersAsCsv(file);
+                }
+            }
+
+            if (serveArgs != null) {
+                UniformFuzzyHashServer server = new UniformFuzzyHashServer(
+                        computedAndLoadedHashes, new InetSocketAddress(serveHost, servePort),
+                        threads);
+                server.start();
+                System.out.println(String.format(
+                        "Serving %d hashes on http://%s:%d/",
+                        server.getHashes().size(),
+                        serveHost,
+                        server.getAddress().getPort()));
+            }
+
+            if (watcher != null) {
+                if (stfArgs != null) {
+                    for (String stfArg : stfArgs) {
+                        file = new File(stfArg);
+                        watcher.addListener(new HashesDirectoryWatcher.TextFileListener(file));
+                    }
+                }
+                watcher.addListener(new CompareToAllListener(computedAndLoadedHashes,
+                        sortCriterion, sortAscending, rowsLimit, truncateNames, markAbove,
+                        markBelow));
+                System.out.println(IGNORE_MARK + " Watching " + directory.getPath());
+                watcher.watch();
+            }
+
         } catch (Exception exception) {
             System.out.println(exception.getMessage());
             System.out.println(String.format(
@@ -1037,6 +2127,124 @@ public final class Main {
 
     }
 
+    /**
+     * Gets an introduced argument of an option parsed to int.
+     * 
+     * @param optionArgs The option introduced arguments.
+     * @param index The argument index.
+     * @param emptyValue Value which is returned if the option was not introduced, or was introduced
+     *        with less arguments.
+     * @param argsOption The option.
+     * @return The option introduced argument parsed to int.
+     *         If the option was not introduced, or was introduced with less arguments, emptyValue
+     *         is returned.
+     * @throws ParseException If an error occurs parsing the argument to int.
+     */
+    private static int getOptionArgInt(
+            String[] optionArgs,
+            int index,
+            int emptyValue,
+            ArgsOptions argsOption)
+            throws ParseException {
+
+        if (optionArgs == null || optionArgs.length <= index) {
+            return emptyValue;
+        }
+
+        try {
+            return Integer.parseInt(optionArgs[index]);
+        } catch (NumberFormatException numberFormatException) {
+            throw new ParseException(String.format(
+                    "Option %s must be numeric.",
+                    argsOption.display()));
+        }
+
+    }
+
+    /**
+     * Gets an introduced argument of an option parsed to a type of similarity, by its name or its
+     * enum constant name (case and underscores are ignored).
+     * 
+     * @param optionArgs The option introduced arguments.
+     * @param index The argument index.
+     * @param emptyValue Value which is returned if the option was not introduced, or was introduced
+     *        with less arguments.
+     * @param argsOption The option.
+     * @return The option introduced argument parsed to a type of similarity.
+     *         If the option was not introduced, or was introduced with less arguments, emptyValue
+     *         is returned.
+     */
+    private static SimilarityTypes getOptionArgSimilarityType(
+            String[] optionArgs,
+            int index,
+            SimilarityTypes emptyValue,
+            ArgsOptions argsOption) {
+
+        if (optionArgs == null || optionArgs.length <= index) {
+            return emptyValue;
+        }
+
+        String optionArg = optionArgs[index].replace("_", "");
+
+        for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+            if (optionArg.equalsIgnoreCase(similarityType.name().replace("_", ""))
+                    || optionArg.equalsIgnoreCase(similarityType.getName())) {
+                return similarityType;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format(
+                "Invalid similarity type for option %s. Possible values: %s.",
+                argsOption.display(),
+                String.join(CSV_SEPARATOR, SimilarityTypes.names())));
+
+    }
+
+    /**
+     * Gets the first introduced argument of an option parsed to an amount of bytes of memory,
+     * optionally followed by the suffix K, M or G (case is ignored).
+     * 
+     * @param optionArgs The option introduced arguments.
+     * @param emptyValue Value which is returned if the option was not introduced, or was introduced
+     *        with no argument.
+     * @param argsOption The option.
+     * @return The option first introduced argument parsed to bytes.
+     *         If the option was not introduced, or was introduced with no argument, emptyValue is
+     *         returned.
+     * @throws ParseException If an error occurs parsing the argument to bytes.
+     */
+    private static long getOptionFirstArgMemory(
+            String[] optionArgs,
+            long emptyValue,
+            ArgsOptions argsOption)
+            throws ParseException {
+
+        String optionArg = getOptionFirstArg(optionArgs);
+
+        if (optionArg == null || optionArg.isEmpty()) {
+            return emptyValue;
+        }
+
+        int unit = MEMORY_UNITS.indexOf(Character.toUpperCase(
+                optionArg.charAt(optionArg.length() - 1))) + 1;
+        String number = unit > 0 ? optionArg.substring(0, optionArg.length() - 1) : optionArg;
+
+        try {
+            long memory = Long.parseLong(number);
+            if (memory > Long.MAX_VALUE >> (unit * 10)) {
+                throw new NumberFormatException();
+            }
+            return memory << (unit * 10);
+        } catch (NumberFormatException numberFormatException) {
+            throw new ParseException(String.format(
+                    "Option %s must be an amount of bytes, "
+                            + "optionally followed by one of these suffixes: %s.",
+                    argsOption.display(),
+                    String.join(CSV_SEPARATOR, MEMORY_UNITS.split(""))));
+        }
+
+    }
+
     /**
      * Gets the first introduced argument of an option parsed to double.
      * 
@@ -1142,6 +2350,27 @@ public final class Main {
 
     }
 
+    /**
+     * Opens a JSON Lines writer.
+     * 
+     * @param jsonlArg The argument of the option TO_JSON_LINES: a file path, or "" to write to the
+     *        standard output, which is not closed when the writer is closed.
+     * @return The JSON Lines writer.
+     * @throws IOException If an IOException occurs opening the file.
+     */
+    private static UniformFuzzyHashJsonLinesWriter<String> openJsonLinesWriter(
+            String jsonlArg)
+            throws IOException {
+
+        if (jsonlArg.isEmpty()) {
+            return new UniformFuzzyHashJsonLinesWriter<>(new BufferedWriter(new OutputStreamWriter(
+                    new CloseShieldOutputStream(System.out), FILES_ENCODING)));
+        }
+
+        return new UniformFuzzyHashJsonLinesWriter<>(new File(jsonlArg));
+
+    }
+
     /**
      * @return The current jar name.
      */
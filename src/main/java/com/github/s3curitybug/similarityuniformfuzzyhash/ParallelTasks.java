@@ -0,0 +1,248 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class runs tasks in parallel and consumes their results in the order in which the tasks
+ * were created, from the calling thread.
+ * Tasks are created lazily, and only a bounded amount of them are created but not consumed at any
+ * time, so the memory used by pending tasks and results does not depend on the amount of tasks.
+ * A memory budget can be shared by the tasks to bound the memory they use at once.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+final class ParallelTasks {
+
+    /**
+     * Amount of tasks created but not consumed per thread.
+     */
+    protected static final int PENDING_TASKS_PER_THREAD = 2;
+
+    /**
+     * Source of tasks.
+     * 
+     * @param <R> Results type.
+     */
+    protected interface TaskSource<R> {
+
+        /**
+         * Creates the next task. It is called from the thread which runs the tasks.
+         * 
+         * @return The next task, or null if there are no more tasks.
+         * @throws IOException If an IOException occurs creating the task.
+         */
+        Callable<R> next()
+                throws IOException;
+
+    }
+
+    /**
+     * Sink of results.
+     * 
+     * @param <R> Results type.
+     */
+    protected interface ResultSink<R> {
+
+        /**
+         * Consumes the result of a task. It is called from the thread which runs the tasks, in the
+         * order in which the tasks were created.
+         * 
+         * @param result The result.
+         * @throws IOException If an IOException occurs consuming the result.
+         */
+        void accept(
+                R result)
+                throws IOException;
+
+    }
+
+    /**
+     * Memory budget shared by parallel tasks. Tasks acquire an estimation of the memory they are
+     * going to use before using it, waiting until it is available, and release it afterwards.
+     * Estimations bigger than the whole budget are reduced to it, so that a single big task can
+     * always run, alone.
+     */
+    protected static final class MemoryBudget {
+
+        /**
+         * Budget in bytes.
+         */
+        private final long maxMemory;
+
+        /**
+         * Available bytes.
+         */
+        private long availableMemory;
+
+        /**
+         * Creates a memory budget.
+         * 
+         * @param maxMemory Budget in bytes. Must be positive.
+         */
+        protected MemoryBudget(
+                long maxMemory) {
+
+            checkMaxMemory(maxMemory);
+
+            this.maxMemory = maxMemory;
+            this.availableMemory = maxMemory;
+
+        }
+
+        /**
+         * Acquires memory, waiting until it is available.
+         * 
+         * @param memory Estimated bytes.
+         * @return The acquired bytes, which must be released.
+         * @throws InterruptedException If the current thread is interrupted.
+         */
+        protected synchronized long acquire(
+                long memory)
+                throws InterruptedException {
+
+            long acquiredMemory = Math.max(0, Math.min(memory, maxMemory));
+
+            while (availableMemory < acquiredMemory) {
+                wait();
+            }
+
+            availableMemory -= acquiredMemory;
+            return acquiredMemory;
+
+        }
+
+        /**
+         * Releases acquired memory.
+         * 
+         * @param memory The bytes returned by acquire.
+         */
+        protected synchronized void release(
+                long memory) {
+
+            availableMemory += memory;
+            notifyAll();
+
+        }
+
+    }
+
+    /**
+     * Private constructor.
+     */
+    private ParallelTasks() {
+
+    }
+
+    /**
+     * Runs the tasks of a source in parallel, and consumes their results in order.
+     * If a task throws an exception, it is thrown once its result should be consumed, and the
+     * remaining tasks are cancelled.
+     * 
+     * @param <R> Results type.
+     * @param tasks Source of tasks.
+     * @param threads Amount of threads.
+     * @param results Sink of results.
+     * @throws IOException If an IOException occurs creating a task, running it or consuming its
+     *         result.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    protected static <R> void run(
+            TaskSource<R> tasks,
+            int threads,
+            ResultSink<R> results)
+            throws IOException, InterruptedException {
+
+        checkThreads(threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+
+            int maxPendingTasks = threads * PENDING_TASKS_PER_THREAD;
+            Deque<Future<R>> futures = new ArrayDeque<>(maxPendingTasks);
+
+            for (Callable<R> task = tasks.next(); task != null; task = tasks.next()) {
+                if (futures.size() == maxPendingTasks) {
+                    results.accept(get(futures.removeFirst()));
+                }
+                futures.addLast(executor.submit(task));
+            }
+
+            while (!futures.isEmpty()) {
+                results.accept(get(futures.removeFirst()));
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+    }
+
+    /**
+     * Waits for the result of a task.
+     * 
+     * @param <R> Result type.
+     * @param future The future of the task.
+     * @return The result.
+     * @throws IOException If the task threw an IOException, or a checked exception.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    private static <R> R get(
+            Future<R> future)
+            throws IOException, InterruptedException {
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+
+    }
+
+    /**
+     * Checks if an amount of threads is valid. In case it is not, an IllegalArgumentException is
+     * thrown.
+     * 
+     * @param threads Amount of threads. Must be positive.
+     */
+    protected static void checkThreads(
+            int threads) {
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("The amount of threads must be positive.");
+        }
+
+    }
+
+    /**
+     * Checks if a memory budget is valid. In case it is not, an IllegalArgumentException is
+     * thrown.
+     * 
+     * @param maxMemory Budget in bytes. Must be positive.
+     */
+    protected static void checkMaxMemory(
+            long maxMemory) {
+
+        if (maxMemory < 1) {
+            throw new IllegalArgumentException("The memory budget must be positive.");
+        }
+
+    }
+
+}
@@ -0,0 +1,336 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class computes the Uniform Fuzzy Hashes of the files whose paths are read from a stream,
+ * separated by new lines or by NUL characters (as written by find -print0), so that any amount of
+ * files can be hashed in a pipeline without building a list of them.
+ * Paths are read while the files are hashed in parallel, and each hash is notified to a listener
+ * as soon as it is computed, so hashes are notified in the order in which they finish. Only a
+ * bounded amount of paths are waiting to be hashed at any time, so the memory used does not depend
+ * on the amount of paths, and no hash is kept after it has been notified.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class PathsListHasher {
+
+    /**
+     * New line paths separator.
+     */
+    public static final char NEW_LINE_SEPARATOR = '\n';
+
+    /**
+     * NUL paths separator.
+     */
+    public static final char NUL_SEPARATOR = '\0';
+
+    /**
+     * Amount of paths waiting to be hashed per thread.
+     */
+    private static final int PENDING_PATHS_PER_THREAD = 4;
+
+    /**
+     * Listener of the hashes computed from a paths list. Its methods are called from the hashing
+     * threads, but never concurrently.
+     */
+    public interface Listener {
+
+        /**
+         * Notifies a computed hash.
+         * 
+         * @param path The path of the file.
+         * @param hash The Uniform Fuzzy Hash of the file.
+         * @throws IOException If an IOException occurs processing the hash. It stops the hashing.
+         */
+        void hashComputed(
+                String path,
+                UniformFuzzyHash hash)
+                throws IOException;
+
+        /**
+         * Notifies a file which could not be hashed, because it does not exist, it is not a file,
+         * it could not be read or it is too big.
+         * 
+         * @param path The path of the file.
+         * @param exception The exception thrown reading or hashing the file. Unchecked exceptions
+         *        are wrapped in an IOException.
+         * @throws IOException If an IOException occurs processing the failure. It stops the
+         *         hashing.
+         */
+        void hashFailed(
+                String path,
+                IOException exception)
+                throws IOException;
+
+    }
+
+    /**
+     * Relation between data length and the hash mean number of blocks for each file.
+     */
+    private final int factor;
+
+    /**
+     * Amount of threads.
+     */
+    private final int threads;
+
+    /**
+     * Creates a paths list hasher.
+     * 
+     * @param factor Relation between data length and the hash mean number of blocks for each file
+     *        of data. Must be greater than 2 and must be odd.
+     * @param threads Amount of threads.
+     */
+    public PathsListHasher(
+            int factor,
+            int threads) {
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("The amount of threads must be positive.");
+        }
+
+        this.factor = factor;
+        this.threads = threads;
+
+    }
+
+    /**
+     * Reads paths from a stream, decoded with the default charset, until its end, and computes
+     * the hashes of their files, notifying each one to a listener as soon as it is computed.
+     * Empty paths are ignored, as well as carriage returns ending paths separated by new lines.
+     * This method returns once all the hashes have been notified. Files which cannot be hashed
+     * are notified as failures, and the rest of the paths are still hashed. If the listener throws
+     * an exception, or an error is thrown hashing a file, no more hashes are notified and the
+     * first one is thrown by this method.
+     * 
+     * @param paths Stream of paths. It is not closed.
+     * @param separator Paths separator: NEW_LINE_SEPARATOR or NUL_SEPARATOR.
+     * @param listener The listener.
+     * @return Amount of read paths.
+     * @throws IOException If an IOException occurs reading the stream of paths, or processing a
+     *         hash in the listener.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public long hash(
+            InputStream paths,
+            char separator,
+            Listener listener)
+            throws IOException, InterruptedException {
+
+        // Parameters check.
+        if (paths == null) {
+            throw new NullPointerException("Stream of paths is null.");
+        }
+
+        if (separator != NEW_LINE_SEPARATOR && separator != NUL_SEPARATOR) {
+            throw new IllegalArgumentException("The separator must be a new line or NUL.");
+        }
+
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+
+        // Hashing.
+        Reader reader = new BufferedReader(new InputStreamReader(paths, Charset.defaultCharset()));
+        Semaphore pendingPaths = new Semaphore(threads * PENDING_PATHS_PER_THREAD);
+        HashTask.Failure failure = new HashTask.Failure();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        StringBuilder path = new StringBuilder();
+        long readPaths = 0;
+
+        try {
+
+            boolean end = false;
+            while (!end && failure.exception == null) {
+
+                int c = reader.read();
+                end = c == -1;
+
+                if (!end && c != separator) {
+                    path.append((char) c);
+                    continue;
+                }
+
+                if (separator == NEW_LINE_SEPARATOR
+                        && path.length() > 0 && path.charAt(path.length() - 1) == '\r') {
+                    path.setLength(path.length() - 1);
+                }
+
+                if (path.length() == 0) {
+                    continue;
+                }
+
+                pendingPaths.acquire();
+                executor.execute(new HashTask(
+                        path.toString(), factor, listener, pendingPaths, failure));
+                path.setLength(0);
+                readPaths++;
+
+            }
+
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                continue;
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure.exception instanceof IOException) {
+            throw (IOException) failure.exception;
+        } else if (failure.exception instanceof RuntimeException) {
+            throw (RuntimeException) failure.exception;
+        } else if (failure.exception instanceof Error) {
+            throw (Error) failure.exception;
+        } else if (failure.exception != null) {
+            throw new IOException(failure.exception);
+        }
+
+        return readPaths;
+
+    }
+
+    /**
+     * Task which hashes a file and notifies the hash to a listener.
+     */
+    private static final class HashTask implements Runnable {
+
+        /**
+         * First exception thrown by the tasks, shared among them: an exception thrown by the
+         * listener, or an error thrown hashing a file.
+         */
+        private static final class Failure {
+
+            /**
+             * The exception, or null if none has been thrown.
+             */
+            private volatile Throwable exception;
+
+            /**
+             * Records an exception, unless another one was recorded before.
+             * 
+             * @param throwable The exception.
+             */
+            private synchronized void record(
+                    Throwable throwable) {
+
+                if (exception == null) {
+                    exception = throwable;
+                }
+
+            }
+
+        }
+
+        /**
+         * Path of the file.
+         */
+        private final String path;
+
+        /**
+         * Relation between data length and the hash mean number of blocks.
+         */
+        private final int factor;
+
+        /**
+         * The listener.
+         */
+        private final Listener listener;
+
+        /**
+         * Permits of the paths waiting to be hashed, one of which is released by this task.
+         */
+        private final Semaphore pendingPaths;
+
+        /**
+         * First exception thrown by the tasks.
+         */
+        private final Failure failure;
+
+        /**
+         * Constructor.
+         * 
+         * @param path Path of the file.
+         * @param factor Relation between data length and the hash mean number of blocks.
+         * @param listener The listener.
+         * @param pendingPaths Permits of the paths waiting to be hashed.
+         * @param failure First exception thrown by the tasks.
+         */
+        private HashTask(
+                String path,
+                int factor,
+                Listener listener,
+                Semaphore pendingPaths,
+                Failure failure) {
+
+            this.path = path;
+            this.factor = factor;
+            this.listener = listener;
+            this.pendingPaths = pendingPaths;
+            this.failure = failure;
+
+        }
+
+        @Override
+        public void run() {
+
+            try {
+
+                if (failure.exception != null) {
+                    return;
+                }
+
+                UniformFuzzyHash hash = null;
+                IOException hashException = null;
+
+                try {
+                    hash = new UniformFuzzyHash(new File(path), factor);
+                } catch (IOException ioException) {
+                    hashException = ioException;
+                } catch (RuntimeException runtimeException) {
+                    hashException = new IOException(String.format(
+                            "%s could not be hashed: %s",
+                            path,
+                            runtimeException.getMessage()), runtimeException);
+                }
+
+                synchronized (listener) {
+                    if (failure.exception == null) {
+                        if (hash != null) {
+                            listener.hashComputed(path, hash);
+                        } else {
+                            listener.hashFailed(path, hashException);
+                        }
+                    }
+                }
+
+            } catch (IOException ioException) {
+                failure.record(ioException);
+            } catch (RuntimeException runtimeException) {
+                failure.record(runtimeException);
+            } catch (Error error) {
+                failure.record(error);
+            } finally {
+                pendingPaths.release();
+            }
+
+        }
+
+    }
+
+}
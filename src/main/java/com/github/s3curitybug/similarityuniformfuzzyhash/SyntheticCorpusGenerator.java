@@ -0,0 +1,1035 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.CSV_TRIMMED_SEPARATOR;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeCsv;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.formatDecimal;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.FileWriterWithEncoding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * This class generates synthetic corpora of files with controlled similarity, to test and
+ * benchmark batch comparisons at scales for which there is no real data at hand.
+ * Every generated document is derived from a seed document (its ancestor): a random window of the
+ * seed is taken and a number of random edits are applied to it: insertions of new bytes, deletions,
+ * reorderings of segments, and insertions of segments shared with other seed documents.
+ * The generator keeps track of which seed bytes each generated document is made of, which allows to
+ * compute the ground truth similarity between any two generated documents.
+ * Generated documents are written one by one, so corpora of millions of files can be generated
+ * with bounded memory.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class SyntheticCorpusGenerator {
+
+    /**
+     * Default minimum size in bytes of the generated documents.
+     */
+    public static final int DEFAULT_MIN_SIZE = 4 * 1024;
+
+    /**
+     * Default maximum size in bytes of the generated documents.
+     */
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    /**
+     * Default amount of edits applied to each generated document.
+     */
+    public static final int DEFAULT_EDITS = 8;
+
+    /**
+     * Default maximum size in bytes of each edit.
+     */
+    public static final int DEFAULT_MAX_EDIT_SIZE = 2 * 1024;
+
+    /**
+     * Default amount of randomly generated seed documents.
+     */
+    public static final int DEFAULT_RANDOM_SEEDS = 16;
+
+    /**
+     * Amount of generated files per subdirectory of the output directory.
+     */
+    public static final int FILES_PER_DIRECTORY = 1000;
+
+    /**
+     * Name of the ground truth CSV file written into the output directory.
+     */
+    public static final String GROUND_TRUTH_FILE_NAME = "groundTruth.csv";
+
+    /**
+     * Name prefix of the generated documents.
+     */
+    private static final String DOCUMENT_NAME_PREFIX = "synthetic-";
+
+    /**
+     * Name extension of the generated documents.
+     */
+    private static final String DOCUMENT_NAME_EXTENSION = ".dat";
+
+    /**
+     * Name prefix of the randomly generated seed documents.
+     */
+    private static final String RANDOM_SEED_NAME_PREFIX = "seed-";
+
+    /**
+     * Alphabet of the randomly generated seed documents (text-like, so that they behave as the
+     * usual test files and not as compressed data).
+     */
+    private static final String RANDOM_SEED_ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    /**
+     * Maximum word length of the randomly generated seed documents.
+     */
+    private static final int RANDOM_SEED_MAX_WORD_LENGTH = 10;
+
+    /**
+     * Source of the document pieces made of inserted bytes.
+     */
+    private static final int INSERTED_SOURCE = -1;
+
+    /**
+     * Enum of types of edits.
+     */
+    public enum EditTypes {
+
+        /**
+         * Insertion of new bytes.
+         */
+        INSERTION,
+
+        /**
+         * Deletion of a segment.
+         */
+        DELETION,
+
+        /**
+         * Move of a segment to another position.
+         */
+        REORDERING,
+
+        /**
+         * Insertion of a segment of another seed document.
+         */
+        SHARED_SEGMENT;
+
+    }
+
+    /**
+     * Seed documents names.
+     */
+    private final List<String> seedNames;
+
+    /**
+     * Seed documents.
+     */
+    private final List<byte[]> seeds;
+
+    /**
+     * Pseudo random generator.
+     */
+    private final Random random;
+
+    /**
+     * Minimum size in bytes of the generated documents.
+     */
+    private int minSize;
+
+    /**
+     * Maximum size in bytes of the generated documents.
+     */
+    private int maxSize;
+
+    /**
+     * Amount of edits applied to each generated document.
+     */
+    private int edits;
+
+    /**
+     * Maximum size in bytes of each edit.
+     */
+    private int maxEditSize;
+
+    /**
+     * Relative weights of the types of edits (indexed by EditTypes ordinal).
+     */
+    private final int[] editWeights;
+
+    /**
+     * Builds a generator which derives documents from a map of identified seed documents.
+     * 
+     * @param seeds Map of identified seed documents.
+     * @param randomSeed Seed of the pseudo random generator. The same seed documents, random
+     *        seed and parameters always generate the same corpus.
+     */
+    public SyntheticCorpusGenerator(
+            Map<String, byte[]> seeds,
+            long randomSeed) {
+
+        if (seeds == null) {
+            throw new NullPointerException("Map of seed documents is null.");
+        }
+
+        this.seedNames = new ArrayList<>(seeds.size());
+        this.seeds = new ArrayList<>(seeds.size());
+
+        for (Entry<String, byte[]> entry : seeds.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().length > 0) {
+                this.seedNames.add(entry.getKey());
+                this.seeds.add(entry.getValue());
+            }
+        }
+
+        if (this.seeds.isEmpty()) {
+            throw new IllegalArgumentException("There are no non-empty seed documents.");
+        }
+
+        this.random = new Random(randomSeed);
+        this.minSize = DEFAULT_MIN_SIZE;
+        this.maxSize = DEFAULT_MAX_SIZE;
+        this.edits = DEFAULT_EDITS;
+        this.maxEditSize = DEFAULT_MAX_EDIT_SIZE;
+        this.editWeights = new int[EditTypes.values().length];
+
+        for (EditTypes editType : EditTypes.values()) {
+            this.editWeights[editType.ordinal()] = 1;
+        }
+
+    }
+
+    /**
+     * Builds a generator which derives documents from randomly generated text-like seed documents.
+     * 
+     * @param nSeeds Amount of seed documents. Must be greater than 0.
+     * @param seedsSize Size in bytes of each seed document, which limits the size of the generated
+     *        documents. Must be greater than 0.
+     * @param randomSeed Seed of the pseudo random generator. The same random seed and parameters
+     *        always generate the same corpus.
+     */
+    public SyntheticCorpusGenerator(
+            int nSeeds,
+            int seedsSize,
+            long randomSeed) {
+
+        this(randomSeeds(nSeeds, seedsSize, new Random(randomSeed)), randomSeed);
+
+    }
+
+    /**
+     * Reads a map of identified seed documents from a collection of files (identifying them by
+     * their names) and the files inside a collection of directories (identifying them by their
+     * paths relative to the introduced directory, separated by slashes). Files which do not exist
+     * are ignored. Two seed documents with the same identifier are not allowed.
+     * 
+     * @param files Collection of files or directories.
+     * @param nested True to read files inside nested directories recursively. False to only read
+     *        the files directly inside the introduced directories.
+     * @return Map of identified seed documents.
+     * @throws IOException If an IOException occurs reading any of the files.
+     */
+    public static Map<String, byte[]> readSeedsFromFiles(
+            Collection<File> files,
+            boolean nested)
+            throws IOException {
+
+        if (files == null) {
+            throw new NullPointerException("Collection of files is null.");
+        }
+
+        Map<String, byte[]> seeds = new LinkedHashMap<>(files.size());
+
+        for (File file : files) {
+
+            if (file == null || !file.exists()) {
+                continue;
+            }
+
+            if (file.isFile()) {
+                readSeedFromFile(file.getName(), file, seeds);
+            } else if (file.isDirectory()) {
+                readSeedsFromDirectory("", file, nested, seeds);
+            }
+
+        }
+
+        return seeds;
+
+    }
+
+    /**
+     * Reads the seed documents of the files inside a directory into a map of identified seed
+     * documents.
+     * 
+     * @param prefix Prefix of the identifiers: the path of the directory relative to the
+     *        introduced directory, followed by a slash, or empty for the introduced directory.
+     * @param directory The directory.
+     * @param nested True to read files inside nested directories recursively.
+     * @param seeds Map of identified seed documents.
+     * @throws IOException If an IOException occurs reading any of the files.
+     */
+    private static void readSeedsFromDirectory(
+            String prefix,
+            File directory,
+            boolean nested,
+            Map<String, byte[]> seeds)
+            throws IOException {
+
+        for (File nestedFile : directory.listFiles()) {
+            if (nestedFile.isFile()) {
+                readSeedFromFile(prefix + nestedFile.getName(), nestedFile, seeds);
+            } else if (nestedFile.isDirectory() && nested) {
+                readSeedsFromDirectory(
+                        prefix + nestedFile.getName() + "/", nestedFile, nested, seeds);
+            }
+        }
+
+    }
+
+    /**
+     * Reads the seed document of a file into a map of identified seed documents.
+     * 
+     * @param identifier Identifier of the seed document.
+     * @param file The file.
+     * @param seeds Map of identified seed documents.
+     * @throws IOException If an IOException occurs reading the file.
+     */
+    private static void readSeedFromFile(
+            String identifier,
+            File file,
+            Map<String, byte[]> seeds)
+            throws IOException {
+
+        if (seeds.containsKey(identifier)) {
+            throw new IllegalArgumentException(String.format(
+                    "There are several seed documents identified as %s.",
+                    identifier));
+        }
+
+        seeds.put(identifier, FileUtils.readFileToByteArray(file));
+
+    }
+
+    /**
+     * Sets the sizes of the generated documents. Sizes are chosen uniformly between the minimum and
+     * the maximum, and are limited by the size of the seed documents.
+     * 
+     * @param minSize Minimum size in bytes. Must be greater than 0.
+     * @param maxSize Maximum size in bytes. Must be greater or equal than the minimum size.
+     * @return This generator.
+     */
+    public SyntheticCorpusGenerator setSizes(
+            int minSize,
+            int maxSize) {
+
+        if (minSize < 1) {
+            throw new IllegalArgumentException("Minimum size must be greater than 0.");
+        }
+
+        if (maxSize < minSize) {
+            throw new IllegalArgumentException(
+                    "Maximum size must be greater or equal than the minimum size.");
+        }
+
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+
+        return this;
+
+    }
+
+    /**
+     * Sets the amount and size of the edits applied to each generated document.
+     * 
+     * @param edits Amount of edits. Introduce 0 to generate exact copies of seed windows.
+     * @param maxEditSize Maximum size in bytes of each edit. Must be greater than 0.
+     * @return This generator.
+     */
+    public SyntheticCorpusGenerator setEdits(
+            int edits,
+            int maxEditSize) {
+
+        if (edits < 0) {
+            throw new IllegalArgumentException("Amount of edits must not be negative.");
+        }
+
+        if (maxEditSize < 1) {
+            throw new IllegalArgumentException("Maximum edit size must be greater than 0.");
+        }
+
+        this.edits = edits;
+        this.maxEditSize = maxEditSize;
+
+        return this;
+
+    }
+
+    /**
+     * Sets the relative weight of a type of edit. By default, all types of edits have weight 1.
+     * 
+     * @param editType The type of edit.
+     * @param weight Its relative weight. Introduce 0 to never apply this type of edit.
+     * @return This generator.
+     */
+    public SyntheticCorpusGenerator setEditWeight(
+            EditTypes editType,
+            int weight) {
+
+        if (editType == null) {
+            throw new NullPointerException("Edit type is null.");
+        }
+
+        if (weight < 0) {
+            throw new IllegalArgumentException("Edit weight must not be negative.");
+        }
+
+        this.editWeights[editType.ordinal()] = weight;
+
+        return this;
+
+    }
+
+    /**
+     * @return The unmodifiable list of seed documents names.
+     */
+    public List<String> getSeedNames() {
+
+        return Collections.unmodifiableList(seedNames);
+
+    }
+
+    /**
+     * Generates a synthetic document.
+     * 
+     * @param name The document name.
+     * @return The generated document.
+     */
+    public SyntheticDocument generateDocument(
+            String name) {
+
+        // Ancestor window.
+        int ancestor = random.nextInt(seeds.size());
+        byte[] ancestorData = seeds.get(ancestor);
+
+        int size = minSize + random.nextInt(maxSize - minSize + 1);
+        size = Math.min(size, ancestorData.length);
+        int offset = random.nextInt(ancestorData.length - size + 1);
+
+        DocumentBuilder builder = new DocumentBuilder();
+        builder.pieces.add(new int[] {ancestor, offset, size});
+
+        // Edits.
+        int totalWeight = 0;
+        for (int editWeight : editWeights) {
+            totalWeight += editWeight;
+        }
+
+        for (int i = 0; i < edits && totalWeight > 0; i++) {
+
+            int weight = random.nextInt(totalWeight);
+            EditTypes editType = null;
+            for (EditTypes type : EditTypes.values()) {
+                weight -= editWeights[type.ordinal()];
+                if (weight < 0) {
+                    editType = type;
+                    break;
+                }
+            }
+
+            int length = builder.length();
+            int editSize = 1 + random.nextInt(maxEditSize);
+
+            switch (editType) {
+
+                case INSERTION:
+                    int insertedOffset = builder.insertRandom(editSize, ancestorData);
+                    builder.insert(random.nextInt(length + 1),
+                            INSERTED_SOURCE, insertedOffset, editSize);
+                    break;
+
+                case DELETION:
+                    if (length > 1) {
+                        editSize = Math.min(editSize, length - 1);
+                        builder.delete(random.nextInt(length - editSize + 1), editSize);
+                    }
+                    break;
+
+                case REORDERING:
+                    if (length > 1) {
+                        editSize = Math.min(editSize, length - 1);
+                        int from = random.nextInt(length - editSize + 1);
+                        List<int[]> moved = builder.delete(from, editSize);
+                        int to = random.nextInt(builder.length() + 1);
+                        builder.insert(to, moved);
+                    }
+                    break;
+
+                case SHARED_SEGMENT:
+                    int other = random.nextInt(seeds.size());
+                    if (seeds.size() > 1) {
+                        while (other == ancestor) {
+                            other = random.nextInt(seeds.size());
+                        }
+                    }
+                    byte[] otherData = seeds.get(other);
+                    editSize = Math.min(editSize, otherData.length);
+                    builder.insert(random.nextInt(length + 1),
+                            other, random.nextInt(otherData.length - editSize + 1), editSize);
+                    break;
+
+                default:
+                    break;
+
+            }
+
+        }
+
+        return builder.build(name, ancestor);
+
+    }
+
+    /**
+     * Generates a synthetic corpus into a directory: the generated documents are written in
+     * subdirectories of FILES_PER_DIRECTORY files each, and the ground truth of every document is
+     * written into the GROUND_TRUTH_FILE_NAME CSV file, which is overwritten.
+     * Documents are written as they are generated, so memory does not grow with the corpus size.
+     * 
+     * @param directory The output directory. It is created if it does not exist.
+     * @param nDocuments Amount of documents to generate.
+     * @throws IOException If an IOException occurs writing any of the files.
+     */
+    public void generate(
+            File directory,
+            int nDocuments)
+            throws IOException {
+
+        if (directory == null) {
+            throw new NullPointerException("Directory is null.");
+        }
+
+        if (directory.exists() && !directory.isDirectory()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a directory.",
+                    directory.getName()));
+        }
+
+        if (nDocuments < 0) {
+            throw new IllegalArgumentException("Amount of documents must not be negative.");
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException(String.format(
+                    "Directory %s could not be created.",
+                    directory.getName()));
+        }
+
+        int nameDigits = Integer.toString(Math.max(nDocuments - 1, 0)).length();
+        int directoryDigits = Integer.toString(
+                Math.max(nDocuments - 1, 0) / FILES_PER_DIRECTORY).length();
+
+        File groundTruthFile = new File(directory, GROUND_TRUTH_FILE_NAME);
+
+        try (PrintWriter writer = new PrintWriter(new FileWriterWithEncoding(
+                groundTruthFile, FILES_ENCODING, false))) {
+
+            writer.println(SyntheticDocument.csvHeader());
+
+            File subdirectory = null;
+            for (int i = 0; i < nDocuments; i++) {
+
+                if (i % FILES_PER_DIRECTORY == 0) {
+                    subdirectory = new File(directory, String.format(
+                            "%0" + directoryDigits + "d", i / FILES_PER_DIRECTORY));
+                    if (!subdirectory.exists() && !subdirectory.mkdirs()) {
+                        throw new IOException(String.format(
+                                "Directory %s could not be created.",
+                                subdirectory.getName()));
+                    }
+                }
+
+                String name = String.format(
+                        "%s%0" + nameDigits + "d%s",
+                        DOCUMENT_NAME_PREFIX, i, DOCUMENT_NAME_EXTENSION);
+
+                SyntheticDocument document = generateDocument(name);
+
+                try (OutputStream outputStream = new FileOutputStream(
+                        new File(subdirectory, name))) {
+                    outputStream.write(document.getData());
+                }
+
+                writer.println(document.toCsvLine(seedNames));
+
+            }
+
+        }
+
+    }
+
+    /**
+     * Generates random text-like seed documents.
+     * 
+     * @param nSeeds Amount of seed documents.
+     * @param size Size in bytes of each seed document.
+     * @param random Pseudo random generator.
+     * @return Map of identified seed documents.
+     */
+    private static Map<String, byte[]> randomSeeds(
+            int nSeeds,
+            int size,
+            Random random) {
+
+        Map<String, byte[]> seeds = new LinkedHashMap<>(nSeeds);
+
+        for (int i = 0; i < nSeeds; i++) {
+
+            byte[] data = new byte[size];
+
+            int j = 0;
+            while (j < size) {
+                int wordLength = 1 + random.nextInt(RANDOM_SEED_MAX_WORD_LENGTH);
+                for (int k = 0; k < wordLength && j < size; k++) {
+                    data[j++] = (byte) RANDOM_SEED_ALPHABET.charAt(
+                            random.nextInt(RANDOM_SEED_ALPHABET.length()));
+                }
+                if (j < size) {
+                    data[j++] = ' ';
+                }
+            }
+
+            seeds.put(RANDOM_SEED_NAME_PREFIX + i, data);
+
+        }
+
+        return seeds;
+
+    }
+
+    /**
+     * Builder of a document as a list of pieces, each one being a segment of a seed document or of
+     * the inserted bytes. Pieces are int[] {source, offset, length}.
+     */
+    private final class DocumentBuilder {
+
+        /**
+         * Document pieces.
+         */
+        private final List<int[]> pieces = new ArrayList<>();
+
+        /**
+         * Inserted bytes.
+         */
+        private final ByteArrayOutputStream inserted = new ByteArrayOutputStream();
+
+        /**
+         * @return The document length.
+         */
+        private int length() {
+
+            int length = 0;
+
+            for (int[] piece : pieces) {
+                length += piece[2];
+            }
+
+            return length;
+
+        }
+
+        /**
+         * Splits the piece containing a position, so that a piece starts at that position.
+         * 
+         * @param position A position in the document.
+         * @return The index of the piece starting at that position.
+         */
+        private int split(
+                int position) {
+
+            int pieceStart = 0;
+
+            for (int i = 0; i < pieces.size(); i++) {
+
+                int[] piece = pieces.get(i);
+
+                if (position == pieceStart) {
+                    return i;
+                }
+
+                if (position < pieceStart + piece[2]) {
+                    int headLength = position - pieceStart;
+                    pieces.set(i, new int[] {piece[0], piece[1], headLength});
+                    pieces.add(i + 1,
+                            new int[] {piece[0], piece[1] + headLength, piece[2] - headLength});
+                    return i + 1;
+                }
+
+                pieceStart += piece[2];
+
+            }
+
+            return pieces.size();
+
+        }
+
+        /**
+         * Inserts a piece at a position.
+         * 
+         * @param position The position.
+         * @param source The piece source.
+         * @param offset The piece offset inside its source.
+         * @param length The piece length.
+         */
+        private void insert(
+                int position,
+                int source,
+                int offset,
+                int length) {
+
+            pieces.add(split(position), new int[] {source, offset, length});
+
+        }
+
+        /**
+         * Inserts a list of pieces at a position.
+         * 
+         * @param position The position.
+         * @param inserts The pieces.
+         */
+        private void insert(
+                int position,
+                List<int[]> inserts) {
+
+            pieces.addAll(split(position), inserts);
+
+        }
+
+        /**
+         * Deletes a segment.
+         * 
+         * @param position The segment position.
+         * @param length The segment length.
+         * @return The deleted pieces.
+         */
+        private List<int[]> delete(
+                int position,
+                int length) {
+
+            int start = split(position);
+            int end = split(position + length);
+
+            List<int[]> deleted = new ArrayList<>(pieces.subList(start, end));
+            pieces.subList(start, end).clear();
+
+            return deleted;
+
+        }
+
+        /**
+         * Appends random bytes, drawn from the byte distribution of a seed document, to the
+         * inserted bytes.
+         * 
+         * @param length Amount of bytes.
+         * @param distribution Seed document whose bytes are drawn.
+         * @return The offset of the new bytes inside the inserted bytes.
+         */
+        private int insertRandom(
+                int length,
+                byte[] distribution) {
+
+            int offset = inserted.size();
+            byte[] newInserted = new byte[length];
+
+            for (int i = 0; i < length; i++) {
+                newInserted[i] = distribution[random.nextInt(distribution.length)];
+            }
+
+            inserted.write(newInserted, 0, length);
+
+            return offset;
+
+        }
+
+        /**
+         * Builds the document.
+         * 
+         * @param name The document name.
+         * @param ancestor The index of the ancestor seed document.
+         * @return The document.
+         */
+        private SyntheticDocument build(
+                String name,
+                int ancestor) {
+
+            byte[] data = new byte[length()];
+            byte[] insertedData = inserted.toByteArray();
+            List<int[]> segments = new ArrayList<>(pieces.size());
+
+            int position = 0;
+            for (int[] piece : pieces) {
+                if (piece[2] == 0) {
+                    continue;
+                }
+                if (piece[0] == INSERTED_SOURCE) {
+                    System.arraycopy(insertedData, piece[1], data, position, piece[2]);
+                } else {
+                    System.arraycopy(seeds.get(piece[0]), piece[1], data, position, piece[2]);
+                    segments.add(piece);
+                }
+                position += piece[2];
+            }
+
+            return new SyntheticDocument(name, data, ancestor, segments);
+
+        }
+
+    }
+
+    /**
+     * This class represents a generated synthetic document and its ground truth: the segments of
+     * seed documents it is made of.
+     */
+    public static final class SyntheticDocument {
+
+        /**
+         * Document name.
+         */
+        private final String name;
+
+        /**
+         * Document data.
+         */
+        private final byte[] data;
+
+        /**
+         * Index of the ancestor seed document.
+         */
+        private final int ancestor;
+
+        /**
+         * Seed segments the document is made of, in document order, as int[] {seed, offset,
+         * length}.
+         */
+        private final List<int[]> segments;
+
+        /**
+         * Constructor.
+         * 
+         * @param name Document name.
+         * @param data Document data.
+         * @param ancestor Index of the ancestor seed document.
+         * @param segments Seed segments the document is made of.
+         */
+        private SyntheticDocument(
+                String name,
+                byte[] data,
+                int ancestor,
+                List<int[]> segments) {
+
+            this.name = name;
+            this.data = data;
+            this.ancestor = ancestor;
+            this.segments = segments;
+
+        }
+
+        /**
+         * @return The document name.
+         */
+        public String getName() {
+
+            return name;
+
+        }
+
+        /**
+         * @return The document data.
+         */
+        public byte[] getData() {
+
+            return data;
+
+        }
+
+        /**
+         * @return The index of the ancestor seed document.
+         */
+        public int getAncestor() {
+
+            return ancestor;
+
+        }
+
+        /**
+         * @param seed Index of a seed document.
+         * @return Amount of bytes of this document copied from that seed document.
+         */
+        public int getBytesFromSeed(
+                int seed) {
+
+            int bytes = 0;
+
+            for (int[] segment : segments) {
+                if (segment[0] == seed) {
+                    bytes += segment[2];
+                }
+            }
+
+            return bytes;
+
+        }
+
+        /**
+         * @return Amount of bytes of this document which were inserted (not copied from any seed
+         *         document).
+         */
+        public int getInsertedBytes() {
+
+            int bytes = data.length;
+
+            for (int[] segment : segments) {
+                bytes -= segment[2];
+            }
+
+            return bytes;
+
+        }
+
+        /**
+         * Computes the ground truth similarity of this document to another one: the amount of
+         * bytes of this document copied from seed bytes which the other document also contains,
+         * over the size of this document.
+         * Except for chance matches of small blocks, it is the byte level upper bound of the
+         * Uniform Fuzzy Hash similarity: the hashes of both documents can only share blocks which
+         * lie inside common segments, and segments shorter than a couple of blocks are not likely
+         * to produce any shared block.
+         * Only the origin of the bytes is taken into account, so if the seed documents share
+         * content among them, the real similarity can be higher.
+         * 
+         * @param other Another synthetic document generated by the same generator.
+         * @return The ground truth similarity, between 0 and 1.
+         */
+        public double expectedSimilarity(
+                SyntheticDocument other) {
+
+            if (other == null) {
+                throw new NullPointerException("Synthetic document is null.");
+            }
+
+            if (data.length == 0) {
+                return 0;
+            }
+
+            long sharedBytes = 0;
+
+            for (int[] segment : segments) {
+
+                // Union of the other document segments of the same seed overlapping this one.
+                List<int[]> overlaps = new ArrayList<>();
+                for (int[] otherSegment : other.segments) {
+                    if (otherSegment[0] == segment[0]) {
+                        int start = Math.max(segment[1], otherSegment[1]);
+                        int end = Math.min(segment[1] + segment[2],
+                                otherSegment[1] + otherSegment[2]);
+                        if (start < end) {
+                            overlaps.add(new int[] {start, end});
+                        }
+                    }
+                }
+
+                Collections.sort(overlaps, new Comparator<int[]>() {
+
+                    @Override
+                    public int compare(
+                            int[] overlap1,
+                            int[] overlap2) {
+
+                        return Integer.compare(overlap1[0], overlap2[0]);
+
+                    }
+
+                });
+
+                int covered = Integer.MIN_VALUE;
+                for (int[] overlap : overlaps) {
+                    int start = Math.max(overlap[0], covered);
+                    if (start < overlap[1]) {
+                        sharedBytes += overlap[1] - start;
+                        covered = overlap[1];
+                    }
+                }
+
+            }
+
+            return (double) sharedBytes / data.length;
+
+        }
+
+        /**
+         * @return The header of the ground truth CSV.
+         */
+        private static String csvHeader() {
+
+            return String.join(CSV_TRIMMED_SEPARATOR,
+                    "Name", "Size", "Ancestor", "AncestorBytes", "InsertedBytes",
+                    "SharedBytes", "AncestorFraction", "Segments");
+
+        }
+
+        /**
+         * Builds the ground truth CSV line of this document. Segments are written as
+         * seed:offset+length, separated by spaces.
+         * 
+         * @param seedNames Seed documents names.
+         * @return The ground truth CSV line.
+         */
+        private String toCsvLine(
+                List<String> seedNames) {
+
+            int ancestorBytes = getBytesFromSeed(ancestor);
+            int insertedBytes = getInsertedBytes();
+            int sharedBytes = data.length - ancestorBytes - insertedBytes;
+
+            StringBuilder segmentsStrB = new StringBuilder();
+            for (int[] segment : segments) {
+                if (segmentsStrB.length() != 0) {
+                    segmentsStrB.append(' ');
+                }
+                segmentsStrB.append(segment[0]);
+                segmentsStrB.append(':');
+                segmentsStrB.append(segment[1]);
+                segmentsStrB.append('+');
+                segmentsStrB.append(segment[2]);
+            }
+
+            return String.join(CSV_TRIMMED_SEPARATOR,
+                    escapeCsv(name),
+                    Integer.toString(data.length),
+                    escapeCsv(seedNames.get(ancestor)),
+                    Integer.toString(ancestorBytes),
+                    Integer.toString(insertedBytes),
+                    Integer.toString(sharedBytes),
+                    formatDecimal(data.length == 0 ? 0 : (double) ancestorBytes / data.length),
+                    segmentsStrB.toString());
+
+        }
+
+    }
+
+}
@@ -93,6 +93,16 @@ public final class ToStringUtils {
     public static final Pattern CSV_SPLIT_PATTERN =
             Pattern.compile(",(?=([^\"]*\"[^\"]*\")*[^\"]*$)");
 
+    /**
+     * Quotation mark for JSON strings.
+     */
+    public static final String JSON_QUOTATION_MARK = "\"";
+
+    /**
+     * JSON null literal.
+     */
+    public static final String JSON_NULL = "null";
+
     /**
      * Maximum number of characters of an integer string representation.
      */
@@ -154,6 +164,48 @@ public final class ToStringUtils {
             + DECIMALS_FORMAT.getMinimumIntegerDigits()
             + DECIMALS_FORMAT.getMaximumFractionDigits();
 
+    /**
+     * Powers of ten by which decimal numbers are scaled to round their fraction digits.
+     */
+    private static final double[] POWERS_OF_TEN = {1, 10, 100, 1000};
+
+    /**
+     * Maximum number of fraction digits of the decimal numbers formatted without a DecimalFormat.
+     */
+    private static final int FAST_FORMAT_MAX_FRACTION_DIGITS = POWERS_OF_TEN.length - 1;
+
+    /**
+     * Maximum decimal number formatted without a DecimalFormat: the largest one whose scaled
+     * halves are exactly represented by a double.
+     */
+    private static final double FAST_FORMAT_MAX_DECIMAL = 1L << 42;
+
+    /**
+     * Maximum number of characters of a decimal number formatted without a DecimalFormat.
+     */
+    private static final int FAST_FORMAT_MAX_CHARS = 1
+            + Long.toString((long) FAST_FORMAT_MAX_DECIMAL).length()
+            + FAST_FORMAT_MAX_FRACTION_DIGITS;
+
+    /**
+     * Veltkamp splitter (2 ^ 27 + 1) to split a double into two halves of 26 bits.
+     */
+    private static final double SPLITTER = 134217729;
+
+    /**
+     * Buffer of each thread to format decimal numbers.
+     */
+    private static final ThreadLocal<char[]> DECIMAL_BUFFERS = new ThreadLocal<char[]>() {
+
+        @Override
+        protected char[] initialValue() {
+
+            return new char[FAST_FORMAT_MAX_CHARS];
+
+        }
+
+    };
+
     /**
      * Unicode control character.
      */
@@ -190,6 +242,11 @@ public final class ToStringUtils {
          */
         GREEN_FONT(32),
 
+        /**
+         * Yellow font color.
+         */
+        YELLOW_FONT(33),
+
         /**
          * Blue font color.
          */
@@ -359,7 +416,8 @@ public final class ToStringUtils {
             return NULL_VALUE;
         }
 
-        return DECIMALS_FORMAT.format(decimal);
+        return formatDecimal(decimal.doubleValue(), DECIMALS_FORMAT.getMaximumFractionDigits(),
+                DECIMALS_FORMAT.getMinimumFractionDigits());
 
     }
 
@@ -399,6 +457,212 @@ public final class ToStringUtils {
 
     }
 
+    /**
+     * Formats a decimal number in the same format as DECIMALS_FORMAT, writing it into a char
+     * buffer. Decimal numbers from 0 to 2 ^ 42 are formatted without allocating any object and
+     * without sharing any state, so this method can be called from parallel threads.
+     * 
+     * @param decimal A decimal number.
+     * @param buffer The buffer. It must have room for the formatted decimal number.
+     * @param offset The position of the buffer from which to write the formatted decimal number.
+     * @return The position of the buffer after the formatted decimal number.
+     */
+    public static int formatDecimal(
+            double decimal,
+            char[] buffer,
+            int offset) {
+
+        return formatDecimal(decimal, DECIMALS_FORMAT.getMaximumFractionDigits(),
+                DECIMALS_FORMAT.getMinimumFractionDigits(), buffer, offset);
+
+    }
+
+    /**
+     * Formats a decimal number in the same format as DECIMALS_FORMAT, appending it to a string
+     * builder. Decimal numbers from 0 to 2 ^ 42 are appended without allocating any object
+     * (unless the builder grows), so this method can be called for every cell of big tables and
+     * from parallel threads.
+     * 
+     * @param decimal A decimal number.
+     * @param builder The string builder.
+     */
+    public static void appendDecimal(
+            Double decimal,
+            StringBuilder builder) {
+
+        if (decimal == null) {
+            builder.append(NULL_VALUE);
+        } else if (isFastFormattable(decimal)) {
+            char[] buffer = DECIMAL_BUFFERS.get();
+            builder.append(buffer, 0, formatDecimal(decimal, buffer, 0));
+        } else {
+            builder.append(formatDecimal(decimal));
+        }
+
+    }
+
+    /**
+     * Formats a decimal number with a maximum and a minimum number of fraction digits, rounding
+     * it half to even like DecimalFormat.
+     * 
+     * @param decimal A decimal number.
+     * @param maximumFractionDigits Maximum number of fraction digits (up to 3 are formatted
+     *        without a DecimalFormat).
+     * @param minimumFractionDigits Minimum number of fraction digits.
+     * @return The formatted decimal number.
+     */
+    protected static String formatDecimal(
+            double decimal,
+            int maximumFractionDigits,
+            int minimumFractionDigits) {
+
+        if (!isFastFormattable(decimal)
+                || maximumFractionDigits > FAST_FORMAT_MAX_FRACTION_DIGITS) {
+            return createDecimalFormat(maximumFractionDigits, minimumFractionDigits)
+                    .format(decimal);
+        }
+
+        char[] buffer = DECIMAL_BUFFERS.get();
+        int length = formatDecimal(decimal, maximumFractionDigits, minimumFractionDigits,
+                buffer, 0);
+
+        return new String(buffer, 0, length);
+
+    }
+
+    /**
+     * Formats a decimal number with a maximum and a minimum number of fraction digits, rounding
+     * it half to even like DecimalFormat, and writes it into a char buffer.
+     * 
+     * @param decimal A decimal number.
+     * @param maximumFractionDigits Maximum number of fraction digits.
+     * @param minimumFractionDigits Minimum number of fraction digits.
+     * @param buffer The buffer.
+     * @param offset The position of the buffer from which to write the formatted decimal number.
+     * @return The position of the buffer after the formatted decimal number.
+     */
+    private static int formatDecimal(
+            double decimal,
+            int maximumFractionDigits,
+            int minimumFractionDigits,
+            char[] buffer,
+            int offset) {
+
+        // Numbers out of the fast range are formatted with a DecimalFormat.
+        if (!isFastFormattable(decimal)
+                || maximumFractionDigits > FAST_FORMAT_MAX_FRACTION_DIGITS) {
+            String formatted = createDecimalFormat(maximumFractionDigits, minimumFractionDigits)
+                    .format(decimal);
+            formatted.getChars(0, formatted.length(), buffer, offset);
+            return offset + formatted.length();
+        }
+
+        long scale = (long) POWERS_OF_TEN[maximumFractionDigits];
+        long scaled = roundScaled(decimal, maximumFractionDigits);
+        long integerPart = scaled / scale;
+        long fractionPart = scaled % scale;
+
+        // Integer digits.
+        int integerDigits = 1;
+        for (long rest = integerPart / 10; rest > 0; rest /= 10) {
+            integerDigits++;
+        }
+
+        int position = offset + integerDigits;
+        for (int i = position - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + integerPart % 10);
+            integerPart /= 10;
+        }
+
+        // Fraction digits, without trailing zeros beyond the minimum.
+        int fractionDigits = maximumFractionDigits;
+        while (fractionDigits > minimumFractionDigits && fractionPart % 10 == 0) {
+            fractionPart /= 10;
+            fractionDigits--;
+        }
+
+        if (fractionDigits > 0) {
+            buffer[position++] = DECIMALS_FORMAT_SYMBOLS.getDecimalSeparator();
+            for (int i = position + fractionDigits - 1; i >= position; i--) {
+                buffer[i] = (char) ('0' + fractionPart % 10);
+                fractionPart /= 10;
+            }
+            position += fractionDigits;
+        }
+
+        return position;
+
+    }
+
+    /**
+     * Rounds a decimal number of the fast range to a number of fraction digits, half to even over
+     * its exact binary value (as DecimalFormat specifies), and scales it to an integer. The
+     * product of the decimal number by the scale is computed together with its exact rounding
+     * error (Dekker's product), so doubles slightly above or below a half are rounded up or down.
+     * 
+     * @param decimal A decimal number from 0 to 2 ^ 42.
+     * @param fractionDigits Number of fraction digits (up to 3).
+     * @return The rounded decimal number multiplied by 10 ^ fractionDigits.
+     */
+    private static long roundScaled(
+            double decimal,
+            int fractionDigits) {
+
+        double scale = POWERS_OF_TEN[fractionDigits];
+        double scaled = decimal * scale;
+        long floor = (long) scaled;
+
+        // Far below the first half.
+        if (scaled < 0.25) {
+            return 0;
+        }
+
+        // Exact rounding error of the product.
+        double split = decimal * SPLITTER;
+        double high = split - (split - decimal);
+        double low = decimal - high;
+        double error = (high * scale - scaled) + low * scale;
+
+        // Exact sign of the difference to the half (the subtraction is exact).
+        double difference = (scaled - (floor + 0.5)) + error;
+
+        if (difference > 0 || (difference == 0 && (floor & 1) == 1)) {
+            return floor + 1;
+        }
+
+        return floor;
+
+    }
+
+    /**
+     * @param decimal A decimal number.
+     * @return True if the decimal number is formatted without a DecimalFormat.
+     */
+    private static boolean isFastFormattable(
+            double decimal) {
+
+        return decimal >= 0 && decimal <= FAST_FORMAT_MAX_DECIMAL
+                && Double.doubleToRawLongBits(decimal) >= 0;
+
+    }
+
+    /**
+     * @param maximumFractionDigits Maximum number of fraction digits.
+     * @param minimumFractionDigits Minimum number of fraction digits.
+     * @return A new DecimalFormat with the symbols of DECIMALS_FORMAT.
+     */
+    private static DecimalFormat createDecimalFormat(
+            int maximumFractionDigits,
+            int minimumFractionDigits) {
+
+        DecimalFormat decimalFormat = new DecimalFormat("0", DECIMALS_FORMAT_SYMBOLS);
+        decimalFormat.setMaximumFractionDigits(maximumFractionDigits);
+        decimalFormat.setMinimumFractionDigits(minimumFractionDigits);
+
+        return decimalFormat;
+
+    }
+
     /**
      * @param string A string to be repeated.
      * @param n Amount of repetitions.
@@ -489,6 +753,114 @@ public final class ToStringUtils {
 
     }
 
+    /**
+     * Escapes a string to include it into an HTML document, as text or as a quoted attribute
+     * value.
+     * 
+     * @param str The string to escape.
+     * @return The escaped string.
+     */
+    public static String escapeHtml(
+            String str) {
+
+        StringBuilder strB = new StringBuilder(str.length());
+
+        for (int i = 0; i < str.length(); i++) {
+
+            char c = str.charAt(i);
+
+            switch (c) {
+
+                case '&':
+                    strB.append("&amp;");
+                    break;
+
+                case '<':
+                    strB.append("&lt;");
+                    break;
+
+                case '>':
+                    strB.append("&gt;");
+                    break;
+
+                case '"':
+                    strB.append("&quot;");
+                    break;
+
+                case '\'':
+                    strB.append("&#39;");
+                    break;
+
+                default:
+                    strB.append(c);
+
+            }
+
+        }
+
+        return strB.toString();
+
+    }
+
+    /**
+     * Escapes a string to include it into a JSON document as a quoted JSON string.
+     * 
+     * @param str The string to escape. Can be null.
+     * @return The escaped and quoted string, or the JSON null literal if the string is null.
+     */
+    public static String escapeJson(
+            String str) {
+
+        if (str == null) {
+            return JSON_NULL;
+        }
+
+        StringBuilder strB = new StringBuilder(str.length() + 2);
+        strB.append(JSON_QUOTATION_MARK);
+
+        for (int i = 0; i < str.length(); i++) {
+
+            char c = str.charAt(i);
+
+            switch (c) {
+
+                case '"':
+                    strB.append("\\\"");
+                    break;
+
+                case '\\':
+                    strB.append("\\\\");
+                    break;
+
+                case '\n':
+                    strB.append("\\n");
+                    break;
+
+                case '\r':
+                    strB.append("\\r");
+                    break;
+
+                case '\t':
+                    strB.append("\\t");
+                    break;
+
+                default:
+                    if (c < 0x20) {
+                        strB.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        strB.append(c);
+                    }
+
+            }
+
+        }
+
+        strB.append(JSON_QUOTATION_MARK);
+
+        return strB.toString();
+
+    }
+
     /**
      * Splits a CSV into a list of strings.
      * 
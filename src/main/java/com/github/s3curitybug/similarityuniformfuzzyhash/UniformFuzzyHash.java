@@ -5,25 +5,29 @@ import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.BL
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FACTOR_SEPARATOR;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FACTOR_WITH_SEP_MAX_CHARS;
 
-import org.apache.commons.io.IOUtils;
-
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * This class represents a Uniform Fuzzy Hash.
+ * Uniform Fuzzy Hashes are immutable: their factor, data size and blocks are final and never
+ * change after construction, so a hash can be shared among any number of threads, and compared
+ * concurrently, without locks or defensive copies. The lookup structures derived from the blocks
+ * (the set and the bitmap of blocks, and the sketch) are built lazily without locks and published
+ * through volatile fields: threads racing to build one of them may build it more than once, but
+ * every thread always sees either nothing or a fully built structure, and all of them are equal.
  * 
  * @author s3curitybug@gmail.com
  *
@@ -35,6 +39,16 @@ public class UniformFuzzyHash {
      */
     protected static final int BLOCK_HASH_MODULO = Integer.MAX_VALUE;
 
+    /**
+     * Base 2 logarithm of the amount of bits of the bitmap of blocks of a hash.
+     */
+    protected static final int BLOCKS_BITMAP_BITS_LOG = 12;
+
+    /**
+     * Amount of longs of the bitmap of blocks of a hash.
+     */
+    protected static final int BLOCKS_BITMAP_LONGS = (1 << BLOCKS_BITMAP_BITS_LOG) / Long.SIZE;
+
     /**
      * Enum of types of similarity.
      */
@@ -117,32 +131,72 @@ public class UniformFuzzyHash {
     /**
      * Factor the hash was computed with.
      */
-    private int factor;
+    private final int factor;
 
     /**
      * Size in bytes of the data the hash was computed with.
      */
-    private int dataSize;
+    private final int dataSize;
+
+    /**
+     * Hash blocks (unmodifiable).
+     */
+    private final List<UniformFuzzyHashBlock> blocks;
 
     /**
-     * Hash blocks.
+     * Hash blocks set, built lazily. Useful to compute similarities.
      */
-    private List<UniformFuzzyHashBlock> blocks;
+    private volatile Set<UniformFuzzyHashBlock> blocksSet;
 
     /**
-     * Hash blocks set. Useful to compute similarities.
+     * Sum of the sizes in bytes of the distinct blocks of the hash, computed lazily (-1 until
+     * then). Useful to bound similarities.
      */
-    private Set<UniformFuzzyHashBlock> blocksSet;
+    private volatile int distinctBlocksSize;
+
+    /**
+     * Hash blocks bitmap, built lazily, with one bit set for each block. Useful to discard quickly
+     * that two hashes share any block.
+     */
+    private volatile long[] blocksBitmap;
+
+    /**
+     * Hash sketch with the default size, built lazily. Useful to estimate similarities in constant
+     * time.
+     */
+    private volatile UniformFuzzyHashSketch sketch;
 
     /**
      * Base constructor.
+     * 
+     * @param factor Factor the hash was computed with.
+     * @param dataSize Size in bytes of the data the hash was computed with.
+     * @param blocks Hash blocks. The list is wrapped, not copied, so it must not be modified.
      */
-    private UniformFuzzyHash() {
+    protected UniformFuzzyHash(
+            int factor,
+            int dataSize,
+            List<UniformFuzzyHashBlock> blocks) {
 
-        this.factor = 0;
-        this.dataSize = 0;
-        this.blocks = null;
+        this.factor = factor;
+        this.dataSize = dataSize;
+        this.blocks = Collections.unmodifiableList(blocks);
         this.blocksSet = null;
+        this.distinctBlocksSize = -1;
+        this.blocksBitmap = null;
+        this.sketch = null;
+
+    }
+
+    /**
+     * Copy constructor. Lookup structures are not copied.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     */
+    private UniformFuzzyHash(
+            UniformFuzzyHash hash) {
+
+        this(hash.factor, hash.dataSize, hash.blocks);
 
     }
 
@@ -157,13 +211,45 @@ public class UniformFuzzyHash {
             byte[] data,
             int factor) {
 
-        this();
+        this(factor, checkData(data).length,
+                HasherContext.acquire().computeBlocks(data, 0, data.length, factor));
 
-        if (data == null) {
-            throw new NullPointerException("Data is null.");
-        }
+    }
 
-        computeUniformFuzzyHash(data, factor);
+    /**
+     * Builds a Uniform Fuzzy Hash from a range of a byte array of data and a factor, reading the
+     * range in place.
+     * 
+     * @param data Byte array of data.
+     * @param offset Offset of the range.
+     * @param length Length of the range.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     */
+    public UniformFuzzyHash(
+            byte[] data,
+            int offset,
+            int length,
+            int factor) {
+
+        this(factor, length, HasherContext.acquire().computeBlocks(data, offset, length, factor));
+
+    }
+
+    /**
+     * Builds a Uniform Fuzzy Hash from the remaining bytes of a buffer of data and a factor,
+     * without changing the buffer position. Buffers with an accessible array are read in place,
+     * and the rest (direct and read-only buffers) chunk by chunk.
+     * 
+     * @param data Buffer of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     */
+    public UniformFuzzyHash(
+            ByteBuffer data,
+            int factor) {
+
+        this(HasherContext.acquire().hash(data, factor));
 
     }
 
@@ -179,14 +265,7 @@ public class UniformFuzzyHash {
             String data,
             int factor) {
 
-        this();
-
-        if (data == null) {
-            throw new NullPointerException("Data is null.");
-        }
-
-        byte[] byteArray = data.getBytes();
-        computeUniformFuzzyHash(byteArray, factor);
+        this(checkData(data).getBytes(), factor);
 
     }
 
@@ -203,14 +282,25 @@ public class UniformFuzzyHash {
             int factor)
             throws IOException {
 
-        this();
+        this(HasherContext.acquire().hash(data, factor));
 
-        if (data == null) {
-            throw new NullPointerException("Data is null.");
-        }
+    }
 
-        byte[] byteArray = IOUtils.toByteArray(data);
-        computeUniformFuzzyHash(byteArray, factor);
+    /**
+     * Builds a Uniform Fuzzy Hash from a readable channel of data and a factor, reading it chunk by
+     * chunk until its end. The channel must be in blocking mode, and it is not closed.
+     * 
+     * @param data Readable channel of data.
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
+     * @throws IOException If an IOException occurs reading the channel of data.
+     */
+    public UniformFuzzyHash(
+            ReadableByteChannel data,
+            int factor)
+            throws IOException {
+
+        this(HasherContext.acquire().hash(data, factor));
 
     }
 
@@ -225,14 +315,7 @@ public class UniformFuzzyHash {
             ByteArrayOutputStream data,
             int factor) {
 
-        this();
-
-        if (data == null) {
-            throw new NullPointerException("Data is null.");
-        }
-
-        byte[] byteArray = data.toByteArray();
-        computeUniformFuzzyHash(byteArray, factor);
+        this(checkData(data).toByteArray(), factor);
 
     }
 
@@ -249,121 +332,26 @@ public class UniformFuzzyHash {
             int factor)
             throws IOException {
 
-        this();
-
-        if (data == null) {
-            throw new NullPointerException("Data is null.");
-        }
-
-        if (!data.exists()) {
-            throw new IllegalArgumentException(String.format(
-                    "File %s does not exist.",
-                    data.getName()));
-        }
-
-        if (!data.isFile()) {
-            throw new IllegalArgumentException(String.format(
-                    "%s is not a file.",
-                    data.getName()));
-        }
-
-        byte[] byteArray = null;
-        try (InputStream inputStream = new FileInputStream(data)) {
-            byteArray = IOUtils.toByteArray(inputStream);
-        }
-        computeUniformFuzzyHash(byteArray, factor);
+        this(HasherContext.acquire().hash(data, factor));
 
     }
 
     /**
-     * Main algorithm computation.
+     * Checks that the data to compute a Uniform Fuzzy Hash is not null.
      * 
-     * @param data Byte array of data.
-     * @param factor Relation between data length and the hash mean number of blocks.
-     *        Must be greater than 2 and must be odd.
+     * @param <T> Data type.
+     * @param data Data.
+     * @return The data.
      */
-    private void computeUniformFuzzyHash(
-            byte[] data,
-            int factor) {
-
-        // Factor check.
-        checkFactor(factor);
-
-        // Attributes assignment.
-        this.factor = factor;
-        this.dataSize = data.length;
-        this.blocks = new LinkedList<>();
-
-        // Size in bytes of the rolling window.
-        // Size in bytes of factor + 5.
-        final int windowSize = sizeInBytes(factor) + 5;
-
-        // Window size shifter.
-        // Used to extract old data from the window.
-        // (2 ^ (8 * windowSize)) % factor.
-        final int windowSizeShifter = shiftBytesMod(windowSize, factor);
-
-        // Window hash match value to produce a block.
-        // Any number between 0 and factor - 1 should be valid.
-        final int windowHashMatchValue = factor - 1;
-
-        // Rolling window hash.
-        long windowHash = 0;
-
-        // Block hash.
-        long blockHash = 0;
-
-        // Block starting byte position (0 based).
-        int blockStartingBytePosition = 0;
-
-        // Hash computation.
-        for (int i = 0; i < data.length; i++) {
-
-            // Unsigned datum.
-            int datum = ubyte(data[i]);
-
-            // Window hash shift, new datum addition and old datum extraction.
-            if (i < windowSize) {
-
-                windowHash = ((windowHash << Byte.SIZE) + (datum)) % factor;
-
-            } else {
-
-                int oldDatum = ubyte(data[i - windowSize]);
-
-                windowHash = ((windowHash << Byte.SIZE) + (datum)
-                        - (oldDatum * windowSizeShifter)) % factor;
-
-                // Due to the subtraction, the modulo result might be negative.
-                if (windowHash < 0) {
-                    windowHash += factor;
-                }
-
-            }
-
-            // Block hash shift and new datum addition.
-            blockHash = ((blockHash << Byte.SIZE) + datum) % BLOCK_HASH_MODULO;
-
-            // Possible window hash match (block production).
-            // Match is only checked if the initial window has already been computed.
-            // Last data byte always produces a block.
-            if ((windowHash == windowHashMatchValue && i >= windowSize - 1)
-                    || (i == data.length - 1)) {
-
-                // New block addition.
-                blocks.add(new UniformFuzzyHashBlock(
-                        (int) blockHash, blockStartingBytePosition, i));
-
-                // Block hash reset.
-                blockHash = 0;
-
-                // Next block starting byte position.
-                blockStartingBytePosition = i + 1;
-
-            }
+    private static <T> T checkData(
+            T data) {
 
+        if (data == null) {
+            throw new NullPointerException("Data is null.");
         }
 
+        return data;
+
     }
 
     /**
@@ -372,6 +360,9 @@ public class UniformFuzzyHash {
     @Override
     public String toString() {
 
+        // Metrics start time.
+        long startTime = UniformFuzzyHashMetrics.startTime();
+
         // String builder.
         // Initial capacity enough to build the full hash string.
         StringBuilder strB = new StringBuilder(
@@ -390,7 +381,12 @@ public class UniformFuzzyHash {
             block.toString(strB);
         }
 
-        return strB.toString();
+        String hashString = strB.toString();
+
+        // Metrics.
+        UniformFuzzyHashMetrics.recordSerialize(startTime);
+
+        return hashString;
 
     }
 
@@ -408,8 +404,8 @@ public class UniformFuzzyHash {
             throw new NullPointerException("Hash string is null.");
         }
 
-        // Uniform Fuzzy Hash.
-        UniformFuzzyHash hash = new UniformFuzzyHash();
+        // Metrics start time.
+        long startTime = UniformFuzzyHashMetrics.startTime();
 
         // Split factor from blocks.
         int splitIndex = hashString.indexOf(FACTOR_SEPARATOR);
@@ -429,20 +425,22 @@ public class UniformFuzzyHash {
                     FACTOR_SEPARATOR));
         }
 
+        int factor;
+
         try {
-            hash.factor = Integer.parseInt(factorString);
+            factor = Integer.parseInt(factorString);
         } catch (NumberFormatException numberFormatException) {
             throw new IllegalArgumentException(String.format(
                     "Factor (%s) is not parseable.",
                     factorString.isEmpty()));
         }
 
-        checkFactor(hash.factor);
+        checkFactor(factor);
 
         // Blocks.
         String blocksString = hashString.substring(splitIndex + 1);
 
-        hash.blocks = new LinkedList<>();
+        List<UniformFuzzyHashBlock> blocks = new ArrayList<>();
 
         int blockNumber = 0;
         int blockStartingBytePosition = 0;
@@ -476,7 +474,7 @@ public class UniformFuzzyHash {
                             illegalArgumentException.getMessage()));
                 }
 
-                hash.blocks.add(block);
+                blocks.add(block);
 
                 // Next block.
                 blockNumber++;
@@ -486,8 +484,11 @@ public class UniformFuzzyHash {
 
         }
 
-        // Data size.
-        hash.dataSize = blockStartingBytePosition;
+        // Uniform Fuzzy Hash, whose data size is the sum of the blocks sizes.
+        UniformFuzzyHash hash = new UniformFuzzyHash(factor, blockStartingBytePosition, blocks);
+
+        // Metrics.
+        UniformFuzzyHashMetrics.recordParse(startTime);
 
         // Return.
         return hash;
@@ -513,6 +514,8 @@ public class UniformFuzzyHash {
             throw new NullPointerException("The Uniform Fuzzy Hash is null.");
         }
 
+        UniformFuzzyHashMetrics.recordSimilarity();
+
         if (other == this) {
             return 1;
         }
@@ -525,17 +528,20 @@ public class UniformFuzzyHash {
             return 0;
         }
 
+        // Flight recorder event.
+        Object event = FlightRecorderEvents.beginSimilarity();
+
         // Sum of the sizes in bytes of the blocks of this Uniform Fuzzy Hash which are also in the
         // introduced one.
         int sizeSum = 0;
 
         // Check which blocks of this Uniform Fuzzy Hash are in the set of blocks of the other
         // Uniform Fuzzy Hash.
-        other.accessBlocksSet();
+        Set<UniformFuzzyHashBlock> otherBlocksSet = other.accessBlocksSet();
 
         for (UniformFuzzyHashBlock block : this.blocks) {
 
-            if (other.blocksSet.contains(block)) {
+            if (otherBlocksSet.contains(block)) {
 
                 // Add their size to the sum of sizes.
                 sizeSum += block.getBlockSize();
@@ -547,6 +553,9 @@ public class UniformFuzzyHash {
         // Similarity computation.
         double similarity = (double) sizeSum / this.dataSize;
 
+        FlightRecorderEvents.commitSimilarity(
+                event, factor, this.blocks.size(), other.blocks.size(), similarity);
+
         return similarity;
 
     }
@@ -580,30 +589,110 @@ public class UniformFuzzyHash {
 
             default:
 
-                double similarity = this.similarity(other);
-                double reverse = other.similarity(this);
+                return combineSimilarities(
+                        this.similarity(other), other.similarity(this), similarityType);
+
+        }
+
+    }
+
+    /**
+     * Combines the similarity of a hash to another one and the reverse similarity into a type of
+     * similarity.
+     * 
+     * @param similarity The similarity of a hash to another one.
+     * @param reverse The similarity of the other hash to the first one.
+     * @param similarityType The type of similarity.
+     * @return The type of similarity.
+     */
+    protected static double combineSimilarities(
+            double similarity,
+            double reverse,
+            SimilarityTypes similarityType) {
+
+        switch (similarityType) {
 
-                switch (similarityType) {
+            case REVERSE_SIMILARITY:
+                return reverse;
 
-                    case MAXIMUM:
-                        return similarity >= reverse ? similarity : reverse;
+            case MAXIMUM:
+                return similarity >= reverse ? similarity : reverse;
 
-                    case MINIMUM:
-                        return similarity >= reverse ? reverse : similarity;
+            case MINIMUM:
+                return similarity >= reverse ? reverse : similarity;
 
-                    case ARITHMETIC_MEAN:
-                        return (similarity + reverse) / 2;
+            case ARITHMETIC_MEAN:
+                return (similarity + reverse) / 2;
 
-                    case GEOMETRIC_MEAN:
-                        return Math.sqrt(similarity * reverse);
+            case GEOMETRIC_MEAN:
+                return Math.sqrt(similarity * reverse);
 
-                    default:
-                        return similarity;
+            default:
+                return similarity;
 
-                }
+        }
+
+    }
+
+    /**
+     * Computes an upper bound of a type of similarity between this Uniform Fuzzy Hash and another
+     * one, in constant time once the distinct blocks of both hashes are known.
+     * The blocks of this hash which are also in the introduced one can sum at most the size of the
+     * distinct blocks of the introduced hash, plus the size of the repetitions of blocks of this
+     * hash (bytes in blocks which already appeared before in it). So, unless blocks are repeated,
+     * the similarity of this hash to the introduced one is at most the ratio of their data sizes.
+     * If the bound is below a threshold, the type of similarity is below it too, and the hashes
+     * do not need to be compared.
+     * 
+     * @param other Another Uniform Fuzzy Hash.
+     * @param similarityType The type of similarity.
+     * @return A number between 0 and 1 which is greater than or equal to the type of similarity
+     *         between this Uniform Fuzzy Hash and the introduced one.
+     */
+    public double similarityUpperBound(
+            UniformFuzzyHash other,
+            SimilarityTypes similarityType) {
+
+        // Parameters check.
+        if (other == null) {
+            throw new NullPointerException("The Uniform Fuzzy Hash is null.");
+        }
+
+        if (other == this) {
+            return 1;
+        }
+
+        if (other.factor != this.factor) {
+            throw new IllegalArgumentException("The Uniform Fuzzy Hashes factors are different.");
+        }
 
+        if (this.blocks.size() == 0 || other.blocks.size() == 0) {
+            return 0;
         }
 
+        return combineSimilarities(
+                this.directSimilarityUpperBound(other),
+                other.directSimilarityUpperBound(this),
+                similarityType);
+
+    }
+
+    /**
+     * Computes an upper bound of the similarity of this Uniform Fuzzy Hash to another non empty
+     * one.
+     * 
+     * @param other Another non empty Uniform Fuzzy Hash.
+     * @return A number between 0 and 1 which is greater than or equal to the similarity of this
+     *         Uniform Fuzzy Hash to the introduced one.
+     */
+    private double directSimilarityUpperBound(
+            UniformFuzzyHash other) {
+
+        int repeatedBlocksSize = this.dataSize - this.accessDistinctBlocksSize();
+        int maxSizeSum = other.accessDistinctBlocksSize() + repeatedBlocksSize;
+
+        return maxSizeSum >= this.dataSize ? 1 : (double) maxSizeSum / this.dataSize;
+
     }
 
     /**
@@ -636,6 +725,82 @@ public class UniformFuzzyHash {
 
     }
 
+    /**
+     * Computes the matched regions of this Uniform Fuzzy Hash compared to another one: the byte
+     * ranges of its data, merged into runs of consecutive blocks which are or are not in the
+     * introduced hash.
+     * 
+     * @param other Another Uniform Fuzzy Hash.
+     * @return The matched regions of this Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHashMatchedRegions matchedRegions(
+            UniformFuzzyHash other) {
+
+        return new UniformFuzzyHashMatchedRegions(this, other);
+
+    }
+
+    /**
+     * Indicates whether this Uniform Fuzzy Hash may share any block with another one, by checking
+     * if their bitmaps of blocks have any common bit. This check is much cheaper than computing
+     * their similarity, and has no false negatives: if it returns false, all the types of
+     * similarity between both hashes are 0.
+     * 
+     * @param other Another Uniform Fuzzy Hash.
+     * @return False if this Uniform Fuzzy Hash and the introduced one certainly do not share any
+     *         block. True otherwise.
+     */
+    public boolean mayShareBlocks(
+            UniformFuzzyHash other) {
+
+        // Parameters check.
+        if (other == null) {
+            throw new NullPointerException("The Uniform Fuzzy Hash is null.");
+        }
+
+        if (other == this) {
+            return true;
+        }
+
+        if (other.factor != this.factor) {
+            throw new IllegalArgumentException("The Uniform Fuzzy Hashes factors are different.");
+        }
+
+        if (this.blocks.size() != 0 && other.blocks.size() != 0) {
+
+            long[] bitmap = this.accessBlocksBitmap();
+            long[] otherBitmap = other.accessBlocksBitmap();
+
+            for (int i = 0; i < BLOCKS_BITMAP_LONGS; i++) {
+                if ((bitmap[i] & otherBitmap[i]) != 0) {
+                    return true;
+                }
+            }
+
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Builds a map of all the types of similarity between two hashes which do not share any block.
+     * 
+     * @return Map of all the types of similarity, all of them 0.
+     */
+    protected static Map<SimilarityTypes, Double> noSimilarities() {
+
+        Map<SimilarityTypes, Double> similarities =
+                new LinkedHashMap<>(SimilarityTypes.values().length);
+
+        for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+            similarities.put(similarityType, 0d);
+        }
+
+        return similarities;
+
+    }
+
     /**
      * Indicates whether this Uniform Fuzzy Hash is equal to another one.
      * 
@@ -723,7 +888,7 @@ public class UniformFuzzyHash {
     }
 
     /**
-     * @return The list of blocks of this hash.
+     * @return The unmodifiable list of blocks of this hash.
      */
     protected List<UniformFuzzyHashBlock> accessBlocks() {
 
@@ -736,93 +901,132 @@ public class UniformFuzzyHash {
      */
     public List<UniformFuzzyHashBlock> getBlocks() {
 
-        return Collections.unmodifiableList(blocks);
+        return blocks;
 
     }
 
     /**
-     * @return The set of blocks of this hash, building it if it is null.
+     * @return The set of blocks of this hash, building it if it is null. It must not be modified.
      */
     protected Set<UniformFuzzyHashBlock> accessBlocksSet() {
 
-        if (blocksSet == null) {
-            blocksSet = new HashSet<>(blocks);
+        // Single volatile read, and publication of the fully built set.
+        Set<UniformFuzzyHashBlock> set = blocksSet;
+
+        if (set == null) {
+            long startTime = UniformFuzzyHashMetrics.startTime();
+            Object event = FlightRecorderEvents.beginBlocksSetBuild();
+            set = new HashSet<>(blocks);
+            blocksSet = set;
+            UniformFuzzyHashMetrics.recordBlocksSetBuild(startTime);
+            FlightRecorderEvents.commitBlocksSetBuild(event, dataSize, blocks.size());
         }
 
-        return blocksSet;
+        return set;
 
     }
 
     /**
-     * @return The unmodifiable set of blocks of this hash.
+     * @return The sum of the sizes in bytes of the distinct blocks of this hash, computing it if
+     *         it has not been computed yet.
      */
-    public Set<UniformFuzzyHashBlock> getBlocksSet() {
+    protected int accessDistinctBlocksSize() {
 
-        return Collections.unmodifiableSet(accessBlocksSet());
+        // Single volatile read. Int writes are atomic, so the value is safely published.
+        int size = distinctBlocksSize;
+
+        if (size < 0) {
+            size = 0;
+            for (UniformFuzzyHashBlock block : accessBlocksSet()) {
+                size += block.getBlockSize();
+            }
+            distinctBlocksSize = size;
+        }
+
+        return size;
 
     }
 
     /**
-     * Checks if a factor is valid to compute a Uniform Fuzzy Hash. In case it is not, an
-     * IllegalArgumentException with a descriptive message is thrown.
-     * 
-     * @param factor Relation between data length and the hash mean number of blocks.
-     *        Must be greater than 2 and must be odd.
+     * @return The bitmap of blocks of this hash, building it if it is null. It must not be
+     *         modified.
      */
-    public static void checkFactor(
-            int factor) {
+    protected long[] accessBlocksBitmap() {
 
-        if (factor <= 2) {
-            throw new IllegalArgumentException("Factor must be greater than 2.");
-        }
+        // Single volatile read, and publication of the fully built bitmap.
+        long[] bitmap = blocksBitmap;
 
-        if (factor % 2 == 0) {
-            throw new IllegalArgumentException("Factor must be odd.");
+        if (bitmap == null) {
+            bitmap = new long[BLOCKS_BITMAP_LONGS];
+            for (UniformFuzzyHashBlock block : blocks) {
+                int bit = blocksBitmapBit(block);
+                bitmap[bit >>> 6] |= 1L << bit;
+            }
+            blocksBitmap = bitmap;
         }
 
+        return bitmap;
+
     }
 
     /**
-     * @param number Any integer number.
-     * @return The size in bytes of the number.
+     * @return The unmodifiable set of blocks of this hash.
      */
-    private static int sizeInBytes(
-            int number) {
+    public Set<UniformFuzzyHashBlock> getBlocksSet() {
 
-        return ((Integer.SIZE - Integer.numberOfLeadingZeros(number) - 1) / Byte.SIZE) + 1;
+        return Collections.unmodifiableSet(accessBlocksSet());
 
     }
 
     /**
-     * @param bytesShift Amount of bytes to shift.
-     * @param modulo Modulo of the operation.
-     * @return (2 ^ (8 * bytesShift)) % modulo.
+     * Computes the bit of the bitmap of blocks which corresponds to a block. Equal blocks (with
+     * equal hash and size) correspond to the same bit.
+     * 
+     * @param block A Uniform Fuzzy Hash Block.
+     * @return The bit index.
      */
-    private static int shiftBytesMod(
-            int bytesShift,
-            int modulo) {
+    private static int blocksBitmapBit(
+            UniformFuzzyHashBlock block) {
 
-        long ret = 1;
+        // Fibonacci hashing of the block hash and size, keeping the highest bits.
+        int key = block.getBlockHash() * 31 + block.getBlockSize();
+        return (key * 0x9E3779B9) >>> (Integer.SIZE - BLOCKS_BITMAP_BITS_LOG);
+
+    }
 
-        for (int i = 0; i < bytesShift; i++) {
-            ret = (ret << Byte.SIZE) % modulo;
+    /**
+     * @return The sketch of this hash with the default size, computing it if it is null.
+     */
+    public UniformFuzzyHashSketch getSketch() {
+
+        // Single volatile read, and publication of the fully built sketch.
+        UniformFuzzyHashSketch hashSketch = sketch;
+
+        if (hashSketch == null) {
+            hashSketch = new UniformFuzzyHashSketch(this);
+            sketch = hashSketch;
         }
 
-        return (int) ret;
+        return hashSketch;
 
     }
 
     /**
-     * @param b A (signed) byte.
-     * @return An integer representing the unsigned byte.
+     * Checks if a factor is valid to compute a Uniform Fuzzy Hash. In case it is not, an
+     * IllegalArgumentException with a descriptive message is thrown.
+     * 
+     * @param factor Relation between data length and the hash mean number of blocks.
+     *        Must be greater than 2 and must be odd.
      */
-    private static int ubyte(
-            byte b) {
+    public static void checkFactor(
+            int factor) {
+
+        if (factor <= 2) {
+            throw new IllegalArgumentException("Factor must be greater than 2.");
+        }
 
-        if (b >= 0) {
-            return b;
-        } else {
-            return (int) b - (int) 2 * Byte.MIN_VALUE;
+        if (factor % 2 == 0) {
+            throw new IllegalArgumentException("Factor must be odd.");
         }
 
     }
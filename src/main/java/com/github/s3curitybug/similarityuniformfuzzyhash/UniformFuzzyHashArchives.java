@@ -0,0 +1,737 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * This class provides utility static methods to compute the Uniform Fuzzy Hashes of the members of
+ * archives in a single streaming pass, without extracting them to disk.
+ * Zip archives (including jar, apk, docx and the like), tar archives and gzipped tar archives are
+ * supported, detecting their format from their first bytes. Members are hashed while they are
+ * decompressed, through the hasher context of the current thread, and identified as
+ * archive!member. Directories, links and special members are ignored.
+ * Tar archives are read with a small built-in reader, which supports the ustar, GNU long names and
+ * pax path extensions.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class UniformFuzzyHashArchives {
+
+    /**
+     * Separator between the archive name and the member name in the identifiers.
+     */
+    public static final String MEMBER_SEPARATOR = "!";
+
+    /**
+     * Size in bytes of a tar block.
+     */
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    /**
+     * Offset of the name field of a tar header.
+     */
+    private static final int TAR_NAME_OFFSET = 0;
+
+    /**
+     * Length of the name field of a tar header.
+     */
+    private static final int TAR_NAME_LENGTH = 100;
+
+    /**
+     * Offset of the size field of a tar header.
+     */
+    private static final int TAR_SIZE_OFFSET = 124;
+
+    /**
+     * Length of the size field of a tar header.
+     */
+    private static final int TAR_SIZE_LENGTH = 12;
+
+    /**
+     * Offset of the checksum field of a tar header.
+     */
+    private static final int TAR_CHECKSUM_OFFSET = 148;
+
+    /**
+     * Length of the checksum field of a tar header.
+     */
+    private static final int TAR_CHECKSUM_LENGTH = 8;
+
+    /**
+     * Offset of the type flag of a tar header.
+     */
+    private static final int TAR_TYPE_OFFSET = 156;
+
+    /**
+     * Offset of the magic field of a ustar header.
+     */
+    private static final int TAR_MAGIC_OFFSET = 257;
+
+    /**
+     * Length of the magic field of a ustar header.
+     */
+    private static final int TAR_MAGIC_LENGTH = 5;
+
+    /**
+     * Offset of the prefix field of a ustar header.
+     */
+    private static final int TAR_PREFIX_OFFSET = 345;
+
+    /**
+     * Length of the prefix field of a ustar header.
+     */
+    private static final int TAR_PREFIX_LENGTH = 155;
+
+    /**
+     * Magic of a ustar header.
+     */
+    private static final String TAR_MAGIC = "ustar";
+
+    /**
+     * Maximum size in bytes of the tar members which extend the header of the next one.
+     */
+    private static final int TAR_MAX_EXTENSION_SIZE = 1024 * 1024;
+
+    /**
+     * Pax path record key.
+     */
+    private static final String PAX_PATH_KEY = "path";
+
+    /**
+     * Private constructor.
+     */
+    private UniformFuzzyHashArchives() {
+
+    }
+
+    /**
+     * Computes a map of identified Uniform Fuzzy Hashes from the members of an archive file of
+     * data (identifying them by the archive name and their names) and a factor.
+     * 
+     * @param archive Archive file of data.
+     * @param factor Relation between data length and the hash mean number of blocks for each
+     *        member of data. Must be greater than 2 and must be odd.
+     * @return Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs reading the archive file of data.
+     */
+    public static Map<String, UniformFuzzyHash> computeHashesFromArchive(
+            File archive,
+            int factor)
+            throws IOException {
+
+        if (archive == null) {
+            throw new NullPointerException("Archive is null.");
+        }
+
+        if (!archive.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "File %s does not exist.",
+                    archive.getName()));
+        }
+
+        if (!archive.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    archive.getName()));
+        }
+
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            return computeHashesFromArchive(inputStream, archive.getName(), factor);
+        }
+
+    }
+
+    /**
+     * Computes a map of identified Uniform Fuzzy Hashes from the members of an archive input
+     * stream of data (identifying them by the archive name and their names) and a factor. The input
+     * stream is not closed.
+     * 
+     * @param archive Archive input stream of data.
+     * @param archiveName Name of the archive.
+     * @param factor Relation between data length and the hash mean number of blocks for each
+     *        member of data. Must be greater than 2 and must be odd.
+     * @return Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs reading the archive input stream of data.
+     */
+    public static Map<String, UniformFuzzyHash> computeHashesFromArchive(
+            InputStream archive,
+            String archiveName,
+            int factor)
+            throws IOException {
+
+        if (archive == null) {
+            throw new NullPointerException("Archive is null.");
+        }
+
+        if (archiveName == null) {
+            throw new NullPointerException("Archive name is null.");
+        }
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
+
+        InputStream inputStream = new BufferedInputStream(archive);
+        byte[] header = peek(inputStream);
+
+        // Gzipped archive.
+        if (isGzip(header)) {
+            inputStream = new BufferedInputStream(new GZIPInputStream(inputStream));
+            header = peek(inputStream);
+            if (!isTarHeader(header)) {
+                throw new IllegalArgumentException(String.format(
+                        "%s is not a gzipped tar archive.",
+                        archiveName));
+            }
+        }
+
+        if (isZip(header)) {
+            hashZipMembers(inputStream, archiveName, factor, hashes);
+        } else if (isTarHeader(header)) {
+            hashTarMembers(inputStream, archiveName, factor, hashes);
+        } else {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a zip or tar archive.",
+                    archiveName));
+        }
+
+        return hashes;
+
+    }
+
+    /**
+     * Computes a map of identified Uniform Fuzzy Hashes from the members of a collection of
+     * archive files of data (identifying them by the archive names and their names) and a factor.
+     * Archives are read and decompressed in parallel, each one by a single thread, and the hashes
+     * are returned in the order of the archives. Null archive files are ignored.
+     * 
+     * @param archives Collection of archive files of data.
+     * @param factor Relation between data length and the hash mean number of blocks for each
+     *        member of data. Must be greater than 2 and must be odd.
+     * @param threads Amount of threads.
+     * @return Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs reading any of the archive files of data.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public static Map<String, UniformFuzzyHash> computeHashesFromArchives(
+            Collection<File> archives,
+            final int factor,
+            int threads)
+            throws IOException, InterruptedException {
+
+        if (archives == null) {
+            throw new NullPointerException("Collection of archives is null.");
+        }
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("The amount of threads must be positive.");
+        }
+
+        UniformFuzzyHash.checkFactor(factor);
+
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
+
+        if (archives.isEmpty()) {
+            return hashes;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, archives.size()));
+
+        try {
+
+            List<Future<Map<String, UniformFuzzyHash>>> futures = new ArrayList<>(archives.size());
+
+            for (final File archive : archives) {
+                if (archive != null) {
+                    futures.add(executor.submit(new Callable<Map<String, UniformFuzzyHash>>() {
+
+                        @Override
+                        public Map<String, UniformFuzzyHash> call()
+                                throws IOException {
+
+                            return computeHashesFromArchive(archive, factor);
+
+                        }
+
+                    }));
+                }
+            }
+
+            for (Future<Map<String, UniformFuzzyHash>> future : futures) {
+                try {
+                    hashes.putAll(future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return hashes;
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hashes of the members of a zip archive.
+     * 
+     * @param archive Zip archive input stream.
+     * @param archiveName Name of the archive.
+     * @param factor Relation between data length and the hash mean number of blocks for each
+     *        member of data. Must be greater than 2 and must be odd.
+     * @param hashes Map of identified Uniform Fuzzy Hashes to put the hashes into.
+     * @throws IOException If an IOException occurs reading the archive.
+     */
+    private static void hashZipMembers(
+            InputStream archive,
+            String archiveName,
+            int factor,
+            Map<String, UniformFuzzyHash> hashes)
+            throws IOException {
+
+        ZipInputStream zipInputStream = new ZipInputStream(archive);
+        ZipEntry entry;
+
+        while ((entry = zipInputStream.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                hashes.put(archiveName + MEMBER_SEPARATOR + entry.getName(),
+                        HasherContext.acquire().hash(zipInputStream, factor));
+            }
+        }
+
+    }
+
+    /**
+     * Computes the Uniform Fuzzy Hashes of the regular file members of a tar archive.
+     * 
+     * @param archive Tar archive input stream.
+     * @param archiveName Name of the archive.
+     * @param factor Relation between data length and the hash mean number of blocks for each
+     *        member of data. Must be greater than 2 and must be odd.
+     * @param hashes Map of identified Uniform Fuzzy Hashes to put the hashes into.
+     * @throws IOException If an IOException occurs reading the archive.
+     */
+    private static void hashTarMembers(
+            InputStream archive,
+            String archiveName,
+            int factor,
+            Map<String, UniformFuzzyHash> hashes)
+            throws IOException {
+
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+
+        // Name of the next member, set by a GNU long name or a pax extended header.
+        String nextName = null;
+
+        // The end of the archive is marked with zero blocks, but some writers omit them.
+        while (IOUtils.read(archive, header) == TAR_BLOCK_SIZE && !isZeroBlock(header)) {
+
+            if (!isTarHeader(header)) {
+                throw new IOException(String.format(
+                        "Invalid tar header in archive %s.",
+                        archiveName));
+            }
+
+            long size = parseTarNumber(header, TAR_SIZE_OFFSET, TAR_SIZE_LENGTH);
+            char type = (char) header[TAR_TYPE_OFFSET];
+
+            TarMemberInputStream member = new TarMemberInputStream(archive, size);
+
+            switch (type) {
+
+                // GNU long name of the next member.
+                case 'L':
+                    nextName = parseTarString(readTarExtension(member, size, archiveName),
+                            0, (int) size);
+                    break;
+
+                // Pax extended header of the next member.
+                case 'x':
+                    String paxPath = parsePaxPath(readTarExtension(member, size, archiveName));
+                    if (paxPath != null) {
+                        nextName = paxPath;
+                    }
+                    break;
+
+                // Regular files.
+                case '0':
+                case '\0':
+                case '7':
+                    String name = nextName != null ? nextName : parseTarName(header);
+                    hashes.put(archiveName + MEMBER_SEPARATOR + name,
+                            HasherContext.acquire().hash(member, factor));
+                    nextName = null;
+                    break;
+
+                // Directories, links, special files and global pax headers.
+                default:
+                    nextName = null;
+                    break;
+
+            }
+
+            // Rest of the member and padding up to the next block.
+            IOUtils.skipFully(archive, member.remaining
+                    + (TAR_BLOCK_SIZE - size % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE);
+
+        }
+
+    }
+
+    /**
+     * Reads the first bytes of a buffered input stream, without consuming them.
+     * 
+     * @param inputStream Buffered input stream.
+     * @return Byte array of the size of a tar block, with the first bytes of the input stream and
+     *         padded with zeros.
+     * @throws IOException If an IOException occurs reading the input stream.
+     */
+    private static byte[] peek(
+            InputStream inputStream)
+            throws IOException {
+
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+
+        inputStream.mark(TAR_BLOCK_SIZE);
+        IOUtils.read(inputStream, header);
+        inputStream.reset();
+
+        return header;
+
+    }
+
+    /**
+     * @param header First bytes of an input stream.
+     * @return True if the input stream is gzipped. False otherwise.
+     */
+    private static boolean isGzip(
+            byte[] header) {
+
+        return (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B;
+
+    }
+
+    /**
+     * @param header First bytes of an input stream.
+     * @return True if the input stream is a zip archive (possibly empty). False otherwise.
+     */
+    private static boolean isZip(
+            byte[] header) {
+
+        return header[0] == 'P' && header[1] == 'K'
+                && (header[2] == 3 && header[3] == 4 || header[2] == 5 && header[3] == 6);
+
+    }
+
+    /**
+     * @param header A block of bytes.
+     * @return True if the block is a tar header with a valid checksum. False otherwise.
+     */
+    private static boolean isTarHeader(
+            byte[] header) {
+
+        // The checksum is computed as if its own field was filled with spaces.
+        long checksum = 0;
+
+        for (int i = 0; i < TAR_BLOCK_SIZE; i++) {
+            if (i >= TAR_CHECKSUM_OFFSET && i < TAR_CHECKSUM_OFFSET + TAR_CHECKSUM_LENGTH) {
+                checksum += ' ';
+            } else {
+                checksum += header[i] & 0xFF;
+            }
+        }
+
+        try {
+            return !isZeroBlock(header)
+                    && parseTarNumber(header, TAR_CHECKSUM_OFFSET, TAR_CHECKSUM_LENGTH) == checksum;
+        } catch (IOException e) {
+            return false;
+        }
+
+    }
+
+    /**
+     * @param block A block of bytes.
+     * @return True if all the bytes of the block are zeros. False otherwise.
+     */
+    private static boolean isZeroBlock(
+            byte[] block) {
+
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Parses a numeric field of a tar header, either octal or (GNU) base-256.
+     * 
+     * @param header A tar header.
+     * @param offset Offset of the field.
+     * @param length Length of the field.
+     * @return The number.
+     * @throws IOException If the field is not a valid number.
+     */
+    private static long parseTarNumber(
+            byte[] header,
+            int offset,
+            int length)
+            throws IOException {
+
+        long number = 0;
+
+        // Base-256.
+        if ((header[offset] & 0x80) != 0) {
+            number = header[offset] & 0x7F;
+            for (int i = offset + 1; i < offset + length; i++) {
+                if (number >>> (Long.SIZE - Byte.SIZE - 1) != 0) {
+                    throw new IOException("Tar number is too big.");
+                }
+                number = (number << Byte.SIZE) | (header[i] & 0xFF);
+            }
+            return number;
+        }
+
+        // Octal, surrounded by spaces or zeros.
+        int i = offset;
+        while (i < offset + length && (header[i] == ' ' || header[i] == 0)) {
+            i++;
+        }
+
+        for (; i < offset + length && header[i] != ' ' && header[i] != 0; i++) {
+            if (header[i] < '0' || header[i] > '7') {
+                throw new IOException("Invalid tar number.");
+            }
+            number = (number << 3) + (header[i] - '0');
+        }
+
+        return number;
+
+    }
+
+    /**
+     * Parses a string field of a tar header, ended by its length or by a zero.
+     * 
+     * @param header A tar header.
+     * @param offset Offset of the field.
+     * @param length Length of the field.
+     * @return The string.
+     */
+    private static String parseTarString(
+            byte[] header,
+            int offset,
+            int length) {
+
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+
+        return new String(header, offset, end - offset, FILES_ENCODING);
+
+    }
+
+    /**
+     * Parses the name of a tar header, including the ustar prefix.
+     * 
+     * @param header A tar header.
+     * @return The name.
+     */
+    private static String parseTarName(
+            byte[] header) {
+
+        String name = parseTarString(header, TAR_NAME_OFFSET, TAR_NAME_LENGTH);
+
+        if (TAR_MAGIC.equals(parseTarString(header, TAR_MAGIC_OFFSET, TAR_MAGIC_LENGTH))) {
+            String prefix = parseTarString(header, TAR_PREFIX_OFFSET, TAR_PREFIX_LENGTH);
+            if (!prefix.isEmpty()) {
+                name = prefix + "/" + name;
+            }
+        }
+
+        return name;
+
+    }
+
+    /**
+     * Reads a tar member which extends the header of the next one.
+     * 
+     * @param member The member input stream.
+     * @param size Size of the member.
+     * @param archiveName Name of the archive.
+     * @return The member content.
+     * @throws IOException If an IOException occurs reading the member, or if it is too big.
+     */
+    private static byte[] readTarExtension(
+            InputStream member,
+            long size,
+            String archiveName)
+            throws IOException {
+
+        if (size > TAR_MAX_EXTENSION_SIZE) {
+            throw new IOException(String.format(
+                    "Tar header extension too big in archive %s.",
+                    archiveName));
+        }
+
+        byte[] content = new byte[(int) size];
+        IOUtils.readFully(member, content);
+
+        return content;
+
+    }
+
+    /**
+     * Parses the path of a pax extended header, made of "length key=value\n" records.
+     * 
+     * @param content The pax extended header content.
+     * @return The path, or null if the header does not contain it.
+     * @throws IOException If a record is not valid.
+     */
+    private static String parsePaxPath(
+            byte[] content)
+            throws IOException {
+
+        int position = 0;
+
+        while (position < content.length) {
+
+            // Record length, including itself.
+            int length = 0;
+            int i = position;
+            for (; i < content.length && content[i] != ' '; i++) {
+                if (content[i] < '0' || content[i] > '9') {
+                    throw new IOException("Invalid pax record.");
+                }
+                length = length * 10 + (content[i] - '0');
+            }
+
+            if (length <= i - position || position + length > content.length) {
+                throw new IOException("Invalid pax record.");
+            }
+
+            // Key and value, without the trailing new line.
+            String record = new String(content, i + 1, position + length - i - 2, FILES_ENCODING);
+            int equals = record.indexOf('=');
+            if (equals >= 0 && PAX_PATH_KEY.equals(record.substring(0, equals))) {
+                return record.substring(equals + 1);
+            }
+
+            position += length;
+
+        }
+
+        return null;
+
+    }
+
+    /**
+     * Input stream of a tar member, which reads its size in bytes from the archive input stream
+     * and then ends, without closing the archive input stream.
+     */
+    private static final class TarMemberInputStream extends InputStream {
+
+        /**
+         * Archive input stream.
+         */
+        private final InputStream archive;
+
+        /**
+         * Amount of bytes of the member not read yet.
+         */
+        private long remaining;
+
+        /**
+         * Creates a tar member input stream.
+         * 
+         * @param archive Archive input stream, positioned at the beginning of the member.
+         * @param size Size in bytes of the member.
+         */
+        private TarMemberInputStream(
+                InputStream archive,
+                long size) {
+
+            this.archive = archive;
+            this.remaining = size;
+
+        }
+
+        @Override
+        public int read()
+                throws IOException {
+
+            if (remaining == 0) {
+                return -1;
+            }
+
+            int datum = archive.read();
+            if (datum >= 0) {
+                remaining--;
+            }
+
+            return datum;
+
+        }
+
+        @Override
+        public int read(
+                byte[] b,
+                int off,
+                int len)
+                throws IOException {
+
+            if (remaining == 0) {
+                return len == 0 ? 0 : -1;
+            }
+
+            int read = archive.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+
+            return read;
+
+        }
+
+        @Override
+        public void close() {
+
+        }
+
+    }
+
+}
@@ -7,6 +7,7 @@ import static com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash
 
 /**
  * This class represents a Uniform Fuzzy Hash block.
+ * Blocks are immutable, so they can be shared among threads without synchronization.
  * 
  * @author s3curitybug@gmail.com
  *
@@ -16,28 +17,17 @@ public class UniformFuzzyHashBlock {
     /**
      * Block hash.
      */
-    private int blockHash;
+    private final int blockHash;
 
     /**
      * Block starting byte position (0 based).
      */
-    private int blockStartingBytePosition;
+    private final int blockStartingBytePosition;
 
     /**
      * Block ending byte position (0 based).
      */
-    private int blockEndingBytePosition;
-
-    /**
-     * Base constructor.
-     */
-    private UniformFuzzyHashBlock() {
-
-        this.blockHash = 0;
-        this.blockStartingBytePosition = 0;
-        this.blockEndingBytePosition = 0;
-
-    }
+    private final int blockEndingBytePosition;
 
     /**
      * Constructor with arguments.
@@ -96,9 +86,6 @@ public class UniformFuzzyHashBlock {
             String blockString,
             int blockStartingBytePosition) {
 
-        // Uniform Fuzzy Hash Block.
-        UniformFuzzyHashBlock block = new UniformFuzzyHashBlock();
-
         // Split block hash from block size.
         int splitIndex = blockString.lastIndexOf(BLOCK_INNER_SEPARATOR);
 
@@ -117,15 +104,17 @@ public class UniformFuzzyHashBlock {
                     BLOCK_INNER_SEPARATOR));
         }
 
+        int blockHash;
+
         try {
-            block.blockHash = Integer.parseInt(blockHashString, BLOCK_BASE);
+            blockHash = Integer.parseInt(blockHashString, BLOCK_BASE);
         } catch (NumberFormatException numberFormatException) {
             throw new IllegalArgumentException(String.format(
                     "Block hash (%s) is not parseable.",
                     blockHashString));
         }
 
-        if (block.blockHash < 0 || block.blockHash >= BLOCK_HASH_MODULO) {
+        if (blockHash < 0 || blockHash >= BLOCK_HASH_MODULO) {
             throw new IllegalArgumentException(String.format(
                     "Block hash (%s) is not parseable.",
                     blockHashString));
@@ -156,12 +145,9 @@ public class UniformFuzzyHashBlock {
                     blockSizeString));
         }
 
-        // Block positions.
-        block.blockStartingBytePosition = blockStartingBytePosition;
-        block.blockEndingBytePosition = blockStartingBytePosition + blockSize - 1;
-
         // Return.
-        return block;
+        return new UniformFuzzyHashBlock(
+                blockHash, blockStartingBytePosition, blockStartingBytePosition + blockSize - 1);
 
     }
 
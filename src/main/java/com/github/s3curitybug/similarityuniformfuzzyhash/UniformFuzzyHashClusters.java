@@ -0,0 +1,466 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.CSV_TRIMMED_SEPARATOR;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeCsv;
+
+import org.apache.commons.io.output.FileWriterWithEncoding;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * This class groups identified Uniform Fuzzy Hashes into clusters: the connected components of
+ * the graph whose edges join the pairs of hashes with a type of similarity above or equal to a
+ * threshold.
+ * Hashes are added one by one. Each added hash is only compared to the previously added hashes
+ * which share at least one block with it, found through an inverted index of blocks, and which do
+ * not belong to its cluster yet, unless their sizes make the threshold unreachable (see
+ * UniformFuzzyHash.similarityUpperBound). The clusters are maintained with a union-find
+ * structure, so neither the similarities between all the pairs of hashes are computed nor stored.
+ * Since the graph is undirected, two hashes are joined with the asymmetric types of similarity
+ * (Similarity and Reverse) if the similarity in any direction reaches the threshold.
+ * 
+ * @param <T> Identifiers type.
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashClusters<T> {
+
+    /**
+     * Default type of similarity.
+     */
+    public static final SimilarityTypes DEFAULT_SIMILARITY_TYPE = SimilarityTypes.MINIMUM;
+
+    /**
+     * Threshold of the type of similarity to join two hashes.
+     */
+    private final double threshold;
+
+    /**
+     * Type of similarity.
+     */
+    private final SimilarityTypes similarityType;
+
+    /**
+     * Added identifiers, in insertion order.
+     */
+    private final List<T> identifiers;
+
+    /**
+     * Added hashes, in insertion order.
+     */
+    private final List<UniformFuzzyHash> hashes;
+
+    /**
+     * Position of each added identifier.
+     */
+    private final Map<T, Integer> positions;
+
+    /**
+     * Inverted index: positions of the added hashes containing each block.
+     */
+    private final Map<UniformFuzzyHashBlock, List<Integer>> blocksIndex;
+
+    /**
+     * Union-find parent position of each added hash.
+     */
+    private int[] parents;
+
+    /**
+     * Union-find size of the cluster of each added hash which is a root.
+     */
+    private int[] sizes;
+
+    /**
+     * Amount of clusters.
+     */
+    private int clustersCount;
+
+    /**
+     * Amount of computed comparisons.
+     */
+    private long comparisons;
+
+    /**
+     * Factor of the added hashes.
+     */
+    private int factor;
+
+    /**
+     * Creates empty clusters with the default type of similarity.
+     * 
+     * @param threshold Threshold (greater than 0 and not greater than 1) of the type of similarity
+     *        to join two hashes.
+     */
+    public UniformFuzzyHashClusters(
+            double threshold) {
+
+        this(threshold, DEFAULT_SIMILARITY_TYPE);
+
+    }
+
+    /**
+     * Creates empty clusters.
+     * 
+     * @param threshold Threshold (greater than 0 and not greater than 1) of the type of similarity
+     *        to join two hashes.
+     * @param similarityType The type of similarity.
+     */
+    public UniformFuzzyHashClusters(
+            double threshold,
+            SimilarityTypes similarityType) {
+
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The threshold (%s) must be greater than 0 and not greater than 1.",
+                    threshold));
+        }
+
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
+
+        this.threshold = threshold;
+        this.similarityType = similarityType;
+        this.identifiers = new ArrayList<>();
+        this.hashes = new ArrayList<>();
+        this.positions = new HashMap<>();
+        this.blocksIndex = new HashMap<>();
+        this.parents = new int[16];
+        this.sizes = new int[16];
+        this.clustersCount = 0;
+        this.comparisons = 0;
+        this.factor = 0;
+
+    }
+
+    /**
+     * Adds an identified Uniform Fuzzy Hash, joining it to the clusters of the previously added
+     * hashes similar to it.
+     * 
+     * @param identifier The identifier.
+     * @param hash The Uniform Fuzzy Hash.
+     */
+    public void add(
+            T identifier,
+            UniformFuzzyHash hash) {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (positions.containsKey(identifier)) {
+            throw new IllegalArgumentException(String.format(
+                    "The identifier %s has already been added.",
+                    identifier));
+        }
+
+        if (hashes.isEmpty()) {
+            factor = hash.getFactor();
+        } else if (hash.getFactor() != factor) {
+            throw new IllegalArgumentException(String.format(
+                    "The hash factor (%d) is different from the factor of the added hashes (%d).",
+                    hash.getFactor(),
+                    factor));
+        }
+
+        // New singleton cluster.
+        int position = hashes.size();
+
+        if (position == parents.length) {
+            parents = Arrays.copyOf(parents, position * 2);
+            sizes = Arrays.copyOf(sizes, position * 2);
+        }
+
+        parents[position] = position;
+        sizes[position] = 1;
+        clustersCount++;
+
+        identifiers.add(identifier);
+        hashes.add(hash);
+        positions.put(identifier, position);
+
+        // Join to the clusters of the similar hashes sharing blocks.
+        Set<Integer> compared = new HashSet<>();
+
+        for (UniformFuzzyHashBlock block : hash.accessBlocksSet()) {
+
+            List<Integer> blockPositions = blocksIndex.get(block);
+            if (blockPositions == null) {
+                blockPositions = new ArrayList<>(1);
+                blocksIndex.put(block, blockPositions);
+            }
+
+            for (int otherPosition : blockPositions) {
+                if (compared.add(otherPosition)
+                        && find(otherPosition) != find(position)
+                        && areJoined(hash, hashes.get(otherPosition))) {
+                    union(otherPosition, position);
+                }
+            }
+
+            blockPositions.add(position);
+
+        }
+
+    }
+
+    /**
+     * Adds a map of identified Uniform Fuzzy Hashes. Null hashes are ignored.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     */
+    public void addAll(
+            Map<T, UniformFuzzyHash> hashes) {
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            if (entry.getValue() != null) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+
+    }
+
+    /**
+     * Indicates whether two added identifiers belong to the same cluster.
+     * 
+     * @param identifier1 An added identifier.
+     * @param identifier2 Another added identifier.
+     * @return True if both identifiers belong to the same cluster. False otherwise.
+     */
+    public boolean areInSameCluster(
+            T identifier1,
+            T identifier2) {
+
+        return find(getPosition(identifier1)) == find(getPosition(identifier2));
+
+    }
+
+    /**
+     * Obtains the clusters. The clusters are sorted by the insertion order of their first
+     * identifier, and the identifiers of each cluster by their insertion order.
+     * 
+     * @return List of clusters of identifiers.
+     */
+    public List<List<T>> getClusters() {
+
+        Map<Integer, List<T>> clusters = new LinkedHashMap<>(clustersCount);
+
+        for (int position = 0; position < identifiers.size(); position++) {
+            int root = find(position);
+            List<T> cluster = clusters.get(root);
+            if (cluster == null) {
+                cluster = new ArrayList<>(sizes[root]);
+                clusters.put(root, cluster);
+            }
+            cluster.add(identifiers.get(position));
+        }
+
+        return new ArrayList<>(clusters.values());
+
+    }
+
+    /**
+     * Writes the clusters into a CSV file, overwriting it. Each line contains an identifier and
+     * the number (1 based) of its cluster. Lines are written cluster by cluster, as they are
+     * returned from the method getClusters.
+     * 
+     * @param csvFile The file to save the CSV.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    public void saveClustersAsCsv(
+            File csvFile)
+            throws IOException {
+
+        // Parameters check.
+        if (csvFile == null) {
+            throw new NullPointerException("CSV file is null.");
+        }
+
+        if (csvFile.exists() && !csvFile.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    csvFile.getName()));
+        }
+
+        // Generate CSV.
+        try (PrintWriter writer = new PrintWriter(new FileWriterWithEncoding(
+                csvFile, FILES_ENCODING, false))) {
+
+            int clusterNumber = 1;
+            for (List<T> cluster : getClusters()) {
+                for (T identifier : cluster) {
+                    writer.println(escapeCsv(String.valueOf(identifier))
+                            + CSV_TRIMMED_SEPARATOR + clusterNumber);
+                }
+                clusterNumber++;
+            }
+
+        }
+
+    }
+
+    /**
+     * @return Threshold of the type of similarity to join two hashes.
+     */
+    public double getThreshold() {
+
+        return threshold;
+
+    }
+
+    /**
+     * @return Type of similarity.
+     */
+    public SimilarityTypes getSimilarityType() {
+
+        return similarityType;
+
+    }
+
+    /**
+     * @return Amount of added hashes.
+     */
+    public int size() {
+
+        return identifiers.size();
+
+    }
+
+    /**
+     * @return Amount of clusters.
+     */
+    public int getClustersCount() {
+
+        return clustersCount;
+
+    }
+
+    /**
+     * @return Amount of comparisons computed between pairs of hashes.
+     */
+    public long getComparisons() {
+
+        return comparisons;
+
+    }
+
+    /**
+     * Indicates whether two hashes must be joined, computing the type of similarity between them
+     * if their sizes do not make the threshold unreachable.
+     * 
+     * @param hash1 A Uniform Fuzzy Hash.
+     * @param hash2 Another Uniform Fuzzy Hash.
+     * @return True if the type of similarity between both hashes reaches the threshold.
+     */
+    private boolean areJoined(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2) {
+
+        boolean asymmetric = similarityType == SimilarityTypes.SIMILARITY
+                || similarityType == SimilarityTypes.REVERSE_SIMILARITY;
+
+        if (hash1.similarityUpperBound(hash2,
+                asymmetric ? SimilarityTypes.MAXIMUM : similarityType) < threshold) {
+            return false;
+        }
+
+        comparisons++;
+
+        if (hash1.similarity(hash2, similarityType) >= threshold) {
+            return true;
+        }
+
+        if (asymmetric) {
+            return hash2.similarity(hash1, similarityType) >= threshold;
+        }
+
+        return false;
+
+    }
+
+    /**
+     * @param identifier An added identifier.
+     * @return The position of the identifier.
+     */
+    private int getPosition(
+            T identifier) {
+
+        Integer position = positions.get(identifier);
+
+        if (position == null) {
+            throw new IllegalArgumentException(String.format(
+                    "The identifier %s has not been added.",
+                    identifier));
+        }
+
+        return position;
+
+    }
+
+    /**
+     * Finds the root of the cluster of a position, halving the path to it.
+     * 
+     * @param position A position.
+     * @return The root position.
+     */
+    private int find(
+            int position) {
+
+        while (parents[position] != position) {
+            parents[position] = parents[parents[position]];
+            position = parents[position];
+        }
+
+        return position;
+
+    }
+
+    /**
+     * Joins the clusters of two positions, by size.
+     * 
+     * @param position1 A position.
+     * @param position2 Another position.
+     */
+    private void union(
+            int position1,
+            int position2) {
+
+        int root1 = find(position1);
+        int root2 = find(position2);
+
+        if (root1 == root2) {
+            return;
+        }
+
+        if (sizes[root1] < sizes[root2]) {
+            int root = root1;
+            root1 = root2;
+            root2 = root;
+        }
+
+        parents[root2] = root1;
+        sizes[root1] += sizes[root2];
+        clustersCount--;
+
+    }
+
+}
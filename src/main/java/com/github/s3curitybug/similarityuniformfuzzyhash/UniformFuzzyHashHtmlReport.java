@@ -0,0 +1,478 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.NEW_LINE;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeHtml;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.formatDecimal;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.prepareIdentifier;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.FileWriterWithEncoding;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * This class writes a self-contained HTML report of the comparison of a Uniform Fuzzy Hash to
+ * many identified Uniform Fuzzy Hashes.
+ * Each compared hash is written as a row of a sortable table as soon as it is added, with all the
+ * types of similarity and two inline SVG strips showing the matched regions (see
+ * UniformFuzzyHashMatchedRegions) of both hashes. The document is never kept in memory, and the
+ * matched regions are aggregated into a fixed amount of strip parts, so reports of thousands of
+ * files are written with constant memory and remain light.
+ * The report must be closed to write the end of the document.
+ * 
+ * @param <T> Identifiers type.
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashHtmlReport<T> implements Closeable {
+
+    /**
+     * Width of the strips, in SVG user units.
+     */
+    public static final int STRIP_WIDTH = 1000;
+
+    /**
+     * Height of the strips, in SVG user units.
+     */
+    public static final int STRIP_HEIGHT = 12;
+
+    /**
+     * Amount of levels of the fraction of matched bytes of each part of the strips, drawn with
+     * different opacities.
+     */
+    public static final int OPACITY_LEVELS = 4;
+
+    /**
+     * Maximum number of fraction digits of the opacities of the strips rectangles.
+     */
+    private static final int OPACITY_FRACTION_DIGITS = 2;
+
+    /**
+     * Report resources path inside resources.
+     */
+    private static final String RESOURCES_REPORT_PATH = "/HtmlReport/";
+
+    /**
+     * Style of the report.
+     */
+    private static final String STYLE = readFromResources("report.css");
+
+    /**
+     * Script of the report, which sorts the table.
+     */
+    private static final String SCRIPT = readFromResources("report.js");
+
+    /**
+     * CSS class of the matched regions.
+     */
+    private static final String MATCHED_CLASS = "matched";
+
+    /**
+     * CSS class of the unmatched regions of the compared hash.
+     */
+    private static final String FIRST_CLASS = "first";
+
+    /**
+     * CSS class of the unmatched regions of the hashes to which it is compared.
+     */
+    private static final String SECOND_CLASS = "second";
+
+    /**
+     * Writer of the report.
+     */
+    private final Writer writer;
+
+    /**
+     * The Uniform Fuzzy Hash compared to the added ones.
+     */
+    private final UniformFuzzyHash hash;
+
+    /**
+     * Matched bytes of each part of the strip being written.
+     */
+    private final long[] stripMatchedBytes;
+
+    /**
+     * Amount of added rows.
+     */
+    private int rows;
+
+    /**
+     * True if the report has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a report file, overwriting it, and writes the beginning of the document.
+     * 
+     * @param htmlFile The file to save the report.
+     * @param identifier The identifier of the Uniform Fuzzy Hash.
+     * @param hash The Uniform Fuzzy Hash which will be compared to the added ones.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    public UniformFuzzyHashHtmlReport(
+            File htmlFile,
+            T identifier,
+            UniformFuzzyHash hash)
+            throws IOException {
+
+        // Parameters check.
+        if (htmlFile == null) {
+            throw new NullPointerException("HTML file is null.");
+        }
+
+        if (htmlFile.exists() && !htmlFile.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    htmlFile.getName()));
+        }
+
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        this.hash = hash;
+        this.stripMatchedBytes = new long[STRIP_WIDTH];
+        this.rows = 0;
+        this.closed = false;
+        this.writer = new BufferedWriter(new FileWriterWithEncoding(
+                htmlFile, FILES_ENCODING, false));
+
+        try {
+            writeHeader(escapeHtml(prepareIdentifier(identifier, -1)));
+        } catch (IOException ioException) {
+            writer.close();
+            throw ioException;
+        }
+
+    }
+
+    /**
+     * Compares the Uniform Fuzzy Hash of this report to an identified Uniform Fuzzy Hash, and
+     * writes the comparison as a row of the report.
+     * 
+     * @param identifier The identifier.
+     * @param other The Uniform Fuzzy Hash.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    public void add(
+            T identifier,
+            UniformFuzzyHash other)
+            throws IOException {
+
+        if (other == null) {
+            throw new NullPointerException("Other hash is null.");
+        }
+
+        add(identifier, other, hash.similarities(other));
+
+    }
+
+    /**
+     * Writes the comparison of the Uniform Fuzzy Hash of this report to an identified Uniform
+     * Fuzzy Hash as a row of the report, with already computed types of similarity (for example,
+     * as they are returned from the method UniformFuzzyHashes.computeHashToHashesSimilarities).
+     * 
+     * @param identifier The identifier.
+     * @param other The Uniform Fuzzy Hash.
+     * @param similarities Map of types of similarity between both hashes. Missing types are
+     *        written as empty values.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    public void add(
+            T identifier,
+            UniformFuzzyHash other,
+            Map<SimilarityTypes, Double> similarities)
+            throws IOException {
+
+        // Parameters check.
+        if (other == null) {
+            throw new NullPointerException("Other hash is null.");
+        }
+
+        if (similarities == null) {
+            throw new NullPointerException("Map of similarities is null.");
+        }
+
+        if (closed) {
+            throw new IllegalStateException("The report has been closed.");
+        }
+
+        // Row.
+        String preparedIdentifier = escapeHtml(prepareIdentifier(identifier, -1));
+
+        writer.write("<tr><td data-value=\"" + preparedIdentifier + "\">"
+                + preparedIdentifier + "</td>");
+
+        for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+            Double similarity = similarities.get(similarityType);
+            writer.write("<td class=\"number\" data-value=\""
+                    + (similarity == null ? "" : similarity) + "\">"
+                    + formatDecimal(similarity) + "</td>");
+        }
+
+        writer.write("<td class=\"number\" data-value=\"" + other.getDataSize() + "\">"
+                + other.getDataSize() + "</td>");
+
+        writer.write("<td>");
+        writeStrip(hash, other, FIRST_CLASS);
+        writer.write("</td><td>");
+        writeStrip(other, hash, SECOND_CLASS);
+        writer.write("</td></tr>" + NEW_LINE);
+
+        rows++;
+
+    }
+
+    /**
+     * Compares the Uniform Fuzzy Hash of this report to a map of identified Uniform Fuzzy Hashes,
+     * and writes each comparison as a row of the report. Null hashes are ignored.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    public void addAll(
+            Map<T, UniformFuzzyHash> hashes)
+            throws IOException {
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            if (entry.getValue() != null) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+
+    }
+
+    /**
+     * Writes the end of the document and closes the report file.
+     * 
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    @Override
+    public void close()
+            throws IOException {
+
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            writer.write("</tbody>" + NEW_LINE);
+            writer.write("</table>" + NEW_LINE);
+            writer.write("<p>Compared hashes: " + rows + ".</p>" + NEW_LINE);
+            writer.write("</body>" + NEW_LINE);
+            writer.write("</html>" + NEW_LINE);
+        } finally {
+            writer.close();
+        }
+
+    }
+
+    /**
+     * @return Amount of added rows.
+     */
+    public int getRows() {
+
+        return rows;
+
+    }
+
+    /**
+     * Writes the beginning of the document, until the beginning of the table body.
+     * 
+     * @param preparedIdentifier The escaped identifier of the Uniform Fuzzy Hash.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    private void writeHeader(
+            String preparedIdentifier)
+            throws IOException {
+
+        writer.write("<!DOCTYPE html>" + NEW_LINE);
+        writer.write("<html>" + NEW_LINE);
+        writer.write("<head>" + NEW_LINE);
+        writer.write("<meta charset=\"" + FILES_ENCODING.name() + "\">" + NEW_LINE);
+        writer.write("<title>Uniform Fuzzy Hash comparison: " + preparedIdentifier + "</title>"
+                + NEW_LINE);
+        writer.write("<style>" + NEW_LINE + STYLE + "</style>" + NEW_LINE);
+        writer.write("<script>" + NEW_LINE + SCRIPT + "</script>" + NEW_LINE);
+        writer.write("</head>" + NEW_LINE);
+        writer.write("<body>" + NEW_LINE);
+        writer.write("<h1>" + preparedIdentifier + "</h1>" + NEW_LINE);
+        writer.write("<p>Factor: " + hash.getFactor()
+                + ". Size: " + hash.getDataSize() + " bytes"
+                + ". Blocks: " + hash.accessBlocks().size() + ".</p>" + NEW_LINE);
+        writer.write("<table id=\"similarities\">" + NEW_LINE);
+        writer.write("<thead>" + NEW_LINE);
+
+        int column = 0;
+        writer.write("<tr><th onclick=\"sortTable(" + column++ + ")\">Name</th>");
+        for (String similarityTypeName : SimilarityTypes.names()) {
+            writer.write("<th onclick=\"sortTable(" + column++ + ")\">"
+                    + escapeHtml(similarityTypeName) + "</th>");
+        }
+        writer.write("<th onclick=\"sortTable(" + column++ + ")\">Size</th>");
+        writer.write("<th class=\"strip-header\">Matched in " + preparedIdentifier + "</th>");
+        writer.write("<th class=\"strip-header\">Matched in the compared hash</th></tr>"
+                + NEW_LINE);
+
+        writer.write("</thead>" + NEW_LINE);
+        writer.write("<tbody>" + NEW_LINE);
+
+    }
+
+    /**
+     * Writes an SVG strip showing the matched regions of a Uniform Fuzzy Hash compared to another
+     * one. The data is divided into STRIP_WIDTH equal parts, and each run of consecutive parts
+     * with the same fraction of matched bytes (rounded to OPACITY_LEVELS levels) is drawn as a
+     * single rectangle with that opacity.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash whose matched regions are shown.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one is compared.
+     * @param unmatchedClass CSS class of the unmatched regions.
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    private void writeStrip(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            String unmatchedClass)
+            throws IOException {
+
+        UniformFuzzyHashMatchedRegions regions = new UniformFuzzyHashMatchedRegions(hash1, hash2);
+        long dataSize = hash1.getDataSize();
+
+        writer.write("<svg class=\"strip\" viewBox=\"0 0 " + STRIP_WIDTH + " " + STRIP_HEIGHT
+                + "\" preserveAspectRatio=\"none\">");
+        writer.write("<title>Matched bytes: " + regions.getMatchedSize() + " of " + dataSize
+                + ".</title>");
+        writer.write("<rect class=\"" + unmatchedClass + "\" width=\"" + STRIP_WIDTH
+                + "\" height=\"" + STRIP_HEIGHT + "\"/>");
+
+        // Matched bytes of each part.
+        Arrays.fill(stripMatchedBytes, 0);
+
+        for (int i = 0; i < regions.size(); i++) {
+
+            if (!regions.isMatched(i)) {
+                continue;
+            }
+
+            long position = regions.getStartingBytePosition(i);
+            long end = regions.getEndingBytePosition(i) + 1L;
+            int part = (int) (position * STRIP_WIDTH / dataSize);
+
+            while (position < end) {
+                while (dataSize * (part + 1) / STRIP_WIDTH <= position) {
+                    part++;
+                }
+                long partEnd = Math.min(end, dataSize * (part + 1) / STRIP_WIDTH);
+                stripMatchedBytes[part] += partEnd - position;
+                position = partEnd;
+            }
+
+        }
+
+        // Rectangles.
+        int rectStart = 0;
+        int rectLevel = 0;
+
+        for (int part = 0; part < STRIP_WIDTH; part++) {
+
+            long partSize = dataSize * (part + 1) / STRIP_WIDTH - dataSize * part / STRIP_WIDTH;
+            if (partSize == 0) {
+                continue;
+            }
+
+            int level = (int) Math.round(
+                    (double) stripMatchedBytes[part] * OPACITY_LEVELS / partSize);
+
+            if (level != rectLevel) {
+                writeRect(rectStart, part, rectLevel);
+                rectStart = part;
+                rectLevel = level;
+            }
+
+        }
+
+        writeRect(rectStart, STRIP_WIDTH, rectLevel);
+
+        writer.write("</svg>");
+
+    }
+
+    /**
+     * Writes an SVG rectangle of matched parts, if its level is positive.
+     * 
+     * @param start The starting part.
+     * @param end The ending part (exclusive).
+     * @param level The level of matched bytes (from 0 to OPACITY_LEVELS).
+     * @throws IOException If an IOException occurs writing into the file.
+     */
+    private void writeRect(
+            int start,
+            int end,
+            int level)
+            throws IOException {
+
+        if (level == 0) {
+            return;
+        }
+
+        writer.write("<rect class=\"" + MATCHED_CLASS
+                + "\" x=\"" + start
+                + "\" width=\"" + (end - start)
+                + "\" height=\"" + STRIP_HEIGHT + "\"");
+
+        if (level < OPACITY_LEVELS) {
+            writer.write(" fill-opacity=\""
+                    + formatDecimal((double) level / OPACITY_LEVELS, OPACITY_FRACTION_DIGITS, 0)
+                    + "\"");
+        }
+
+        writer.write("/>");
+
+    }
+
+    /**
+     * Reads a report resource from RESOURCES_REPORT_PATH.
+     * Must be encoded as FILES_ENCODING.
+     * 
+     * @param resourceName The resource name.
+     * @return The resource contents.
+     */
+    private static String readFromResources(
+            String resourceName) {
+
+        URL resource = UniformFuzzyHashHtmlReport.class.getResource(
+                RESOURCES_REPORT_PATH + resourceName);
+        if (resource == null) {
+            throw new IllegalArgumentException("Resource name does not match any resource.");
+        }
+
+        try {
+            return IOUtils.toString(resource, FILES_ENCODING);
+        } catch (Exception exception) {
+            throw new RuntimeException(
+                    String.format("Error reading %s from resources", resourceName),
+                    exception);
+        }
+
+    }
+
+}
@@ -0,0 +1,472 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.JSON_NULL;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.appendDecimal;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeJson;
+
+import org.apache.commons.io.output.FileWriterWithEncoding;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * This class writes Uniform Fuzzy Hashes and the similarities between them as JSON Lines: one
+ * JSON object per line, written as soon as it is computed. Unlike the tables, which need all the
+ * rows to compute the width of their columns before printing anything, nothing is kept in memory,
+ * so the results of big amounts of hashes can be consumed while they are being computed.
+ * Three kinds of lines are written:
+ * Hashes: {"name":..., "factor":..., "dataSize":..., "hash":...}.
+ * Hash to hash similarities: {"a":..., "b":..., "similarities":{"Similarity":..., ...}}.
+ * Pair similarities: {"a":..., "b":..., "similarity":...}.
+ * Similarities are formatted like in the tables (see ToStringUtils.formatDecimal). Null hashes
+ * and similarities are written as JSON nulls.
+ * 
+ * @param <T> Identifiers type.
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashJsonLinesWriter<T> implements Closeable, Flushable {
+
+    /**
+     * JSON Lines separator.
+     */
+    private static final char LINE_SEPARATOR = '\n';
+
+    /**
+     * Writer in which the lines are written.
+     */
+    private final Writer writer;
+
+    /**
+     * Line being built, reused between lines.
+     */
+    private final StringBuilder line;
+
+    /**
+     * Amount of written lines.
+     */
+    private long lines;
+
+    /**
+     * Creates a JSON Lines writer which writes into a writer.
+     * 
+     * @param writer The writer. It is closed when this JSON Lines writer is closed.
+     */
+    public UniformFuzzyHashJsonLinesWriter(
+            Writer writer) {
+
+        if (writer == null) {
+            throw new NullPointerException("Writer is null.");
+        }
+
+        this.writer = writer;
+        this.line = new StringBuilder();
+        this.lines = 0;
+
+    }
+
+    /**
+     * Creates a JSON Lines writer which writes into a file, overwriting it.
+     * 
+     * @param jsonLinesFile The file to save the JSON Lines.
+     * @throws IOException If an IOException occurs opening the file.
+     */
+    public UniformFuzzyHashJsonLinesWriter(
+            File jsonLinesFile)
+            throws IOException {
+
+        this(openFile(jsonLinesFile));
+
+    }
+
+    /**
+     * Writes an identified Uniform Fuzzy Hash as a line.
+     * 
+     * @param identifier The identifier.
+     * @param hash The Uniform Fuzzy Hash. Can be null.
+     * @throws IOException If an IOException occurs writing the line.
+     */
+    public void writeHash(
+            T identifier,
+            UniformFuzzyHash hash)
+            throws IOException {
+
+        line.setLength(0);
+        line.append("{\"name\":").append(jsonIdentifier(identifier));
+
+        if (hash == null) {
+            line.append(",\"hash\":").append(JSON_NULL);
+        } else {
+            line.append(",\"factor\":").append(hash.getFactor());
+            line.append(",\"dataSize\":").append(hash.getDataSize());
+            line.append(",\"hash\":").append(escapeJson(hash.toString()));
+        }
+
+        line.append('}');
+        writeLine();
+
+    }
+
+    /**
+     * Writes each identified Uniform Fuzzy Hash of a map as a line.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs writing the lines.
+     */
+    public void writeHashes(
+            Map<T, UniformFuzzyHash> hashes)
+            throws IOException {
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            writeHash(entry.getKey(), entry.getValue());
+        }
+
+    }
+
+    /**
+     * Writes all the types of similarity between two identified hashes as a line.
+     * 
+     * @param identifier1 The identifier of a Uniform Fuzzy Hash.
+     * @param identifier2 The identifier of another Uniform Fuzzy Hash.
+     * @param similarities Map of types of similarity between both hashes. Can be null.
+     * @throws IOException If an IOException occurs writing the line.
+     */
+    public void writeSimilarities(
+            T identifier1,
+            T identifier2,
+            Map<SimilarityTypes, Double> similarities)
+            throws IOException {
+
+        line.setLength(0);
+        line.append("{\"a\":").append(jsonIdentifier(identifier1));
+        line.append(",\"b\":").append(jsonIdentifier(identifier2));
+        line.append(",\"similarities\":");
+
+        if (similarities == null) {
+            line.append(JSON_NULL);
+        } else {
+            line.append('{');
+            boolean first = true;
+            for (Entry<SimilarityTypes, Double> entry : similarities.entrySet()) {
+                if (!first) {
+                    line.append(',');
+                }
+                line.append(escapeJson(entry.getKey().getName())).append(':');
+                appendJsonDecimal(entry.getValue());
+                first = false;
+            }
+            line.append('}');
+        }
+
+        line.append('}');
+        writeLine();
+
+    }
+
+    /**
+     * Writes the similarity between two identified hashes as a line.
+     * 
+     * @param identifier1 The identifier of a Uniform Fuzzy Hash.
+     * @param identifier2 The identifier of another Uniform Fuzzy Hash.
+     * @param similarity The similarity between both hashes. Can be null.
+     * @throws IOException If an IOException occurs writing the line.
+     */
+    public void writeSimilarity(
+            T identifier1,
+            T identifier2,
+            Double similarity)
+            throws IOException {
+
+        line.setLength(0);
+        line.append("{\"a\":").append(jsonIdentifier(identifier1));
+        line.append(",\"b\":").append(jsonIdentifier(identifier2));
+        line.append(",\"similarity\":");
+        appendJsonDecimal(similarity);
+        line.append('}');
+        writeLine();
+
+    }
+
+    /**
+     * Computes all the types of similarity between an identified Uniform Fuzzy Hash and a map of
+     * identified Uniform Fuzzy Hashes, writing each one as a line as soon as it is computed.
+     * Pairs of hashes whose bitmaps of blocks show that they do not share any block are not
+     * compared.
+     * 
+     * @param identifier The identifier of the Uniform Fuzzy Hash.
+     * @param hash The Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param rowsLimit Introduce a number larger than 0 to limit the number of written lines.
+     * @throws IOException If an IOException occurs writing the lines.
+     */
+    public void compareToAll(
+            T identifier,
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            int rowsLimit)
+            throws IOException {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        // Comparisons.
+        int rows = 0;
+        long skips = 0;
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+
+            if (rowsLimit > 0 && rows == rowsLimit) {
+                break;
+            }
+
+            UniformFuzzyHash hash1 = entry.getValue();
+
+            Map<SimilarityTypes, Double> similarities = null;
+            if (hash1 != null && hash.mayShareBlocks(hash1)) {
+                similarities = hash.similarities(hash1);
+            } else if (hash1 != null) {
+                similarities = UniformFuzzyHash.noSimilarities();
+                skips++;
+            }
+
+            writeSimilarities(identifier, entry.getKey(), similarities);
+            rows++;
+
+        }
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+    }
+
+    /**
+     * Computes the similarity between all the hashes in a map of identified Uniform Fuzzy Hashes,
+     * writing each ordered pair as a line as soon as it is computed.
+     * Pairs of hashes whose bitmaps of blocks show that they do not share any block are not
+     * compared.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs writing the lines.
+     */
+    public void compareAll(
+            Map<T, UniformFuzzyHash> hashes)
+            throws IOException {
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        Set<Entry<T, UniformFuzzyHash>> entries = hashes.entrySet();
+        long skips = 0;
+
+        for (Entry<T, UniformFuzzyHash> entry1 : entries) {
+
+            UniformFuzzyHash hash1 = entry1.getValue();
+
+            for (Entry<T, UniformFuzzyHash> entry2 : entries) {
+
+                UniformFuzzyHash hash2 = entry2.getValue();
+
+                Double similarity = null;
+                if (hash1 != null && hash2 != null && hash1.mayShareBlocks(hash2)) {
+                    similarity = hash1.similarity(hash2);
+                } else if (hash1 != null && hash2 != null) {
+                    similarity = 0d;
+                    skips++;
+                }
+
+                writeSimilarity(entry1.getKey(), entry2.getKey(), similarity);
+
+            }
+
+        }
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+    }
+
+    /**
+     * Writes already computed similarities between an identified Uniform Fuzzy Hash and other
+     * identified hashes (for example, as they are returned from the methods
+     * UniformFuzzyHashes.computeHashToHashesSimilarities and UniformFuzzyHashes.sortSimilarities),
+     * one line per hash, in the order of the map.
+     * 
+     * @param identifier The identifier of the Uniform Fuzzy Hash.
+     * @param similarities Map of identified similarities.
+     * @param rowsLimit Introduce a number larger than 0 to limit the number of written lines.
+     * @throws IOException If an IOException occurs writing the lines.
+     */
+    public void writeHashToHashesSimilarities(
+            T identifier,
+            Map<T, Map<SimilarityTypes, Double>> similarities,
+            int rowsLimit)
+            throws IOException {
+
+        if (similarities == null) {
+            throw new NullPointerException("Map of similarities is null.");
+        }
+
+        int rows = 0;
+
+        for (Entry<T, Map<SimilarityTypes, Double>> entry : similarities.entrySet()) {
+
+            if (rowsLimit > 0 && rows == rowsLimit) {
+                break;
+            }
+
+            writeSimilarities(identifier, entry.getKey(), entry.getValue());
+            rows++;
+
+        }
+
+    }
+
+    /**
+     * Writes already computed similarities between identified Uniform Fuzzy Hashes (for example,
+     * as they are returned from the method UniformFuzzyHashes.computeAllHashesSimilarities), one
+     * line per contained pair. Pairs which are not contained in sparse maps are not written.
+     * 
+     * @param similarities Map of identified similarities.
+     * @throws IOException If an IOException occurs writing the lines.
+     */
+    public void writeAllHashesSimilarities(
+            Map<T, Map<T, Double>> similarities)
+            throws IOException {
+
+        if (similarities == null) {
+            throw new NullPointerException("Map of similarities is null.");
+        }
+
+        for (Entry<T, Map<T, Double>> entry1 : similarities.entrySet()) {
+            if (entry1.getValue() != null) {
+                for (Entry<T, Double> entry2 : entry1.getValue().entrySet()) {
+                    writeSimilarity(entry1.getKey(), entry2.getKey(), entry2.getValue());
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Flushes the written lines.
+     * 
+     * @throws IOException If an IOException occurs flushing the writer.
+     */
+    @Override
+    public void flush()
+            throws IOException {
+
+        writer.flush();
+
+    }
+
+    /**
+     * Closes the writer.
+     * 
+     * @throws IOException If an IOException occurs closing the writer.
+     */
+    @Override
+    public void close()
+            throws IOException {
+
+        writer.close();
+
+    }
+
+    /**
+     * @return Amount of written lines.
+     */
+    public long getLines() {
+
+        return lines;
+
+    }
+
+    /**
+     * Writes the line being built, followed by the JSON Lines separator.
+     * 
+     * @throws IOException If an IOException occurs writing the line.
+     */
+    private void writeLine()
+            throws IOException {
+
+        line.append(LINE_SEPARATOR);
+        writer.append(line);
+        lines++;
+
+    }
+
+    /**
+     * Appends a decimal number to the line being built, or the JSON null literal if it is null.
+     * 
+     * @param decimal A decimal number. Can be null.
+     */
+    private void appendJsonDecimal(
+            Double decimal) {
+
+        if (decimal == null) {
+            line.append(JSON_NULL);
+        } else {
+            appendDecimal(decimal, line);
+        }
+
+    }
+
+    /**
+     * @param <T> Identifier type.
+     * @param identifier An identifier. Can be null.
+     * @return The identifier as a quoted JSON string, or the JSON null literal if it is null.
+     */
+    private static <T> String jsonIdentifier(
+            T identifier) {
+
+        return escapeJson(identifier == null ? null : identifier.toString());
+
+    }
+
+    /**
+     * Opens a file to write JSON Lines, overwriting it.
+     * 
+     * @param jsonLinesFile The file.
+     * @return A buffered writer of the file.
+     * @throws IOException If an IOException occurs opening the file.
+     */
+    private static Writer openFile(
+            File jsonLinesFile)
+            throws IOException {
+
+        if (jsonLinesFile == null) {
+            throw new NullPointerException("JSON Lines file is null.");
+        }
+
+        if (jsonLinesFile.exists() && !jsonLinesFile.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    jsonLinesFile.getName()));
+        }
+
+        return new BufferedWriter(new FileWriterWithEncoding(
+                jsonLinesFile, FILES_ENCODING, false));
+
+    }
+
+}
@@ -0,0 +1,550 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * This class locates the fragments of a query Uniform Fuzzy Hash inside a (possibly huge) target
+ * Uniform Fuzzy Hash, such as the hash of a small sample inside the hash of a memory dump.
+ * The target is indexed once, mapping each of its blocks to the positions (indexes) where it
+ * appears. Locating a query only looks up its blocks in the index and follows the runs of
+ * consecutive query blocks which appear consecutively in the target, so the cost of a query does
+ * not depend on the size of the target, but on the size of the query and the repetitions of its
+ * blocks in the target.
+ * Each run is returned as a location: the byte ranges which the run spans in the query and in the
+ * target. Runs whose query byte range is covered by longer runs, usually produced by repeated
+ * contents, are discarded. Since the first and the last blocks of a sample usually start and end
+ * in the middle of blocks of the target, they are rarely found, and locations usually start and
+ * end a block inside the sample.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashLocator {
+
+    /**
+     * Default minimum amount of consecutive blocks of a location.
+     */
+    public static final int DEFAULT_MIN_BLOCKS = 2;
+
+    /**
+     * Target Uniform Fuzzy Hash.
+     */
+    private final UniformFuzzyHash target;
+
+    /**
+     * Index: ascending positions of the target blocks by block.
+     */
+    private final Map<UniformFuzzyHashBlock, int[]> blocksPositions;
+
+    /**
+     * Builds a locator, indexing the blocks of a target Uniform Fuzzy Hash.
+     * 
+     * @param target The target Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHashLocator(
+            UniformFuzzyHash target) {
+
+        if (target == null) {
+            throw new NullPointerException("Target hash is null.");
+        }
+
+        this.target = target;
+
+        // Count the appearances of each block, and then fill their positions.
+        List<UniformFuzzyHashBlock> blocks = target.getBlocks();
+        Map<UniformFuzzyHashBlock, int[]> counts = new HashMap<>();
+
+        for (UniformFuzzyHashBlock block : blocks) {
+            int[] count = counts.get(block);
+            if (count == null) {
+                counts.put(block, new int[] {1});
+            } else {
+                count[0]++;
+            }
+        }
+
+        this.blocksPositions = new HashMap<>(counts.size() * 4 / 3 + 1);
+
+        for (Entry<UniformFuzzyHashBlock, int[]> entry : counts.entrySet()) {
+            blocksPositions.put(entry.getKey(), new int[entry.getValue()[0]]);
+            entry.getValue()[0] = 0;
+        }
+
+        for (int position = 0; position < blocks.size(); position++) {
+            UniformFuzzyHashBlock block = blocks.get(position);
+            int[] count = counts.get(block);
+            blocksPositions.get(block)[count[0]++] = position;
+        }
+
+    }
+
+    /**
+     * Locates the fragments of a query Uniform Fuzzy Hash inside the target with the default
+     * minimum amount of consecutive blocks.
+     * 
+     * @param query The query Uniform Fuzzy Hash.
+     * @return List of locations, sorted by their target starting byte position.
+     */
+    public List<Location> locate(
+            UniformFuzzyHash query) {
+
+        return locate(query, DEFAULT_MIN_BLOCKS);
+
+    }
+
+    /**
+     * Locates the fragments of a query Uniform Fuzzy Hash inside the target: the runs of at least
+     * a minimum amount of consecutive query blocks which appear consecutively in the target.
+     * 
+     * @param query The query Uniform Fuzzy Hash.
+     * @param minBlocks Minimum amount of consecutive blocks of a location. The more blocks, the
+     *        fewer locations found by chance (for instance, short repeated blocks).
+     * @return List of locations, sorted by their target starting byte position.
+     */
+    public List<Location> locate(
+            UniformFuzzyHash query,
+            int minBlocks) {
+
+        // Parameters check.
+        if (query == null) {
+            throw new NullPointerException("Query hash is null.");
+        }
+
+        if (query.getFactor() != target.getFactor()) {
+            throw new IllegalArgumentException("The Uniform Fuzzy Hashes factors are different.");
+        }
+
+        if (minBlocks < 1) {
+            throw new IllegalArgumentException(
+                    "The minimum amount of blocks must be positive.");
+        }
+
+        List<UniformFuzzyHashBlock> queryBlocks = query.getBlocks();
+        List<Location> locations = new ArrayList<>();
+
+        // Runs which reached the previous query block, by the target position of their last block.
+        Map<Integer, int[]> runs = new HashMap<>();
+
+        for (int queryPosition = 0; queryPosition < queryBlocks.size(); queryPosition++) {
+
+            int[] targetPositions = blocksPositions.get(queryBlocks.get(queryPosition));
+            Map<Integer, int[]> nextRuns = new HashMap<>();
+
+            if (targetPositions != null) {
+                for (int targetPosition : targetPositions) {
+                    // Run: query position of its first block, target position of its first
+                    // block, amount of blocks.
+                    int[] run = runs.remove(targetPosition - 1);
+                    if (run == null) {
+                        run = new int[] {queryPosition, targetPosition, 0};
+                    }
+                    run[2]++;
+                    nextRuns.put(targetPosition, run);
+                }
+            }
+
+            // Runs which are not continued.
+            for (int[] run : runs.values()) {
+                addLocation(locations, query, run, minBlocks);
+            }
+
+            runs = nextRuns;
+
+        }
+
+        for (int[] run : runs.values()) {
+            addLocation(locations, query, run, minBlocks);
+        }
+
+        locations = discardCoveredLocations(locations);
+
+        Collections.sort(locations, new Comparator<Location>() {
+
+            @Override
+            public int compare(
+                    Location location1,
+                    Location location2) {
+
+                int comparison = Integer.compare(location1.targetStartingBytePosition,
+                        location2.targetStartingBytePosition);
+
+                if (comparison != 0) {
+                    return comparison;
+                }
+
+                return Integer.compare(location1.queryStartingBytePosition,
+                        location2.queryStartingBytePosition);
+
+            }
+
+        });
+
+        return locations;
+
+    }
+
+    /**
+     * @return Target Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHash getTarget() {
+
+        return target;
+
+    }
+
+    /**
+     * Computes the amount of bytes of the query covered by a list of locations, counting only once
+     * the bytes covered by several locations.
+     * 
+     * @param locations List of locations of a query.
+     * @return Amount of bytes of the query covered by the locations.
+     */
+    public static long computeQueryCoverage(
+            List<Location> locations) {
+
+        if (locations == null) {
+            throw new NullPointerException("List of locations is null.");
+        }
+
+        List<Location> sortedLocations = new ArrayList<>(locations);
+        Collections.sort(sortedLocations, new Comparator<Location>() {
+
+            @Override
+            public int compare(
+                    Location location1,
+                    Location location2) {
+
+                return Integer.compare(location1.queryStartingBytePosition,
+                        location2.queryStartingBytePosition);
+
+            }
+
+        });
+
+        long coverage = 0;
+
+        // End (exclusive) of the covered bytes.
+        long coveredEnd = 0;
+
+        for (Location location : sortedLocations) {
+            long start = Math.max(location.queryStartingBytePosition, coveredEnd);
+            long end = location.queryEndingBytePosition + 1L;
+            if (end > start) {
+                coverage += end - start;
+                coveredEnd = end;
+            }
+        }
+
+        return coverage;
+
+    }
+
+    /**
+     * Discards the locations whose query byte range is covered by locations with more blocks.
+     * Repeated contents produce many overlapping runs, of which only the longest ones are
+     * meaningful. Locations with the same amount of blocks are never discarded among them, so a
+     * fragment which appears several times in the target is located as many times.
+     * 
+     * @param locations List of locations.
+     * @return List of the locations which are not covered.
+     */
+    private static List<Location> discardCoveredLocations(
+            List<Location> locations) {
+
+        Collections.sort(locations, new Comparator<Location>() {
+
+            @Override
+            public int compare(
+                    Location location1,
+                    Location location2) {
+
+                return Integer.compare(location2.blocks, location1.blocks);
+
+            }
+
+        });
+
+        List<Location> uncoveredLocations = new ArrayList<>();
+
+        // Query byte ranges covered by the locations with more blocks than the current ones:
+        // ending byte position by starting byte position, merged.
+        TreeMap<Integer, Integer> coveredRanges = new TreeMap<>();
+
+        int groupStart = 0;
+
+        while (groupStart < locations.size()) {
+
+            int groupEnd = groupStart;
+            while (groupEnd < locations.size()
+                    && locations.get(groupEnd).blocks == locations.get(groupStart).blocks) {
+                groupEnd++;
+            }
+
+            List<Location> group = locations.subList(groupStart, groupEnd);
+
+            for (Location location : group) {
+                Entry<Integer, Integer> range =
+                        coveredRanges.floorEntry(location.queryStartingBytePosition);
+                if (range == null || range.getValue() < location.queryEndingBytePosition) {
+                    uncoveredLocations.add(location);
+                }
+            }
+
+            for (Location location : group) {
+                addRange(coveredRanges,
+                        location.queryStartingBytePosition, location.queryEndingBytePosition);
+            }
+
+            groupStart = groupEnd;
+
+        }
+
+        return uncoveredLocations;
+
+    }
+
+    /**
+     * Adds a byte range to a set of merged byte ranges.
+     * 
+     * @param ranges Merged byte ranges: ending byte position by starting byte position.
+     * @param start Starting byte position of the range.
+     * @param end Ending byte position of the range.
+     */
+    private static void addRange(
+            TreeMap<Integer, Integer> ranges,
+            int start,
+            int end) {
+
+        // Merge with the previous range, if adjacent or overlapping.
+        Entry<Integer, Integer> previous = ranges.floorEntry(start);
+        if (previous != null && previous.getValue() >= start - 1) {
+            if (previous.getValue() >= end) {
+                return;
+            }
+            start = previous.getKey();
+        }
+
+        // Merge with the next ranges, if adjacent or overlapping.
+        Entry<Integer, Integer> next = ranges.ceilingEntry(start);
+        while (next != null && next.getKey() <= end + 1) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.ceilingEntry(start);
+        }
+
+        ranges.put(start, end);
+
+    }
+
+    /**
+     * Adds a finished run to a list of locations, if it is long enough.
+     * 
+     * @param locations List of locations.
+     * @param query The query Uniform Fuzzy Hash.
+     * @param run Query position of its first block, target position of its first block and
+     *        amount of blocks.
+     * @param minBlocks Minimum amount of consecutive blocks of a location.
+     */
+    private void addLocation(
+            List<Location> locations,
+            UniformFuzzyHash query,
+            int[] run,
+            int minBlocks) {
+
+        if (run[2] < minBlocks) {
+            return;
+        }
+
+        List<UniformFuzzyHashBlock> queryBlocks = query.getBlocks();
+        List<UniformFuzzyHashBlock> targetBlocks = target.getBlocks();
+
+        locations.add(new Location(
+                queryBlocks.get(run[0]).getBlockStartingBytePosition(),
+                queryBlocks.get(run[0] + run[2] - 1).getBlockEndingBytePosition(),
+                targetBlocks.get(run[1]).getBlockStartingBytePosition(),
+                targetBlocks.get(run[1] + run[2] - 1).getBlockEndingBytePosition(),
+                run[2]));
+
+    }
+
+    /**
+     * This class represents the location of a fragment of a query inside a target: a run of
+     * consecutive blocks which appear in both of them.
+     * Locations are immutable.
+     */
+    public static final class Location {
+
+        /**
+         * Starting byte position (0 based) in the query.
+         */
+        private final int queryStartingBytePosition;
+
+        /**
+         * Ending byte position (0 based) in the query.
+         */
+        private final int queryEndingBytePosition;
+
+        /**
+         * Starting byte position (0 based) in the target.
+         */
+        private final int targetStartingBytePosition;
+
+        /**
+         * Ending byte position (0 based) in the target.
+         */
+        private final int targetEndingBytePosition;
+
+        /**
+         * Amount of blocks.
+         */
+        private final int blocks;
+
+        /**
+         * Constructor with arguments.
+         * 
+         * @param queryStartingBytePosition Starting byte position (0 based) in the query.
+         * @param queryEndingBytePosition Ending byte position (0 based) in the query.
+         * @param targetStartingBytePosition Starting byte position (0 based) in the target.
+         * @param targetEndingBytePosition Ending byte position (0 based) in the target.
+         * @param blocks Amount of blocks.
+         */
+        private Location(
+                int queryStartingBytePosition,
+                int queryEndingBytePosition,
+                int targetStartingBytePosition,
+                int targetEndingBytePosition,
+                int blocks) {
+
+            this.queryStartingBytePosition = queryStartingBytePosition;
+            this.queryEndingBytePosition = queryEndingBytePosition;
+            this.targetStartingBytePosition = targetStartingBytePosition;
+            this.targetEndingBytePosition = targetEndingBytePosition;
+            this.blocks = blocks;
+
+        }
+
+        /**
+         * @return The string representation of this location.
+         */
+        @Override
+        public String toString() {
+
+            return String.format(
+                    "Query bytes %d-%d at target bytes %d-%d (%d blocks)",
+                    queryStartingBytePosition,
+                    queryEndingBytePosition,
+                    targetStartingBytePosition,
+                    targetEndingBytePosition,
+                    blocks);
+
+        }
+
+        /**
+         * Indicates whether this location is equal to another one.
+         * 
+         * @param obj Another location.
+         * @return True if both locations have equal byte positions and amount of blocks. False
+         *         otherwise.
+         */
+        @Override
+        public boolean equals(
+                Object obj) {
+
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Location)) {
+                return false;
+            }
+
+            Location other = (Location) obj;
+
+            return queryStartingBytePosition == other.queryStartingBytePosition
+                    && queryEndingBytePosition == other.queryEndingBytePosition
+                    && targetStartingBytePosition == other.targetStartingBytePosition
+                    && targetEndingBytePosition == other.targetEndingBytePosition
+                    && blocks == other.blocks;
+
+        }
+
+        /**
+         * @return A hashCode for this location.
+         */
+        @Override
+        public int hashCode() {
+
+            return Arrays.hashCode(new int[] {
+                    queryStartingBytePosition,
+                    queryEndingBytePosition,
+                    targetStartingBytePosition,
+                    targetEndingBytePosition,
+                    blocks});
+
+        }
+
+        /**
+         * @return Starting byte position (0 based) in the query.
+         */
+        public int getQueryStartingBytePosition() {
+
+            return queryStartingBytePosition;
+
+        }
+
+        /**
+         * @return Ending byte position (0 based) in the query.
+         */
+        public int getQueryEndingBytePosition() {
+
+            return queryEndingBytePosition;
+
+        }
+
+        /**
+         * @return Starting byte position (0 based) in the target.
+         */
+        public int getTargetStartingBytePosition() {
+
+            return targetStartingBytePosition;
+
+        }
+
+        /**
+         * @return Ending byte position (0 based) in the target.
+         */
+        public int getTargetEndingBytePosition() {
+
+            return targetEndingBytePosition;
+
+        }
+
+        /**
+         * @return Amount of blocks.
+         */
+        public int getBlocks() {
+
+            return blocks;
+
+        }
+
+        /**
+         * @return Size in bytes.
+         */
+        public int getSize() {
+
+            return targetEndingBytePosition - targetStartingBytePosition + 1;
+
+        }
+
+    }
+
+}
@@ -0,0 +1,390 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * This class represents a locality-sensitive hashing index of identified Uniform Fuzzy Hashes,
+ * which generates candidate pairs of similar hashes without comparing all of them.
+ * The sketch of each hash is split into bands of rows, and each band is hashed into a bucket. Two
+ * hashes are candidates if they collide in the bucket of at least one band. The probability of
+ * two hashes being candidates is 1 - (1 - J ^ rows) ^ bands, where J is their weighted Jaccard
+ * index (see UniformFuzzyHashSketch), so more bands increase the recall and more rows reduce the
+ * amount of candidates. Only the candidates are compared with UniformFuzzyHash.similarity, so the
+ * computed similarities are exact, but pairs of similar hashes may be missed.
+ * Hashes without blocks are not indexed.
+ * 
+ * @param <T> Identifiers type.
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashLshIndex<T> {
+
+    /**
+     * Default amount of bands.
+     */
+    public static final int DEFAULT_BANDS = 32;
+
+    /**
+     * Default amount of rows of each band.
+     */
+    public static final int DEFAULT_ROWS = 4;
+
+    /**
+     * FNV-1a 64 bits offset basis.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    /**
+     * FNV-1a 64 bits prime.
+     */
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    /**
+     * Amount of bands.
+     */
+    private final int bands;
+
+    /**
+     * Amount of rows of each band.
+     */
+    private final int rows;
+
+    /**
+     * Buckets of each band: identifiers by band key.
+     */
+    private final List<Map<Long, Set<T>>> buckets;
+
+    /**
+     * Band keys of each indexed identifier.
+     */
+    private final Map<T, long[]> bandKeys;
+
+    /**
+     * Indexed identified Uniform Fuzzy Hashes.
+     */
+    private final Map<T, UniformFuzzyHash> hashes;
+
+    /**
+     * Creates an empty index with the default amount of bands and rows.
+     */
+    public UniformFuzzyHashLshIndex() {
+
+        this(DEFAULT_BANDS, DEFAULT_ROWS);
+
+    }
+
+    /**
+     * Creates an empty index.
+     * 
+     * @param bands Amount of bands. The more bands, the higher the recall.
+     * @param rows Amount of rows of each band. The more rows, the fewer candidates.
+     */
+    public UniformFuzzyHashLshIndex(
+            int bands,
+            int rows) {
+
+        if (bands < 1) {
+            throw new IllegalArgumentException("The amount of bands must be positive.");
+        }
+
+        if (rows < 1) {
+            throw new IllegalArgumentException("The amount of rows must be positive.");
+        }
+
+        this.bands = bands;
+        this.rows = rows;
+        this.buckets = new ArrayList<>(bands);
+        this.bandKeys = new HashMap<>();
+        this.hashes = new LinkedHashMap<>();
+
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<Long, Set<T>>());
+        }
+
+    }
+
+    /**
+     * Creates an index with the default amount of bands and rows, and adds a map of identified
+     * Uniform Fuzzy Hashes to it.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     */
+    public UniformFuzzyHashLshIndex(
+            Map<T, UniformFuzzyHash> hashes) {
+
+        this();
+        addAll(hashes);
+
+    }
+
+    /**
+     * Adds an identified Uniform Fuzzy Hash to this index, replacing the hash with the same
+     * identifier, if any.
+     * 
+     * @param identifier The identifier.
+     * @param hash The Uniform Fuzzy Hash.
+     */
+    public void add(
+            T identifier,
+            UniformFuzzyHash hash) {
+
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        remove(identifier);
+
+        if (hash.getBlocks().isEmpty()) {
+            return;
+        }
+
+        long[] keys = computeBandKeys(hash);
+
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<T>> bandBuckets = buckets.get(band);
+            Set<T> bucket = bandBuckets.get(keys[band]);
+            if (bucket == null) {
+                bucket = new LinkedHashSet<>();
+                bandBuckets.put(keys[band], bucket);
+            }
+            bucket.add(identifier);
+        }
+
+        bandKeys.put(identifier, keys);
+        hashes.put(identifier, hash);
+
+    }
+
+    /**
+     * Adds a map of identified Uniform Fuzzy Hashes to this index. Null hashes are ignored.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     */
+    public void addAll(
+            Map<T, UniformFuzzyHash> hashes) {
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            if (entry.getValue() != null) {
+                add(entry.getKey(), entry.getValue());
+            }
+        }
+
+    }
+
+    /**
+     * Removes an identified Uniform Fuzzy Hash from this index.
+     * 
+     * @param identifier The identifier.
+     * @return True if the identifier was indexed. False otherwise.
+     */
+    public boolean remove(
+            T identifier) {
+
+        long[] keys = bandKeys.remove(identifier);
+
+        if (keys == null) {
+            return false;
+        }
+
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<T>> bandBuckets = buckets.get(band);
+            Set<T> bucket = bandBuckets.get(keys[band]);
+            bucket.remove(identifier);
+            if (bucket.isEmpty()) {
+                bandBuckets.remove(keys[band]);
+            }
+        }
+
+        hashes.remove(identifier);
+
+        return true;
+
+    }
+
+    /**
+     * Obtains the identifiers of the indexed hashes which are candidates to be similar to a
+     * Uniform Fuzzy Hash: those which collide with it in at least one band.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @return Set of candidate identifiers.
+     */
+    public Set<T> getCandidates(
+            UniformFuzzyHash hash) {
+
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        Set<T> candidates = new LinkedHashSet<>();
+
+        if (hash.getBlocks().isEmpty()) {
+            return candidates;
+        }
+
+        long[] keys = computeBandKeys(hash);
+
+        for (int band = 0; band < bands; band++) {
+            Set<T> bucket = buckets.get(band).get(keys[band]);
+            if (bucket != null) {
+                candidates.addAll(bucket);
+            }
+        }
+
+        return candidates;
+
+    }
+
+    /**
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and its candidates of this
+     * index.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @return Map of identified similarities of the candidates.
+     */
+    public Map<T, Map<SimilarityTypes, Double>> computeHashToHashesSimilarities(
+            UniformFuzzyHash hash) {
+
+        Set<T> candidates = getCandidates(hash);
+        Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>(candidates.size());
+
+        for (T candidate : candidates) {
+            similarities.put(candidate, hash.similarities(hashes.get(candidate)));
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Computes the similarity between all the pairs of candidates of this index. The returned map
+     * contains all the indexed identifiers, each one with the similarities to itself and to its
+     * candidates. Pairs which are not candidates are not contained.
+     * 
+     * @return Sparse map of identified similarities.
+     */
+    public Map<T, Map<T, Double>> computeAllHashesSimilarities() {
+
+        Map<T, Map<T, Double>> similarities = new LinkedHashMap<>(hashes.size());
+
+        for (T identifier : hashes.keySet()) {
+            Map<T, Double> similarities1 = new LinkedHashMap<>();
+            similarities1.put(identifier, 1d);
+            similarities.put(identifier, similarities1);
+        }
+
+        for (Map<Long, Set<T>> bandBuckets : buckets) {
+            for (Set<T> bucket : bandBuckets.values()) {
+
+                if (bucket.size() < 2) {
+                    continue;
+                }
+
+                for (T identifier1 : bucket) {
+
+                    UniformFuzzyHash hash1 = hashes.get(identifier1);
+                    Map<T, Double> similarities1 = similarities.get(identifier1);
+
+                    for (T identifier2 : bucket) {
+                        if (!similarities1.containsKey(identifier2)) {
+                            similarities1.put(identifier2,
+                                    hash1.similarity(hashes.get(identifier2)));
+                        }
+                    }
+
+                }
+
+            }
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Computes the probability of two hashes being candidates of an index.
+     * 
+     * @param jaccard The weighted Jaccard index of both hashes (see UniformFuzzyHashSketch).
+     * @param bands Amount of bands of the index.
+     * @param rows Amount of rows of each band of the index.
+     * @return The probability of both hashes colliding in at least one band.
+     */
+    public static double candidateProbability(
+            double jaccard,
+            int bands,
+            int rows) {
+
+        return 1 - Math.pow(1 - Math.pow(jaccard, rows), bands);
+
+    }
+
+    /**
+     * @return Amount of bands.
+     */
+    public int getBands() {
+
+        return bands;
+
+    }
+
+    /**
+     * @return Amount of rows of each band.
+     */
+    public int getRows() {
+
+        return rows;
+
+    }
+
+    /**
+     * @return Amount of indexed hashes.
+     */
+    public int size() {
+
+        return hashes.size();
+
+    }
+
+    /**
+     * Computes the key of each band of the sketch of a hash. The sketch with the default size is
+     * used if it has enough values.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @return The band keys.
+     */
+    private long[] computeBandKeys(
+            UniformFuzzyHash hash) {
+
+        int sketchSize = bands * rows;
+        UniformFuzzyHashSketch sketch = sketchSize <= UniformFuzzyHashSketch.DEFAULT_SIZE
+                ? hash.getSketch()
+                : new UniformFuzzyHashSketch(hash, sketchSize);
+        int[] values = sketch.accessValues();
+
+        long[] keys = new long[bands];
+
+        for (int band = 0; band < bands; band++) {
+            long key = FNV_OFFSET_BASIS ^ band;
+            for (int row = 0; row < rows; row++) {
+                key = (key ^ values[band * rows + row]) * FNV_PRIME;
+            }
+            keys[band] = key;
+        }
+
+        return keys;
+
+    }
+
+}
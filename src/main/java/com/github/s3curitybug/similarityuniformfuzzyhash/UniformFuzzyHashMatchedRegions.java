@@ -0,0 +1,269 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents the matched regions of a Uniform Fuzzy Hash compared to another one: the
+ * byte ranges of its data, merged into runs of consecutive blocks which are (matched) or are not
+ * (unmatched) in the other hash. It is the information shown by
+ * VisualRepresentation.representCompared, but in a compact form which allows to render or export
+ * the comparison of huge files without building strings.
+ * Regions are computed in a single pass over the blocks, looking them up in an open addressing
+ * table of primitive keys (block hash and size) of the blocks of the other hash, and stored in a
+ * primitive array of (starting byte position, ending byte position, matched) triples. Consecutive
+ * regions always alternate between matched and unmatched.
+ * Matched regions are immutable.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashMatchedRegions {
+
+    /**
+     * Amount of integers of each region in the array of regions.
+     */
+    public static final int REGION_LENGTH = 3;
+
+    /**
+     * Offset of the starting byte position (0 based) of a region in the array of regions.
+     */
+    public static final int STARTING_BYTE_POSITION_OFFSET = 0;
+
+    /**
+     * Offset of the ending byte position (0 based) of a region in the array of regions.
+     */
+    public static final int ENDING_BYTE_POSITION_OFFSET = 1;
+
+    /**
+     * Offset of the matched flag (1 if matched, 0 otherwise) of a region in the array of regions.
+     */
+    public static final int MATCHED_OFFSET = 2;
+
+    /**
+     * Regions: starting byte position, ending byte position and matched flag of each region.
+     */
+    private final int[] regions;
+
+    /**
+     * Sum of the sizes in bytes of the matched regions.
+     */
+    private final int matchedSize;
+
+    /**
+     * Computes the matched regions of a Uniform Fuzzy Hash compared to another one.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @param other Another Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHashMatchedRegions(
+            UniformFuzzyHash hash,
+            UniformFuzzyHash other) {
+
+        // Parameters check.
+        if (hash == null || other == null) {
+            throw new NullPointerException("The Uniform Fuzzy Hash is null.");
+        }
+
+        if (other.getFactor() != hash.getFactor()) {
+            throw new IllegalArgumentException("The Uniform Fuzzy Hashes factors are different.");
+        }
+
+        List<UniformFuzzyHashBlock> blocks = hash.accessBlocks();
+        long[] otherKeys = buildKeysTable(other.accessBlocks());
+
+        int[] regions = new int[REGION_LENGTH * 16];
+        int nRegions = 0;
+        int matchedSize = 0;
+
+        for (UniformFuzzyHashBlock block : blocks) {
+
+            int matched = containsKey(otherKeys, key(block)) ? 1 : 0;
+
+            if (matched == 1) {
+                matchedSize += block.getBlockSize();
+            }
+
+            // Extension of the last region.
+            int lastOffset = (nRegions - 1) * REGION_LENGTH;
+            if (nRegions > 0 && regions[lastOffset + MATCHED_OFFSET] == matched) {
+                regions[lastOffset + ENDING_BYTE_POSITION_OFFSET] =
+                        block.getBlockEndingBytePosition();
+                continue;
+            }
+
+            // New region.
+            if ((nRegions + 1) * REGION_LENGTH > regions.length) {
+                regions = Arrays.copyOf(regions, regions.length * 2);
+            }
+
+            int offset = nRegions * REGION_LENGTH;
+            regions[offset + STARTING_BYTE_POSITION_OFFSET] = block.getBlockStartingBytePosition();
+            regions[offset + ENDING_BYTE_POSITION_OFFSET] = block.getBlockEndingBytePosition();
+            regions[offset + MATCHED_OFFSET] = matched;
+            nRegions++;
+
+        }
+
+        this.regions = Arrays.copyOf(regions, nRegions * REGION_LENGTH);
+        this.matchedSize = matchedSize;
+
+    }
+
+    /**
+     * @return The string representation of these matched regions: one line per region, with its
+     *         byte range and whether it is matched.
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder strB = new StringBuilder(size() * 32);
+
+        for (int i = 0; i < size(); i++) {
+            strB.append(getStartingBytePosition(i)).append('-').append(getEndingBytePosition(i));
+            strB.append(isMatched(i) ? " matched" : " unmatched").append(System.lineSeparator());
+        }
+
+        return strB.toString();
+
+    }
+
+    /**
+     * @return Amount of regions.
+     */
+    public int size() {
+
+        return regions.length / REGION_LENGTH;
+
+    }
+
+    /**
+     * @param region Index of a region.
+     * @return Starting byte position (0 based) of the region.
+     */
+    public int getStartingBytePosition(
+            int region) {
+
+        return regions[region * REGION_LENGTH + STARTING_BYTE_POSITION_OFFSET];
+
+    }
+
+    /**
+     * @param region Index of a region.
+     * @return Ending byte position (0 based) of the region.
+     */
+    public int getEndingBytePosition(
+            int region) {
+
+        return regions[region * REGION_LENGTH + ENDING_BYTE_POSITION_OFFSET];
+
+    }
+
+    /**
+     * @param region Index of a region.
+     * @return True if the blocks of the region are in the other hash. False otherwise.
+     */
+    public boolean isMatched(
+            int region) {
+
+        return regions[region * REGION_LENGTH + MATCHED_OFFSET] == 1;
+
+    }
+
+    /**
+     * @return Sum of the sizes in bytes of the matched regions.
+     */
+    public int getMatchedSize() {
+
+        return matchedSize;
+
+    }
+
+    /**
+     * @return A copy of the array of regions: REGION_LENGTH integers per region, with its starting
+     *         byte position, its ending byte position and its matched flag (1 if matched, 0
+     *         otherwise) at their offsets.
+     */
+    public int[] toArray() {
+
+        return regions.clone();
+
+    }
+
+    /**
+     * @param block A Uniform Fuzzy Hash Block.
+     * @return A primitive key of the block, equal for equal blocks (with equal hash and size) and
+     *         never 0.
+     */
+    private static long key(
+            UniformFuzzyHashBlock block) {
+
+        return ((long) block.getBlockHash() << Integer.SIZE) | block.getBlockSize();
+
+    }
+
+    /**
+     * Builds an open addressing table (with linear probing) of the keys of a list of blocks.
+     * 
+     * @param blocks List of blocks.
+     * @return The table, with a power of two length and 0 in its empty slots.
+     */
+    private static long[] buildKeysTable(
+            List<UniformFuzzyHashBlock> blocks) {
+
+        // Load factor of 0.5 at most.
+        int capacity = Integer.highestOneBit(Math.max(blocks.size(), 1) * 2 - 1) * 2;
+        long[] table = new long[capacity];
+        int mask = capacity - 1;
+
+        for (UniformFuzzyHashBlock block : blocks) {
+            long key = key(block);
+            int slot = slot(key, mask);
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = key;
+        }
+
+        return table;
+
+    }
+
+    /**
+     * @param table An open addressing table of keys.
+     * @param key A key.
+     * @return True if the table contains the key. False otherwise.
+     */
+    private static boolean containsKey(
+            long[] table,
+            long key) {
+
+        int mask = table.length - 1;
+        int slot = slot(key, mask);
+
+        while (table[slot] != 0) {
+            if (table[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+
+    }
+
+    /**
+     * @param key A key.
+     * @param mask Mask of the table slots.
+     * @return The initial slot of the key.
+     */
+    private static int slot(
+            long key,
+            int mask) {
+
+        // Fibonacci hashing, taking the bits from the upper half of the product.
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> Integer.SIZE) & mask;
+
+    }
+
+}
@@ -0,0 +1,912 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+/**
+ * This class provides an optional registry of metrics about the Uniform Fuzzy Hashes computation,
+ * comparison and storage: bytes hashed, blocks produced, latencies, similarity calls, blocks sets
+ * built and string and text file conversions.
+ * Metrics are disabled by default, and then recording them costs a single volatile read. They can
+ * be enabled programmatically or by setting the system property sufh.metrics to true.
+ * Metrics are read through a snapshot, which can be formatted in the Prometheus text exposition
+ * format.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class UniformFuzzyHashMetrics {
+
+    /**
+     * System property which can be set to true to enable the metrics at startup.
+     */
+    public static final String METRICS_ENABLED_PROPERTY = "sufh.metrics";
+
+    /**
+     * Prefix of the metrics names in the Prometheus text exposition format.
+     */
+    public static final String PROMETHEUS_PREFIX = "sufh_";
+
+    /**
+     * Line separator of the Prometheus text exposition format.
+     */
+    private static final char PROMETHEUS_NEW_LINE = '\n';
+
+    /**
+     * Upper bounds in nanoseconds of the latency histograms buckets.
+     */
+    private static final long[] LATENCY_BUCKETS = {
+            1_000L, 10_000L, 100_000L,
+            1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L};
+
+    /**
+     * Upper bounds of the blocks per hash histogram buckets.
+     */
+    private static final long[] BLOCKS_BUCKETS = {
+            10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L};
+
+    /**
+     * Decimal digits of a nanosecond expressed in seconds.
+     */
+    private static final int NANOS_PER_SECOND_DIGITS = 9;
+
+    /**
+     * Indicates if the metrics are enabled.
+     */
+    private static volatile boolean enabled = Boolean.getBoolean(METRICS_ENABLED_PROPERTY);
+
+    /**
+     * Bytes of data hashed.
+     */
+    private static final LongAdder BYTES_HASHED = new LongAdder();
+
+    /**
+     * Hashes computed.
+     */
+    private static final LongAdder HASHES_COMPUTED = new LongAdder();
+
+    /**
+     * Blocks produced by the hashes computation.
+     */
+    private static final LongAdder BLOCKS_PRODUCED = new LongAdder();
+
+    /**
+     * Maximum amount of blocks produced by a single hash computation.
+     */
+    private static final LongAccumulator MAX_BLOCKS = new LongAccumulator(new LongBinaryOperator() {
+
+        @Override
+        public long applyAsLong(
+                long left,
+                long right) {
+
+            return Math.max(left, right);
+
+        }
+
+    }, 0);
+
+    /**
+     * Similarity calls.
+     */
+    private static final LongAdder SIMILARITY_CALLS = new LongAdder();
+
+    /**
+     * Comparisons skipped because the bitmaps of blocks showed that the hashes do not share any
+     * block, or because the sizes of the hashes showed that a threshold was unreachable.
+     */
+    private static final LongAdder SIMILARITY_SKIPS = new LongAdder();
+
+    /**
+     * Hashes loaded from text files.
+     */
+    private static final LongAdder HASHES_LOADED = new LongAdder();
+
+    /**
+     * Hashes saved to text files.
+     */
+    private static final LongAdder HASHES_SAVED = new LongAdder();
+
+    /**
+     * Hash computation latency histogram.
+     */
+    private static final Histogram HASH_COMPUTATION = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Blocks per hash histogram.
+     */
+    private static final Histogram HASH_BLOCKS = new Histogram(BLOCKS_BUCKETS);
+
+    /**
+     * Blocks set build latency histogram.
+     */
+    private static final Histogram BLOCKS_SET_BUILD = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Hash string parse latency histogram.
+     */
+    private static final Histogram PARSE = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Hash string serialization latency histogram.
+     */
+    private static final Histogram SERIALIZE = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Text file load latency histogram.
+     */
+    private static final Histogram TEXT_FILE_LOAD = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Text file save latency histogram.
+     */
+    private static final Histogram TEXT_FILE_SAVE = new Histogram(LATENCY_BUCKETS);
+
+    /**
+     * Private constructor.
+     */
+    private UniformFuzzyHashMetrics() {
+
+    }
+
+    /**
+     * Enables the metrics.
+     */
+    public static void enable() {
+
+        enabled = true;
+
+    }
+
+    /**
+     * Disables the metrics. Recorded values are kept.
+     */
+    public static void disable() {
+
+        enabled = false;
+
+    }
+
+    /**
+     * @return True if the metrics are enabled. False otherwise.
+     */
+    public static boolean isEnabled() {
+
+        return enabled;
+
+    }
+
+    /**
+     * Resets all the recorded values.
+     */
+    public static void reset() {
+
+        BYTES_HASHED.reset();
+        HASHES_COMPUTED.reset();
+        BLOCKS_PRODUCED.reset();
+        MAX_BLOCKS.reset();
+        SIMILARITY_CALLS.reset();
+        SIMILARITY_SKIPS.reset();
+        HASHES_LOADED.reset();
+        HASHES_SAVED.reset();
+        HASH_COMPUTATION.reset();
+        HASH_BLOCKS.reset();
+        BLOCKS_SET_BUILD.reset();
+        PARSE.reset();
+        SERIALIZE.reset();
+        TEXT_FILE_LOAD.reset();
+        TEXT_FILE_SAVE.reset();
+
+    }
+
+    /**
+     * @return A snapshot of the recorded values.
+     */
+    public static Snapshot snapshot() {
+
+        return new Snapshot();
+
+    }
+
+    /**
+     * @return The recorded values in the Prometheus text exposition format.
+     */
+    public static String toPrometheusText() {
+
+        return snapshot().toPrometheusText();
+
+    }
+
+    /**
+     * @return The start time of an operation to record, or 0 if the metrics are disabled.
+     */
+    protected static long startTime() {
+
+        return enabled ? System.nanoTime() : 0;
+
+    }
+
+    /**
+     * Records a hash computation.
+     * 
+     * @param startTime Start time of the computation, returned by startTime().
+     * @param dataSize Size in bytes of the hashed data.
+     * @param blocks Amount of blocks produced.
+     */
+    protected static void recordHashComputation(
+            long startTime,
+            int dataSize,
+            int blocks) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        HASH_COMPUTATION.record(System.nanoTime() - startTime);
+        HASH_BLOCKS.record(blocks);
+        BYTES_HASHED.add(dataSize);
+        HASHES_COMPUTED.increment();
+        BLOCKS_PRODUCED.add(blocks);
+        MAX_BLOCKS.accumulate(blocks);
+
+    }
+
+    /**
+     * Records a blocks set build.
+     * 
+     * @param startTime Start time of the build, returned by startTime().
+     */
+    protected static void recordBlocksSetBuild(
+            long startTime) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        BLOCKS_SET_BUILD.record(System.nanoTime() - startTime);
+
+    }
+
+    /**
+     * Records a similarity call.
+     */
+    protected static void recordSimilarity() {
+
+        if (!enabled) {
+            return;
+        }
+
+        SIMILARITY_CALLS.increment();
+
+    }
+
+    /**
+     * Records comparisons skipped because the bitmaps of blocks showed that the hashes do not share
+     * any block, or because the sizes of the hashes showed that a threshold was unreachable.
+     * 
+     * @param skips Amount of skipped comparisons.
+     */
+    protected static void recordSimilaritySkips(
+            long skips) {
+
+        if (!enabled) {
+            return;
+        }
+
+        SIMILARITY_SKIPS.add(skips);
+
+    }
+
+    /**
+     * Records a hash string parse.
+     * 
+     * @param startTime Start time of the parse, returned by startTime().
+     */
+    protected static void recordParse(
+            long startTime) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        PARSE.record(System.nanoTime() - startTime);
+
+    }
+
+    /**
+     * Records a hash string serialization.
+     * 
+     * @param startTime Start time of the serialization, returned by startTime().
+     */
+    protected static void recordSerialize(
+            long startTime) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        SERIALIZE.record(System.nanoTime() - startTime);
+
+    }
+
+    /**
+     * Records a text file load.
+     * 
+     * @param startTime Start time of the load, returned by startTime().
+     * @param hashes Amount of hashes loaded.
+     */
+    protected static void recordTextFileLoad(
+            long startTime,
+            int hashes) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        TEXT_FILE_LOAD.record(System.nanoTime() - startTime);
+        HASHES_LOADED.add(hashes);
+
+    }
+
+    /**
+     * Records a text file save.
+     * 
+     * @param startTime Start time of the save, returned by startTime().
+     * @param hashes Amount of hashes saved.
+     */
+    protected static void recordTextFileSave(
+            long startTime,
+            int hashes) {
+
+        if (!enabled || startTime == 0) {
+            return;
+        }
+
+        TEXT_FILE_SAVE.record(System.nanoTime() - startTime);
+        HASHES_SAVED.add(hashes);
+
+    }
+
+    /**
+     * Histogram with fixed buckets.
+     */
+    private static final class Histogram {
+
+        /**
+         * Upper bounds (inclusive) of the buckets. A last bucket without bound is implicit.
+         */
+        private final long[] bounds;
+
+        /**
+         * Counts of the buckets (not cumulative).
+         */
+        private final LongAdder[] counts;
+
+        /**
+         * Sum of the recorded values.
+         */
+        private final LongAdder sum;
+
+        /**
+         * Constructor.
+         * 
+         * @param bounds Upper bounds (inclusive) of the buckets, in ascending order.
+         */
+        private Histogram(
+                long[] bounds) {
+
+            this.bounds = bounds;
+            this.counts = new LongAdder[bounds.length + 1];
+            this.sum = new LongAdder();
+
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+
+        }
+
+        /**
+         * Records a value.
+         * 
+         * @param value The value.
+         */
+        private void record(
+                long value) {
+
+            int i = 0;
+            while (i < bounds.length && value > bounds[i]) {
+                i++;
+            }
+
+            counts[i].increment();
+            sum.add(value);
+
+        }
+
+        /**
+         * Resets the histogram.
+         */
+        private void reset() {
+
+            for (LongAdder count : counts) {
+                count.reset();
+            }
+            sum.reset();
+
+        }
+
+        /**
+         * @return A snapshot of the histogram.
+         */
+        private HistogramSnapshot snapshot() {
+
+            long[] cumulativeCounts = new long[counts.length];
+
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                count += counts[i].sum();
+                cumulativeCounts[i] = count;
+            }
+
+            return new HistogramSnapshot(bounds.clone(), cumulativeCounts, sum.sum());
+
+        }
+
+    }
+
+    /**
+     * This class represents a snapshot of a histogram.
+     */
+    public static final class HistogramSnapshot {
+
+        /**
+         * Upper bounds (inclusive) of the buckets.
+         */
+        private final long[] bounds;
+
+        /**
+         * Cumulative counts of the buckets, including a last one without bound.
+         */
+        private final long[] cumulativeCounts;
+
+        /**
+         * Sum of the recorded values.
+         */
+        private final long sum;
+
+        /**
+         * Constructor.
+         * 
+         * @param bounds Upper bounds (inclusive) of the buckets.
+         * @param cumulativeCounts Cumulative counts of the buckets.
+         * @param sum Sum of the recorded values.
+         */
+        private HistogramSnapshot(
+                long[] bounds,
+                long[] cumulativeCounts,
+                long sum) {
+
+            this.bounds = bounds;
+            this.cumulativeCounts = cumulativeCounts;
+            this.sum = sum;
+
+        }
+
+        /**
+         * @return The upper bounds (inclusive) of the buckets.
+         */
+        public long[] getBounds() {
+
+            return bounds.clone();
+
+        }
+
+        /**
+         * @return The cumulative counts of the buckets, including a last one without bound.
+         */
+        public long[] getCumulativeCounts() {
+
+            return cumulativeCounts.clone();
+
+        }
+
+        /**
+         * @return The amount of recorded values.
+         */
+        public long getCount() {
+
+            return cumulativeCounts[cumulativeCounts.length - 1];
+
+        }
+
+        /**
+         * @return The sum of the recorded values.
+         */
+        public long getSum() {
+
+            return sum;
+
+        }
+
+        /**
+         * Appends this histogram in the Prometheus text exposition format.
+         * 
+         * @param strB String builder.
+         * @param name Metric name, without prefix.
+         * @param help Metric description.
+         * @param scale Amount of decimal digits the values are shifted (9 to express nanoseconds
+         *        as seconds).
+         */
+        private void appendPrometheus(
+                StringBuilder strB,
+                String name,
+                String help,
+                int scale) {
+
+            appendPrometheusHeader(strB, name, help, "histogram");
+
+            for (int i = 0; i < cumulativeCounts.length; i++) {
+                strB.append(PROMETHEUS_PREFIX).append(name).append("_bucket{le=\"");
+                if (i < bounds.length) {
+                    strB.append(scale(bounds[i], scale));
+                } else {
+                    strB.append("+Inf");
+                }
+                strB.append("\"} ").append(cumulativeCounts[i]).append(PROMETHEUS_NEW_LINE);
+            }
+
+            strB.append(PROMETHEUS_PREFIX).append(name).append("_sum ")
+                    .append(scale(sum, scale)).append(PROMETHEUS_NEW_LINE);
+            strB.append(PROMETHEUS_PREFIX).append(name).append("_count ")
+                    .append(getCount()).append(PROMETHEUS_NEW_LINE);
+
+        }
+
+    }
+
+    /**
+     * This class represents a snapshot of the recorded values. Every value is read atomically, but
+     * the snapshot as a whole is not, so values recorded while it is taken may be only partially
+     * reflected.
+     */
+    public static final class Snapshot {
+
+        /**
+         * Bytes of data hashed.
+         */
+        private final long bytesHashed = BYTES_HASHED.sum();
+
+        /**
+         * Hashes computed.
+         */
+        private final long hashesComputed = HASHES_COMPUTED.sum();
+
+        /**
+         * Blocks produced.
+         */
+        private final long blocksProduced = BLOCKS_PRODUCED.sum();
+
+        /**
+         * Maximum amount of blocks produced by a single hash computation.
+         */
+        private final long maxBlocks = MAX_BLOCKS.get();
+
+        /**
+         * Similarity calls.
+         */
+        private final long similarityCalls = SIMILARITY_CALLS.sum();
+
+        /**
+         * Comparisons skipped by the bitmaps of blocks or by the size bounds.
+         */
+        private final long similaritySkips = SIMILARITY_SKIPS.sum();
+
+        /**
+         * Hashes loaded from text files.
+         */
+        private final long hashesLoaded = HASHES_LOADED.sum();
+
+        /**
+         * Hashes saved to text files.
+         */
+        private final long hashesSaved = HASHES_SAVED.sum();
+
+        /**
+         * Hash computation latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot hashComputation = HASH_COMPUTATION.snapshot();
+
+        /**
+         * Blocks per hash histogram.
+         */
+        private final HistogramSnapshot hashBlocks = HASH_BLOCKS.snapshot();
+
+        /**
+         * Blocks set build latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot blocksSetBuild = BLOCKS_SET_BUILD.snapshot();
+
+        /**
+         * Hash string parse latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot parse = PARSE.snapshot();
+
+        /**
+         * Hash string serialization latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot serialize = SERIALIZE.snapshot();
+
+        /**
+         * Text file load latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot textFileLoad = TEXT_FILE_LOAD.snapshot();
+
+        /**
+         * Text file save latency histogram, in nanoseconds.
+         */
+        private final HistogramSnapshot textFileSave = TEXT_FILE_SAVE.snapshot();
+
+        /**
+         * Constructor.
+         */
+        private Snapshot() {
+
+        }
+
+        /**
+         * @return The bytes of data hashed.
+         */
+        public long getBytesHashed() {
+
+            return bytesHashed;
+
+        }
+
+        /**
+         * @return The amount of hashes computed.
+         */
+        public long getHashesComputed() {
+
+            return hashesComputed;
+
+        }
+
+        /**
+         * @return The amount of blocks produced by the hashes computation.
+         */
+        public long getBlocksProduced() {
+
+            return blocksProduced;
+
+        }
+
+        /**
+         * @return The maximum amount of blocks produced by a single hash computation.
+         */
+        public long getMaxBlocks() {
+
+            return maxBlocks;
+
+        }
+
+        /**
+         * @return The amount of similarity calls (each one computing the similarity of a hash to
+         *         another one).
+         */
+        public long getSimilarityCalls() {
+
+            return similarityCalls;
+
+        }
+
+        /**
+         * @return The amount of comparisons skipped because the bitmaps of blocks showed that the
+         *         hashes do not share any block, or because the sizes of the hashes showed that a
+         *         threshold was unreachable.
+         */
+        public long getSimilaritySkips() {
+
+            return similaritySkips;
+
+        }
+
+        /**
+         * @return The amount of blocks sets built.
+         */
+        public long getBlocksSetBuilds() {
+
+            return blocksSetBuild.getCount();
+
+        }
+
+        /**
+         * @return The amount of hashes loaded from text files.
+         */
+        public long getHashesLoaded() {
+
+            return hashesLoaded;
+
+        }
+
+        /**
+         * @return The amount of hashes saved to text files.
+         */
+        public long getHashesSaved() {
+
+            return hashesSaved;
+
+        }
+
+        /**
+         * @return The hash computation latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getHashComputation() {
+
+            return hashComputation;
+
+        }
+
+        /**
+         * @return The blocks per hash histogram.
+         */
+        public HistogramSnapshot getHashBlocks() {
+
+            return hashBlocks;
+
+        }
+
+        /**
+         * @return The blocks set build latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getBlocksSetBuild() {
+
+            return blocksSetBuild;
+
+        }
+
+        /**
+         * @return The hash string parse latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getParse() {
+
+            return parse;
+
+        }
+
+        /**
+         * @return The hash string serialization latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getSerialize() {
+
+            return serialize;
+
+        }
+
+        /**
+         * @return The text file load latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getTextFileLoad() {
+
+            return textFileLoad;
+
+        }
+
+        /**
+         * @return The text file save latency histogram, in nanoseconds.
+         */
+        public HistogramSnapshot getTextFileSave() {
+
+            return textFileSave;
+
+        }
+
+        /**
+         * @return This snapshot in the Prometheus text exposition format. Latencies are expressed
+         *         in seconds.
+         */
+        public String toPrometheusText() {
+
+            StringBuilder strB = new StringBuilder();
+
+            appendPrometheusValue(strB, "bytes_hashed_total",
+                    "Bytes of data hashed.", "counter", bytesHashed);
+            appendPrometheusValue(strB, "hashes_computed_total",
+                    "Hashes computed.", "counter", hashesComputed);
+            appendPrometheusValue(strB, "blocks_produced_total",
+                    "Blocks produced by the hashes computation.", "counter", blocksProduced);
+            appendPrometheusValue(strB, "hash_blocks_max",
+                    "Maximum amount of blocks produced by a single hash computation.", "gauge",
+                    maxBlocks);
+            appendPrometheusValue(strB, "similarity_calls_total",
+                    "Similarity computations of a hash to another one.", "counter",
+                    similarityCalls);
+            appendPrometheusValue(strB, "similarity_skips_total",
+                    "Comparisons skipped because the hashes do not share any block "
+                            + "or cannot reach a threshold.", "counter",
+                    similaritySkips);
+            appendPrometheusValue(strB, "hashes_loaded_total",
+                    "Hashes loaded from text files.", "counter", hashesLoaded);
+            appendPrometheusValue(strB, "hashes_saved_total",
+                    "Hashes saved to text files.", "counter", hashesSaved);
+
+            hashComputation.appendPrometheus(strB, "hash_computation_seconds",
+                    "Hash computation latency.", NANOS_PER_SECOND_DIGITS);
+            hashBlocks.appendPrometheus(strB, "hash_blocks",
+                    "Blocks produced per hash computation.", 0);
+            blocksSetBuild.appendPrometheus(strB, "blocks_set_build_seconds",
+                    "Blocks set build latency.", NANOS_PER_SECOND_DIGITS);
+            parse.appendPrometheus(strB, "parse_seconds",
+                    "Hash string parse latency.", NANOS_PER_SECOND_DIGITS);
+            serialize.appendPrometheus(strB, "serialize_seconds",
+                    "Hash string serialization latency.", NANOS_PER_SECOND_DIGITS);
+            textFileLoad.appendPrometheus(strB, "text_file_load_seconds",
+                    "Text file load latency.", NANOS_PER_SECOND_DIGITS);
+            textFileSave.appendPrometheus(strB, "text_file_save_seconds",
+                    "Text file save latency.", NANOS_PER_SECOND_DIGITS);
+
+            return strB.toString();
+
+        }
+
+    }
+
+    /**
+     * Appends the header of a metric in the Prometheus text exposition format.
+     * 
+     * @param strB String builder.
+     * @param name Metric name, without prefix.
+     * @param help Metric description.
+     * @param type Metric type.
+     */
+    private static void appendPrometheusHeader(
+            StringBuilder strB,
+            String name,
+            String help,
+            String type) {
+
+        strB.append("# HELP ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(help)
+                .append(PROMETHEUS_NEW_LINE);
+        strB.append("# TYPE ").append(PROMETHEUS_PREFIX).append(name).append(' ').append(type)
+                .append(PROMETHEUS_NEW_LINE);
+
+    }
+
+    /**
+     * Appends a single valued metric in the Prometheus text exposition format.
+     * 
+     * @param strB String builder.
+     * @param name Metric name, without prefix.
+     * @param help Metric description.
+     * @param type Metric type.
+     * @param value Metric value.
+     */
+    private static void appendPrometheusValue(
+            StringBuilder strB,
+            String name,
+            String help,
+            String type,
+            long value) {
+
+        appendPrometheusHeader(strB, name, help, type);
+        strB.append(PROMETHEUS_PREFIX).append(name).append(' ')
+                .append(value).append(PROMETHEUS_NEW_LINE);
+
+    }
+
+    /**
+     * @param value A value.
+     * @param scale Amount of decimal digits to shift it.
+     * @return The plain string representation of the value shifted to the right.
+     */
+    private static String scale(
+            long value,
+            int scale) {
+
+        return BigDecimal.valueOf(value, scale).stripTrailingZeros().toPlainString();
+
+    }
+
+}
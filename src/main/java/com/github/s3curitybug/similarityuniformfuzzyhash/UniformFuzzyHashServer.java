@@ -0,0 +1,715 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.JSON_NULL;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeJson;
+
+import org.apache.commons.io.IOUtils;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class provides a long-running HTTP server which loads a map of named Uniform Fuzzy Hashes
+ * once, keeps it in memory, and answers hash computation, comparison and top-K queries
+ * concurrently, with JSON responses.
+ * The map of hashes is read only while the server is running: computed hashes are returned but
+ * not added to it. Hashes are immutable and can be compared concurrently; the sets and bitmaps of
+ * blocks of all the hashes are built when the server is created anyway, so that the first queries
+ * do not pay for them, and the hashes are grouped by factor.
+ * Top-K queries keep only K results at any time, and skip the hashes which cannot beat them (see
+ * UniformFuzzyHashes.computeTopSimilarities), as well as the hashes with a different factor from
+ * the query hash.
+ * Endpoints:
+ * GET /status: Amount of hashes and their common factor.
+ * POST /hash?factor=F: Computes the hash of the request body.
+ * GET /compare?a=A&amp;b=B: All the types of similarity between two hashes of the map.
+ * POST /compare?b=B: All the types of similarity between the hash string in the request body and a
+ * hash of the map.
+ * GET /top?name=A&amp;k=K&amp;sort=S: The K most similar hashes of the map to one of them (apart
+ * from itself), sorted by a similarity type name, optionally ended with Asc or Desc.
+ * POST /top?k=K&amp;sort=S: The K most similar hashes of the map to the hash string in the request
+ * body.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashServer {
+
+    /**
+     * Default host to which the server is bound.
+     */
+    public static final String DEFAULT_HOST = "127.0.0.1";
+
+    /**
+     * Default amount of results of a top-K query.
+     */
+    public static final int DEFAULT_TOP_K = 10;
+
+    /**
+     * Content type of the responses.
+     */
+    private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    /**
+     * HTTP status code: OK.
+     */
+    private static final int STATUS_OK = 200;
+
+    /**
+     * HTTP status code: Bad request.
+     */
+    private static final int STATUS_BAD_REQUEST = 400;
+
+    /**
+     * HTTP status code: Not found.
+     */
+    private static final int STATUS_NOT_FOUND = 404;
+
+    /**
+     * HTTP status code: Method not allowed.
+     */
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+
+    /**
+     * HTTP status code: Internal server error.
+     */
+    private static final int STATUS_INTERNAL_SERVER_ERROR = 500;
+
+    /**
+     * HTTP method GET.
+     */
+    private static final String GET = "GET";
+
+    /**
+     * HTTP method POST.
+     */
+    private static final String POST = "POST";
+
+    /**
+     * Map of named Uniform Fuzzy Hashes.
+     */
+    private final Map<String, UniformFuzzyHash> hashes;
+
+    /**
+     * Factor common to all the hashes, or null if they have different factors or there are none.
+     */
+    private final Integer factor;
+
+    /**
+     * Maps of named Uniform Fuzzy Hashes of each factor, in the order of the map of hashes.
+     */
+    private final Map<Integer, Map<String, UniformFuzzyHash>> hashesByFactor;
+
+    /**
+     * HTTP server.
+     */
+    private final HttpServer httpServer;
+
+    /**
+     * Executor which handles the requests.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for a map of named Uniform Fuzzy Hashes. The server is not started.
+     * The sets and bitmaps of blocks of the hashes are built, and the hashes are grouped by factor.
+     * 
+     * @param hashes Map of named Uniform Fuzzy Hashes. Null hashes are ignored.
+     * @param address Address to which the server is bound. A port 0 binds it to an ephemeral port.
+     * @param threads Amount of threads which handle the requests.
+     * @throws IOException If the server can not be bound to the address.
+     */
+    public UniformFuzzyHashServer(
+            Map<String, UniformFuzzyHash> hashes,
+            InetSocketAddress address,
+            int threads)
+            throws IOException {
+
+        // Parameters check.
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        if (address == null) {
+            throw new NullPointerException("Address is null.");
+        }
+
+        if (threads < 1) {
+            throw new IllegalArgumentException("The amount of threads must be positive.");
+        }
+
+        // Hashes copy, blocks sets build and grouping by factor.
+        Map<String, UniformFuzzyHash> hashesCopy = new LinkedHashMap<>(hashes.size());
+        Map<Integer, Map<String, UniformFuzzyHash>> factorsHashes = new HashMap<>();
+        Integer commonFactor = null;
+        boolean sameFactor = true;
+
+        for (Entry<String, UniformFuzzyHash> entry : hashes.entrySet()) {
+
+            UniformFuzzyHash hash = entry.getValue();
+
+            if (hash == null) {
+                continue;
+            }
+
+            hash.accessBlocksSet();
+            hash.accessBlocksBitmap();
+            hash.accessDistinctBlocksSize();
+            hashesCopy.put(entry.getKey(), hash);
+
+            Map<String, UniformFuzzyHash> factorHashes = factorsHashes.get(hash.getFactor());
+            if (factorHashes == null) {
+                factorHashes = new LinkedHashMap<>();
+                factorsHashes.put(hash.getFactor(), factorHashes);
+            }
+            factorHashes.put(entry.getKey(), hash);
+
+            if (commonFactor == null) {
+                commonFactor = hash.getFactor();
+            } else if (commonFactor != hash.getFactor()) {
+                sameFactor = false;
+            }
+
+        }
+
+        this.hashes = Collections.unmodifiableMap(hashesCopy);
+        this.factor = sameFactor ? commonFactor : null;
+        this.hashesByFactor = factorsHashes;
+
+        // HTTP server.
+        this.httpServer = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.httpServer.setExecutor(executor);
+
+        httpServer.createContext("/status", new StatusHandler());
+        httpServer.createContext("/hash", new HashHandler());
+        httpServer.createContext("/compare", new CompareHandler());
+        httpServer.createContext("/top", new TopHandler());
+
+    }
+
+    /**
+     * Starts the server.
+     */
+    public void start() {
+
+        httpServer.start();
+
+    }
+
+    /**
+     * Stops the server, closing its listening socket and waiting until the requests being handled
+     * are answered, or until a maximum time.
+     * 
+     * @param delay Maximum time in seconds to wait until the requests are answered.
+     */
+    public void stop(
+            int delay) {
+
+        httpServer.stop(delay);
+        executor.shutdown();
+
+    }
+
+    /**
+     * @return The address to which the server is bound.
+     */
+    public InetSocketAddress getAddress() {
+
+        return httpServer.getAddress();
+
+    }
+
+    /**
+     * @return The unmodifiable map of named Uniform Fuzzy Hashes of this server.
+     */
+    public Map<String, UniformFuzzyHash> getHashes() {
+
+        return hashes;
+
+    }
+
+    /**
+     * Exception which aborts the handling of a request, answering it with an error.
+     */
+    private static final class RequestException extends RuntimeException {
+
+        /**
+         * Serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * HTTP status code of the response.
+         */
+        private final int status;
+
+        /**
+         * Constructor.
+         * 
+         * @param status HTTP status code of the response.
+         * @param message Error message.
+         */
+        private RequestException(
+                int status,
+                String message) {
+
+            super(message);
+            this.status = status;
+
+        }
+
+    }
+
+    /**
+     * Handler of requests answered with JSON documents.
+     */
+    private abstract class JsonHandler implements HttpHandler {
+
+        /**
+         * Handles a request.
+         * 
+         * @param exchange The request exchange.
+         * @throws IOException In case an exception occurs answering the request.
+         */
+        @Override
+        public void handle(
+                HttpExchange exchange)
+                throws IOException {
+
+            int status;
+            String json;
+
+            try {
+
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+
+                json = handle(exchange.getRequestMethod(), parameters, body);
+                status = STATUS_OK;
+
+            } catch (RequestException exception) {
+                status = exception.status;
+                json = jsonError(exception.getMessage());
+            } catch (IllegalArgumentException exception) {
+                status = STATUS_BAD_REQUEST;
+                json = jsonError(exception.getMessage());
+            } catch (RuntimeException exception) {
+                status = STATUS_INTERNAL_SERVER_ERROR;
+                json = jsonError(exception.toString());
+            }
+
+            byte[] response = json.getBytes(FILES_ENCODING);
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(status, response.length);
+
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+
+        }
+
+        /**
+         * Handles a request.
+         * 
+         * @param method HTTP method of the request.
+         * @param parameters Query parameters of the request.
+         * @param body Body of the request.
+         * @return The JSON document of the response.
+         */
+        protected abstract String handle(
+                String method,
+                Map<String, String> parameters,
+                byte[] body);
+
+    }
+
+    /**
+     * Handler of status requests.
+     */
+    private final class StatusHandler extends JsonHandler {
+
+        @Override
+        protected String handle(
+                String method,
+                Map<String, String> parameters,
+                byte[] body) {
+
+            checkMethod(method, GET);
+
+            return "{\"hashes\":" + hashes.size()
+                    + ",\"factor\":" + (factor == null ? JSON_NULL : factor.toString())
+                    + "}";
+
+        }
+
+    }
+
+    /**
+     * Handler of hash computation requests.
+     */
+    private final class HashHandler extends JsonHandler {
+
+        @Override
+        protected String handle(
+                String method,
+                Map<String, String> parameters,
+                byte[] body) {
+
+            checkMethod(method, POST);
+
+            int hashFactor;
+            String factorParameter = parameters.get("factor");
+
+            if (factorParameter != null) {
+                hashFactor = parseInt(factorParameter, "factor");
+            } else if (factor != null) {
+                hashFactor = factor;
+            } else {
+                throw new RequestException(STATUS_BAD_REQUEST,
+                        "The hashes have different factors: the parameter factor is required.");
+            }
+
+            UniformFuzzyHash hash = new UniformFuzzyHash(body, hashFactor);
+
+            return "{\"factor\":" + hash.getFactor()
+                    + ",\"dataSize\":" + hash.getDataSize()
+                    + ",\"hash\":" + escapeJson(hash.toString())
+                    + "}";
+
+        }
+
+    }
+
+    /**
+     * Handler of comparison requests.
+     */
+    private final class CompareHandler extends JsonHandler {
+
+        @Override
+        protected String handle(
+                String method,
+                Map<String, String> parameters,
+                byte[] body) {
+
+            checkMethod(method, GET, POST);
+
+            String name1 = null;
+            UniformFuzzyHash hash1;
+
+            if (POST.equals(method)) {
+                hash1 = rebuildHash(body);
+            } else {
+                name1 = requireParameter(parameters, "a");
+                hash1 = getHash(name1);
+            }
+
+            String name2 = requireParameter(parameters, "b");
+            UniformFuzzyHash hash2 = getHash(name2);
+
+            return "{\"a\":" + escapeJson(name1)
+                    + ",\"b\":" + escapeJson(name2)
+                    + ",\"similarities\":" + jsonSimilarities(hash1.similarities(hash2))
+                    + "}";
+
+        }
+
+    }
+
+    /**
+     * Handler of top-K requests.
+     */
+    private final class TopHandler extends JsonHandler {
+
+        @Override
+        protected String handle(
+                String method,
+                Map<String, String> parameters,
+                byte[] body) {
+
+            checkMethod(method, GET, POST);
+
+            String name = null;
+            UniformFuzzyHash hash;
+
+            if (POST.equals(method)) {
+                hash = rebuildHash(body);
+            } else {
+                name = requireParameter(parameters, "name");
+                hash = getHash(name);
+            }
+
+            String kParameter = parameters.get("k");
+            int k = kParameter == null ? DEFAULT_TOP_K : parseInt(kParameter, "k");
+
+            SimilarityTypes sortCriterion = SimilarityTypes.SIMILARITY;
+            boolean sortAscending = false;
+
+            String sortParameter = parameters.get("sort");
+            if (sortParameter != null) {
+                String sort = sortParameter.toUpperCase().replace("_", "");
+                if (sort.endsWith("DESC")) {
+                    sort = sort.substring(0, sort.length() - "DESC".length());
+                } else if (sort.endsWith("ASC")) {
+                    sortAscending = true;
+                    sort = sort.substring(0, sort.length() - "ASC".length());
+                }
+                if (!sort.isEmpty()) {
+                    sortCriterion = null;
+                    for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+                        if (sort.equalsIgnoreCase(similarityType.name().replace("_", ""))
+                                || sort.equalsIgnoreCase(similarityType.getName())) {
+                            sortCriterion = similarityType;
+                            break;
+                        }
+                    }
+                    if (sortCriterion == null) {
+                        throw new RequestException(STATUS_BAD_REQUEST, String.format(
+                                "Invalid sorting criterion %s. Possible values: %s.",
+                                sortParameter, SimilarityTypes.names()));
+                    }
+                }
+            }
+
+            // Only the hashes with the same factor, one more if the query hash is one of them.
+            Map<String, UniformFuzzyHash> factorHashes = hashesByFactor.get(hash.getFactor());
+            if (factorHashes == null) {
+                factorHashes = Collections.emptyMap();
+            }
+
+            if (k < 0 || k > factorHashes.size()) {
+                k = factorHashes.size();
+            }
+
+            Map<String, Map<SimilarityTypes, Double>> similarities = Collections.emptyMap();
+            if (k > 0) {
+                similarities = UniformFuzzyHashes.computeTopSimilarities(hash, factorHashes,
+                        sortCriterion, sortAscending, name == null ? k : k + 1);
+                similarities.remove(name);
+            }
+
+            StringBuilder strB = new StringBuilder();
+            strB.append("{\"name\":").append(escapeJson(name));
+            strB.append(",\"results\":[");
+
+            Iterator<Entry<String, Map<SimilarityTypes, Double>>> iterator =
+                    similarities.entrySet().iterator();
+
+            for (int i = 0; iterator.hasNext() && i < k; i++) {
+                Entry<String, Map<SimilarityTypes, Double>> entry = iterator.next();
+                if (i != 0) {
+                    strB.append(",");
+                }
+                strB.append("{\"name\":").append(escapeJson(entry.getKey()));
+                strB.append(",\"similarities\":").append(jsonSimilarities(entry.getValue()));
+                strB.append("}");
+            }
+
+            strB.append("]}");
+
+            return strB.toString();
+
+        }
+
+    }
+
+    /**
+     * Checks that the method of a request is one of the allowed ones.
+     * 
+     * @param method HTTP method of the request.
+     * @param allowedMethods Allowed HTTP methods.
+     * @throws RequestException If the method is not allowed.
+     */
+    private static void checkMethod(
+            String method,
+            String... allowedMethods) {
+
+        for (String allowedMethod : allowedMethods) {
+            if (allowedMethod.equals(method)) {
+                return;
+            }
+        }
+
+        throw new RequestException(STATUS_METHOD_NOT_ALLOWED, String.format(
+                "Method %s not allowed.",
+                method));
+
+    }
+
+    /**
+     * Obtains a required parameter of a request.
+     * 
+     * @param parameters Query parameters of the request.
+     * @param parameter Parameter name.
+     * @return The parameter value.
+     * @throws RequestException If the parameter is not present.
+     */
+    private static String requireParameter(
+            Map<String, String> parameters,
+            String parameter) {
+
+        String value = parameters.get(parameter);
+
+        if (value == null) {
+            throw new RequestException(STATUS_BAD_REQUEST, String.format(
+                    "The parameter %s is required.",
+                    parameter));
+        }
+
+        return value;
+
+    }
+
+    /**
+     * Parses an integer parameter of a request.
+     * 
+     * @param value Parameter value.
+     * @param parameter Parameter name.
+     * @return The parsed integer.
+     * @throws RequestException If the value is not an integer.
+     */
+    private static int parseInt(
+            String value,
+            String parameter) {
+
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException numberFormatException) {
+            throw new RequestException(STATUS_BAD_REQUEST, String.format(
+                    "The parameter %s must be an integer.",
+                    parameter));
+        }
+
+    }
+
+    /**
+     * Obtains a Uniform Fuzzy Hash of the map of hashes of this server.
+     * 
+     * @param name Hash name.
+     * @return The Uniform Fuzzy Hash.
+     * @throws RequestException If the hash is not in the map.
+     */
+    private UniformFuzzyHash getHash(
+            String name) {
+
+        UniformFuzzyHash hash = hashes.get(name);
+
+        if (hash == null) {
+            throw new RequestException(STATUS_NOT_FOUND, String.format(
+                    "Hash %s not found.",
+                    name));
+        }
+
+        return hash;
+
+    }
+
+    /**
+     * Rebuilds a Uniform Fuzzy Hash from the string representation in the body of a request.
+     * 
+     * @param body Body of the request.
+     * @return The rebuilt Uniform Fuzzy Hash.
+     */
+    private static UniformFuzzyHash rebuildHash(
+            byte[] body) {
+
+        return UniformFuzzyHash.rebuildFromString(new String(body, FILES_ENCODING).trim());
+
+    }
+
+    /**
+     * Parses the raw query of a request URI.
+     * 
+     * @param rawQuery Raw query. Can be null.
+     * @return Map of decoded query parameters.
+     */
+    private static Map<String, String> parseQuery(
+            String rawQuery) {
+
+        Map<String, String> parameters = new HashMap<>();
+
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+
+        try {
+
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator < 0) {
+                    parameters.put(URLDecoder.decode(pair, FILES_ENCODING.name()), "");
+                } else {
+                    parameters.put(
+                            URLDecoder.decode(pair.substring(0, separator),
+                                    FILES_ENCODING.name()),
+                            URLDecoder.decode(pair.substring(separator + 1),
+                                    FILES_ENCODING.name()));
+                }
+            }
+
+        } catch (UnsupportedEncodingException unsupportedEncodingException) {
+            throw new IllegalStateException(unsupportedEncodingException);
+        }
+
+        return parameters;
+
+    }
+
+    /**
+     * Builds the JSON object of a map of similarities.
+     * 
+     * @param similarities Map of similarities.
+     * @return The JSON object, with the similarity types names as keys.
+     */
+    private static String jsonSimilarities(
+            Map<SimilarityTypes, Double> similarities) {
+
+        StringBuilder strB = new StringBuilder();
+        strB.append("{");
+
+        for (Entry<SimilarityTypes, Double> entry : similarities.entrySet()) {
+            if (strB.length() != 1) {
+                strB.append(",");
+            }
+            strB.append(escapeJson(entry.getKey().getName()));
+            strB.append(":").append(entry.getValue());
+        }
+
+        strB.append("}");
+
+        return strB.toString();
+
+    }
+
+    /**
+     * Builds the JSON object of an error.
+     * 
+     * @param message Error message.
+     * @return The JSON object.
+     */
+    private static String jsonError(
+            String message) {
+
+        return "{\"error\":" + escapeJson(message) + "}";
+
+    }
+
+}
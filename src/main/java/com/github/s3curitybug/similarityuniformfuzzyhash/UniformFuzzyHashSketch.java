@@ -0,0 +1,465 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.BLOCKS_SEPARATOR;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.BLOCK_BASE;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FACTOR_SEPARATOR;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * This class represents a compact, constant size sketch of a Uniform Fuzzy Hash, which allows to
+ * estimate the similarity between two hashes in constant time.
+ * The sketch is a weighted MinHash (computed with Improved Consistent Weighted Sampling) of the
+ * blocks of the hash, using their (hash, size) pairs as keys, weighted by the total size in bytes
+ * of the blocks with that key. The fraction of equal values of two sketches estimates the weighted
+ * Jaccard index of both hashes (the size of the blocks they share over the size of the blocks of
+ * both), from which the types of similarity are derived.
+ * The standard error of the Jaccard index estimation is at most 1 / (2 * sqrt(size)). The
+ * similarity estimations are exact on expectation except for blocks which appear more times in one
+ * hash than in the other, whose repetitions are not counted as shared. Since the Jaccard index of
+ * two hashes of very different sizes is small, the similarity of a small hash to a much bigger one
+ * is estimated with a high relative error: sketches are meant for coarse triage, whose candidates
+ * must be compared with UniformFuzzyHash.similarity.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public final class UniformFuzzyHashSketch {
+
+    /**
+     * Default amount of values of a sketch.
+     */
+    public static final int DEFAULT_SIZE = 128;
+
+    /**
+     * Seed of the random values of the sampling. Sketches must be computed with the same seed to be
+     * comparable.
+     */
+    private static final long SEED = 0x5F3759DF1B873593L;
+
+    /**
+     * SplitMix64 increment (golden ratio).
+     */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Factor of the sketched hash.
+     */
+    private final int factor;
+
+    /**
+     * Size in bytes of the data of the sketched hash.
+     */
+    private final int dataSize;
+
+    /**
+     * Sketch values.
+     */
+    private final int[] values;
+
+    /**
+     * Builds a sketch from its attributes.
+     * 
+     * @param factor Factor of the sketched hash.
+     * @param dataSize Size in bytes of the data of the sketched hash.
+     * @param values Sketch values.
+     */
+    private UniformFuzzyHashSketch(
+            int factor,
+            int dataSize,
+            int[] values) {
+
+        this.factor = factor;
+        this.dataSize = dataSize;
+        this.values = values;
+
+    }
+
+    /**
+     * Computes the sketch of a Uniform Fuzzy Hash with the default size.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     */
+    public UniformFuzzyHashSketch(
+            UniformFuzzyHash hash) {
+
+        this(hash, DEFAULT_SIZE);
+
+    }
+
+    /**
+     * Computes the sketch of a Uniform Fuzzy Hash.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @param size Amount of values of the sketch. The bigger, the more precise the estimations.
+     */
+    public UniformFuzzyHashSketch(
+            UniformFuzzyHash hash,
+            int size) {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (size < 1) {
+            throw new IllegalArgumentException("Sketch size must be positive.");
+        }
+
+        this.factor = hash.getFactor();
+        this.dataSize = hash.getDataSize();
+        this.values = new int[size];
+
+        // Weight of each key.
+        Map<Long, Long> weights = new HashMap<>();
+
+        for (UniformFuzzyHashBlock block : hash.accessBlocks()) {
+            long key = ((long) block.getBlockHash() << Integer.SIZE) | block.getBlockSize();
+            Long weight = weights.get(key);
+            weights.put(key, (weight == null ? 0 : weight) + block.getBlockSize());
+        }
+
+        int nKeys = weights.size();
+        long[] keys = new long[nKeys];
+        double[] logWeights = new double[nKeys];
+
+        int k = 0;
+        for (Entry<Long, Long> entry : weights.entrySet()) {
+            keys[k] = entry.getKey();
+            logWeights[k] = Math.log(entry.getValue());
+            k++;
+        }
+
+        // Improved Consistent Weighted Sampling.
+        for (int i = 0; i < size; i++) {
+
+            double minLogA = Double.POSITIVE_INFINITY;
+            long minKey = 0;
+            long minT = 0;
+
+            for (k = 0; k < nKeys; k++) {
+
+                long state = mix(SEED ^ mix(keys[k] + i * GOLDEN_GAMMA));
+
+                // r, c ~ Gamma(2, 1), beta ~ Uniform(0, 1).
+                state += GOLDEN_GAMMA;
+                double u1 = uniform(mix(state));
+                state += GOLDEN_GAMMA;
+                double u2 = uniform(mix(state));
+                state += GOLDEN_GAMMA;
+                double u3 = uniform(mix(state));
+                state += GOLDEN_GAMMA;
+                double u4 = uniform(mix(state));
+                state += GOLDEN_GAMMA;
+                double beta = uniform(mix(state));
+
+                double r = -Math.log(u1) - Math.log(u2);
+                double logC = Math.log(-Math.log(u3) - Math.log(u4));
+
+                double t = Math.floor(logWeights[k] / r + beta);
+                double logA = logC - r * (t - beta) - r;
+
+                if (logA < minLogA) {
+                    minLogA = logA;
+                    minKey = keys[k];
+                    minT = (long) t;
+                }
+
+            }
+
+            values[i] = nKeys == 0 ? 0
+                    : (int) (mix(minKey ^ mix(minT + i * GOLDEN_GAMMA)) >>> Integer.SIZE);
+
+        }
+
+    }
+
+    /**
+     * @return The string representation of this sketch: factor, data size and values.
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder strB = new StringBuilder();
+
+        strB.append(factor).append(FACTOR_SEPARATOR);
+        strB.append(dataSize).append(FACTOR_SEPARATOR);
+
+        for (int i = 0; i < values.length; i++) {
+            if (i != 0) {
+                strB.append(BLOCKS_SEPARATOR);
+            }
+            strB.append(Integer.toUnsignedString(values[i], BLOCK_BASE));
+        }
+
+        return strB.toString();
+
+    }
+
+    /**
+     * Rebuilds a sketch from a string representing it.
+     * 
+     * @param sketchString String representing a sketch.
+     * @return The rebuilt sketch.
+     */
+    public static UniformFuzzyHashSketch rebuildFromString(
+            String sketchString) {
+
+        if (sketchString == null) {
+            throw new NullPointerException("Sketch string is null.");
+        }
+
+        String[] parts = sketchString.split(FACTOR_SEPARATOR, -1);
+
+        if (parts.length != 3 || parts[2].isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Sketch string does not fit the format factor%sdataSize%svalues.",
+                    FACTOR_SEPARATOR,
+                    FACTOR_SEPARATOR));
+        }
+
+        try {
+
+            int factor = Integer.parseInt(parts[0]);
+            int dataSize = Integer.parseInt(parts[1]);
+
+            String[] valueStrings = parts[2].split(BLOCKS_SEPARATOR, -1);
+            int[] values = new int[valueStrings.length];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Integer.parseUnsignedInt(valueStrings[i], BLOCK_BASE);
+            }
+
+            return new UniformFuzzyHashSketch(factor, dataSize, values);
+
+        } catch (NumberFormatException numberFormatException) {
+            throw new IllegalArgumentException(String.format(
+                    "Sketch string is not parseable. %s",
+                    numberFormatException.getMessage()));
+        }
+
+    }
+
+    /**
+     * Estimates the weighted Jaccard index between the blocks of the hash of this sketch and the
+     * blocks of the hash of another sketch: the size in bytes of the blocks they share over the
+     * size in bytes of the blocks of both.
+     * 
+     * @param other Another sketch.
+     * @return A number between 0 and 1.
+     */
+    public double estimateJaccard(
+            UniformFuzzyHashSketch other) {
+
+        // Parameters check.
+        if (other == null) {
+            throw new NullPointerException("The sketch is null.");
+        }
+
+        if (other.factor != this.factor) {
+            throw new IllegalArgumentException("The sketches factors are different.");
+        }
+
+        if (other.values.length != this.values.length) {
+            throw new IllegalArgumentException("The sketches sizes are different.");
+        }
+
+        if (this.dataSize == 0 || other.dataSize == 0) {
+            return 0;
+        }
+
+        int matches = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == other.values[i]) {
+                matches++;
+            }
+        }
+
+        return (double) matches / values.length;
+
+    }
+
+    /**
+     * Estimates the similarity of the hash of this sketch to the hash of another sketch.
+     * 
+     * @param other Another sketch.
+     * @return A number between 0 and 1 estimating UniformFuzzyHash.similarity.
+     */
+    public double estimateSimilarity(
+            UniformFuzzyHashSketch other) {
+
+        return estimateSimilarity(other, SimilarityTypes.SIMILARITY);
+
+    }
+
+    /**
+     * Estimates a type of similarity between the hash of this sketch and the hash of another
+     * sketch.
+     * 
+     * @param other Another sketch.
+     * @param similarityType The type of similarity.
+     * @return A number between 0 and 1 estimating UniformFuzzyHash.similarity with the type of
+     *         similarity.
+     */
+    public double estimateSimilarity(
+            UniformFuzzyHashSketch other,
+            SimilarityTypes similarityType) {
+
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
+
+        return estimateSimilarities(other).get(similarityType);
+
+    }
+
+    /**
+     * Estimates all the types of similarity between the hash of this sketch and the hash of
+     * another sketch.
+     * 
+     * @param other Another sketch.
+     * @return Map of all the types of similarity estimations.
+     */
+    public Map<SimilarityTypes, Double> estimateSimilarities(
+            UniformFuzzyHashSketch other) {
+
+        double jaccard = estimateJaccard(other);
+
+        // Size of the shared blocks, from jaccard = shared / (size1 + size2 - shared).
+        double shared = jaccard * ((double) this.dataSize + other.dataSize) / (1 + jaccard);
+
+        double similarity = this.dataSize == 0 ? 0 : Math.min(1, shared / this.dataSize);
+        double reverse = other.dataSize == 0 ? 0 : Math.min(1, shared / other.dataSize);
+
+        Map<SimilarityTypes, Double> similarities =
+                new LinkedHashMap<>(SimilarityTypes.values().length);
+
+        similarities.put(SimilarityTypes.SIMILARITY, similarity);
+        similarities.put(SimilarityTypes.REVERSE_SIMILARITY, reverse);
+        similarities.put(SimilarityTypes.MAXIMUM, similarity >= reverse ? similarity : reverse);
+        similarities.put(SimilarityTypes.MINIMUM, similarity >= reverse ? reverse : similarity);
+        similarities.put(SimilarityTypes.ARITHMETIC_MEAN, (similarity + reverse) / 2);
+        similarities.put(SimilarityTypes.GEOMETRIC_MEAN, Math.sqrt(similarity * reverse));
+
+        return similarities;
+
+    }
+
+    /**
+     * @return The maximum standard error of the Jaccard index estimations of this sketch:
+     *         1 / (2 * sqrt(size)).
+     */
+    public double getStandardError() {
+
+        return 1 / (2 * Math.sqrt(values.length));
+
+    }
+
+    /**
+     * Indicates whether this sketch is equal to another one.
+     * 
+     * @param obj Another sketch.
+     * @return True if both sketches have equal factor, data size and values. False otherwise.
+     */
+    @Override
+    public boolean equals(
+            Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof UniformFuzzyHashSketch)) {
+            return false;
+        }
+
+        UniformFuzzyHashSketch other = (UniformFuzzyHashSketch) obj;
+
+        return this.factor == other.factor
+                && this.dataSize == other.dataSize
+                && Arrays.equals(this.values, other.values);
+
+    }
+
+    /**
+     * @return A hashCode for this sketch.
+     */
+    @Override
+    public int hashCode() {
+
+        return 31 * (31 * factor + dataSize) + Arrays.hashCode(values);
+
+    }
+
+    /**
+     * @return Factor of the sketched hash.
+     */
+    public int getFactor() {
+
+        return factor;
+
+    }
+
+    /**
+     * @return Size in bytes of the data of the sketched hash.
+     */
+    public int getDataSize() {
+
+        return dataSize;
+
+    }
+
+    /**
+     * @return Amount of values of this sketch.
+     */
+    public int getSize() {
+
+        return values.length;
+
+    }
+
+    /**
+     * @return The sketch values.
+     */
+    protected int[] accessValues() {
+
+        return values;
+
+    }
+
+    /**
+     * SplitMix64 mixing function.
+     * 
+     * @param z A value.
+     * @return The mixed value.
+     */
+    private static long mix(
+            long z) {
+
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+
+    }
+
+    /**
+     * Converts a random long into a uniform double in (0, 1].
+     * 
+     * @param z A random long.
+     * @return A uniform double in (0, 1].
+     */
+    private static double uniform(
+            long z) {
+
+        return ((z >>> 11) + 1) * 0x1.0p-53;
+
+    }
+
+}
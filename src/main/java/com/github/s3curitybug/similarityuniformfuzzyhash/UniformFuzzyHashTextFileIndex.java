@@ -0,0 +1,968 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.IDENTIFIER_SEPARATOR;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.IGNORE_MARK;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.ParallelTasks.ResultSink;
+import com.github.s3curitybug.similarityuniformfuzzyhash.ParallelTasks.TaskSource;
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+
+/**
+ * This class queries the Uniform Fuzzy Hashes saved in a text file (see
+ * UniformFuzzyHashes.saveHashesToTextFile) straight from disk, without loading them, so that text
+ * files much bigger than the available memory can be queried.
+ * It keeps a sparse index with the byte offset of one of every INTERVAL hash lines, which is built
+ * once, reading the text file, and cached next to it in a file with the INDEX_EXTENSION. The cached
+ * index is built again when the text file changes (its length or its modification time). If it
+ * cannot be cached (for example, in a read-only directory), it is built again every time.
+ * Queries read the text file in parallel, each thread from one of the indexed offsets, comparing
+ * the hashes of INTERVAL lines at a time, so the memory used depends on the amount of threads and
+ * on the amount of returned results, but not on the size of the text file.
+ * Like UniformFuzzyHashes.loadHashesFromTextFile, if a name was saved in several lines (for
+ * example, because an updated hash was appended), only its last line is compared. The index keeps
+ * the numbers of the lines overridden by later ones, so building it keeps the names of the text
+ * file in memory, but not their hashes.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashTextFileIndex {
+
+    /**
+     * Extension of the cached index file, appended to the text file name.
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    /**
+     * Default amount of hash lines between indexed offsets.
+     */
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    /**
+     * First bytes of an index file.
+     */
+    private static final long INDEX_MAGIC = 0x5355464849445832L;
+
+    /**
+     * Size in bytes of the index file header.
+     */
+    private static final int INDEX_HEADER_SIZE = 6 * Long.BYTES;
+
+    /**
+     * Size of the buffers to read the text file and the index file.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Listener of the similarities computed by compareToAll.
+     */
+    public interface Listener {
+
+        /**
+         * Notifies the similarities between the query hash and a hash of the text file.
+         * 
+         * @param identifier The identifier of the hash of the text file.
+         * @param similarities All the types of similarity between the query hash and the hash.
+         * @throws IOException If an IOException occurs processing the similarities. It stops the
+         *         query.
+         */
+        void similaritiesComputed(
+                String identifier,
+                Map<SimilarityTypes, Double> similarities)
+                throws IOException;
+
+    }
+
+    /**
+     * The text file.
+     */
+    private final File textFile;
+
+    /**
+     * Amount of hash lines between indexed offsets.
+     */
+    private final int interval;
+
+    /**
+     * Amount of hash lines of the text file.
+     */
+    private final long lines;
+
+    /**
+     * Byte offsets of the hash lines 0, interval, 2 * interval...
+     */
+    private final long[] offsets;
+
+    /**
+     * Sorted numbers of the hash lines whose names are saved again in later lines.
+     */
+    private final long[] overridden;
+
+    /**
+     * Opens the index of a text file with the default interval, reading it from its cached index
+     * file, or building it and caching it if it does not exist or the text file has changed.
+     * 
+     * @param textFile The text file.
+     * @throws IOException If an IOException occurs reading the text file or the index file.
+     */
+    public UniformFuzzyHashTextFileIndex(
+            File textFile)
+            throws IOException {
+
+        this(textFile, DEFAULT_INTERVAL);
+
+    }
+
+    /**
+     * Opens the index of a text file, reading it from its cached index file, or building it and
+     * caching it if it does not exist, the text file has changed or it has a different interval.
+     * 
+     * @param textFile The text file.
+     * @param interval Amount of hash lines between indexed offsets. Must be positive.
+     * @throws IOException If an IOException occurs reading the text file or the index file.
+     */
+    public UniformFuzzyHashTextFileIndex(
+            File textFile,
+            int interval)
+            throws IOException {
+
+        // Parameters check.
+        if (textFile == null) {
+            throw new NullPointerException("File is null.");
+        }
+
+        if (!textFile.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "File %s does not exist.",
+                    textFile.getName()));
+        }
+
+        if (!textFile.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    textFile.getName()));
+        }
+
+        if (interval < 1) {
+            throw new IllegalArgumentException("The interval must be positive.");
+        }
+
+        this.textFile = textFile;
+        this.interval = interval;
+
+        // Cached index.
+        File indexFile = getIndexFile(textFile);
+        long textLength = textFile.length();
+        long textLastModified = textFile.lastModified();
+        IndexData indexData = readIndexFile(indexFile, textLength, textLastModified, interval);
+
+        if (indexData == null) {
+            indexData = buildIndex(textFile, interval);
+            try {
+                writeIndexFile(indexFile, textLength, textLastModified, interval, indexData);
+            } catch (IOException ioException) {
+                // The index is not cached, but it is still used. A partially written index file
+                // is rejected when it is read, because of its length.
+            }
+        }
+
+        this.lines = indexData.lines;
+        this.offsets = indexData.offsets;
+        this.overridden = indexData.overridden;
+
+    }
+
+    /**
+     * Returns the cached index file of a text file.
+     * 
+     * @param textFile The text file.
+     * @return The index file.
+     */
+    public static File getIndexFile(
+            File textFile) {
+
+        if (textFile == null) {
+            throw new NullPointerException("File is null.");
+        }
+
+        return new File(textFile.getPath() + INDEX_EXTENSION);
+
+    }
+
+    /**
+     * Finds a hash of the text file by its identifier, reading the whole text file. If the
+     * identifier was saved in several lines, the last one is returned, like
+     * UniformFuzzyHashes.loadHashesFromTextFile does.
+     * 
+     * @param identifier The identifier.
+     * @return The hash, or null if the identifier is not in the text file.
+     * @throws IOException If an IOException occurs reading the text file.
+     */
+    public UniformFuzzyHash findHash(
+            String identifier)
+            throws IOException {
+
+        if (identifier == null) {
+            throw new NullPointerException("Identifier is null.");
+        }
+
+        String separator = IDENTIFIER_SEPARATOR.trim();
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>(2);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(textFile), FILES_ENCODING), BUFFER_SIZE)) {
+
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                int splitIndex = line.indexOf(separator);
+                if (isHashLine(line) && splitIndex >= 0
+                        && line.substring(0, splitIndex).trim().equals(identifier)) {
+                    UniformFuzzyHashes.rebuildHashFromTextLine(line, hashes);
+                }
+            }
+
+        }
+
+        return hashes.get(identifier);
+
+    }
+
+    /**
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and the hashes of the
+     * text file, optionally only the ones whose type of similarity to it is above or equal to a
+     * threshold, and notifies them to a listener in the order of the text file (names saved in
+     * several lines are notified at the position of their last line).
+     * Hashes whose sizes make the threshold unreachable are not compared, as well as pairs of
+     * hashes whose bitmaps of blocks show that they do not share any block (see
+     * UniformFuzzyHashes.computeHashToHashesSimilarities).
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @param similarityType The type of similarity which is compared to the threshold, or null
+     *        not to apply any threshold.
+     * @param threshold The threshold (0 to 1).
+     * @param limit Maximum amount of notified similarities, after which the query stops.
+     *        A negative number indicates no limit.
+     * @param threads Amount of threads.
+     * @param listener The listener, which is called from the current thread.
+     * @return Amount of notified similarities.
+     * @throws IOException If an IOException occurs reading the text file or in the listener.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public long compareToAll(
+            final UniformFuzzyHash hash,
+            final SimilarityTypes similarityType,
+            final double threshold,
+            final long limit,
+            int threads,
+            final Listener listener)
+            throws IOException, InterruptedException {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The threshold (%s) must be between 0 and 1.",
+                    threshold));
+        }
+
+        if (listener == null) {
+            throw new NullPointerException("Listener is null.");
+        }
+
+        ParallelTasks.checkThreads(threads);
+
+        // Comparisons.
+        final long[] notified = {0};
+
+        ParallelTasks.run(new IntervalsSource<Map<String, Map<SimilarityTypes, Double>>>() {
+
+            @Override
+            protected boolean hasNext() {
+
+                return limit < 0 || notified[0] < limit;
+
+            }
+
+            @Override
+            protected Map<String, Map<SimilarityTypes, Double>> compare(
+                    long firstHash,
+                    Map<String, UniformFuzzyHash> hashes) {
+
+                return similarityType == null
+                        ? UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes)
+                        : UniformFuzzyHashes.computeHashToHashesSimilarities(
+                                hash, hashes, similarityType, threshold);
+
+            }
+
+        }, threads, new ResultSink<Map<String, Map<SimilarityTypes, Double>>>() {
+
+            @Override
+            public void accept(
+                    Map<String, Map<SimilarityTypes, Double>> similarities)
+                    throws IOException {
+
+                for (Entry<String, Map<SimilarityTypes, Double>> entry
+                        : similarities.entrySet()) {
+                    if (limit >= 0 && notified[0] >= limit) {
+                        break;
+                    }
+                    listener.similaritiesComputed(entry.getKey(), entry.getValue());
+                    notified[0]++;
+                }
+
+            }
+
+        });
+
+        return notified[0];
+
+    }
+
+    /**
+     * Computes the k most similar hashes of the text file to a Uniform Fuzzy Hash, sorted by a
+     * type of similarity, optionally only among the ones whose type of similarity to it is above
+     * or equal to a threshold. Only k results are kept in memory at any time by each thread.
+     * Hashes with the same type of similarity are sorted in the order of the text file, so the
+     * result is the same as the first k similarities of sorting all of them (see
+     * UniformFuzzyHashes.sortSimilarities). If a name was saved in several lines, only its last
+     * line is compared.
+     * 
+     * @param hash A Uniform Fuzzy Hash.
+     * @param similarityType The type of similarity which is compared to the threshold, or null
+     *        not to apply any threshold.
+     * @param threshold The threshold (0 to 1).
+     * @param sortCriterion Type of similarity which will be used as sort criterion.
+     * @param sortAscending True to sort ascending, false to sort descending.
+     * @param k Amount of hashes. Must be positive.
+     * @param threads Amount of threads.
+     * @return Sorted map of the k identified similarities.
+     * @throws IOException If an IOException occurs reading the text file.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public Map<String, Map<SimilarityTypes, Double>> computeTopSimilarities(
+            final UniformFuzzyHash hash,
+            final SimilarityTypes similarityType,
+            final double threshold,
+            SimilarityTypes sortCriterion,
+            boolean sortAscending,
+            final int k,
+            int threads)
+            throws IOException, InterruptedException {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The threshold (%s) must be between 0 and 1.",
+                    threshold));
+        }
+
+        if (sortCriterion == null) {
+            throw new NullPointerException("Similarity sort criterion is null.");
+        }
+
+        if (k < 1) {
+            throw new IllegalArgumentException("The amount of hashes must be positive.");
+        }
+
+        ParallelTasks.checkThreads(threads);
+
+        // Comparisons, keeping the k best ones in a heap whose head is the worst one.
+        final Comparator<RankedSimilarities> comparator =
+                new RankedSimilaritiesComparator(sortCriterion, sortAscending);
+        final Comparator<RankedSimilarities> reverseComparator =
+                Collections.reverseOrder(comparator);
+        final PriorityQueue<RankedSimilarities> top = new PriorityQueue<>(reverseComparator);
+
+        ParallelTasks.run(new IntervalsSource<List<RankedSimilarities>>() {
+
+            @Override
+            protected List<RankedSimilarities> compare(
+                    long firstHash,
+                    Map<String, UniformFuzzyHash> hashes) {
+
+                Map<String, Map<SimilarityTypes, Double>> similarities = similarityType == null
+                        ? UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes)
+                        : UniformFuzzyHashes.computeHashToHashesSimilarities(
+                                hash, hashes, similarityType, threshold);
+
+                PriorityQueue<RankedSimilarities> intervalTop =
+                        new PriorityQueue<>(reverseComparator);
+                long position = firstHash;
+
+                for (Entry<String, Map<SimilarityTypes, Double>> entry
+                        : similarities.entrySet()) {
+                    offer(intervalTop, new RankedSimilarities(
+                            entry.getKey(), entry.getValue(), position++), k, comparator);
+                }
+
+                return new ArrayList<>(intervalTop);
+
+            }
+
+        }, threads, new ResultSink<List<RankedSimilarities>>() {
+
+            @Override
+            public void accept(
+                    List<RankedSimilarities> intervalTop) {
+
+                for (RankedSimilarities rankedSimilarities : intervalTop) {
+                    offer(top, rankedSimilarities, k, comparator);
+                }
+
+            }
+
+        });
+
+        // Sort.
+        List<RankedSimilarities> sortedTop = new ArrayList<>(top);
+        Collections.sort(sortedTop, comparator);
+
+        Map<String, Map<SimilarityTypes, Double>> similarities =
+                new LinkedHashMap<>(sortedTop.size());
+
+        for (RankedSimilarities rankedSimilarities : sortedTop) {
+            similarities.put(rankedSimilarities.identifier, rankedSimilarities.similarities);
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Offers a result to a heap of the k best results whose head is the worst one.
+     * 
+     * @param top The heap.
+     * @param rankedSimilarities The result.
+     * @param k Maximum amount of results of the heap.
+     * @param comparator Comparator of the results, which sorts the best ones first.
+     */
+    private static void offer(
+            PriorityQueue<RankedSimilarities> top,
+            RankedSimilarities rankedSimilarities,
+            int k,
+            Comparator<RankedSimilarities> comparator) {
+
+        if (top.size() < k) {
+            top.add(rankedSimilarities);
+        } else if (comparator.compare(rankedSimilarities, top.peek()) < 0) {
+            top.poll();
+            top.add(rankedSimilarities);
+        }
+
+    }
+
+    /**
+     * Reads the hashes of an interval of the text file, except the ones of the lines overridden
+     * by later ones.
+     * 
+     * @param intervalIndex Index of the interval.
+     * @return Map of identified Uniform Fuzzy Hashes of the interval.
+     * @throws IOException If an IOException occurs reading the text file.
+     */
+    private Map<String, UniformFuzzyHash> readInterval(
+            int intervalIndex)
+            throws IOException {
+
+        long firstHash = (long) intervalIndex * interval;
+        long intervalSize = Math.min(interval, lines - firstHash);
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>((int) intervalSize * 2);
+
+        try (FileChannel channel = FileChannel.open(textFile.toPath(), StandardOpenOption.READ)) {
+
+            channel.position(offsets[intervalIndex]);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    Channels.newInputStream(channel), FILES_ENCODING), BUFFER_SIZE);
+
+            long hashNumber = firstHash;
+            while (hashNumber < firstHash + intervalSize) {
+
+                String line = reader.readLine();
+                if (line == null) {
+                    throw new IOException(String.format(
+                            "File %s has changed since its index was built.",
+                            textFile.getName()));
+                }
+
+                if (!isHashLine(line)) {
+                    continue;
+                }
+
+                if (Arrays.binarySearch(overridden, hashNumber) >= 0) {
+                    hashNumber++;
+                    continue;
+                }
+
+                try {
+                    UniformFuzzyHashes.rebuildHashFromTextLine(line, hashes);
+                } catch (IllegalArgumentException illegalArgumentException) {
+                    throw new IllegalArgumentException(String.format(
+                            "File %s could not be parsed. Hash number %d could not be parsed. %s",
+                            textFile.getName(),
+                            hashNumber + 1,
+                            illegalArgumentException.getMessage()));
+                }
+
+                hashNumber++;
+
+            }
+
+        }
+
+        return hashes;
+
+    }
+
+    /**
+     * Source of tasks which read the intervals of the text file in order and compare their
+     * hashes.
+     * 
+     * @param <R> Results type.
+     */
+    private abstract class IntervalsSource<R> implements TaskSource<R> {
+
+        /**
+         * Index of the next interval.
+         */
+        private int nextInterval = 0;
+
+        @Override
+        public Callable<R> next() {
+
+            if (nextInterval >= offsets.length || !hasNext()) {
+                return null;
+            }
+
+            final int intervalIndex = nextInterval++;
+
+            return new Callable<R>() {
+
+                @Override
+                public R call()
+                        throws IOException {
+
+                    return compare((long) intervalIndex * interval, readInterval(intervalIndex));
+
+                }
+
+            };
+
+        }
+
+        /**
+         * @return False to stop reading intervals.
+         */
+        protected boolean hasNext() {
+
+            return true;
+
+        }
+
+        /**
+         * Compares the hashes of an interval. It is called from the threads which run the tasks.
+         * 
+         * @param firstHash Number of the first hash of the interval.
+         * @param hashes Map of identified Uniform Fuzzy Hashes of the interval.
+         * @return The result.
+         */
+        protected abstract R compare(
+                long firstHash,
+                Map<String, UniformFuzzyHash> hashes);
+
+    }
+
+    /**
+     * Similarities of a hash of the text file, with its position in it.
+     */
+    private static final class RankedSimilarities {
+
+        /**
+         * Identifier of the hash.
+         */
+        private final String identifier;
+
+        /**
+         * All the types of similarity.
+         */
+        private final Map<SimilarityTypes, Double> similarities;
+
+        /**
+         * Position of the hash in the text file.
+         */
+        private final long position;
+
+        /**
+         * Constructor.
+         * 
+         * @param identifier Identifier of the hash.
+         * @param similarities All the types of similarity.
+         * @param position Position of the hash in the text file.
+         */
+        private RankedSimilarities(
+                String identifier,
+                Map<SimilarityTypes, Double> similarities,
+                long position) {
+
+            this.identifier = identifier;
+            this.similarities = similarities;
+            this.position = position;
+
+        }
+
+    }
+
+    /**
+     * Comparator which sorts similarities by a type of similarity, and then by their position in
+     * the text file.
+     */
+    private static final class RankedSimilaritiesComparator
+            implements Comparator<RankedSimilarities> {
+
+        /**
+         * Type of similarity which is used as sort criterion.
+         */
+        private final SimilarityTypes sortCriterion;
+
+        /**
+         * True to sort ascending, false to sort descending.
+         */
+        private final boolean sortAscending;
+
+        /**
+         * Constructor.
+         * 
+         * @param sortCriterion Type of similarity which is used as sort criterion.
+         * @param sortAscending True to sort ascending, false to sort descending.
+         */
+        private RankedSimilaritiesComparator(
+                SimilarityTypes sortCriterion,
+                boolean sortAscending) {
+
+            this.sortCriterion = sortCriterion;
+            this.sortAscending = sortAscending;
+
+        }
+
+        @Override
+        public int compare(
+                RankedSimilarities rankedSimilarities1,
+                RankedSimilarities rankedSimilarities2) {
+
+            double similarity1 = rankedSimilarities1.similarities.get(sortCriterion);
+            double similarity2 = rankedSimilarities2.similarities.get(sortCriterion);
+
+            int comparison = sortAscending
+                    ? Double.compare(similarity1, similarity2)
+                    : Double.compare(similarity2, similarity1);
+
+            return comparison != 0 ? comparison
+                    : Long.compare(rankedSimilarities1.position, rankedSimilarities2.position);
+
+        }
+
+    }
+
+    /**
+     * Index of a text file, as it is built or read from its cached index file.
+     */
+    private static final class IndexData {
+
+        /**
+         * Amount of hash lines of the text file.
+         */
+        private final long lines;
+
+        /**
+         * Byte offsets of the hash lines 0, interval, 2 * interval...
+         */
+        private final long[] offsets;
+
+        /**
+         * Sorted numbers of the hash lines whose names are saved again in later lines.
+         */
+        private final long[] overridden;
+
+        /**
+         * Constructor.
+         * 
+         * @param lines Amount of hash lines of the text file.
+         * @param offsets Byte offsets of the hash lines 0, interval, 2 * interval...
+         * @param overridden Sorted numbers of the hash lines whose names are saved again in later
+         *        lines.
+         */
+        private IndexData(
+                long lines,
+                long[] offsets,
+                long[] overridden) {
+
+            this.lines = lines;
+            this.offsets = offsets;
+            this.overridden = overridden;
+
+        }
+
+    }
+
+    /**
+     * Checks if a line of the text file represents a hash, which is not empty and does not start
+     * by the ignore mark.
+     * 
+     * @param line The line.
+     * @return True if the line represents a hash.
+     */
+    private static boolean isHashLine(
+            String line) {
+
+        return !line.isEmpty() && !line.startsWith(IGNORE_MARK);
+
+    }
+
+    /**
+     * Builds the index of a text file, reading it.
+     * 
+     * @param textFile The text file.
+     * @param interval Amount of hash lines between indexed offsets.
+     * @return The index.
+     * @throws IOException If an IOException occurs reading the text file.
+     */
+    private static IndexData buildIndex(
+            File textFile,
+            int interval)
+            throws IOException {
+
+        // Lines are split by \n or \r, like BufferedReader.readLine does, and empty lines and
+        // lines starting by the ignore mark (a single byte in the files encoding) are skipped.
+        // The name of each hash line is the text before the identifier separator (a single byte
+        // in the files encoding, which is never part of a multi-byte character).
+        byte ignoreMark = IGNORE_MARK.getBytes(FILES_ENCODING)[0];
+        byte separator = IDENTIFIER_SEPARATOR.trim().getBytes(FILES_ENCODING)[0];
+        List<Long> offsets = new ArrayList<>();
+        List<Long> overridden = new ArrayList<>();
+        Map<String, Long> lastLines = new HashMap<>();
+        ByteArrayOutputStream identifier = new ByteArrayOutputStream();
+        long lines = 0;
+
+        try (InputStream inputStream = new BufferedInputStream(
+                new FileInputStream(textFile), BUFFER_SIZE)) {
+
+            long offset = 0;
+            boolean lineStart = true;
+            boolean inIdentifier = false;
+
+            for (int b = inputStream.read(); b != -1; b = inputStream.read(), offset++) {
+
+                boolean lineEnd = b == '\n' || b == '\r';
+
+                if (lineStart && !lineEnd && b != ignoreMark) {
+                    if (lines % interval == 0) {
+                        offsets.add(offset);
+                    }
+                    lines++;
+                    inIdentifier = true;
+                    identifier.reset();
+                }
+
+                if (inIdentifier && (lineEnd || b == separator)) {
+                    inIdentifier = false;
+                    if (b == separator) {
+                        Long lastLine = lastLines.put(
+                                new String(identifier.toByteArray(), FILES_ENCODING).trim(),
+                                lines - 1);
+                        if (lastLine != null) {
+                            overridden.add(lastLine);
+                        }
+                    }
+                } else if (inIdentifier) {
+                    identifier.write(b);
+                }
+
+                lineStart = lineEnd;
+
+            }
+
+        }
+
+        Collections.sort(overridden);
+
+        return new IndexData(lines, toArray(offsets), toArray(overridden));
+
+    }
+
+    /**
+     * @param list List of longs.
+     * @return Array of the longs of the list.
+     */
+    private static long[] toArray(
+            List<Long> list) {
+
+        long[] array = new long[list.size()];
+
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+
+        return array;
+
+    }
+
+    /**
+     * Reads a cached index file.
+     * 
+     * @param indexFile The index file.
+     * @param textLength Length of the text file.
+     * @param textLastModified Modification time of the text file.
+     * @param interval Amount of hash lines between indexed offsets.
+     * @return The index, or null if the index file does not exist, is not valid, or belongs to a
+     *         different text file or interval.
+     * @throws IOException If an IOException occurs reading the index file.
+     */
+    private static IndexData readIndexFile(
+            File indexFile,
+            long textLength,
+            long textLastModified,
+            int interval)
+            throws IOException {
+
+        if (!indexFile.isFile() || indexFile.length() < INDEX_HEADER_SIZE) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(indexFile), BUFFER_SIZE))) {
+
+            if (input.readLong() != INDEX_MAGIC
+                    || input.readLong() != textLength
+                    || input.readLong() != textLastModified
+                    || input.readLong() != interval) {
+                return null;
+            }
+
+            long lines = input.readLong();
+            long nOverridden = input.readLong();
+            long nOffsets = (lines + interval - 1) / interval;
+
+            if (lines < 0 || nOverridden < 0 || nOverridden > lines || indexFile.length()
+                    != INDEX_HEADER_SIZE + (nOffsets + nOverridden) * Long.BYTES) {
+                return null;
+            }
+
+            long[] offsets = new long[(int) nOffsets];
+            long[] overridden = new long[(int) nOverridden];
+
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = input.readLong();
+            }
+
+            for (int i = 0; i < overridden.length; i++) {
+                overridden[i] = input.readLong();
+            }
+
+            return new IndexData(lines, offsets, overridden);
+
+        }
+
+    }
+
+    /**
+     * Writes a cached index file, overwriting it.
+     * 
+     * @param indexFile The index file.
+     * @param textLength Length of the text file.
+     * @param textLastModified Modification time of the text file.
+     * @param interval Amount of hash lines between indexed offsets.
+     * @param indexData The index.
+     * @throws IOException If an IOException occurs writing the index file.
+     */
+    private static void writeIndexFile(
+            File indexFile,
+            long textLength,
+            long textLastModified,
+            int interval,
+            IndexData indexData)
+            throws IOException {
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexFile), BUFFER_SIZE))) {
+
+            output.writeLong(INDEX_MAGIC);
+            output.writeLong(textLength);
+            output.writeLong(textLastModified);
+            output.writeLong(interval);
+            output.writeLong(indexData.lines);
+            output.writeLong(indexData.overridden.length);
+
+            for (long offset : indexData.offsets) {
+                output.writeLong(offset);
+            }
+
+            for (long lineNumber : indexData.overridden) {
+                output.writeLong(lineNumber);
+            }
+
+        }
+
+    }
+
+    /**
+     * @return The text file.
+     */
+    public File getTextFile() {
+
+        return textFile;
+
+    }
+
+    /**
+     * @return Amount of hash lines between indexed offsets.
+     */
+    public int getInterval() {
+
+        return interval;
+
+    }
+
+    /**
+     * @return Amount of hashes of the text file: its hash lines, except the ones overridden by
+     *         later lines with the same name.
+     */
+    public long size() {
+
+        return lines - overridden.length;
+
+    }
+
+}
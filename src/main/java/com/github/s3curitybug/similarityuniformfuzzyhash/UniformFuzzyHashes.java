@@ -6,6 +6,7 @@ import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.ID
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.IGNORE_MARK;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.TAB;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.ZERO_TO_ONE_DECIMAL_MAX_CHARS;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.appendDecimal;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.escapeCsv;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.formatDecimal;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.hyphens;
@@ -17,6 +18,9 @@ import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.sp
 import org.apache.commons.io.output.FileWriterWithEncoding;
 import org.fusesource.jansi.AnsiConsole;
 
+import com.github.s3curitybug.similarityuniformfuzzyhash.ParallelTasks.MemoryBudget;
+import com.github.s3curitybug.similarityuniformfuzzyhash.ParallelTasks.ResultSink;
+import com.github.s3curitybug.similarityuniformfuzzyhash.ParallelTasks.TaskSource;
 import com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.AnsiCodeColors;
 import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
 
@@ -29,16 +33,21 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class provides utility static methods related to the Uniform Fuzzy Hash usage.
@@ -48,6 +57,26 @@ import java.util.Set;
  */
 public final class UniformFuzzyHashes {
 
+    /**
+     * Estimated bytes of memory used by each block of a hash while it is computed.
+     */
+    private static final int ESTIMATED_BLOCK_BYTES = 48;
+
+    /**
+     * Estimated bytes of memory used by each similarity of a map of similarities.
+     */
+    private static final int ESTIMATED_SIMILARITY_BYTES = 64;
+
+    /**
+     * Maximum amount of characters of each batch of lines parsed in parallel.
+     */
+    private static final long TEXT_BATCH_MAX_CHARS = 1024 * 1024;
+
+    /**
+     * Amount of tasks into which comparisons are split per thread, to balance the threads.
+     */
+    private static final int TASKS_PER_THREAD = 8;
+
     /**
      * Private constructor.
      */
@@ -410,6 +439,134 @@ public final class UniformFuzzyHashes {
 
     }
 
+    /**
+     * Computes a map of identified Uniform Fuzzy Hashes from the files inside a directory
+     * (identifying them by their names) and a factor, hashing the files in parallel. The hashes
+     * are the same, and in the same order, as the ones computed by
+     * computeHashesFromDirectoryFiles without threads.
+     * The files being hashed at once are bounded by a memory budget, shared by the estimated
+     * memory needed to hash each file (a read chunk and its blocks), so that many big files are
+     * not hashed at once. A file whose estimation exceeds the budget is hashed alone.
+     * 
+     * @param directory Directory of files.
+     * @param factor Relation between data length and the hash mean number of blocks for each file
+     *        of data. Must be greater than 2 and must be odd.
+     * @param nested True to read files inside directories recursively. False to ignore directories.
+     * @param threads Amount of threads.
+     * @param maxMemory Memory budget in bytes.
+     * @return Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException If an IOException occurs reading any of the files of data.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public static Map<String, UniformFuzzyHash> computeHashesFromDirectoryFiles(
+            File directory,
+            final int factor,
+            boolean nested,
+            int threads,
+            long maxMemory)
+            throws IOException, InterruptedException {
+
+        // Parameters check.
+        if (directory == null) {
+            throw new NullPointerException("Directory is null.");
+        }
+
+        if (!directory.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "Directory %s does not exist.",
+                    directory.getName()));
+        }
+
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a directory.",
+                    directory.getName()));
+        }
+
+        UniformFuzzyHash.checkFactor(factor);
+        ParallelTasks.checkThreads(threads);
+        final MemoryBudget memoryBudget = new MemoryBudget(maxMemory);
+
+        // Files.
+        List<File> files = new ArrayList<>();
+        listFiles(directory, nested, files);
+
+        // Hashing.
+        final Iterator<File> filesIterator = files.iterator();
+        final Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>(files.size());
+
+        ParallelTasks.run(new TaskSource<Entry<String, UniformFuzzyHash>>() {
+
+            @Override
+            public Callable<Entry<String, UniformFuzzyHash>> next() {
+
+                if (!filesIterator.hasNext()) {
+                    return null;
+                }
+
+                final File file = filesIterator.next();
+
+                return new Callable<Entry<String, UniformFuzzyHash>>() {
+
+                    @Override
+                    public Entry<String, UniformFuzzyHash> call()
+                            throws IOException, InterruptedException {
+
+                        long memory = memoryBudget.acquire(HasherContext.CHUNK_SIZE
+                                + file.length() / factor * ESTIMATED_BLOCK_BYTES);
+
+                        try {
+                            UniformFuzzyHash hash = new UniformFuzzyHash(file, factor);
+                            return new SimpleImmutableEntry<>(file.getName(), hash);
+                        } finally {
+                            memoryBudget.release(memory);
+                        }
+
+                    }
+
+                };
+
+            }
+
+        }, threads, new ResultSink<Entry<String, UniformFuzzyHash>>() {
+
+            @Override
+            public void accept(
+                    Entry<String, UniformFuzzyHash> entry) {
+
+                hashes.put(entry.getKey(), entry.getValue());
+
+            }
+
+        });
+
+        return hashes;
+
+    }
+
+    /**
+     * Lists the files inside a directory in the order in which computeHashesFromFiles hashes them.
+     * 
+     * @param directory Directory of files.
+     * @param nested True to list files inside directories recursively. False to ignore
+     *        directories.
+     * @param files List to add the files to.
+     */
+    private static void listFiles(
+            File directory,
+            boolean nested,
+            List<File> files) {
+
+        for (File file : directory.listFiles()) {
+            if (file.isFile()) {
+                files.add(file);
+            } else if (file.isDirectory() && nested) {
+                listFiles(file, nested, files);
+            }
+        }
+
+    }
+
     /**
      * Builds a map of identified strings representing Uniform Fuzzy Hashes from a map of identified
      * Uniform Fuzzy Hashes.
@@ -711,6 +868,9 @@ public final class UniformFuzzyHashes {
                     file.getName()));
         }
 
+        long startTime = UniformFuzzyHashMetrics.startTime();
+        Object event = FlightRecorderEvents.beginTextFileSave();
+
         try (PrintWriter writer = new PrintWriter(new FileWriterWithEncoding(
                 file, FILES_ENCODING, append))) {
 
@@ -733,6 +893,9 @@ public final class UniformFuzzyHashes {
 
         }
 
+        UniformFuzzyHashMetrics.recordTextFileSave(startTime, hashes.size());
+        FlightRecorderEvents.commitTextFileSave(event, file, hashes.size());
+
     }
 
     /**
@@ -763,6 +926,9 @@ public final class UniformFuzzyHashes {
                     file.getName()));
         }
 
+        long startTime = UniformFuzzyHashMetrics.startTime();
+        Object event = FlightRecorderEvents.beginTextFileLoad();
+
         Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(
@@ -787,6 +953,144 @@ public final class UniformFuzzyHashes {
 
         }
 
+        UniformFuzzyHashMetrics.recordTextFileLoad(startTime, hashes.size());
+        FlightRecorderEvents.commitTextFileLoad(event, file, hashes.size());
+
+        return hashes;
+
+    }
+
+    /**
+     * Loads a map of identified Uniform Fuzzy Hashes from a text file, parsing its lines in
+     * parallel. The hashes are the same, and in the same order, as the ones loaded by
+     * loadHashesFromTextFile without threads.
+     * Lines are read in batches, and the batches read but not parsed yet are bounded by a memory
+     * budget, so that the text of a big file is never held at once.
+     * Lines starting by # are ignored.
+     * 
+     * @param file The file to load the hashes.
+     * @param threads Amount of threads.
+     * @param maxMemory Memory budget in bytes for the lines read but not parsed yet.
+     * @return Map of identified Uniform Fuzzy Hashes.
+     * @throws IOException IOException If an IOException occurs reading from the file.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public static Map<String, UniformFuzzyHash> loadHashesFromTextFile(
+            final File file,
+            int threads,
+            long maxMemory)
+            throws IOException, InterruptedException {
+
+        // Parameters check.
+        if (file == null) {
+            throw new NullPointerException("File is null.");
+        }
+
+        if (!file.exists()) {
+            throw new IllegalArgumentException(String.format(
+                    "File %s does not exist.",
+                    file.getName()));
+        }
+
+        if (!file.isFile()) {
+            throw new IllegalArgumentException(String.format(
+                    "%s is not a file.",
+                    file.getName()));
+        }
+
+        ParallelTasks.checkThreads(threads);
+        ParallelTasks.checkMaxMemory(maxMemory);
+
+        long startTime = UniformFuzzyHashMetrics.startTime();
+        Object event = FlightRecorderEvents.beginTextFileLoad();
+
+        // Loading.
+        final long batchMaxChars = Math.max(1, Math.min(TEXT_BATCH_MAX_CHARS, maxMemory
+                / ((long) threads * ParallelTasks.PENDING_TASKS_PER_THREAD * Character.BYTES)));
+        final Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
+
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), FILES_ENCODING))) {
+
+            ParallelTasks.run(new TaskSource<Map<String, UniformFuzzyHash>>() {
+
+                /**
+                 * Number of the next line.
+                 */
+                private int lineNumber = 1;
+
+                @Override
+                public Callable<Map<String, UniformFuzzyHash>> next()
+                        throws IOException {
+
+                    final List<String> lines = new ArrayList<>();
+                    final int firstLineNumber = lineNumber;
+                    long chars = 0;
+
+                    while (chars < batchMaxChars) {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            break;
+                        }
+                        lines.add(line);
+                        chars += line.length() + 1;
+                        lineNumber++;
+                    }
+
+                    if (lines.isEmpty()) {
+                        return null;
+                    }
+
+                    return new Callable<Map<String, UniformFuzzyHash>>() {
+
+                        @Override
+                        public Map<String, UniformFuzzyHash> call() {
+
+                            Map<String, UniformFuzzyHash> batchHashes = new LinkedHashMap<>();
+                            int lineNumber = firstLineNumber;
+
+                            for (String line : lines) {
+
+                                try {
+                                    rebuildHashFromTextLine(line, batchHashes);
+                                } catch (IllegalArgumentException illegalArgumentException) {
+                                    throw new IllegalArgumentException(String.format(
+                                            "File %s could not be parsed. "
+                                                    + "Line number %d could not be parsed. %s",
+                                            file.getName(),
+                                            lineNumber,
+                                            illegalArgumentException.getMessage()));
+                                }
+
+                                lineNumber++;
+
+                            }
+
+                            return batchHashes;
+
+                        }
+
+                    };
+
+                }
+
+            }, threads, new ResultSink<Map<String, UniformFuzzyHash>>() {
+
+                @Override
+                public void accept(
+                        Map<String, UniformFuzzyHash> batchHashes) {
+
+                    hashes.putAll(batchHashes);
+
+                }
+
+            });
+
+        }
+
+        UniformFuzzyHashMetrics.recordTextFileLoad(startTime, hashes.size());
+        FlightRecorderEvents.commitTextFileLoad(event, file, hashes.size());
+
         return hashes;
 
     }
@@ -794,6 +1098,8 @@ public final class UniformFuzzyHashes {
     /**
      * Computes all the types of similarity between a Uniform Fuzzy Hash and a map of identified
      * Uniform Fuzzy Hashes.
+     * Pairs of hashes whose bitmaps of blocks show that they do not share any block are not
+     * compared.
      * 
      * @param <T> Identifiers type.
      * @param hash A Uniform Fuzzy Hash.
@@ -806,6 +1112,7 @@ public final class UniformFuzzyHashes {
 
         Set<Entry<T, UniformFuzzyHash>> entries = hashes.entrySet();
         Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>(entries.size());
+        long skips = 0;
 
         for (Entry<T, UniformFuzzyHash> entry : entries) {
 
@@ -817,126 +1124,517 @@ public final class UniformFuzzyHashes {
                 continue;
             }
 
-            Map<SimilarityTypes, Double> similarities1 = hash.similarities(hash1);
+            Map<SimilarityTypes, Double> similarities1;
+            if (hash.mayShareBlocks(hash1)) {
+                similarities1 = hash.similarities(hash1);
+            } else {
+                similarities1 = UniformFuzzyHash.noSimilarities();
+                skips++;
+            }
             similarities.put(identifier, similarities1);
 
         }
 
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
         return similarities;
 
     }
 
     /**
-     * Sorts a map of identified similarities by a type of similarity.
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and the hashes of a map of
+     * identified Uniform Fuzzy Hashes whose type of similarity to it is above or equal to a
+     * threshold.
+     * Hashes whose sizes make the threshold unreachable (see UniformFuzzyHash.similarityUpperBound)
+     * are not compared, as well as pairs of hashes whose bitmaps of blocks show that they do not
+     * share any block.
      * 
      * @param <T> Identifiers type.
-     * @param similarities Map of identified similarities.
-     * @param sortCriterion Type of similarity which will be used as sort criterion.
-     * @param sortAscending True to sort ascending, false to sort descending.
-     * @return Sorted map of identified similarities.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes. Null hashes are ignored.
+     * @param similarityType The type of similarity which is compared to the threshold.
+     * @param threshold The threshold (0 to 1).
+     * @return Map of identified similarities of the hashes which reach the threshold.
      */
-    public static <T> Map<T, Map<SimilarityTypes, Double>> sortSimilarities(
-            Map<T, Map<SimilarityTypes, Double>> similarities,
-            SimilarityTypes sortCriterion,
-            boolean sortAscending) {
+    public static <T> Map<T, Map<SimilarityTypes, Double>> computeHashToHashesSimilarities(
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            SimilarityTypes similarityType,
+            double threshold) {
 
-        if (similarities == null) {
-            throw new NullPointerException("Map of similarities is null.");
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
         }
 
-        if (sortCriterion == null) {
-            throw new NullPointerException("Similarity sort criterion is null.");
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
         }
 
-        List<Entry<T, Map<SimilarityTypes, Double>>> entries =
-                new ArrayList<>(similarities.entrySet());
-
-        Collections.sort(entries, new Comparator<Entry<T, Map<SimilarityTypes, Double>>>() {
-
-            @Override
-            public int compare(
-                    Entry<T, Map<SimilarityTypes, Double>> entry1,
-                    Entry<T, Map<SimilarityTypes, Double>> entry2) {
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
 
-                Map<SimilarityTypes, Double> similarities1 = entry1.getValue();
-                Map<SimilarityTypes, Double> similarities2 = entry2.getValue();
+        checkThreshold(threshold);
 
-                if (similarities1 == null && similarities2 == null) {
-                    return 0;
-                } else if (similarities1 == null) {
-                    return 1;
-                } else if (similarities2 == null) {
-                    return -1;
-                }
+        // Comparisons.
+        Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>();
+        long skips = 0;
 
-                Double similarity1 = similarities1.get(sortCriterion);
-                Double similarity2 = similarities2.get(sortCriterion);
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
 
-                if (similarity1 == null && similarity2 == null) {
-                    return 0;
-                } else if (similarity1 == null) {
-                    return 1;
-                } else if (similarity2 == null) {
-                    return -1;
-                }
+            T identifier = entry.getKey();
+            UniformFuzzyHash hash1 = entry.getValue();
 
-                if (sortAscending) {
-                    return similarity1.compareTo(similarity2);
-                } else {
-                    return similarity2.compareTo(similarity1);
-                }
+            if (hash1 == null) {
+                continue;
+            }
 
+            if (hash.similarityUpperBound(hash1, similarityType) < threshold) {
+                skips++;
+                continue;
             }
 
-        });
+            Map<SimilarityTypes, Double> similarities1;
+            if (hash.mayShareBlocks(hash1)) {
+                similarities1 = hash.similarities(hash1);
+            } else {
+                similarities1 = UniformFuzzyHash.noSimilarities();
+                skips++;
+            }
 
-        Map<T, Map<SimilarityTypes, Double>> sortedSimilarities =
-                new LinkedHashMap<>(entries.size());
+            if (similarities1.get(similarityType) >= threshold) {
+                similarities.put(identifier, similarities1);
+            }
 
-        for (Entry<T, Map<SimilarityTypes, Double>> entry : entries) {
-            sortedSimilarities.put(entry.getKey(), entry.getValue());
         }
 
-        return sortedSimilarities;
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+        return similarities;
 
     }
 
     /**
-     * Sorts a map of identified objects by the order of another map.
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and a map of identified
+     * Uniform Fuzzy Hashes, comparing parts of the map in parallel. The similarities are the same,
+     * and in the same order, as the ones computed by computeHashToHashesSimilarities without
+     * threads.
      * 
      * @param <T> Identifiers type.
-     * @param <S> Objects type.
-     * @param identifiedObjects Map of identified objects.
-     * @param sortedMap Sorted map which will be used to sort the map of identified objects.
-     * @return Sorted map of identified objects.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param threads Amount of threads.
+     * @return Map of identified similarities.
+     * @throws InterruptedException If the current thread is interrupted.
      */
-    public static <T, S> Map<T, S> sortMap(
-            Map<T, S> identifiedObjects,
-            Map<T, ?> sortedMap) {
+    public static <T> Map<T, Map<SimilarityTypes, Double>> computeHashToHashesSimilarities(
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            int threads)
+            throws InterruptedException {
 
-        Map<T, S> sortedIdentifiedObjects = new LinkedHashMap<>(sortedMap.size());
-        Set<T> keys = sortedMap.keySet();
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
 
-        for (T key : keys) {
-            sortedIdentifiedObjects.put(key, identifiedObjects.get(key));
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
         }
 
-        return sortedIdentifiedObjects;
+        ParallelTasks.checkThreads(threads);
+
+        return compareHashToHashesInParts(hash, hashes, null, 0, threads);
 
     }
 
     /**
-     * Computes the similarity between all the hashes in a map of identified Uniform Fuzzy Hashes.
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and the hashes of a map of
+     * identified Uniform Fuzzy Hashes whose type of similarity to it is above or equal to a
+     * threshold, comparing parts of the map in parallel. The similarities are the same, and in the
+     * same order, as the ones computed by computeHashToHashesSimilarities without threads.
      * 
      * @param <T> Identifiers type.
-     * @param hashes Map of identified Uniform Fuzzy Hashes.
-     * @return Map of identified similarities.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes. Null hashes are ignored.
+     * @param similarityType The type of similarity which is compared to the threshold.
+     * @param threshold The threshold (0 to 1).
+     * @param threads Amount of threads.
+     * @return Map of identified similarities of the hashes which reach the threshold.
+     * @throws InterruptedException If the current thread is interrupted.
      */
-    public static <T> Map<T, Map<T, Double>> computeAllHashesSimilarities(
-            Map<T, UniformFuzzyHash> hashes) {
-
-        Set<Entry<T, UniformFuzzyHash>> entries = hashes.entrySet();
+    public static <T> Map<T, Map<SimilarityTypes, Double>> computeHashToHashesSimilarities(
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            SimilarityTypes similarityType,
+            double threshold,
+            int threads)
+            throws InterruptedException {
+
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
+
+        checkThreshold(threshold);
+        ParallelTasks.checkThreads(threads);
+
+        return compareHashToHashesInParts(
+                hash, hashes, similarityType, threshold, threads);
+
+    }
+
+    /**
+     * Computes the types of similarity between a Uniform Fuzzy Hash and a map of identified
+     * Uniform Fuzzy Hashes, splitting the map into consecutive parts which are compared in
+     * parallel by computeHashToHashesSimilarities, and joining their results in order.
+     * 
+     * @param <T> Identifiers type.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param similarityType The type of similarity which is compared to the threshold, or null
+     *        not to apply any threshold.
+     * @param threshold The threshold (0 to 1).
+     * @param threads Amount of threads.
+     * @return Map of identified similarities.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    private static <T> Map<T, Map<SimilarityTypes, Double>> compareHashToHashesInParts(
+            final UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            final SimilarityTypes similarityType,
+            final double threshold,
+            int threads)
+            throws InterruptedException {
+
+        final Iterator<Entry<T, UniformFuzzyHash>> entriesIterator = hashes.entrySet().iterator();
+        final int partSize = Math.max(1, (int) Math.ceil(
+                (double) hashes.size() / (threads * TASKS_PER_THREAD)));
+        final Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>();
+
+        try {
+
+            ParallelTasks.run(new TaskSource<Map<T, Map<SimilarityTypes, Double>>>() {
+
+                @Override
+                public Callable<Map<T, Map<SimilarityTypes, Double>>> next() {
+
+                    if (!entriesIterator.hasNext()) {
+                        return null;
+                    }
+
+                    final Map<T, UniformFuzzyHash> part = new LinkedHashMap<>(partSize);
+                    while (part.size() < partSize && entriesIterator.hasNext()) {
+                        Entry<T, UniformFuzzyHash> entry = entriesIterator.next();
+                        part.put(entry.getKey(), entry.getValue());
+                    }
+
+                    return new Callable<Map<T, Map<SimilarityTypes, Double>>>() {
+
+                        @Override
+                        public Map<T, Map<SimilarityTypes, Double>> call() {
+
+                            return similarityType == null
+                                    ? computeHashToHashesSimilarities(hash, part)
+                                    : computeHashToHashesSimilarities(
+                                            hash, part, similarityType, threshold);
+
+                        }
+
+                    };
+
+                }
+
+            }, threads, new ResultSink<Map<T, Map<SimilarityTypes, Double>>>() {
+
+                @Override
+                public void accept(
+                        Map<T, Map<SimilarityTypes, Double>> partSimilarities) {
+
+                    similarities.putAll(partSimilarities);
+
+                }
+
+            });
+
+        } catch (IOException ioException) {
+            // Comparisons do not throw IOExceptions.
+            throw new IllegalStateException(ioException);
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Estimates all the types of similarity between a Uniform Fuzzy Hash and a map of identified
+     * Uniform Fuzzy Hashes, comparing their sketches with the default size in constant time.
+     * 
+     * @param <T> Identifiers type.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @return Map of identified similarities estimations.
+     */
+    public static <T> Map<T, Map<SimilarityTypes, Double>> estimateHashToHashesSimilarities(
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes) {
+
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        UniformFuzzyHashSketch sketch = hash.getSketch();
+
+        Set<Entry<T, UniformFuzzyHash>> entries = hashes.entrySet();
+        Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>(entries.size());
+
+        for (Entry<T, UniformFuzzyHash> entry : entries) {
+
+            T identifier = entry.getKey();
+            UniformFuzzyHash hash1 = entry.getValue();
+
+            if (hash1 == null) {
+                similarities.put(identifier, null);
+                continue;
+            }
+
+            Map<SimilarityTypes, Double> similarities1 =
+                    sketch.estimateSimilarities(hash1.getSketch());
+            similarities.put(identifier, similarities1);
+
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Sorts a map of identified similarities by a type of similarity.
+     * 
+     * @param <T> Identifiers type.
+     * @param similarities Map of identified similarities.
+     * @param sortCriterion Type of similarity which will be used as sort criterion.
+     * @param sortAscending True to sort ascending, false to sort descending.
+     * @return Sorted map of identified similarities.
+     */
+    public static <T> Map<T, Map<SimilarityTypes, Double>> sortSimilarities(
+            Map<T, Map<SimilarityTypes, Double>> similarities,
+            SimilarityTypes sortCriterion,
+            boolean sortAscending) {
+
+        if (similarities == null) {
+            throw new NullPointerException("Map of similarities is null.");
+        }
+
+        if (sortCriterion == null) {
+            throw new NullPointerException("Similarity sort criterion is null.");
+        }
+
+        List<Entry<T, Map<SimilarityTypes, Double>>> entries =
+                new ArrayList<>(similarities.entrySet());
+
+        Collections.sort(entries, new Comparator<Entry<T, Map<SimilarityTypes, Double>>>() {
+
+            @Override
+            public int compare(
+                    Entry<T, Map<SimilarityTypes, Double>> entry1,
+                    Entry<T, Map<SimilarityTypes, Double>> entry2) {
+
+                Map<SimilarityTypes, Double> similarities1 = entry1.getValue();
+                Map<SimilarityTypes, Double> similarities2 = entry2.getValue();
+
+                if (similarities1 == null && similarities2 == null) {
+                    return 0;
+                } else if (similarities1 == null) {
+                    return 1;
+                } else if (similarities2 == null) {
+                    return -1;
+                }
+
+                Double similarity1 = similarities1.get(sortCriterion);
+                Double similarity2 = similarities2.get(sortCriterion);
+
+                if (similarity1 == null && similarity2 == null) {
+                    return 0;
+                } else if (similarity1 == null) {
+                    return 1;
+                } else if (similarity2 == null) {
+                    return -1;
+                }
+
+                if (sortAscending) {
+                    return similarity1.compareTo(similarity2);
+                } else {
+                    return similarity2.compareTo(similarity1);
+                }
+
+            }
+
+        });
+
+        Map<T, Map<SimilarityTypes, Double>> sortedSimilarities =
+                new LinkedHashMap<>(entries.size());
+
+        for (Entry<T, Map<SimilarityTypes, Double>> entry : entries) {
+            sortedSimilarities.put(entry.getKey(), entry.getValue());
+        }
+
+        return sortedSimilarities;
+
+    }
+
+    /**
+     * Computes all the types of similarity between a Uniform Fuzzy Hash and the k hashes of a map
+     * of identified Uniform Fuzzy Hashes which are most similar to it by a type of similarity,
+     * sorted by it. Hashes with the same type of similarity are sorted in the order of the map, so
+     * the result is the same as the first k similarities of sorting all of them (see
+     * sortSimilarities), but only k results are kept at any time.
+     * Sorting descending, once there are k results, hashes whose sizes make them unable to beat
+     * the worst one (see UniformFuzzyHash.similarityUpperBound) are not compared, as well as pairs
+     * of hashes whose bitmaps of blocks show that they do not share any block.
+     * 
+     * @param <T> Identifiers type.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param hashes Map of identified Uniform Fuzzy Hashes. Null hashes are ignored.
+     * @param sortCriterion Type of similarity which will be used as sort criterion.
+     * @param sortAscending True to sort ascending, false to sort descending.
+     * @param k Amount of hashes. Must be positive.
+     * @return Sorted map of the k identified similarities.
+     */
+    public static <T> Map<T, Map<SimilarityTypes, Double>> computeTopSimilarities(
+            UniformFuzzyHash hash,
+            Map<T, UniformFuzzyHash> hashes,
+            SimilarityTypes sortCriterion,
+            boolean sortAscending,
+            int k) {
+
+        // Parameters check.
+        if (hash == null) {
+            throw new NullPointerException("Hash is null.");
+        }
+
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        if (sortCriterion == null) {
+            throw new NullPointerException("Similarity sort criterion is null.");
+        }
+
+        if (k < 1) {
+            throw new IllegalArgumentException("The amount of hashes must be positive.");
+        }
+
+        // Comparisons, keeping the k best ones in a heap whose head is the worst one.
+        final Comparator<RankedHash<T>> comparator = new RankedHashComparator<>(sortAscending);
+        PriorityQueue<RankedHash<T>> top = new PriorityQueue<>(
+                Math.min(k, hashes.size()) + 1, Collections.reverseOrder(comparator));
+        long position = 0;
+        long skips = 0;
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+
+            UniformFuzzyHash hash1 = entry.getValue();
+            position++;
+
+            if (hash1 == null) {
+                continue;
+            }
+
+            if (!sortAscending && top.size() == k
+                    && hash.similarityUpperBound(hash1, sortCriterion) <= top.peek().similarity) {
+                skips++;
+                continue;
+            }
+
+            double similarity;
+            if (hash.mayShareBlocks(hash1)) {
+                similarity = hash.similarity(hash1, sortCriterion);
+            } else {
+                similarity = 0;
+                skips++;
+            }
+
+            RankedHash<T> rankedHash =
+                    new RankedHash<>(entry.getKey(), hash1, similarity, position);
+
+            if (top.size() < k) {
+                top.add(rankedHash);
+            } else if (comparator.compare(rankedHash, top.peek()) < 0) {
+                top.poll();
+                top.add(rankedHash);
+            }
+
+        }
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+        // Sort, computing all the types of similarity of the k best ones.
+        List<RankedHash<T>> sortedTop = new ArrayList<>(top);
+        Collections.sort(sortedTop, comparator);
+
+        Map<T, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>(sortedTop.size());
+
+        for (RankedHash<T> rankedHash : sortedTop) {
+            similarities.put(rankedHash.identifier, hash.mayShareBlocks(rankedHash.hash)
+                    ? hash.similarities(rankedHash.hash)
+                    : UniformFuzzyHash.noSimilarities());
+        }
+
+        return similarities;
+
+    }
+
+    /**
+     * Sorts a map of identified objects by the order of another map.
+     * 
+     * @param <T> Identifiers type.
+     * @param <S> Objects type.
+     * @param identifiedObjects Map of identified objects.
+     * @param sortedMap Sorted map which will be used to sort the map of identified objects.
+     * @return Sorted map of identified objects.
+     */
+    public static <T, S> Map<T, S> sortMap(
+            Map<T, S> identifiedObjects,
+            Map<T, ?> sortedMap) {
+
+        Map<T, S> sortedIdentifiedObjects = new LinkedHashMap<>(sortedMap.size());
+        Set<T> keys = sortedMap.keySet();
+
+        for (T key : keys) {
+            sortedIdentifiedObjects.put(key, identifiedObjects.get(key));
+        }
+
+        return sortedIdentifiedObjects;
+
+    }
+
+    /**
+     * Computes the similarity between all the hashes in a map of identified Uniform Fuzzy Hashes.
+     * Pairs of hashes whose bitmaps of blocks show that they do not share any block are not
+     * compared.
+     * 
+     * @param <T> Identifiers type.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @return Map of identified similarities.
+     */
+    public static <T> Map<T, Map<T, Double>> computeAllHashesSimilarities(
+            Map<T, UniformFuzzyHash> hashes) {
+
+        Set<Entry<T, UniformFuzzyHash>> entries = hashes.entrySet();
         Map<T, Map<T, Double>> similarities = new LinkedHashMap<>(entries.size());
+        long skips = 0;
 
         for (Entry<T, UniformFuzzyHash> entry1 : entries) {
 
@@ -956,17 +1654,377 @@ public final class UniformFuzzyHashes {
                     continue;
                 }
 
-                double similarity = hash1.similarity(hash2);
+                double similarity = 0;
+                if (hash1.mayShareBlocks(hash2)) {
+                    similarity = hash1.similarity(hash2);
+                } else {
+                    skips++;
+                }
                 similarities1.put(identifier2, similarity);
 
             }
 
         }
 
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+        return similarities;
+
+    }
+
+    /**
+     * Computes the similarity between all the hashes in a map of identified Uniform Fuzzy Hashes,
+     * comparing tiles of rows of the matrix of similarities in parallel. The similarities are the
+     * same, and in the same order, as the ones computed by computeAllHashesSimilarities without
+     * threads.
+     * The rows of each tile are bounded by a memory budget, shared by the tiles computed but not
+     * joined yet. The budget does not cover the returned map, which holds the whole matrix of
+     * similarities once all the tiles are joined (UniformFuzzyHashJsonLinesWriter.compareAll
+     * writes each similarity as soon as it is computed instead).
+     * 
+     * @param <T> Identifiers type.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param threads Amount of threads.
+     * @param maxMemory Memory budget in bytes for the tiles computed but not joined yet.
+     * @return Map of identified similarities.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public static <T> Map<T, Map<T, Double>> computeAllHashesSimilarities(
+            Map<T, UniformFuzzyHash> hashes,
+            int threads,
+            long maxMemory)
+            throws InterruptedException {
+
+        // Parameters check.
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        ParallelTasks.checkThreads(threads);
+        ParallelTasks.checkMaxMemory(maxMemory);
+
+        // Comparisons.
+        final List<Entry<T, UniformFuzzyHash>> entries = new ArrayList<>(hashes.entrySet());
+        final int n = entries.size();
+        final int tileRows = tileRows(n, threads, maxMemory);
+        final Map<T, Map<T, Double>> similarities = new LinkedHashMap<>(n);
+        final AtomicLong skips = new AtomicLong();
+
+        try {
+
+            ParallelTasks.run(new TaskSource<List<Map<T, Double>>>() {
+
+                /**
+                 * First row of the next tile.
+                 */
+                private int from = 0;
+
+                @Override
+                public Callable<List<Map<T, Double>>> next() {
+
+                    if (from >= n) {
+                        return null;
+                    }
+
+                    final int tileFrom = from;
+                    final int tileTo = Math.min(n, from + tileRows);
+                    from = tileTo;
+
+                    return new Callable<List<Map<T, Double>>>() {
+
+                        @Override
+                        public List<Map<T, Double>> call() {
+
+                            List<Map<T, Double>> rows = new ArrayList<>(tileTo - tileFrom);
+                            long tileSkips = 0;
+
+                            for (int i = tileFrom; i < tileTo; i++) {
+
+                                UniformFuzzyHash hash1 = entries.get(i).getValue();
+                                Map<T, Double> similarities1 = new LinkedHashMap<>(n);
+                                rows.add(similarities1);
+
+                                for (Entry<T, UniformFuzzyHash> entry2 : entries) {
+
+                                    T identifier2 = entry2.getKey();
+                                    UniformFuzzyHash hash2 = entry2.getValue();
+
+                                    if (hash1 == null || hash2 == null) {
+                                        similarities1.put(identifier2, null);
+                                        continue;
+                                    }
+
+                                    double similarity = 0;
+                                    if (hash1.mayShareBlocks(hash2)) {
+                                        similarity = hash1.similarity(hash2);
+                                    } else {
+                                        tileSkips++;
+                                    }
+                                    similarities1.put(identifier2, similarity);
+
+                                }
+
+                            }
+
+                            skips.addAndGet(tileSkips);
+
+                            return rows;
+
+                        }
+
+                    };
+
+                }
+
+            }, threads, new ResultSink<List<Map<T, Double>>>() {
+
+                @Override
+                public void accept(
+                        List<Map<T, Double>> rows) {
+
+                    for (Map<T, Double> row : rows) {
+                        similarities.put(entries.get(similarities.size()).getKey(), row);
+                    }
+
+                }
+
+            });
+
+        } catch (IOException ioException) {
+            // Comparisons do not throw IOExceptions.
+            throw new IllegalStateException(ioException);
+        }
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips.get());
+
+        return similarities;
+
+    }
+
+    /**
+     * Computes a type of similarity between all the hashes in a map of identified Uniform Fuzzy
+     * Hashes, keeping only the pairs whose type of similarity is above or equal to a threshold.
+     * The hashes are sorted by the size of their distinct blocks, and each hash is only compared
+     * to the bigger ones whose sizes do not make the threshold unreachable (see
+     * UniformFuzzyHash.similarityUpperBound). With the types Minimum, ArithMean and GeomMean, once
+     * the bigger hashes are too big for the threshold, the rest of them are skipped at once. Pairs
+     * of hashes whose bitmaps of blocks show that they do not share any block are not compared
+     * either.
+     * The returned map contains all the identifiers, each one with its type of similarity to
+     * itself (1) and to the hashes with which it reaches the threshold. Null hashes have no
+     * similarities.
+     * 
+     * @param <T> Identifiers type.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param similarityType The type of similarity.
+     * @param threshold The threshold (0 to 1).
+     * @return Sparse map of identified types of similarity.
+     */
+    public static <T> Map<T, Map<T, Double>> computeAllHashesSimilarities(
+            Map<T, UniformFuzzyHash> hashes,
+            SimilarityTypes similarityType,
+            double threshold) {
+
+        // Parameters check.
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
+
+        checkThreshold(threshold);
+
+        // Identified non null hashes.
+        Map<T, Map<T, Double>> similarities = new LinkedHashMap<>(hashes.size());
+        final List<T> identifiers = new ArrayList<>(hashes.size());
+        final List<UniformFuzzyHash> nonNullHashes = new ArrayList<>(hashes.size());
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            Map<T, Double> similarities1 = new LinkedHashMap<>();
+            similarities.put(entry.getKey(), similarities1);
+            if (entry.getValue() != null) {
+                similarities1.put(entry.getKey(), 1d);
+                identifiers.add(entry.getKey());
+                nonNullHashes.add(entry.getValue());
+            }
+        }
+
+        // Comparisons.
+        SortedHashes<T> sortedHashes =
+                new SortedHashes<>(identifiers, nonNullHashes, similarityType, threshold);
+        long skips = sortedHashes.compare(0, sortedHashes.size(), similarities);
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips);
+
+        return similarities;
+
+    }
+
+    /**
+     * Computes a type of similarity between all the hashes in a map of identified Uniform Fuzzy
+     * Hashes, keeping only the pairs whose type of similarity is above or equal to a threshold,
+     * comparing tiles of the hashes sorted by size in parallel. The similarities are the same, and
+     * in the same order, as the ones computed by computeAllHashesSimilarities without threads.
+     * The rows of each tile are bounded by a memory budget, shared by the tiles computed but not
+     * joined yet. The budget does not cover the returned map, which holds all the pairs above or
+     * equal to the threshold once all the tiles are joined.
+     * 
+     * @param <T> Identifiers type.
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param similarityType The type of similarity.
+     * @param threshold The threshold (0 to 1).
+     * @param threads Amount of threads.
+     * @param maxMemory Memory budget in bytes for the tiles computed but not joined yet.
+     * @return Sparse map of identified types of similarity.
+     * @throws InterruptedException If the current thread is interrupted.
+     */
+    public static <T> Map<T, Map<T, Double>> computeAllHashesSimilarities(
+            Map<T, UniformFuzzyHash> hashes,
+            SimilarityTypes similarityType,
+            double threshold,
+            int threads,
+            long maxMemory)
+            throws InterruptedException {
+
+        // Parameters check.
+        if (hashes == null) {
+            throw new NullPointerException("Map of hashes is null.");
+        }
+
+        if (similarityType == null) {
+            throw new NullPointerException("Similarity type is null.");
+        }
+
+        checkThreshold(threshold);
+        ParallelTasks.checkThreads(threads);
+        ParallelTasks.checkMaxMemory(maxMemory);
+
+        // Identified non null hashes.
+        final Map<T, Map<T, Double>> similarities = new LinkedHashMap<>(hashes.size());
+        List<T> identifiers = new ArrayList<>(hashes.size());
+        List<UniformFuzzyHash> nonNullHashes = new ArrayList<>(hashes.size());
+
+        for (Entry<T, UniformFuzzyHash> entry : hashes.entrySet()) {
+            Map<T, Double> similarities1 = new LinkedHashMap<>();
+            similarities.put(entry.getKey(), similarities1);
+            if (entry.getValue() != null) {
+                similarities1.put(entry.getKey(), 1d);
+                identifiers.add(entry.getKey());
+                nonNullHashes.add(entry.getValue());
+            }
+        }
+
+        // Comparisons.
+        final SortedHashes<T> sortedHashes =
+                new SortedHashes<>(identifiers, nonNullHashes, similarityType, threshold);
+        final int n = sortedHashes.size();
+        final int tileRows = tileRows(n, threads, maxMemory);
+        final AtomicLong skips = new AtomicLong();
+
+        try {
+
+            ParallelTasks.run(new TaskSource<Map<T, Map<T, Double>>>() {
+
+                /**
+                 * First sorted hash of the next tile.
+                 */
+                private int from = 0;
+
+                @Override
+                public Callable<Map<T, Map<T, Double>>> next() {
+
+                    if (from >= n) {
+                        return null;
+                    }
+
+                    final int tileFrom = from;
+                    final int tileTo = Math.min(n, from + tileRows);
+                    from = tileTo;
+
+                    return new Callable<Map<T, Map<T, Double>>>() {
+
+                        @Override
+                        public Map<T, Map<T, Double>> call() {
+
+                            Map<T, Map<T, Double>> tileSimilarities = new LinkedHashMap<>();
+                            skips.addAndGet(
+                                    sortedHashes.compare(tileFrom, tileTo, tileSimilarities));
+                            return tileSimilarities;
+
+                        }
+
+                    };
+
+                }
+
+            }, threads, new ResultSink<Map<T, Map<T, Double>>>() {
+
+                @Override
+                public void accept(
+                        Map<T, Map<T, Double>> tileSimilarities) {
+
+                    for (Entry<T, Map<T, Double>> entry : tileSimilarities.entrySet()) {
+                        similarities.get(entry.getKey()).putAll(entry.getValue());
+                    }
+
+                }
+
+            });
+
+        } catch (IOException ioException) {
+            // Comparisons do not throw IOExceptions.
+            throw new IllegalStateException(ioException);
+        }
+
+        UniformFuzzyHashMetrics.recordSimilaritySkips(skips.get());
+
         return similarities;
 
     }
 
+    /**
+     * Computes the amount of rows of the tiles of a matrix of similarities compared in parallel:
+     * enough tiles to balance the threads, bounded by a memory budget shared by the tiles computed
+     * but not joined yet.
+     * 
+     * @param n Amount of rows and columns of the matrix.
+     * @param threads Amount of threads.
+     * @param maxMemory Memory budget in bytes.
+     * @return Amount of rows of each tile.
+     */
+    private static int tileRows(
+            int n,
+            int threads,
+            long maxMemory) {
+
+        long balancedRows = (n + (long) threads * TASKS_PER_THREAD - 1)
+                / ((long) threads * TASKS_PER_THREAD);
+        long budgetRows = maxMemory / ((long) threads * ParallelTasks.PENDING_TASKS_PER_THREAD
+                * Math.max(n, 1) * ESTIMATED_SIMILARITY_BYTES);
+
+        return (int) Math.max(1, Math.min(balancedRows, budgetRows));
+
+    }
+
+    /**
+     * Checks if a threshold of a type of similarity is valid. In case it is not, an
+     * IllegalArgumentException with a descriptive message is thrown.
+     * 
+     * @param threshold The threshold. Must be between 0 and 1.
+     */
+    private static void checkThreshold(
+            double threshold) {
+
+        if (threshold < 0 || threshold > 1) {
+            throw new IllegalArgumentException(String.format(
+                    "The threshold (%s) must be between 0 and 1.",
+                    threshold));
+        }
+
+    }
+
     /**
      * Prints a map of identified Uniform Fuzzy Hashes.
      * 
@@ -1184,8 +2242,7 @@ public final class UniformFuzzyHashes {
 
                 Map<SimilarityTypes, Double> similarities1 = entry.getValue();
 
-                csvLine = new StringBuilder(identifiersMaxLength + (CSV_TRIMMED_SEPARATOR.length()
-                        + ZERO_TO_ONE_DECIMAL_MAX_CHARS) * similarityTypesNames.size());
+                csvLine.setLength(0);
                 String preparedIdentifier = preparedIdentifiers.get(i);
                 csvLine.append(escapeCsv(preparedIdentifier));
                 for (SimilarityTypes similarityType : SimilarityTypes.values()) {
@@ -1194,7 +2251,7 @@ public final class UniformFuzzyHashes {
                         similarity = similarities1.get(similarityType);
                     }
                     csvLine.append(CSV_TRIMMED_SEPARATOR);
-                    csvLine.append(formatDecimal(similarity));
+                    appendDecimal(similarity, csvLine);
                 }
                 writer.println(csvLine.toString());
 
@@ -1361,8 +2418,7 @@ public final class UniformFuzzyHashes {
 
                 Map<T, Double> similarities1 = entry.getValue();
 
-                csvLine = new StringBuilder(identifiersMaxLength + (CSV_TRIMMED_SEPARATOR.length()
-                        + ZERO_TO_ONE_DECIMAL_MAX_CHARS) * preparedIdentifiers.size());
+                csvLine.setLength(0);
                 String preparedIdentifier = preparedIdentifiers.get(i);
                 csvLine.append(escapeCsv(preparedIdentifier));
                 for (T identifier1 : identifiers) {
@@ -1371,7 +2427,7 @@ public final class UniformFuzzyHashes {
                         similarity = similarities1.get(identifier1);
                     }
                     csvLine.append(CSV_TRIMMED_SEPARATOR);
-                    csvLine.append(formatDecimal(similarity));
+                    appendDecimal(similarity, csvLine);
                 }
                 writer.println(csvLine.toString());
 
@@ -1462,4 +2518,331 @@ public final class UniformFuzzyHashes {
 
     }
 
+    /**
+     * Identified Uniform Fuzzy Hash with its type of similarity to a query hash and its position
+     * in the map of hashes.
+     * 
+     * @param <T> Identifiers type.
+     */
+    private static final class RankedHash<T> {
+
+        /**
+         * Identifier of the hash.
+         */
+        private final T identifier;
+
+        /**
+         * The hash.
+         */
+        private final UniformFuzzyHash hash;
+
+        /**
+         * Type of similarity of the query hash to the hash.
+         */
+        private final double similarity;
+
+        /**
+         * Position of the hash in the map of hashes.
+         */
+        private final long position;
+
+        /**
+         * Constructor.
+         * 
+         * @param identifier Identifier of the hash.
+         * @param hash The hash.
+         * @param similarity Type of similarity of the query hash to the hash.
+         * @param position Position of the hash in the map of hashes.
+         */
+        private RankedHash(
+                T identifier,
+                UniformFuzzyHash hash,
+                double similarity,
+                long position) {
+
+            this.identifier = identifier;
+            this.hash = hash;
+            this.similarity = similarity;
+            this.position = position;
+
+        }
+
+    }
+
+    /**
+     * Comparator which sorts ranked hashes by their type of similarity, and then by their position
+     * in the map of hashes.
+     * 
+     * @param <T> Identifiers type.
+     */
+    private static final class RankedHashComparator<T> implements Comparator<RankedHash<T>> {
+
+        /**
+         * True to sort ascending, false to sort descending.
+         */
+        private final boolean sortAscending;
+
+        /**
+         * Constructor.
+         * 
+         * @param sortAscending True to sort ascending, false to sort descending.
+         */
+        private RankedHashComparator(
+                boolean sortAscending) {
+
+            this.sortAscending = sortAscending;
+
+        }
+
+        @Override
+        public int compare(
+                RankedHash<T> rankedHash1,
+                RankedHash<T> rankedHash2) {
+
+            int comparison = sortAscending
+                    ? Double.compare(rankedHash1.similarity, rankedHash2.similarity)
+                    : Double.compare(rankedHash2.similarity, rankedHash1.similarity);
+
+            return comparison != 0 ? comparison
+                    : Long.compare(rankedHash1.position, rankedHash2.position);
+
+        }
+
+    }
+
+    /**
+     * Identified non null Uniform Fuzzy Hashes sorted by the size of their distinct blocks, to
+     * compute a type of similarity between all of them keeping only the pairs which reach a
+     * threshold. Ranges of the sorted hashes can be compared from different threads.
+     * 
+     * @param <T> Identifiers type.
+     */
+    private static final class SortedHashes<T> {
+
+        /**
+         * Identifiers of the hashes.
+         */
+        private final List<T> identifiers;
+
+        /**
+         * Non null hashes.
+         */
+        private final List<UniformFuzzyHash> hashes;
+
+        /**
+         * Size of the distinct blocks of each hash.
+         */
+        private final int[] distinctSizes;
+
+        /**
+         * Positions of the hashes sorted by the size of their distinct blocks.
+         */
+        private final List<Integer> order;
+
+        /**
+         * Maximum size of the repeated blocks of each hash and the following ones, in order.
+         */
+        private final int[] maxRepeatedSizes;
+
+        /**
+         * The type of similarity which is compared to the threshold.
+         */
+        private final SimilarityTypes similarityType;
+
+        /**
+         * The threshold (0 to 1).
+         */
+        private final double threshold;
+
+        /**
+         * True if, once the bigger hashes are too big for the threshold, the rest of them can be
+         * skipped at once.
+         */
+        private final boolean skipRest;
+
+        /**
+         * Type of similarity whose upper bound decides if a pair is compared.
+         */
+        private final SimilarityTypes boundType;
+
+        /**
+         * Constructor.
+         * 
+         * @param identifiers Identifiers of the hashes.
+         * @param hashes Non null hashes.
+         * @param similarityType The type of similarity which is compared to the threshold.
+         * @param threshold The threshold (0 to 1).
+         */
+        private SortedHashes(
+                List<T> identifiers,
+                List<UniformFuzzyHash> hashes,
+                SimilarityTypes similarityType,
+                double threshold) {
+
+            this.identifiers = identifiers;
+            this.hashes = hashes;
+            this.similarityType = similarityType;
+            this.threshold = threshold;
+
+            // Sort by size of the distinct blocks.
+            final int n = hashes.size();
+            final int[] distinctSizes = new int[n];
+            List<Integer> order = new ArrayList<>(n);
+
+            for (int i = 0; i < n; i++) {
+                distinctSizes[i] = hashes.get(i).accessDistinctBlocksSize();
+                order.add(i);
+            }
+
+            Collections.sort(order, new Comparator<Integer>() {
+
+                @Override
+                public int compare(
+                        Integer position1,
+                        Integer position2) {
+
+                    return Integer.compare(distinctSizes[position1], distinctSizes[position2]);
+
+                }
+
+            });
+
+            // Maximum size of the repeated blocks of each hash and the following ones, in order.
+            int[] maxRepeatedSizes = new int[n + 1];
+            for (int i = n - 1; i >= 0; i--) {
+                UniformFuzzyHash hash = hashes.get(order.get(i));
+                int repeatedSize = hash.getDataSize() - distinctSizes[order.get(i)];
+                maxRepeatedSizes[i] = Math.max(repeatedSize, maxRepeatedSizes[i + 1]);
+            }
+
+            this.distinctSizes = distinctSizes;
+            this.order = order;
+            this.maxRepeatedSizes = maxRepeatedSizes;
+
+            // Only symmetric types which need the reverse similarity allow skipping the rest.
+            this.skipRest = similarityType == SimilarityTypes.MINIMUM
+                    || similarityType == SimilarityTypes.ARITHMETIC_MEAN
+                    || similarityType == SimilarityTypes.GEOMETRIC_MEAN;
+
+            // The pair is compared if any of both directions may reach the threshold.
+            this.boundType = similarityType == SimilarityTypes.SIMILARITY
+                    || similarityType == SimilarityTypes.REVERSE_SIMILARITY
+                            ? SimilarityTypes.MAXIMUM : similarityType;
+
+        }
+
+        /**
+         * @return Amount of hashes.
+         */
+        private int size() {
+
+            return hashes.size();
+
+        }
+
+        /**
+         * Compares each hash of a range of the sorted hashes to the bigger ones, and puts the
+         * types of similarity which reach the threshold into a map of identified types of
+         * similarity, adding the identifiers which are not in it yet.
+         * 
+         * @param from Start of the range in the sorted hashes (inclusive).
+         * @param to End of the range in the sorted hashes (exclusive).
+         * @param similarities Map of identified types of similarity.
+         * @return Amount of skipped comparisons.
+         */
+        private long compare(
+                int from,
+                int to,
+                Map<T, Map<T, Double>> similarities) {
+
+            int n = hashes.size();
+            long skips = 0;
+
+            for (int i = from; i < to; i++) {
+
+                int position1 = order.get(i);
+                T identifier1 = identifiers.get(position1);
+                UniformFuzzyHash hash1 = hashes.get(position1);
+
+                for (int j = i + 1; j < n; j++) {
+
+                    int position2 = order.get(j);
+                    T identifier2 = identifiers.get(position2);
+                    UniformFuzzyHash hash2 = hashes.get(position2);
+
+                    // The reverse similarity of the bigger hash is bounded by the distinct blocks
+                    // size of the smaller one plus its own repeated blocks size, which decreases
+                    // as the bigger hashes grow.
+                    if (skipRest) {
+                        double reverseBound =
+                                (double) (distinctSizes[position1] + maxRepeatedSizes[j])
+                                        / (distinctSizes[position2] + maxRepeatedSizes[j]);
+                        if (UniformFuzzyHash.combineSimilarities(1, reverseBound, similarityType)
+                                < threshold) {
+                            skips += n - j;
+                            break;
+                        }
+                    }
+
+                    if (hash1.similarityUpperBound(hash2, boundType) < threshold) {
+                        skips++;
+                        continue;
+                    }
+
+                    double similarity = 0;
+                    double reverse = 0;
+
+                    if (hash1.mayShareBlocks(hash2)) {
+                        similarity = hash1.similarity(hash2);
+                        reverse = hash2.similarity(hash1);
+                    } else {
+                        skips++;
+                    }
+
+                    double similarity1 = UniformFuzzyHash.combineSimilarities(
+                            similarity, reverse, similarityType);
+                    double similarity2 = UniformFuzzyHash.combineSimilarities(
+                            reverse, similarity, similarityType);
+
+                    if (similarity1 >= threshold) {
+                        row(similarities, identifier1).put(identifier2, similarity1);
+                    }
+
+                    if (similarity2 >= threshold) {
+                        row(similarities, identifier2).put(identifier1, similarity2);
+                    }
+
+                }
+
+            }
+
+            return skips;
+
+        }
+
+        /**
+         * Obtains the row of an identifier in a map of identified types of similarity, adding it
+         * if it is not in the map yet.
+         * 
+         * @param similarities Map of identified types of similarity.
+         * @param identifier The identifier.
+         * @return The row of the identifier.
+         */
+        private Map<T, Double> row(
+                Map<T, Map<T, Double>> similarities,
+                T identifier) {
+
+            Map<T, Double> row = similarities.get(identifier);
+
+            if (row == null) {
+                row = new LinkedHashMap<>();
+                similarities.put(identifier, row);
+            }
+
+            return row;
+
+        }
+
+    }
+
 }
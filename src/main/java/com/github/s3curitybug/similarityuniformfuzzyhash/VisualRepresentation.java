@@ -1,8 +1,7 @@
 package com.github.s3curitybug.similarityuniformfuzzyhash;
 
-import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.ANSI_CODE_COLOR_END;
-import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.DECIMALS_FORMAT_SYMBOLS;
-import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.UNICODE_CTRL;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.NEW_LINE;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.formatDecimal;
 import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.spaces;
 
 import org.apache.commons.io.IOUtils;
@@ -10,13 +9,13 @@ import org.fusesource.jansi.AnsiConsole;
 
 import com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.AnsiCodeColors;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.text.DecimalFormat;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
@@ -54,22 +53,31 @@ public final class VisualRepresentation {
      */
     public static final int DEFAULT_LINE_WRAP = 60;
 
+    /**
+     * Default amount of cells per line of an overview.
+     */
+    public static final int DEFAULT_OVERVIEW_COLUMNS = 60;
+
+    /**
+     * Default amount of lines of an overview.
+     */
+    public static final int DEFAULT_OVERVIEW_ROWS = 30;
+
     /**
      * Bases path inside resources.
      */
     private static final String RESOURCES_BASES_PATH = "/VisualPrint/";
 
     /**
-     * Format in which accumulated wrap length per line will be formatted during a string wrap.
+     * Format in which accumulated wrap length will precede each line during a string wrap.
      */
-    private static final String ACCUMULATED_WRAP_FORMAT = "%5s  %s";
+    private static final String ACCUMULATED_WRAP_FORMAT = "%5s  ";
 
     /**
-     * Format in which percent accumulated wrap length per line will be formatted during a string
-     * wrap.
+     * Number of fraction digits with which percent accumulated wrap length per line will be
+     * formatted during a string wrap.
      */
-    private static final DecimalFormat ACCUMULATED_WRAP_DECIMAL_FORMAT =
-            new DecimalFormat("0.0", DECIMALS_FORMAT_SYMBOLS);
+    private static final int ACCUMULATED_WRAP_FRACTION_DIGITS = 1;
 
     /**
      * ANSI format which will be used to visually represent the blocks which are only present in the
@@ -92,6 +100,26 @@ public final class VisualRepresentation {
     private static final String BLOCK_IN_BOTH_HASHES_ANSI_CODE_FORMAT =
             AnsiCodeColors.RED_FONT.getCode();
 
+    /**
+     * ANSI format which will be used to visually represent the overview cells whose bytes
+     * partially belong to blocks which are present in both hashes in a comparison.
+     */
+    private static final String CELL_PARTIALLY_IN_BOTH_HASHES_ANSI_CODE_FORMAT =
+            AnsiCodeColors.YELLOW_FONT.getCode();
+
+    /**
+     * Minimum fraction of the bytes of an overview cell which must belong to blocks present in
+     * both hashes in a comparison for the cell to be represented as present in both hashes.
+     */
+    private static final double OVERVIEW_MATCHED_FRACTION = 2d / 3;
+
+    /**
+     * Minimum fraction of the bytes of an overview cell which must belong to blocks present in
+     * both hashes in a comparison for the cell to be represented as partially present in both
+     * hashes.
+     */
+    private static final double OVERVIEW_PARTIALLY_MATCHED_FRACTION = 1d / 3;
+
     /**
      * Private constructor.
      */
@@ -149,12 +177,12 @@ public final class VisualRepresentation {
         for (UniformFuzzyHashBlock block : blocks) {
 
             char character = base[block.getBlockHash() % base.length];
-            int blockSize = block.getBlockSize();
 
-            long characterRepetitions = 0;
-            do {
+            long characterRepetitions =
+                    computeCharacterRepetitions(block.getBlockSize(), factor, factorDivisor);
+            for (long i = 0; i < characterRepetitions; i++) {
                 strB.append(character);
-            } while (blockSize > (++characterRepetitions * factor + factor / 2) / factorDivisor);
+            }
 
         }
 
@@ -233,7 +261,6 @@ public final class VisualRepresentation {
         for (UniformFuzzyHashBlock block : blocks1) {
 
             char character = base[block.getBlockHash() % base.length];
-            int blockSize = block.getBlockSize();
 
             if (blocks2.contains(block)) {
                 if (!BLOCK_IN_BOTH_HASHES_ANSI_CODE_FORMAT.equals(ansiCodeFormat)) {
@@ -249,10 +276,11 @@ public final class VisualRepresentation {
                 }
             }
 
-            long characterRepetitions = 0;
-            do {
+            long characterRepetitions =
+                    computeCharacterRepetitions(block.getBlockSize(), factor1, factorDivisor);
+            for (long i = 0; i < characterRepetitions; i++) {
                 strB.append(character);
-            } while (blockSize > (++characterRepetitions * factor1 + factor1 / 2) / factorDivisor);
+            }
 
         }
 
@@ -262,6 +290,128 @@ public final class VisualRepresentation {
 
     }
 
+    /**
+     * Renders a Uniform Fuzzy Hash in a visual way into an Appendable, using the default base,
+     * factor divisor and line wrap.
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     * @param appendable The Appendable into which the wrapped lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void render(
+            UniformFuzzyHash hash,
+            Appendable appendable)
+            throws IOException {
+
+        render(hash, DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, DEFAULT_LINE_WRAP, true, appendable);
+
+    }
+
+    /**
+     * Renders a Uniform Fuzzy Hash in a visual way into an Appendable.
+     * Each wrapped line is written as soon as the blocks it represents are visited, so the full
+     * representation is never kept in memory.
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param factorDivisor Amount of characters per factor size for each block.
+     * @param lineWrap Amount of characters per line. If this argument is lower than 1, no line wrap
+     *        is performed and the full representation is written in one line.
+     * @param concatenatePercent In case line wrap is performed, true to concatenate to each line
+     *        its relative percent to the total length.
+     * @param appendable The Appendable into which the wrapped lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void render(
+            UniformFuzzyHash hash,
+            char[] base,
+            int factorDivisor,
+            int lineWrap,
+            boolean concatenatePercent,
+            Appendable appendable)
+            throws IOException {
+
+        if (appendable == null) {
+            throw new NullPointerException("Appendable is null.");
+        }
+
+        LineRenderer lineRenderer = new LineRenderer(
+                hash, null, base, factorDivisor, lineWrap, concatenatePercent, null);
+
+        renderLines(lineRenderer, appendable);
+
+    }
+
+    /**
+     * Renders a Uniform Fuzzy Hash in a visual way into an Appendable, side by side with another
+     * Uniform Fuzzy Hash, coloring the blocks which are present in both hashes with a different
+     * color to the ones which are not, and using the default base, factor divisor and line wrap.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     * @param appendable The Appendable into which the wrapped lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            Appendable appendable)
+            throws IOException {
+
+        renderCompared(hash1, hash2, DEFAULT_BASE, DEFAULT_FACTOR_DIVISOR, DEFAULT_LINE_WRAP, true,
+                appendable);
+
+    }
+
+    /**
+     * Renders a Uniform Fuzzy Hash in a visual way into an Appendable, side by side with another
+     * Uniform Fuzzy Hash, coloring the blocks which are present in both hashes with a different
+     * color to the ones which are not.
+     * Each wrapped line is written as soon as the blocks it represents are visited, so the full
+     * representations are never kept in memory.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param factorDivisor Amount of characters per factor size for each block.
+     * @param lineWrap Amount of characters per line. If this argument is lower than 1, no line wrap
+     *        is performed and each full representation is written in one line.
+     * @param concatenatePercent In case line wrap is performed, true to concatenate to each line
+     *        its relative percent to the total length.
+     * @param appendable The Appendable into which the wrapped lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            char[] base,
+            int factorDivisor,
+            int lineWrap,
+            boolean concatenatePercent,
+            Appendable appendable)
+            throws IOException {
+
+        if (hash1 == null) {
+            throw new NullPointerException("Hash 1 is null.");
+        }
+
+        if (hash2 == null) {
+            throw new NullPointerException("Hash 2 is null.");
+        }
+
+        if (appendable == null) {
+            throw new NullPointerException("Appendable is null.");
+        }
+
+        LineRenderer lineRenderer1 = new LineRenderer(hash1, hash2, base, factorDivisor, lineWrap,
+                concatenatePercent, BLOCK_IN_FIRST_HASH_ANSI_CODE_FORMAT);
+        LineRenderer lineRenderer2 = new LineRenderer(hash2, hash1, base, factorDivisor, lineWrap,
+                concatenatePercent, BLOCK_IN_SECOND_HASH_ANSI_CODE_FORMAT);
+
+        renderLinesSideBySide(lineRenderer1, lineRenderer2, appendable);
+
+    }
+
     /**
      * Prints a Uniform Fuzzy Hash in a visual way, using the default base, factor divisor and line
      * wrap.
@@ -293,29 +443,10 @@ public final class VisualRepresentation {
             int lineWrap,
             boolean concatenatePercent) {
 
-        // Representation.
-        String representation = represent(hash, base, factorDivisor);
-        List<String> wrappedRepresentation =
-                wrapString(representation, lineWrap, concatenatePercent);
-
-        // Print.
-        final PrintStream printStream = System.out;
-
-        if (printStream == AnsiConsole.out) {
-            AnsiConsole.systemInstall();
-        }
-
-        printStream.println();
-
-        for (String line : wrappedRepresentation) {
-            printStream.println(line);
-        }
-
-        printStream.println();
+        LineRenderer lineRenderer = new LineRenderer(
+                hash, null, base, factorDivisor, lineWrap, concatenatePercent, null);
 
-        if (printStream == AnsiConsole.out) {
-            AnsiConsole.systemUninstall();
-        }
+        printLines(lineRenderer, null, System.out);
 
     }
 
@@ -356,48 +487,234 @@ public final class VisualRepresentation {
             int lineWrap,
             boolean concatenatePercent) {
 
-        // Representations.
-        String representation1 = representCompared(hash1, hash2, base, factorDivisor);
-        String representation2 = representCompared(hash2, hash1, base, factorDivisor).replace(
-                BLOCK_IN_FIRST_HASH_ANSI_CODE_FORMAT, BLOCK_IN_SECOND_HASH_ANSI_CODE_FORMAT);
-
-        List<String> wrappedRepresentation1 =
-                wrapStringRespectingAnsiCodeFormat(representation1, lineWrap, concatenatePercent);
-        List<String> wrappedRepresentation2 =
-                wrapStringRespectingAnsiCodeFormat(representation2, lineWrap, concatenatePercent);
+        if (hash1 == null) {
+            throw new NullPointerException("Hash 1 is null.");
+        }
 
-        String wrapLengthSpaces = concatenatePercent
-                ? spaces(lineWrap + formatAccumulatedWrapLength("", 0).length())
-                : spaces(lineWrap);
-        while (wrappedRepresentation1.size() < wrappedRepresentation2.size()) {
-            wrappedRepresentation1.add(wrapLengthSpaces);
+        if (hash2 == null) {
+            throw new NullPointerException("Hash 2 is null.");
         }
-        while (wrappedRepresentation2.size() < wrappedRepresentation1.size()) {
-            wrappedRepresentation2.add(wrapLengthSpaces);
+
+        LineRenderer lineRenderer1 = new LineRenderer(hash1, hash2, base, factorDivisor, lineWrap,
+                concatenatePercent, BLOCK_IN_FIRST_HASH_ANSI_CODE_FORMAT);
+        LineRenderer lineRenderer2 = new LineRenderer(hash2, hash1, base, factorDivisor, lineWrap,
+                concatenatePercent, BLOCK_IN_SECOND_HASH_ANSI_CODE_FORMAT);
+
+        printLines(lineRenderer1, lineRenderer2, AnsiConsole.out);
+
+    }
+
+    /**
+     * Renders an overview of a Uniform Fuzzy Hash into an Appendable, using the default base,
+     * amount of columns and amount of rows.
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     * @param appendable The Appendable into which the overview lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderOverview(
+            UniformFuzzyHash hash,
+            Appendable appendable)
+            throws IOException {
+
+        renderOverview(hash, DEFAULT_BASE, DEFAULT_OVERVIEW_COLUMNS, DEFAULT_OVERVIEW_ROWS, true,
+                appendable);
+
+    }
+
+    /**
+     * Renders an overview of a Uniform Fuzzy Hash into an Appendable.
+     * The overview has a fixed amount of cells, whatever the size of the hash. Each cell
+     * represents an equal part of the hashed bytes with the character of the block which covers
+     * most of them.
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param columns Amount of cells per line.
+     * @param rows Amount of lines.
+     * @param concatenatePercent True to concatenate to each line its relative percent to the
+     *        total length.
+     * @param appendable The Appendable into which the overview lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderOverview(
+            UniformFuzzyHash hash,
+            char[] base,
+            int columns,
+            int rows,
+            boolean concatenatePercent,
+            Appendable appendable)
+            throws IOException {
+
+        if (appendable == null) {
+            throw new NullPointerException("Appendable is null.");
         }
 
-        // Print.
-        final PrintStream printStream = AnsiConsole.out;
+        OverviewRenderer overviewRenderer = new OverviewRenderer(
+                hash, null, base, columns, rows, concatenatePercent, null);
 
-        if (printStream == AnsiConsole.out) {
-            AnsiConsole.systemInstall();
+        renderLines(overviewRenderer, appendable);
+
+    }
+
+    /**
+     * Renders an overview of a Uniform Fuzzy Hash into an Appendable, side by side with the
+     * overview of another Uniform Fuzzy Hash, coloring each cell depending on the fraction of its
+     * bytes which belong to blocks present in both hashes, and using the default base, amount of
+     * columns and amount of rows.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     * @param appendable The Appendable into which the overview lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderOverviewCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            Appendable appendable)
+            throws IOException {
+
+        renderOverviewCompared(hash1, hash2, DEFAULT_BASE, DEFAULT_OVERVIEW_COLUMNS,
+                DEFAULT_OVERVIEW_ROWS, true, appendable);
+
+    }
+
+    /**
+     * Renders an overview of a Uniform Fuzzy Hash into an Appendable, side by side with the
+     * overview of another Uniform Fuzzy Hash, coloring each cell depending on the fraction of its
+     * bytes which belong to blocks present in both hashes.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param columns Amount of cells per line.
+     * @param rows Amount of lines.
+     * @param concatenatePercent True to concatenate to each line its relative percent to the
+     *        total length.
+     * @param appendable The Appendable into which the overview lines will be written.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    public static void renderOverviewCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            char[] base,
+            int columns,
+            int rows,
+            boolean concatenatePercent,
+            Appendable appendable)
+            throws IOException {
+
+        if (hash1 == null) {
+            throw new NullPointerException("Hash 1 is null.");
         }
 
-        printStream.println();
+        if (hash2 == null) {
+            throw new NullPointerException("Hash 2 is null.");
+        }
 
-        Iterator<String> iterator1 = wrappedRepresentation1.iterator();
-        Iterator<String> iterator2 = wrappedRepresentation2.iterator();
-        final int separation = 5;
-        while (iterator1.hasNext()) {
-            printStream.println(iterator1.next() + spaces(separation) + iterator2.next());
+        if (appendable == null) {
+            throw new NullPointerException("Appendable is null.");
         }
 
-        printStream.println();
+        OverviewRenderer overviewRenderer1 = new OverviewRenderer(hash1, hash2, base, columns,
+                rows, concatenatePercent, BLOCK_IN_FIRST_HASH_ANSI_CODE_FORMAT);
+        OverviewRenderer overviewRenderer2 = new OverviewRenderer(hash2, hash1, base, columns,
+                rows, concatenatePercent, BLOCK_IN_SECOND_HASH_ANSI_CODE_FORMAT);
 
-        if (printStream == AnsiConsole.out) {
-            AnsiConsole.systemUninstall();
+        renderLinesSideBySide(overviewRenderer1, overviewRenderer2, appendable);
+
+    }
+
+    /**
+     * Prints an overview of a Uniform Fuzzy Hash, using the default base, amount of columns and
+     * amount of rows.
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     */
+    public static void printOverview(
+            UniformFuzzyHash hash) {
+
+        printOverview(hash, DEFAULT_BASE, DEFAULT_OVERVIEW_COLUMNS, DEFAULT_OVERVIEW_ROWS, true);
+
+    }
+
+    /**
+     * Prints an overview of a Uniform Fuzzy Hash (see renderOverview).
+     * 
+     * @param hash The Uniform Fuzzy Hash.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param columns Amount of cells per line.
+     * @param rows Amount of lines.
+     * @param concatenatePercent True to concatenate to each line its relative percent to the
+     *        total length.
+     */
+    public static void printOverview(
+            UniformFuzzyHash hash,
+            char[] base,
+            int columns,
+            int rows,
+            boolean concatenatePercent) {
+
+        OverviewRenderer overviewRenderer = new OverviewRenderer(
+                hash, null, base, columns, rows, concatenatePercent, null);
+
+        printLines(overviewRenderer, null, System.out);
+
+    }
+
+    /**
+     * Prints an overview of a Uniform Fuzzy Hash side by side with the overview of another
+     * Uniform Fuzzy Hash, coloring each cell depending on the fraction of its bytes which belong to
+     * blocks present in both hashes, and using the default base, amount of columns and amount of
+     * rows.
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     */
+    public static void printOverviewCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2) {
+
+        printOverviewCompared(hash1, hash2, DEFAULT_BASE, DEFAULT_OVERVIEW_COLUMNS,
+                DEFAULT_OVERVIEW_ROWS, true);
+
+    }
+
+    /**
+     * Prints an overview of a Uniform Fuzzy Hash side by side with the overview of another
+     * Uniform Fuzzy Hash (see renderOverviewCompared).
+     * 
+     * @param hash1 The Uniform Fuzzy Hash.
+     * @param hash2 The Uniform Fuzzy Hash to which the first one will be compared.
+     * @param base The characters base which will be used to represent the blocks.
+     * @param columns Amount of cells per line.
+     * @param rows Amount of lines.
+     * @param concatenatePercent True to concatenate to each line its relative percent to the
+     *        total length.
+     */
+    public static void printOverviewCompared(
+            UniformFuzzyHash hash1,
+            UniformFuzzyHash hash2,
+            char[] base,
+            int columns,
+            int rows,
+            boolean concatenatePercent) {
+
+        if (hash1 == null) {
+            throw new NullPointerException("Hash 1 is null.");
+        }
+
+        if (hash2 == null) {
+            throw new NullPointerException("Hash 2 is null.");
         }
 
+        OverviewRenderer overviewRenderer1 = new OverviewRenderer(hash1, hash2, base, columns,
+                rows, concatenatePercent, BLOCK_IN_FIRST_HASH_ANSI_CODE_FORMAT);
+        OverviewRenderer overviewRenderer2 = new OverviewRenderer(hash2, hash1, base, columns,
+                rows, concatenatePercent, BLOCK_IN_SECOND_HASH_ANSI_CODE_FORMAT);
+
+        printLines(overviewRenderer1, overviewRenderer2, AnsiConsole.out);
+
     }
 
     /**
@@ -430,203 +747,713 @@ public final class VisualRepresentation {
     }
 
     /**
-     * Splits a string in fixed length substrings.
-     * The last substring is filled with spaces until reaching the fixed length.
+     * Writes all the lines of a renderer into an Appendable.
      * 
-     * @param string The string to split.
-     * @param wrapLength The substrings length. If this argument is lower than 1, no split is
-     *        performed.
-     * @param concatenatePercent True to concatenate to each line its relative percent to the total
-     *        string length.
-     * @return A List of strings containing the substrings, or a List of strings containing the
-     *         introduced string if wrapLength is lower than 1.
+     * @param renderer The renderer.
+     * @param appendable The Appendable.
+     * @throws IOException If an IOException occurs writing into the Appendable.
      */
-    private static List<String> wrapString(
-            String string,
-            int wrapLength,
-            boolean concatenatePercent) {
+    private static void renderLines(
+            Renderer renderer,
+            Appendable appendable)
+            throws IOException {
 
-        if (string == null) {
-            throw new NullPointerException("String is null.");
+        while (renderer.appendLine(appendable)) {
+            appendable.append(NEW_LINE);
         }
 
-        List<String> wrappedString = new LinkedList<>();
-        double relativeWrapLength = (double) wrapLength / string.length();
-        double accumulatedWrapLength = 0;
-
-        if (wrapLength < 1) {
+    }
 
-            wrappedString.add(string);
+    /**
+     * Writes all the lines of two renderers side by side into an Appendable.
+     * The renderer with fewer lines is completed with empty lines.
+     * 
+     * @param renderer1 The left renderer.
+     * @param renderer2 The right renderer.
+     * @param appendable The Appendable.
+     * @throws IOException If an IOException occurs writing into the Appendable.
+     */
+    private static void renderLinesSideBySide(
+            Renderer renderer1,
+            Renderer renderer2,
+            Appendable appendable)
+            throws IOException {
 
-        } else {
+        final int separation = 5;
+        String separationSpaces = spaces(separation);
 
-            while (string.length() > wrapLength) {
+        while (!renderer1.isFinished() || !renderer2.isFinished()) {
 
-                if (concatenatePercent) {
-                    wrappedString.add(formatAccumulatedWrapLength(
-                            string.substring(0, wrapLength),
-                            accumulatedWrapLength));
-                } else {
-                    wrappedString.add(string.substring(0, wrapLength));
-                }
+            if (!renderer1.appendLine(appendable)) {
+                renderer1.appendEmptyLine(appendable);
+            }
 
-                string = string.substring(wrapLength);
-                accumulatedWrapLength += relativeWrapLength;
+            appendable.append(separationSpaces);
 
+            if (!renderer2.appendLine(appendable)) {
+                renderer2.appendEmptyLine(appendable);
             }
 
-            if (concatenatePercent) {
-                wrappedString.add(formatAccumulatedWrapLength(
-                        string + spaces(wrapLength - string.length()),
-                        accumulatedWrapLength));
+            appendable.append(NEW_LINE);
+
+        }
+
+    }
+
+    /**
+     * Prints all the lines of a renderer, or of two renderers side by side, surrounded by empty
+     * lines.
+     * 
+     * @param renderer1 The renderer, or the left renderer.
+     * @param renderer2 The right renderer, or null to print only the first one.
+     * @param printStream The PrintStream.
+     */
+    private static void printLines(
+            Renderer renderer1,
+            Renderer renderer2,
+            PrintStream printStream) {
+
+        if (printStream == AnsiConsole.out) {
+            AnsiConsole.systemInstall();
+        }
+
+        printStream.println();
+
+        try {
+            if (renderer2 == null) {
+                renderLines(renderer1, printStream);
             } else {
-                wrappedString.add(string + spaces(wrapLength - string.length()));
+                renderLinesSideBySide(renderer1, renderer2, printStream);
             }
-
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
         }
 
-        return wrappedString;
+        printStream.println();
+
+        if (printStream == AnsiConsole.out) {
+            AnsiConsole.systemUninstall();
+        }
 
     }
 
     /**
-     * Splits a string in fixed length substrings.
-     * ANSI code format is respected.
-     * The last substring is filled with spaces until reaching the fixed length.
+     * Computes the amount of times the character of a block is repeated in its visual
+     * representation: the lowest positive amount n such that (n * factor + factor / 2) /
+     * factorDivisor is not lower than the block size.
      * 
-     * @param string The string to split.
-     * @param wrapLength The substrings length. If this argument is lower than 1, no split is
-     *        performed.
-     * @param concatenatePercent True to concatenate to each line its relative percent to the total
-     *        string length.
-     * @return A List of strings containing the substrings, or a List of strings containing the
-     *         introduced string if wrapLength is lower than 1.
+     * @param blockSize The block size.
+     * @param factor The Uniform Fuzzy Hash factor.
+     * @param factorDivisor Amount of characters per factor size for each block.
+     * @return The amount of character repetitions.
      */
-    private static List<String> wrapStringRespectingAnsiCodeFormat(
-            String string,
-            int wrapLength,
-            boolean concatenatePercent) {
+    private static long computeCharacterRepetitions(
+            int blockSize,
+            int factor,
+            int factorDivisor) {
+
+        long excess = (long) blockSize * factorDivisor - factor / 2;
 
-        if (string == null) {
-            throw new NullPointerException("String is null.");
+        if (excess <= factor) {
+            return 1;
         }
 
-        List<String> wrappedString = new LinkedList<>();
-        double relativeWrapLength = (double) wrapLength / AnsiCodeColors.remove(string).length();
-        double accumulatedWrapLength = 0;
+        return (excess + factor - 1) / factor;
 
-        if (wrapLength < 1) {
+    }
 
-            wrappedString.add(string);
+    /**
+     * Formats the percent accumulated wrap length which precedes a wrapped line.
+     * 
+     * @param accumulatedWrapLength Accumulated wrap length in previous lines.
+     * @return The formatted percent accumulated wrap length.
+     */
+    private static String formatAccumulatedWrapLength(
+            double accumulatedWrapLength) {
 
-        } else {
+        final int percent = 100;
 
-            StringBuilder substring = new StringBuilder(wrapLength * 2);
-            StringBuilder ansiCodeFormat = new StringBuilder();
-            int substringChars = 0;
+        return String.format(
+                ACCUMULATED_WRAP_FORMAT,
+                formatDecimal(accumulatedWrapLength * percent,
+                        ACCUMULATED_WRAP_FRACTION_DIGITS, ACCUMULATED_WRAP_FRACTION_DIGITS));
 
-            for (int i = 0; i < string.length(); i++) {
+    }
 
-                char ch = string.charAt(i);
+    /**
+     * Renderer of the lines of a visual representation of a Uniform Fuzzy Hash, which writes them
+     * one by one.
+     * 
+     * @author s3curitybug@gmail.com
+     * 
+     */
+    private interface Renderer {
+
+        /**
+         * Writes the next line into an Appendable, without line separator.
+         * 
+         * @param appendable The Appendable.
+         * @return True if a line has been written. False if all the lines had already been
+         *         written.
+         * @throws IOException If an IOException occurs writing into the Appendable.
+         */
+        boolean appendLine(
+                Appendable appendable)
+                throws IOException;
+
+        /**
+         * Writes an empty line into an Appendable, without line separator, with the same length
+         * as the lines of this renderer.
+         * 
+         * @param appendable The Appendable.
+         * @throws IOException If an IOException occurs writing into the Appendable.
+         */
+        void appendEmptyLine(
+                Appendable appendable)
+                throws IOException;
+
+        /**
+         * @return True if all the lines have been written.
+         */
+        boolean isFinished();
 
-                if (ch == UNICODE_CTRL) {
+    }
 
-                    ansiCodeFormat = new StringBuilder();
-                    while (string.charAt(i) != ANSI_CODE_COLOR_END) {
-                        ansiCodeFormat.append(string.charAt(i++));
-                    }
-                    ansiCodeFormat.append(string.charAt(i));
+    /**
+     * This class writes the wrapped lines of the visual representation of a Uniform Fuzzy Hash one
+     * by one, visiting its blocks only as they are needed. The ANSI code format (in case of a
+     * comparison) and the accumulated wrap length are maintained between lines, so nothing but the
+     * current block is kept in memory.
+     * 
+     * @author s3curitybug@gmail.com
+     * 
+     */
+    private static final class LineRenderer implements Renderer {
+
+        /**
+         * Iterator over the blocks of the represented hash.
+         */
+        private final Iterator<UniformFuzzyHashBlock> blocksIterator;
+
+        /**
+         * Blocks of the hash to which the represented one is compared, or null if there is no
+         * comparison.
+         */
+        private final Set<UniformFuzzyHashBlock> comparedBlocks;
+
+        /**
+         * ANSI format of the blocks which are not present in the hash to which the represented one
+         * is compared.
+         */
+        private final String notComparedAnsiCodeFormat;
+
+        /**
+         * The characters base.
+         */
+        private final char[] base;
+
+        /**
+         * The factor of the represented hash.
+         */
+        private final int factor;
+
+        /**
+         * Amount of characters per factor size for each block.
+         */
+        private final int factorDivisor;
+
+        /**
+         * Amount of characters per line.
+         */
+        private final int lineWrap;
+
+        /**
+         * True to concatenate to each line its relative percent to the total length.
+         */
+        private final boolean concatenatePercent;
+
+        /**
+         * Relative length of a line to the total length.
+         */
+        private final double relativeWrapLength;
+
+        /**
+         * Accumulated wrap length in previous lines.
+         */
+        private double accumulatedWrapLength;
+
+        /**
+         * Current ANSI code format, or null if none has been written yet.
+         */
+        private String ansiCodeFormat;
+
+        /**
+         * Character of the current block.
+         */
+        private char character;
+
+        /**
+         * Remaining repetitions of the character of the current block.
+         */
+        private long characterRepetitions;
+
+        /**
+         * True if all the lines have been written.
+         */
+        private boolean finished;
+
+        /**
+         * Constructor.
+         * 
+         * @param hash The Uniform Fuzzy Hash.
+         * @param comparedHash The Uniform Fuzzy Hash to which the first one will be compared, or
+         *        null if there is no comparison.
+         * @param base The characters base which will be used to represent the blocks.
+         * @param factorDivisor Amount of characters per factor size for each block.
+         * @param lineWrap Amount of characters per line. If this argument is lower than 1, no line
+         *        wrap is performed.
+         * @param concatenatePercent In case line wrap is performed, true to concatenate to each
+         *        line its relative percent to the total length.
+         * @param notComparedAnsiCodeFormat ANSI format of the blocks which are not present in the
+         *        compared hash.
+         */
+        private LineRenderer(
+                UniformFuzzyHash hash,
+                UniformFuzzyHash comparedHash,
+                char[] base,
+                int factorDivisor,
+                int lineWrap,
+                boolean concatenatePercent,
+                String notComparedAnsiCodeFormat) {
+
+            if (hash == null) {
+                throw new NullPointerException("Hash is null.");
+            }
 
-                    substring.append(ansiCodeFormat);
+            if (base == null) {
+                throw new NullPointerException("Base is null.");
+            }
 
-                } else {
+            if (base.length == 0) {
+                throw new IllegalArgumentException("Base is empty.");
+            }
 
-                    substring.append(ch);
-                    substringChars++;
+            if (factorDivisor < 1) {
+                throw new IllegalArgumentException("Factor divisor is lower than 1.");
+            }
 
-                    if (substringChars == wrapLength || i == string.length() - 1) {
+            if (comparedHash != null && hash.getFactor() != comparedHash.getFactor()) {
+                throw new IllegalArgumentException(
+                        "The Uniform Fuzzy Hashes factors are different.");
+            }
 
-                        if (ansiCodeFormat.length() > 0 && !ansiCodeFormat.toString().equals(
-                                AnsiCodeColors.RESET.getCode())) {
+            List<UniformFuzzyHashBlock> blocks = hash.accessBlocks();
+
+            this.blocksIterator = blocks.iterator();
+            this.comparedBlocks = comparedHash != null ? comparedHash.accessBlocksSet() : null;
+            this.notComparedAnsiCodeFormat = notComparedAnsiCodeFormat;
+            this.base = base;
+            this.factor = hash.getFactor();
+            this.factorDivisor = factorDivisor;
+            this.lineWrap = lineWrap;
+            this.concatenatePercent = concatenatePercent;
+            this.accumulatedWrapLength = 0;
+            this.ansiCodeFormat = null;
+            this.characterRepetitions = 0;
+            this.finished = false;
+
+            // Total length.
+            long length = 0;
+            for (UniformFuzzyHashBlock block : blocks) {
+                length += computeCharacterRepetitions(block.getBlockSize(), factor, factorDivisor);
+            }
 
-                            substring.append(AnsiCodeColors.RESET.getCode());
+            this.relativeWrapLength = (double) lineWrap / length;
 
-                            if (concatenatePercent) {
-                                wrappedString.add(formatAccumulatedWrapLength(
-                                        substring.toString(),
-                                        accumulatedWrapLength));
-                            } else {
-                                wrappedString.add(substring.toString());
-                            }
+        }
 
-                            substring = new StringBuilder(wrapLength * 2);
-                            substring.append(ansiCodeFormat);
+        @Override
+        public boolean appendLine(
+                Appendable appendable)
+                throws IOException {
 
-                        } else {
+            if (finished) {
+                return false;
+            }
 
-                            if (concatenatePercent) {
-                                wrappedString.add(formatAccumulatedWrapLength(
-                                        substring.toString(),
-                                        accumulatedWrapLength));
-                            } else {
-                                wrappedString.add(substring.toString());
-                            }
+            // No line wrap.
+            if (lineWrap < 1) {
 
-                            substring = new StringBuilder(wrapLength * 2);
+                while (appendCharacter(appendable)) {
+                    continue;
+                }
 
-                        }
+                if (comparedBlocks != null) {
+                    appendable.append(AnsiCodeColors.RESET.getCode());
+                }
 
-                        accumulatedWrapLength += relativeWrapLength;
-                        substringChars = 0;
+                finished = true;
+                return true;
 
-                    }
+            }
 
-                }
+            // Line start.
+            if (concatenatePercent) {
+                appendable.append(formatAccumulatedWrapLength(accumulatedWrapLength));
+            }
 
+            if (ansiCodeFormat != null) {
+                appendable.append(ansiCodeFormat);
             }
 
-            if (substring.length() > 0) {
+            // Line characters.
+            int lineChars = 0;
+            while (lineChars < lineWrap && appendCharacter(appendable)) {
+                lineChars++;
+            }
 
-                if (ansiCodeFormat.length() > 0 && !ansiCodeFormat.toString().equals(
-                        AnsiCodeColors.RESET.getCode())) {
-                    substring.append(AnsiCodeColors.RESET.getCode());
-                }
+            // Line end.
+            if (comparedBlocks != null) {
+                appendable.append(AnsiCodeColors.RESET.getCode());
+            }
 
-                substring.append(spaces(wrapLength - substringChars));
+            if (lineChars == lineWrap) {
 
-                if (concatenatePercent) {
-                    wrappedString.add(formatAccumulatedWrapLength(
-                            substring.toString(),
-                            accumulatedWrapLength));
-                } else {
-                    wrappedString.add(substring.toString());
+                // A comparison ending in a full line is followed by an empty one.
+                if (comparedBlocks == null && characterRepetitions == 0
+                        && !blocksIterator.hasNext()) {
+                    finished = true;
                 }
 
+                accumulatedWrapLength += relativeWrapLength;
+
+            } else {
+
+                appendable.append(spaces(lineWrap - lineChars));
+                finished = true;
+
             }
 
+            return true;
+
         }
 
-        return wrappedString;
+        @Override
+        public void appendEmptyLine(
+                Appendable appendable)
+                throws IOException {
+
+            if (concatenatePercent) {
+                appendable.append(spaces(lineWrap + formatAccumulatedWrapLength(0).length()));
+            } else {
+                appendable.append(spaces(lineWrap));
+            }
+
+        }
+
+        @Override
+        public boolean isFinished() {
+
+            return finished;
+
+        }
+
+        /**
+         * Writes the next character into an Appendable, moving to the next block if the character
+         * of the current one has been fully repeated, and preceding it by the ANSI code format of
+         * the next block if it is different from the current one.
+         * 
+         * @param appendable The Appendable.
+         * @return True if a character has been written. False if there are no more characters.
+         * @throws IOException If an IOException occurs writing into the Appendable.
+         */
+        private boolean appendCharacter(
+                Appendable appendable)
+                throws IOException {
+
+            if (characterRepetitions == 0) {
+
+                if (!blocksIterator.hasNext()) {
+                    return false;
+                }
+
+                UniformFuzzyHashBlock block = blocksIterator.next();
+                character = base[block.getBlockHash() % base.length];
+                characterRepetitions =
+                        computeCharacterRepetitions(block.getBlockSize(), factor, factorDivisor);
+
+                if (comparedBlocks != null) {
+                    String blockAnsiCodeFormat = comparedBlocks.contains(block)
+                            ? BLOCK_IN_BOTH_HASHES_ANSI_CODE_FORMAT
+                            : notComparedAnsiCodeFormat;
+                    if (!blockAnsiCodeFormat.equals(ansiCodeFormat)) {
+                        ansiCodeFormat = blockAnsiCodeFormat;
+                        appendable.append(AnsiCodeColors.RESET.getCode());
+                        appendable.append(ansiCodeFormat);
+                    }
+                }
+
+            }
+
+            appendable.append(character);
+            characterRepetitions--;
+
+            return true;
+
+        }
 
     }
 
     /**
-     * Formats a wrapped line concatenating its percent accumulated wrap length to it.
+     * This class writes the lines of the overview of a Uniform Fuzzy Hash one by one. The hashed
+     * bytes are divided into a fixed amount of cells, and the blocks are aggregated into the cells
+     * they overlap in a single pass. Each cell is represented with the character of the block
+     * which covers most of its bytes and, in case of a comparison, colored depending on the
+     * fraction of its bytes which belong to blocks present in the compared hash.
+     * 
+     * @author s3curitybug@gmail.com
      * 
-     * @param string The wrapped line.
-     * @param accumulatedWrapLength Accumulated wrap length in previous lines.
-     * @return The wrapped line formatted with its percent accumulated wrap length.
      */
-    private static String formatAccumulatedWrapLength(
-            String string,
-            double accumulatedWrapLength) {
+    private static final class OverviewRenderer implements Renderer {
+
+        /**
+         * Iterator over the blocks of the represented hash.
+         */
+        private final Iterator<UniformFuzzyHashBlock> blocksIterator;
+
+        /**
+         * Blocks of the hash to which the represented one is compared, or null if there is no
+         * comparison.
+         */
+        private final Set<UniformFuzzyHashBlock> comparedBlocks;
+
+        /**
+         * ANSI format of the cells whose bytes mostly belong to blocks which are not present in
+         * the hash to which the represented one is compared.
+         */
+        private final String notComparedAnsiCodeFormat;
+
+        /**
+         * The characters base.
+         */
+        private final char[] base;
+
+        /**
+         * Amount of cells per line.
+         */
+        private final int columns;
+
+        /**
+         * Amount of lines.
+         */
+        private final int rows;
+
+        /**
+         * True to concatenate to each line its relative percent to the total length.
+         */
+        private final boolean concatenatePercent;
+
+        /**
+         * Size of the hashed data.
+         */
+        private final long dataSize;
+
+        /**
+         * Current line.
+         */
+        private int row;
+
+        /**
+         * Current block, or null if all the blocks have been visited.
+         */
+        private UniformFuzzyHashBlock block;
+
+        /**
+         * True if the current block is present in the compared hash.
+         */
+        private boolean blockCompared;
+
+        /**
+         * Constructor.
+         * 
+         * @param hash The Uniform Fuzzy Hash.
+         * @param comparedHash The Uniform Fuzzy Hash to which the first one will be compared, or
+         *        null if there is no comparison.
+         * @param base The characters base which will be used to represent the blocks.
+         * @param columns Amount of cells per line.
+         * @param rows Amount of lines.
+         * @param concatenatePercent True to concatenate to each line its relative percent to the
+         *        total length.
+         * @param notComparedAnsiCodeFormat ANSI format of the cells whose bytes mostly belong to
+         *        blocks which are not present in the compared hash.
+         */
+        private OverviewRenderer(
+                UniformFuzzyHash hash,
+                UniformFuzzyHash comparedHash,
+                char[] base,
+                int columns,
+                int rows,
+                boolean concatenatePercent,
+                String notComparedAnsiCodeFormat) {
+
+            if (hash == null) {
+                throw new NullPointerException("Hash is null.");
+            }
 
-        final int percent = 100;
+            if (base == null) {
+                throw new NullPointerException("Base is null.");
+            }
 
-        return String.format(
-                ACCUMULATED_WRAP_FORMAT,
-                ACCUMULATED_WRAP_DECIMAL_FORMAT.format(accumulatedWrapLength * percent),
-                string);
+            if (base.length == 0) {
+                throw new IllegalArgumentException("Base is empty.");
+            }
+
+            if (columns < 1) {
+                throw new IllegalArgumentException("Amount of columns is lower than 1.");
+            }
+
+            if (rows < 1) {
+                throw new IllegalArgumentException("Amount of rows is lower than 1.");
+            }
+
+            if (comparedHash != null && hash.getFactor() != comparedHash.getFactor()) {
+                throw new IllegalArgumentException(
+                        "The Uniform Fuzzy Hashes factors are different.");
+            }
+
+            this.blocksIterator = hash.accessBlocks().iterator();
+            this.comparedBlocks = comparedHash != null ? comparedHash.accessBlocksSet() : null;
+            this.notComparedAnsiCodeFormat = notComparedAnsiCodeFormat;
+            this.base = base;
+            this.columns = columns;
+            this.rows = rows;
+            this.concatenatePercent = concatenatePercent;
+            this.dataSize = hash.getDataSize();
+            this.row = 0;
+
+            nextBlock();
+
+        }
+
+        @Override
+        public boolean appendLine(
+                Appendable appendable)
+                throws IOException {
+
+            if (isFinished()) {
+                return false;
+            }
+
+            if (concatenatePercent) {
+                appendable.append(formatAccumulatedWrapLength((double) row / rows));
+            }
+
+            long cells = (long) columns * rows;
+            String ansiCodeFormat = null;
+
+            for (int column = 0; column < columns; column++) {
+
+                long cell = (long) row * columns + column;
+                long cellStart = dataSize * cell / cells;
+                long cellEnd = dataSize * (cell + 1) / cells;
+
+                // Aggregate the blocks overlapping the cell.
+                long matchedBytes = 0;
+                long dominantBytes = 0;
+                int dominantBlockHash = 0;
+
+                while (block != null && block.getBlockStartingBytePosition() < cellEnd) {
+
+                    long blockEnd = block.getBlockEndingBytePosition() + 1L;
+                    long overlap = Math.min(blockEnd, cellEnd)
+                            - Math.max(block.getBlockStartingBytePosition(), cellStart);
+
+                    if (overlap > dominantBytes) {
+                        dominantBytes = overlap;
+                        dominantBlockHash = block.getBlockHash();
+                    }
+
+                    if (blockCompared) {
+                        matchedBytes += overlap;
+                    }
+
+                    if (blockEnd > cellEnd) {
+                        break;
+                    }
+
+                    nextBlock();
+
+                }
+
+                if (dominantBytes == 0) {
+                    appendable.append(' ');
+                    continue;
+                }
+
+                // Cell format.
+                if (comparedBlocks != null) {
+                    double matchedFraction = (double) matchedBytes / (cellEnd - cellStart);
+                    String cellAnsiCodeFormat =
+                            matchedFraction >= OVERVIEW_MATCHED_FRACTION
+                                    ? BLOCK_IN_BOTH_HASHES_ANSI_CODE_FORMAT
+                                    : matchedFraction >= OVERVIEW_PARTIALLY_MATCHED_FRACTION
+                                            ? CELL_PARTIALLY_IN_BOTH_HASHES_ANSI_CODE_FORMAT
+                                            : notComparedAnsiCodeFormat;
+                    if (!cellAnsiCodeFormat.equals(ansiCodeFormat)) {
+                        ansiCodeFormat = cellAnsiCodeFormat;
+                        appendable.append(AnsiCodeColors.RESET.getCode());
+                        appendable.append(ansiCodeFormat);
+                    }
+                }
+
+                appendable.append(base[dominantBlockHash % base.length]);
+
+            }
+
+            if (comparedBlocks != null) {
+                appendable.append(AnsiCodeColors.RESET.getCode());
+            }
+
+            row++;
+
+            return true;
+
+        }
+
+        @Override
+        public void appendEmptyLine(
+                Appendable appendable)
+                throws IOException {
+
+            if (concatenatePercent) {
+                appendable.append(spaces(columns + formatAccumulatedWrapLength(0).length()));
+            } else {
+                appendable.append(spaces(columns));
+            }
+
+        }
+
+        @Override
+        public boolean isFinished() {
+
+            return row == rows;
+
+        }
+
+        /**
+         * Moves to the next block.
+         */
+        private void nextBlock() {
+
+            if (blocksIterator.hasNext()) {
+                block = blocksIterator.next();
+                blockCompared = comparedBlocks != null && comparedBlocks.contains(block);
+            } else {
+                block = null;
+                blockCompared = false;
+            }
+
+        }
 
     }
 
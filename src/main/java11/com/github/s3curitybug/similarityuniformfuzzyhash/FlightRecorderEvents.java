@@ -0,0 +1,430 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+import java.io.File;
+
+/**
+ * This class emits Java Flight Recorder events around the Uniform Fuzzy Hashes computation,
+ * comparison and storage.
+ * This is the Java 11 version, packaged inside the multi-release jar, which replaces the no-op
+ * version of src/main/java.
+ * Every event is begun before the operation, obtaining an event object (which is null if the event
+ * is not enabled), and committed after it, with the operation data.
+ * Whether an event is enabled is checked on its cached event type before allocating the event
+ * object, so disabled events (the usual case, with no recording running) allocate nothing.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+final class FlightRecorderEvents {
+
+    /**
+     * Prefix of the events names.
+     */
+    private static final String NAME_PREFIX = "com.github.s3curitybug.similarityuniformfuzzyhash.";
+
+    /**
+     * Category of the events.
+     */
+    private static final String CATEGORY = "Similarity Uniform Fuzzy Hash";
+
+    /**
+     * Hash computation event.
+     */
+    @Name(NAME_PREFIX + "HashComputation")
+    @Label("Hash Computation")
+    @Description("Computation of a Uniform Fuzzy Hash")
+    @Category(CATEGORY)
+    private static final class HashComputationEvent extends Event {
+
+        /**
+         * Size in bytes of the hashed data.
+         */
+        @Label("Data Size")
+        @DataAmount(DataAmount.BYTES)
+        private int dataSize;
+
+        /**
+         * Factor of the hash.
+         */
+        @Label("Factor")
+        private int factor;
+
+        /**
+         * Amount of blocks of the hash.
+         */
+        @Label("Blocks")
+        private int blocks;
+
+    }
+
+    /**
+     * Blocks set build event.
+     */
+    @Name(NAME_PREFIX + "BlocksSetBuild")
+    @Label("Blocks Set Build")
+    @Description("Build of the set of blocks of a Uniform Fuzzy Hash, used to compare it")
+    @Category(CATEGORY)
+    private static final class BlocksSetBuildEvent extends Event {
+
+        /**
+         * Size in bytes of the data of the hash.
+         */
+        @Label("Data Size")
+        @DataAmount(DataAmount.BYTES)
+        private int dataSize;
+
+        /**
+         * Amount of blocks of the hash.
+         */
+        @Label("Blocks")
+        private int blocks;
+
+    }
+
+    /**
+     * Similarity event. Similarities are computed in great numbers, so by default only the ones
+     * lasting 1 ms or more are recorded.
+     */
+    @Name(NAME_PREFIX + "Similarity")
+    @Label("Similarity")
+    @Description("Similarity computation of a Uniform Fuzzy Hash to another one")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    private static final class SimilarityEvent extends Event {
+
+        /**
+         * Factor of both hashes.
+         */
+        @Label("Factor")
+        private int factor;
+
+        /**
+         * Amount of blocks of the hash.
+         */
+        @Label("Blocks")
+        private int blocks;
+
+        /**
+         * Amount of blocks of the other hash.
+         */
+        @Label("Other Blocks")
+        private int otherBlocks;
+
+        /**
+         * The computed similarity.
+         */
+        @Label("Similarity")
+        private double similarity;
+
+    }
+
+    /**
+     * Text file load event.
+     */
+    @Name(NAME_PREFIX + "TextFileLoad")
+    @Label("Text File Load")
+    @Description("Load of Uniform Fuzzy Hashes from a text file")
+    @Category(CATEGORY)
+    private static final class TextFileLoadEvent extends Event {
+
+        /**
+         * Path of the file.
+         */
+        @Label("Path")
+        private String path;
+
+        /**
+         * Size in bytes of the file.
+         */
+        @Label("File Size")
+        @DataAmount(DataAmount.BYTES)
+        private long fileSize;
+
+        /**
+         * Amount of loaded hashes.
+         */
+        @Label("Hashes")
+        private int hashes;
+
+    }
+
+    /**
+     * Text file save event.
+     */
+    @Name(NAME_PREFIX + "TextFileSave")
+    @Label("Text File Save")
+    @Description("Save of Uniform Fuzzy Hashes to a text file")
+    @Category(CATEGORY)
+    private static final class TextFileSaveEvent extends Event {
+
+        /**
+         * Path of the file.
+         */
+        @Label("Path")
+        private String path;
+
+        /**
+         * Size in bytes of the file.
+         */
+        @Label("File Size")
+        @DataAmount(DataAmount.BYTES)
+        private long fileSize;
+
+        /**
+         * Amount of saved hashes.
+         */
+        @Label("Hashes")
+        private int hashes;
+
+    }
+
+    /**
+     * Type of the hash computation events.
+     */
+    private static final EventType HASH_COMPUTATION_EVENT_TYPE =
+            EventType.getEventType(HashComputationEvent.class);
+
+    /**
+     * Type of the blocks set build events.
+     */
+    private static final EventType BLOCKS_SET_BUILD_EVENT_TYPE =
+            EventType.getEventType(BlocksSetBuildEvent.class);
+
+    /**
+     * Type of the similarity events.
+     */
+    private static final EventType SIMILARITY_EVENT_TYPE =
+            EventType.getEventType(SimilarityEvent.class);
+
+    /**
+     * Type of the text file load events.
+     */
+    private static final EventType TEXT_FILE_LOAD_EVENT_TYPE =
+            EventType.getEventType(TextFileLoadEvent.class);
+
+    /**
+     * Type of the text file save events.
+     */
+    private static final EventType TEXT_FILE_SAVE_EVENT_TYPE =
+            EventType.getEventType(TextFileSaveEvent.class);
+
+    /**
+     * Private constructor.
+     */
+    private FlightRecorderEvents() {
+
+    }
+
+    /**
+     * Begins an event.
+     * 
+     * @param event A new event, whose type is enabled.
+     * @return The begun event.
+     */
+    private static Event begin(
+            Event event) {
+
+        event.begin();
+        return event;
+
+    }
+
+    /**
+     * Ends an event.
+     * 
+     * @param event An event returned by begin.
+     * @return True if the event must be committed. False otherwise.
+     */
+    private static boolean end(
+            Object event) {
+
+        if (event == null) {
+            return false;
+        }
+
+        ((Event) event).end();
+        return ((Event) event).shouldCommit();
+
+    }
+
+    /**
+     * Begins a hash computation event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginHashComputation() {
+
+        return HASH_COMPUTATION_EVENT_TYPE.isEnabled() ? begin(new HashComputationEvent()) : null;
+
+    }
+
+    /**
+     * Commits a hash computation event.
+     * 
+     * @param event The event returned by beginHashComputation.
+     * @param dataSize Size in bytes of the hashed data.
+     * @param factor Factor of the hash.
+     * @param blocks Amount of blocks of the hash.
+     */
+    static void commitHashComputation(
+            Object event,
+            int dataSize,
+            int factor,
+            int blocks) {
+
+        if (end(event)) {
+            HashComputationEvent hashComputationEvent = (HashComputationEvent) event;
+            hashComputationEvent.dataSize = dataSize;
+            hashComputationEvent.factor = factor;
+            hashComputationEvent.blocks = blocks;
+            hashComputationEvent.commit();
+        }
+
+    }
+
+    /**
+     * Begins a blocks set build event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginBlocksSetBuild() {
+
+        return BLOCKS_SET_BUILD_EVENT_TYPE.isEnabled() ? begin(new BlocksSetBuildEvent()) : null;
+
+    }
+
+    /**
+     * Commits a blocks set build event.
+     * 
+     * @param event The event returned by beginBlocksSetBuild.
+     * @param dataSize Size in bytes of the data of the hash.
+     * @param blocks Amount of blocks of the hash.
+     */
+    static void commitBlocksSetBuild(
+            Object event,
+            int dataSize,
+            int blocks) {
+
+        if (end(event)) {
+            BlocksSetBuildEvent blocksSetBuildEvent = (BlocksSetBuildEvent) event;
+            blocksSetBuildEvent.dataSize = dataSize;
+            blocksSetBuildEvent.blocks = blocks;
+            blocksSetBuildEvent.commit();
+        }
+
+    }
+
+    /**
+     * Begins a similarity event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginSimilarity() {
+
+        return SIMILARITY_EVENT_TYPE.isEnabled() ? begin(new SimilarityEvent()) : null;
+
+    }
+
+    /**
+     * Commits a similarity event.
+     * 
+     * @param event The event returned by beginSimilarity.
+     * @param factor Factor of both hashes.
+     * @param blocks Amount of blocks of the hash.
+     * @param otherBlocks Amount of blocks of the other hash.
+     * @param similarity The computed similarity.
+     */
+    static void commitSimilarity(
+            Object event,
+            int factor,
+            int blocks,
+            int otherBlocks,
+            double similarity) {
+
+        if (end(event)) {
+            SimilarityEvent similarityEvent = (SimilarityEvent) event;
+            similarityEvent.factor = factor;
+            similarityEvent.blocks = blocks;
+            similarityEvent.otherBlocks = otherBlocks;
+            similarityEvent.similarity = similarity;
+            similarityEvent.commit();
+        }
+
+    }
+
+    /**
+     * Begins a text file load event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginTextFileLoad() {
+
+        return TEXT_FILE_LOAD_EVENT_TYPE.isEnabled() ? begin(new TextFileLoadEvent()) : null;
+
+    }
+
+    /**
+     * Commits a text file load event.
+     * 
+     * @param event The event returned by beginTextFileLoad.
+     * @param file The loaded file.
+     * @param hashes Amount of loaded hashes.
+     */
+    static void commitTextFileLoad(
+            Object event,
+            File file,
+            int hashes) {
+
+        if (end(event)) {
+            TextFileLoadEvent textFileLoadEvent = (TextFileLoadEvent) event;
+            textFileLoadEvent.path = file.getPath();
+            textFileLoadEvent.fileSize = file.length();
+            textFileLoadEvent.hashes = hashes;
+            textFileLoadEvent.commit();
+        }
+
+    }
+
+    /**
+     * Begins a text file save event.
+     * 
+     * @return The event, or null if it is not enabled.
+     */
+    static Object beginTextFileSave() {
+
+        return TEXT_FILE_SAVE_EVENT_TYPE.isEnabled() ? begin(new TextFileSaveEvent()) : null;
+
+    }
+
+    /**
+     * Commits a text file save event.
+     * 
+     * @param event The event returned by beginTextFileSave.
+     * @param file The saved file.
+     * @param hashes Amount of saved hashes.
+     */
+    static void commitTextFileSave(
+            Object event,
+            File file,
+            int hashes) {
+
+        if (end(event)) {
+            TextFileSaveEvent textFileSaveEvent = (TextFileSaveEvent) event;
+            textFileSaveEvent.path = file.getPath();
+            textFileSaveEvent.fileSize = file.length();
+            textFileSaveEvent.hashes = hashes;
+            textFileSaveEvent.commit();
+        }
+
+    }
+
+}
@@ -0,0 +1,22 @@
+function sortTable(column) {
+    var table = document.getElementById("similarities");
+    var body = table.tBodies[0];
+    var rows = Array.prototype.slice.call(body.rows);
+    var ascending = table.getAttribute("data-column") == column
+            && table.getAttribute("data-order") == "desc";
+    rows.sort(function (row1, row2) {
+        var value1 = row1.cells[column].getAttribute("data-value");
+        var value2 = row2.cells[column].getAttribute("data-value");
+        var number1 = parseFloat(value1);
+        var number2 = parseFloat(value2);
+        var comparison = isNaN(number1) || isNaN(number2)
+                ? value1.localeCompare(value2)
+                : number1 - number2;
+        return ascending ? comparison : -comparison;
+    });
+    for (var i = 0; i < rows.length; i++) {
+        body.appendChild(rows[i]);
+    }
+    table.setAttribute("data-column", column);
+    table.setAttribute("data-order", ascending ? "asc" : "desc");
+}
@@ -0,0 +1,183 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Class to test the FlightRecorderEvents class.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class FlightRecorderEventsTest {
+
+    /**
+     * Java 11 version test.
+     * Tests, on Java 11 or later, the Java 11 version of the FlightRecorderEvents class, which is
+     * only used from the multi-release jar (the tests classpath, a directory, always uses the Java
+     * 8 version). The compiled classes are packaged into a multi-release jar, the class is loaded
+     * from it, and it is tested that events are not created while no recording is running, and
+     * that they are recorded while a recording is running.
+     * The Flight Recorder API is used through reflection, so that the tests compile on Java 8.
+     * 
+     * @throws Exception In case an exception occurs packaging the classes or recording the
+     *         events.
+     */
+    @Test
+    public void java11VersionTest()
+            throws Exception {
+
+        final File classesDirectory = TestResourcesUtils.getTargetFile("classes");
+        final File versionDirectory = new File(classesDirectory, "META-INF/versions/11");
+        final File jarFile = TestResourcesUtils.getTargetFile("FlightRecorderEventsTest.jar");
+        final File recordingFile = TestResourcesUtils.getTargetFile("FlightRecorderEventsTest.jfr");
+        final String namePrefix = FlightRecorderEvents.class.getPackage().getName() + ".";
+
+        if (System.getProperty("java.specification.version").startsWith("1.")
+                || !versionDirectory.isDirectory()) {
+            System.out.println("The Java 11 version is not tested: not running on Java 11 or "
+                    + "later, or not compiled with the java11 profile.");
+            return;
+        }
+
+        // Multi-release jar.
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        try (JarOutputStream jarOutputStream =
+                new JarOutputStream(new FileOutputStream(jarFile), manifest)) {
+            addToJar(jarOutputStream, classesDirectory, "");
+        }
+
+        // Class loaded from the jar, not from the tests classpath.
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[] {jarFile.toURI().toURL()},
+                ClassLoader.getSystemClassLoader().getParent())) {
+
+            Class<?> eventsClass = classLoader.loadClass(FlightRecorderEvents.class.getName());
+            Assert.assertNotSame(FlightRecorderEvents.class, eventsClass);
+
+            Method beginSimilarity = eventsClass.getDeclaredMethod("beginSimilarity");
+            Method commitSimilarity = eventsClass.getDeclaredMethod("commitSimilarity",
+                    Object.class, int.class, int.class, int.class, double.class);
+            beginSimilarity.setAccessible(true);
+            commitSimilarity.setAccessible(true);
+
+            // No recording: disabled events, not allocated.
+            Assert.assertNull(beginSimilarity.invoke(null));
+
+            // Recording.
+            Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+            Class<?> eventSettingsClass = Class.forName("jdk.jfr.EventSettings");
+            Object recording = recordingClass.getConstructor().newInstance();
+            try {
+
+                Object eventSettings = recordingClass.getMethod("enable", String.class)
+                        .invoke(recording, namePrefix + "Similarity");
+                eventSettingsClass.getMethod("withoutThreshold").invoke(eventSettings);
+                recordingClass.getMethod("start").invoke(recording);
+
+                Object event = beginSimilarity.invoke(null);
+                Assert.assertNotNull(event);
+                commitSimilarity.invoke(null, event, 11, 20, 30, 0.5);
+
+                recordingClass.getMethod("stop").invoke(recording);
+                recordingClass.getMethod("dump", Path.class)
+                        .invoke(recording, recordingFile.toPath());
+
+            } finally {
+                recordingClass.getMethod("close").invoke(recording);
+            }
+
+            // Recorded events.
+            Class<?> recordingFileClass = Class.forName("jdk.jfr.consumer.RecordingFile");
+            Class<?> recordedEventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+            Class<?> recordedObjectClass = Class.forName("jdk.jfr.consumer.RecordedObject");
+            Class<?> eventTypeClass = Class.forName("jdk.jfr.EventType");
+            List<?> recordedEvents = (List<?>) recordingFileClass
+                    .getMethod("readAllEvents", Path.class)
+                    .invoke(null, recordingFile.toPath());
+            Assert.assertTrue(recordingFile.delete());
+
+            int similarityEvents = 0;
+            for (Object recordedEvent : recordedEvents) {
+                Object eventType = recordedEventClass.getMethod("getEventType")
+                        .invoke(recordedEvent);
+                String eventName = (String) eventTypeClass.getMethod("getName").invoke(eventType);
+                if (eventName.equals(namePrefix + "Similarity")) {
+                    similarityEvents++;
+                    Method getInt = recordedObjectClass.getMethod("getInt", String.class);
+                    Method getDouble = recordedObjectClass.getMethod("getDouble", String.class);
+                    Assert.assertEquals(11, getInt.invoke(recordedEvent, "factor"));
+                    Assert.assertEquals(20, getInt.invoke(recordedEvent, "blocks"));
+                    Assert.assertEquals(30, getInt.invoke(recordedEvent, "otherBlocks"));
+                    Assert.assertEquals(0.5, getDouble.invoke(recordedEvent, "similarity"));
+                }
+            }
+            System.out.println(String.format("Recorded similarity events: %d.", similarityEvents));
+            Assert.assertEquals(1, similarityEvents);
+
+            // Recording stopped: disabled events again.
+            Assert.assertNull(beginSimilarity.invoke(null));
+
+        } finally {
+            Assert.assertTrue(jarFile.delete());
+        }
+
+    }
+
+    /**
+     * Adds the files of a directory, recursively, to a jar.
+     * 
+     * @param jarOutputStream Jar output stream.
+     * @param directory Directory.
+     * @param entryPrefix Prefix of the names of the entries of the files of the directory.
+     * @throws IOException In case an exception occurs reading a file or writing the jar.
+     */
+    private static void addToJar(
+            JarOutputStream jarOutputStream,
+            File directory,
+            String entryPrefix)
+            throws IOException {
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException(String.format("%s could not be listed.", directory));
+        }
+
+        for (File file : files) {
+            String entryName = entryPrefix + file.getName();
+            if (file.isDirectory()) {
+                addToJar(jarOutputStream, file, entryName + "/");
+            } else if (!entryName.equals(JarFile.MANIFEST_NAME)) {
+                jarOutputStream.putNextEntry(new JarEntry(entryName));
+                try (InputStream inputStream = new FileInputStream(file)) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = inputStream.read(buffer)) != -1) {
+                        jarOutputStream.write(buffer, 0, read);
+                    }
+                }
+                jarOutputStream.closeEntry();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Class to test the hasher context.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class HasherContextTest {
+
+    /**
+     * Reuse test.
+     * Tests that a single context, reused to compute the hashes of all the test resource files
+     * with different factors, from files, input streams and ranges of byte arrays, computes the
+     * same hashes as new contexts.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void reuseTest()
+            throws IOException {
+
+        final int[] factors = {3, 11, 101};
+        final int padding = 7;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+
+        Collection<File> files = FileUtils.listFiles(directory, null, true);
+        HasherContext context = new HasherContext();
+
+        for (int factor : factors) {
+            for (File file : files) {
+
+                byte[] data = FileUtils.readFileToByteArray(file);
+                UniformFuzzyHash hash = new HasherContext().hash(data, factor);
+
+                Assert.assertEquals(hash, context.hash(file, factor));
+                Assert.assertEquals(hash, context.hash(new ByteArrayInputStream(data), factor));
+
+                byte[] paddedData = new byte[padding + data.length + padding];
+                Arrays.fill(paddedData, (byte) 0xFF);
+                System.arraycopy(data, 0, paddedData, padding, data.length);
+                Assert.assertEquals(hash, context.hash(paddedData, padding, data.length, factor));
+
+                Assert.assertEquals(hash.toString(), new UniformFuzzyHash(file, factor).toString());
+
+            }
+        }
+
+        System.out.println(String.format(
+                "Files: %d. Factors: %s.",
+                files.size(),
+                Arrays.toString(factors)));
+
+    }
+
+    /**
+     * Inputs test.
+     * Tests that the hashes computed from heap, sliced, direct and read-only buffers, readable
+     * channels, and data added in random chunks to a manually driven computation, are the same as
+     * the ones computed from byte arrays, and that buffer positions are handled as documented.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void inputsTest()
+            throws IOException {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int padding = 7;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+
+        Collection<File> files = FileUtils.listFiles(directory, null, true);
+        HasherContext context = HasherContext.forCurrentThread();
+        Random random = new Random(randomSeed);
+
+        for (File file : files) {
+
+            byte[] data = FileUtils.readFileToByteArray(file);
+            UniformFuzzyHash hash = new UniformFuzzyHash(data, factor);
+
+            // Buffers.
+            ByteBuffer heapBuffer = ByteBuffer.wrap(data);
+            Assert.assertEquals(hash, new UniformFuzzyHash(heapBuffer, factor));
+            Assert.assertEquals(0, heapBuffer.position());
+
+            ByteBuffer paddedBuffer = ByteBuffer.allocate(padding + data.length + padding);
+            paddedBuffer.position(padding);
+            paddedBuffer.put(data);
+            paddedBuffer.position(padding);
+            paddedBuffer.limit(padding + data.length);
+            Assert.assertEquals(hash, new UniformFuzzyHash(paddedBuffer.slice(), factor));
+            Assert.assertEquals(hash, new UniformFuzzyHash(paddedBuffer, factor));
+            Assert.assertEquals(hash,
+                    new UniformFuzzyHash(paddedBuffer.asReadOnlyBuffer(), factor));
+            Assert.assertEquals(padding, paddedBuffer.position());
+
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(data.length);
+            directBuffer.put(data);
+            directBuffer.flip();
+            Assert.assertEquals(hash, new UniformFuzzyHash(directBuffer, factor));
+            Assert.assertEquals(0, directBuffer.position());
+
+            // Channels.
+            Assert.assertEquals(hash, new UniformFuzzyHash(
+                    Channels.newChannel(new ByteArrayInputStream(data)), factor));
+
+            try (FileInputStream inputStream = new FileInputStream(file)) {
+                Assert.assertEquals(hash, new UniformFuzzyHash(inputStream.getChannel(), factor));
+            }
+
+            // Random chunks, while other hashes are computed in the same thread.
+            context.begin(factor);
+            int offset = 0;
+            while (offset < data.length) {
+                int length = Math.min(random.nextInt(2 * factor), data.length - offset);
+                if (random.nextBoolean()) {
+                    context.update(data, offset, length);
+                } else {
+                    directBuffer.limit(offset + length);
+                    directBuffer.position(offset);
+                    context.update(directBuffer);
+                    Assert.assertEquals(offset + length, directBuffer.position());
+                }
+                offset += length;
+            }
+            Assert.assertEquals(new HasherContext().hash(data, 0, data.length / 2, factor),
+                    new UniformFuzzyHash(data, 0, data.length / 2, factor));
+            Assert.assertEquals(hash, context.finish());
+
+        }
+
+        try {
+            context.finish();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+        }
+
+        System.out.println(String.format(
+                "Files: %d.",
+                files.size()));
+
+    }
+
+    /**
+     * Invalid factor test.
+     * Tests that invalid factors are rejected by new contexts, whose last used factor is not set
+     * yet, as well as by contexts which already computed hashes with a valid factor.
+     */
+    @Test
+    public void invalidFactorTest() {
+
+        final int[] invalidFactors = {0, 1, 2, 4, -3};
+        final byte[] data = "abcdefghijklmnop".getBytes();
+
+        for (int invalidFactor : invalidFactors) {
+
+            assertInvalidFactor(new HasherContext(), new byte[0], invalidFactor);
+            assertInvalidFactor(new HasherContext(), data, invalidFactor);
+
+            HasherContext context = new HasherContext();
+            context.hash(data, 0, data.length, 11);
+            assertInvalidFactor(context, data, invalidFactor);
+
+            for (String string : new String[] {"", new String(data)}) {
+                try {
+                    new UniformFuzzyHash(string, invalidFactor);
+                    Assert.fail("Factor " + invalidFactor);
+                } catch (IllegalArgumentException e) {
+                    Assert.assertTrue(e.getMessage().startsWith("Factor"));
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Asserts that a context rejects an invalid factor, both hashing data at once and beginning
+     * an incremental computation.
+     * 
+     * @param context The context.
+     * @param data The data.
+     * @param invalidFactor An invalid factor.
+     */
+    private static void assertInvalidFactor(
+            HasherContext context,
+            byte[] data,
+            int invalidFactor) {
+
+        try {
+            context.hash(data, 0, data.length, invalidFactor);
+            Assert.fail("Factor " + invalidFactor);
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Factor"));
+        }
+
+        try {
+            context.begin(invalidFactor);
+            Assert.fail("Factor " + invalidFactor);
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Factor"));
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class to test the hashes directory watcher.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class HashesDirectoryWatcherTest {
+
+    /**
+     * Watch test.
+     * Tests that a watched directory is hashed again only for the created, modified and deleted
+     * files, and that the text file of hashes is kept current.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file or writing a
+     *         target file.
+     * @throws InterruptedException If the test is interrupted while waiting for the changes.
+     */
+    @Test
+    public void watchTest()
+            throws IOException, InterruptedException {
+
+        final int factor = 11;
+        final File resourcesDirectory = TestResourcesUtils.getTestResourceFile("LoremIpsum");
+        final File directory = TestResourcesUtils.getTargetFile("WatchedDirectory");
+        final File hashesFile = TestResourcesUtils.getTargetFile("WatchedDirectoryHashes.txt");
+        final long timeoutSeconds = 10;
+
+        FileUtils.deleteQuietly(directory);
+        FileUtils.copyDirectory(resourcesDirectory, directory);
+
+        try (HashesDirectoryWatcher watcher =
+                new HashesDirectoryWatcher(directory, factor, false)) {
+
+            Map<String, UniformFuzzyHash> expectedHashes = UniformFuzzyHashes
+                    .computeHashesFromDirectoryFiles(directory, factor, false);
+            Assert.assertEquals(expectedHashes, watcher.getHashes());
+
+            UniformFuzzyHashes.saveHashesToTextFile(watcher.getHashes(), hashesFile, false);
+            watcher.addListener(new HashesDirectoryWatcher.TextFileListener(hashesFile));
+
+            final Map<String, UniformFuzzyHash> updatedHashes = new LinkedHashMap<>();
+            final Set<String> removedIdentifiers = new LinkedHashSet<>();
+            watcher.addListener(new HashesDirectoryWatcher.Listener() {
+
+                @Override
+                public void hashesChanged(
+                        Map<String, UniformFuzzyHash> updatedHashes1,
+                        Set<String> removedIdentifiers1,
+                        Map<String, UniformFuzzyHash> hashes) {
+
+                    System.out.println("Updated: " + updatedHashes1.keySet()
+                            + ", removed: " + removedIdentifiers1);
+                    updatedHashes.putAll(updatedHashes1);
+                    removedIdentifiers.addAll(removedIdentifiers1);
+
+                }
+
+            });
+
+            // Modify, create and delete files.
+            FileUtils.copyFile(new File(directory, "AE.txt"), new File(directory, "A.txt"));
+            FileUtils.copyFile(new File(directory, "E.txt"), new File(directory, "New.txt"));
+            FileUtils.forceDelete(new File(directory, "ABCD.txt"));
+
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds);
+            while ((updatedHashes.size() < 2 || removedIdentifiers.isEmpty())
+                    && System.currentTimeMillis() < deadline) {
+                watcher.processEvents(timeoutSeconds, TimeUnit.SECONDS);
+            }
+
+            Assert.assertEquals(new LinkedHashSet<>(Arrays.asList("A.txt", "New.txt")),
+                    updatedHashes.keySet());
+            Assert.assertEquals(Collections.singleton("ABCD.txt"), removedIdentifiers);
+
+            expectedHashes = UniformFuzzyHashes
+                    .computeHashesFromDirectoryFiles(directory, factor, false);
+            Assert.assertEquals(expectedHashes, watcher.getHashes());
+            Assert.assertEquals(expectedHashes,
+                    UniformFuzzyHashes.loadHashesFromTextFile(hashesFile));
+
+        }
+
+    }
+
+}
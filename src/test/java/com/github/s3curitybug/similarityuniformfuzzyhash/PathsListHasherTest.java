@@ -0,0 +1,190 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Class to test the PathsListHasher class.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class PathsListHasherTest {
+
+    /**
+     * Paths list test.
+     * Tests that the hashes of the files of a test resources directory, whose paths are separated
+     * by new lines or by NUL characters, are the same as the hashes computed from the directory,
+     * and that paths which cannot be hashed, because they do not exist or they are directories,
+     * are notified as failures without stopping the hashing of the rest of the paths.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or the hashing
+     *         is interrupted.
+     */
+    @Test
+    public void pathsListTest()
+            throws Exception {
+
+        final int factor = 11;
+        final int threads = 4;
+        final File directory = TestResourcesUtils.getTestResourceFile("Html");
+        final String missingPath = new File(directory, "Missing.txt").getPath();
+        final String directoryPath = directory.getPath();
+
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashes.computeHashesFromDirectoryFiles(directory, factor, false);
+
+        StringBuilder newLinePaths = new StringBuilder();
+        StringBuilder nulPaths = new StringBuilder();
+        newLinePaths.append(directoryPath).append("\n");
+        nulPaths.append(directoryPath).append(PathsListHasher.NUL_SEPARATOR);
+        for (String name : hashes.keySet()) {
+            String path = new File(directory, name).getPath();
+            newLinePaths.append(path).append("\r\n\n");
+            nulPaths.append(path).append(PathsListHasher.NUL_SEPARATOR);
+        }
+        newLinePaths.append(missingPath);
+        nulPaths.append(missingPath).append(PathsListHasher.NUL_SEPARATOR);
+
+        PathsListHasher pathsListHasher = new PathsListHasher(factor, threads);
+
+        for (StringBuilder paths : new StringBuilder[] {newLinePaths, nulPaths}) {
+
+            char separator = paths == newLinePaths ? PathsListHasher.NEW_LINE_SEPARATOR
+                    : PathsListHasher.NUL_SEPARATOR;
+            final Map<String, UniformFuzzyHash> pathsHashes = new LinkedHashMap<>();
+            final Map<String, IOException> failures = new LinkedHashMap<>();
+
+            long readPaths = pathsListHasher.hash(
+                    new ByteArrayInputStream(
+                            paths.toString().getBytes(Charset.defaultCharset())),
+                    separator,
+                    new PathsListHasher.Listener() {
+
+                        @Override
+                        public void hashComputed(
+                                String path,
+                                UniformFuzzyHash hash) {
+
+                            pathsHashes.put(path, hash);
+
+                        }
+
+                        @Override
+                        public void hashFailed(
+                                String path,
+                                IOException exception) {
+
+                            failures.put(path, exception);
+
+                        }
+
+                    });
+
+            Assert.assertEquals(hashes.size() + 2, readPaths);
+            Assert.assertEquals(hashes.size(), pathsHashes.size());
+            Assert.assertEquals(2, failures.size());
+
+            for (String failedPath : new String[] {missingPath, directoryPath}) {
+                IOException exception = failures.get(failedPath);
+                Assert.assertNotNull(exception);
+                Assert.assertTrue(exception.getMessage().startsWith(failedPath));
+                Assert.assertTrue(exception.getCause() instanceof IllegalArgumentException);
+            }
+
+            for (Entry<String, UniformFuzzyHash> entry : hashes.entrySet()) {
+                String path = new File(directory, entry.getKey()).getPath();
+                Assert.assertEquals(entry.getValue(), pathsHashes.get(path));
+            }
+
+            System.out.println(String.format(
+                    "Hashed %d paths separated by %s.",
+                    pathsHashes.size(),
+                    separator == PathsListHasher.NUL_SEPARATOR ? "NUL" : "new lines"));
+
+        }
+
+    }
+
+    /**
+     * Failures test.
+     * Tests that an IOException, an unchecked exception or an error thrown by the listener, which
+     * are thrown in the hashing threads, stop the hashing and are thrown by the hasher.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or the hashing
+     *         is interrupted.
+     */
+    @Test
+    public void failuresTest()
+            throws Exception {
+
+        final int factor = 11;
+        final int threads = 4;
+        final File directory = TestResourcesUtils.getTestResourceFile("Html");
+        final Throwable[] throwables = {new IOException("Listener IOException."),
+            new IllegalStateException("Listener RuntimeException."),
+            new AssertionError("Listener Error.")};
+
+        StringBuilder paths = new StringBuilder();
+        for (File file : directory.listFiles()) {
+            paths.append(file.getPath()).append(PathsListHasher.NEW_LINE_SEPARATOR);
+        }
+
+        PathsListHasher pathsListHasher = new PathsListHasher(factor, threads);
+
+        for (final Throwable throwable : throwables) {
+
+            try {
+
+                pathsListHasher.hash(
+                        new ByteArrayInputStream(
+                                paths.toString().getBytes(Charset.defaultCharset())),
+                        PathsListHasher.NEW_LINE_SEPARATOR,
+                        new PathsListHasher.Listener() {
+
+                            @Override
+                            public void hashComputed(
+                                    String path,
+                                    UniformFuzzyHash hash)
+                                    throws IOException {
+
+                                if (throwable instanceof IOException) {
+                                    throw (IOException) throwable;
+                                } else if (throwable instanceof RuntimeException) {
+                                    throw (RuntimeException) throwable;
+                                }
+                                throw (Error) throwable;
+
+                            }
+
+                            @Override
+                            public void hashFailed(
+                                    String path,
+                                    IOException exception) {
+
+                                Assert.fail(path);
+
+                            }
+
+                        });
+
+                Assert.fail(throwable.getMessage());
+
+            } catch (Throwable e) {
+                Assert.assertSame(throwable, e);
+                System.out.println(e.getMessage());
+            }
+
+        }
+
+    }
+
+}
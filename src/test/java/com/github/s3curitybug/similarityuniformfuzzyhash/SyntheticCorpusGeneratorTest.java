@@ -0,0 +1,169 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.SyntheticCorpusGenerator.EditTypes;
+import com.github.s3curitybug.similarityuniformfuzzyhash.SyntheticCorpusGenerator.SyntheticDocument;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Class to test the synthetic corpus generator.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class SyntheticCorpusGeneratorTest {
+
+    /**
+     * Ground truth test.
+     * Tests that generation is deterministic, that the ground truth of the generated documents is
+     * consistent, and that it bounds the similarity of their hashes (except for chance matches of
+     * small blocks).
+     */
+    @Test
+    public void groundTruthTest() {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int nSeeds = 4;
+        final int seedsSize = 4096;
+        final double chanceMatchesTolerance = 0.05;
+
+        SyntheticCorpusGenerator generator1 = new SyntheticCorpusGenerator(
+                nSeeds, seedsSize, randomSeed)
+                .setSizes(512, 4096)
+                .setEdits(4, 256);
+        SyntheticCorpusGenerator generator2 = new SyntheticCorpusGenerator(
+                nSeeds, seedsSize, randomSeed)
+                .setSizes(512, 4096)
+                .setEdits(4, 256);
+
+        SyntheticDocument previousDocument = null;
+        for (int i = 0; i < 20; i++) {
+
+            SyntheticDocument document = generator1.generateDocument("1");
+            Assert.assertArrayEquals(document.getData(),
+                    generator2.generateDocument("2").getData());
+
+            int seedBytes = 0;
+            for (int seed = 0; seed < nSeeds; seed++) {
+                seedBytes += document.getBytesFromSeed(seed);
+            }
+            Assert.assertEquals(document.getData().length,
+                    seedBytes + document.getInsertedBytes());
+
+            double expectedSimilarity = (double) seedBytes / document.getData().length;
+            Assert.assertEquals(expectedSimilarity, document.expectedSimilarity(document), 1e-9);
+
+            if (previousDocument != null) {
+                UniformFuzzyHash hash = new UniformFuzzyHash(document.getData(), factor);
+                UniformFuzzyHash previousHash =
+                        new UniformFuzzyHash(previousDocument.getData(), factor);
+                Assert.assertTrue(hash.similarity(previousHash)
+                        <= document.expectedSimilarity(previousDocument) + chanceMatchesTolerance);
+            }
+
+            previousDocument = document;
+
+        }
+
+    }
+
+    /**
+     * Nested seeds test.
+     * Tests that seed documents with the same name inside nested directories are identified by
+     * their relative paths instead of overwriting each other, and that seed documents with the
+     * same identifier are rejected.
+     * 
+     * @throws IOException In case an exception occurs writing or reading a target file.
+     */
+    @Test
+    public void nestedSeedsTest()
+            throws IOException {
+
+        final File directory = TestResourcesUtils.getTargetFile("NestedSeeds");
+        final String[] identifiers = {"Seed.txt", "A/Seed.txt", "A/B/Seed.txt"};
+
+        FileUtils.deleteDirectory(directory);
+        for (String identifier : identifiers) {
+            FileUtils.writeStringToFile(new File(directory, identifier), identifier,
+                    StandardCharsets.UTF_8);
+        }
+
+        Map<String, byte[]> seeds = SyntheticCorpusGenerator.readSeedsFromFiles(
+                Arrays.asList(directory), true);
+        Assert.assertEquals(identifiers.length, seeds.size());
+        for (String identifier : identifiers) {
+            Assert.assertArrayEquals(identifier.getBytes(StandardCharsets.UTF_8),
+                    seeds.get(identifier));
+        }
+
+        seeds = SyntheticCorpusGenerator.readSeedsFromFiles(Arrays.asList(directory), false);
+        Assert.assertEquals(1, seeds.size());
+
+        try {
+            SyntheticCorpusGenerator.readSeedsFromFiles(Arrays.asList(
+                    new File(directory, identifiers[0]), new File(directory, identifiers[1])),
+                    false);
+            Assert.fail("Seed documents with the same identifier were not rejected.");
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Generate test.
+     * Tests the generation of a synthetic corpus into a target directory, and the computation of
+     * the similarities between all its files.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file or writing a
+     *         target file.
+     */
+    @Test
+    public void generateTest()
+            throws IOException {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int nDocuments = 20;
+        final File seedsDirectory = TestResourcesUtils.getTestResourceFile("LoremIpsum");
+        final File directory = TestResourcesUtils.getTargetFile("SyntheticCorpus");
+        final int truncateIdentifiers = 14;
+        final double markAbove = -1;
+        final double markBelow = -1;
+
+        Map<String, byte[]> seeds = SyntheticCorpusGenerator.readSeedsFromFiles(
+                Arrays.asList(seedsDirectory), false);
+
+        SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator(seeds, randomSeed)
+                .setSizes(512, 4096)
+                .setEditWeight(EditTypes.SHARED_SEGMENT, 2);
+
+        generator.generate(directory, nDocuments);
+
+        Assert.assertTrue(new File(directory,
+                SyntheticCorpusGenerator.GROUND_TRUTH_FILE_NAME).exists());
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        hashes.remove(SyntheticCorpusGenerator.GROUND_TRUTH_FILE_NAME);
+
+        Assert.assertEquals(nDocuments, hashes.size());
+
+        Map<String, Map<String, Double>> similarities = UniformFuzzyHashes
+                .computeAllHashesSimilarities(hashes);
+
+        UniformFuzzyHashes.printAllHashesSimilaritiesTable(
+                similarities, truncateIdentifiers, markAbove, markBelow);
+
+    }
+
+}
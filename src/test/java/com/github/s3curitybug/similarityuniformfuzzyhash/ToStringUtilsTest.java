@@ -0,0 +1,146 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.DECIMALS_FORMAT_SYMBOLS;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class to test the ToStringUtils class.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class ToStringUtilsTest {
+
+    /**
+     * Seed of the random decimal numbers.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Format decimal test.
+     * Tests that decimal numbers are formatted exactly like DecimalFormat formats them, including
+     * the numbers close to a half, numbers out of the range formatted without a DecimalFormat,
+     * and numbers formatted from parallel threads.
+     * 
+     * @throws Exception In case an exception occurs formatting in parallel threads.
+     */
+    @Test
+    public void formatDecimalTest()
+            throws Exception {
+
+        final int threads = 4;
+        final int randomDecimals = 100000;
+        final int thousandths = 200000;
+        final double[] specialDecimals = {0, -0d, 0.0015, 0.0025, 0.9995, 1, 1.0005,
+            -0.0001, -1.2345, 1e12, 1e13, 1e300, Double.MIN_VALUE, Double.MAX_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        final DecimalFormat decimalFormat = new DecimalFormat("0.0##", DECIMALS_FORMAT_SYMBOLS);
+
+        // Special decimals.
+        for (double decimal : specialDecimals) {
+            assertFormattedDecimal(decimalFormat, decimal);
+        }
+
+        Assert.assertEquals(ToStringUtils.NULL_VALUE, ToStringUtils.formatDecimal(null));
+
+        // Halves of thousandths and their neighbours. The binary value of 0.0005 is above the
+        // half, but DecimalFormat rounds it down.
+        Assert.assertEquals("0.001", ToStringUtils.formatDecimal(0.0005));
+
+        for (int i = 1; i < thousandths; i++) {
+            double half = (i + 0.5) / 1000;
+            assertFormattedDecimal(decimalFormat, half);
+            assertFormattedDecimal(decimalFormat, Math.nextUp(half));
+            assertFormattedDecimal(decimalFormat, Math.nextDown(half));
+        }
+
+        // Random decimals from parallel threads.
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+
+            List<Future<Integer>> futures = new ArrayList<>(threads);
+            for (int thread = 0; thread < threads; thread++) {
+                final long seed = SEED + thread;
+                futures.add(executor.submit(new Callable<Integer>() {
+
+                    @Override
+                    public Integer call() {
+
+                        DecimalFormat threadDecimalFormat =
+                                new DecimalFormat("0.0##", DECIMALS_FORMAT_SYMBOLS);
+                        Random random = new Random(seed);
+                        StringBuilder builder = new StringBuilder();
+                        char[] buffer = new char[32];
+
+                        for (int i = 0; i < randomDecimals; i++) {
+
+                            double decimal = i % 2 == 0
+                                    ? random.nextDouble()
+                                    : random.nextDouble() * random.nextInt(1000000);
+                            String expected = threadDecimalFormat.format(decimal);
+
+                            builder.setLength(0);
+                            ToStringUtils.appendDecimal(decimal, builder);
+                            Assert.assertEquals(expected, builder.toString());
+
+                            int end = ToStringUtils.formatDecimal(decimal, buffer, 1);
+                            Assert.assertEquals(expected, new String(buffer, 1, end - 1));
+
+                        }
+
+                        return randomDecimals;
+
+                    }
+
+                }));
+            }
+
+            int formatted = 0;
+            for (Future<Integer> future : futures) {
+                formatted += future.get();
+            }
+
+            System.out.println(String.format(
+                    "Formatted %d random decimals in %d threads.",
+                    formatted,
+                    threads));
+
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    /**
+     * Asserts that a decimal number is formatted like a DecimalFormat formats it.
+     * 
+     * @param decimalFormat The DecimalFormat.
+     * @param decimal A decimal number.
+     */
+    private static void assertFormattedDecimal(
+            DecimalFormat decimalFormat,
+            double decimal) {
+
+        String expected = decimalFormat.format(decimal);
+
+        Assert.assertEquals("Decimal " + decimal, expected, ToStringUtils.formatDecimal(decimal));
+
+        StringBuilder builder = new StringBuilder();
+        ToStringUtils.appendDecimal(decimal, builder);
+        Assert.assertEquals("Decimal " + decimal, expected, builder.toString());
+
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class to test the Uniform Fuzzy Hash archives utility methods.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashArchivesTest {
+
+    /**
+     * Size in bytes of a tar block.
+     */
+    private static final int TAR_BLOCK_SIZE = 512;
+
+    /**
+     * Zip test.
+     * Tests that the hashes of the members of zip archives (docx documents) are the same as the
+     * hashes of the extracted members, and that the image inside a document has the same hash as
+     * the image file.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void zipTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("InsideDoc");
+
+        Collection<File> archives = FileUtils.listFiles(directory, new String[] {"docx"}, false);
+
+        for (File archive : archives) {
+
+            Map<String, UniformFuzzyHash> hashes =
+                    UniformFuzzyHashArchives.computeHashesFromArchive(archive, factor);
+
+            try (ZipFile zipFile = new ZipFile(archive)) {
+                Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                int nEntries = 0;
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    byte[] data = IOUtils.toByteArray(zipFile.getInputStream(entry));
+                    Assert.assertEquals(new UniformFuzzyHash(data, factor), hashes.get(
+                            archive.getName() + UniformFuzzyHashArchives.MEMBER_SEPARATOR
+                                    + entry.getName()));
+                    nEntries++;
+                }
+                Assert.assertEquals(nEntries, hashes.size());
+            }
+
+            System.out.println(String.format(
+                    "%s: %d members.",
+                    archive.getName(),
+                    hashes.size()));
+
+        }
+
+        UniformFuzzyHash imageHash = UniformFuzzyHashArchives.computeHashesFromArchive(
+                new File(directory, "Doc_Lenna.docx"), factor).get(
+                        "Doc_Lenna.docx" + UniformFuzzyHashArchives.MEMBER_SEPARATOR
+                                + "word/media/image1.png");
+        Assert.assertEquals(new UniformFuzzyHash(new File(directory, "Lenna.png"), factor),
+                imageHash);
+
+    }
+
+    /**
+     * Tar test.
+     * Tests that the hashes of the members of tar and gzipped tar archives, with ustar prefixes,
+     * GNU long names, pax paths and directories, are the same as the hashes of the files they were
+     * built from, and that archives read in parallel keep their order.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     * @throws InterruptedException In case the test thread is interrupted.
+     */
+    @Test
+    public void tarTest()
+            throws IOException, InterruptedException {
+
+        final int factor = 11;
+        final int nArchives = 8;
+        final File directory = TestResourcesUtils.getTestResourceFile("LoremIpsum");
+        final String longDirectory = "long/" + String.join("", Collections.nCopies(30, "dir/"));
+
+        List<File> files = new ArrayList<>(FileUtils.listFiles(directory, null, false));
+
+        // Tar archive.
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarMember(tar, "LoremIpsum/", '5', new byte[0]);
+
+        Iterator<File> filesIterator = files.iterator();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; filesIterator.hasNext(); i++) {
+            File file = filesIterator.next();
+            byte[] data = FileUtils.readFileToByteArray(file);
+            String name;
+            if (i % 3 == 0) {
+                name = "LoremIpsum/" + file.getName();
+                writeTarMember(tar, name, '0', data);
+            } else if (i % 3 == 1) {
+                name = longDirectory + "gnu/" + file.getName();
+                writeTarMember(tar, "././@LongLink", 'L', name.getBytes(StandardCharsets.UTF_8));
+                writeTarMember(tar, name.substring(0, 99), '0', data);
+            } else {
+                name = longDirectory + "pax/" + file.getName();
+                String record = " path=" + name + "\n";
+                int length = record.length() + String.valueOf(record.length()).length();
+                length = record.length() + String.valueOf(length).length();
+                writeTarMember(tar, "PaxHeaders/" + file.getName(), 'x',
+                        (length + record).getBytes(StandardCharsets.UTF_8));
+                writeTarMember(tar, file.getName(), '0', data);
+            }
+            names.add(name);
+        }
+
+        tar.write(new byte[2 * TAR_BLOCK_SIZE]);
+
+        ByteArrayOutputStream tarGz = new ByteArrayOutputStream();
+        try (OutputStream gzipOutputStream = new GZIPOutputStream(tarGz)) {
+            tar.writeTo(gzipOutputStream);
+        }
+
+        for (byte[] archive : Arrays.asList(tar.toByteArray(), tarGz.toByteArray())) {
+
+            Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashArchives
+                    .computeHashesFromArchive(new ByteArrayInputStream(archive), "A", factor);
+
+            Assert.assertEquals(files.size(), hashes.size());
+            for (int i = 0; i < files.size(); i++) {
+                Assert.assertEquals(new UniformFuzzyHash(files.get(i), factor), hashes.get(
+                        "A" + UniformFuzzyHashArchives.MEMBER_SEPARATOR + names.get(i)));
+            }
+
+        }
+
+        // Parallel archives.
+        List<File> archives = new ArrayList<>(nArchives);
+        for (int i = 0; i < nArchives; i++) {
+            File archive = TestResourcesUtils.getTargetFile("Archive" + i + ".tar.gz");
+            FileUtils.writeByteArrayToFile(archive, tarGz.toByteArray());
+            archives.add(archive);
+        }
+
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashArchives.computeHashesFromArchives(archives, factor, 4);
+        Assert.assertEquals(nArchives * files.size(), hashes.size());
+
+        Iterator<Entry<String, UniformFuzzyHash>> hashesIterator = hashes.entrySet().iterator();
+        for (File archive : archives) {
+            for (String name : names) {
+                Assert.assertEquals(archive.getName() + UniformFuzzyHashArchives.MEMBER_SEPARATOR
+                        + name, hashesIterator.next().getKey());
+            }
+            FileUtils.forceDelete(archive);
+        }
+
+        UniformFuzzyHashes.printHashes(hashes);
+
+    }
+
+    /**
+     * Writes a member into a ustar archive.
+     * 
+     * @param tar The tar archive.
+     * @param name Name of the member (100 bytes at most).
+     * @param type Type flag of the member.
+     * @param data Data of the member.
+     * @throws IOException In case an exception occurs writing the member.
+     */
+    private static void writeTarMember(
+            ByteArrayOutputStream tar,
+            String name,
+            char type,
+            byte[] data)
+            throws IOException {
+
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+
+        putTarField(header, 0, name);
+        putTarField(header, 100, "0000644");
+        putTarField(header, 108, "0000000");
+        putTarField(header, 116, "0000000");
+        putTarField(header, 124, String.format("%011o", data.length));
+        putTarField(header, 136, "00000000000");
+        putTarField(header, 148, "        ");
+        header[156] = (byte) type;
+        putTarField(header, 257, "ustar");
+        putTarField(header, 263, "00");
+
+        int checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        putTarField(header, 148, String.format("%06o", checksum));
+        header[154] = 0;
+
+        tar.write(header);
+        tar.write(data);
+        tar.write(new byte[(TAR_BLOCK_SIZE - data.length % TAR_BLOCK_SIZE) % TAR_BLOCK_SIZE]);
+
+    }
+
+    /**
+     * Puts a string field into a tar header.
+     * 
+     * @param header The tar header.
+     * @param offset Offset of the field.
+     * @param value Value of the field.
+     */
+    private static void putTarField(
+            byte[] header,
+            int offset,
+            String value) {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Class to test the Uniform Fuzzy Hash clusters.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashClustersTest {
+
+    /**
+     * Clusters test.
+     * Tests that families of random documents and slightly modified copies of them are grouped
+     * into one cluster each, and that the clusters are the same as the connected components
+     * obtained comparing all the pairs of hashes.
+     * 
+     * @throws IOException In case an exception occurs writing a target file.
+     */
+    @Test
+    public void clustersTest()
+            throws IOException {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int nFamilies = 20;
+        final int familiesSize = 4;
+        final int documentsSize = 8192;
+        final int modifications = 8;
+        final double threshold = 0.5;
+        final File csvFile = TestResourcesUtils.getTargetFile("Clusters.csv");
+
+        Random random = new Random(randomSeed);
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
+
+        for (int i = 0; i < nFamilies; i++) {
+            byte[] data = new byte[documentsSize];
+            random.nextBytes(data);
+            for (int j = 0; j < familiesSize; j++) {
+                hashes.put("F" + i + "-" + j, new UniformFuzzyHash(data, factor));
+                data = data.clone();
+                for (int k = 0; k < modifications; k++) {
+                    data[random.nextInt(documentsSize)] ^= 1;
+                }
+            }
+        }
+
+        UniformFuzzyHashClusters<String> clusters = new UniformFuzzyHashClusters<>(
+                threshold, SimilarityTypes.MINIMUM);
+        clusters.addAll(hashes);
+
+        System.out.println(String.format(
+                "Hashes: %d. Clusters: %d. Comparisons: %d of %d.",
+                clusters.size(),
+                clusters.getClustersCount(),
+                clusters.getComparisons(),
+                hashes.size() * (hashes.size() - 1) / 2));
+
+        Assert.assertEquals(nFamilies, clusters.getClustersCount());
+        Assert.assertTrue(clusters.areInSameCluster("F0-0", "F0-" + (familiesSize - 1)));
+        Assert.assertFalse(clusters.areInSameCluster("F0-0", "F1-0"));
+
+        // Connected components comparing all the pairs.
+        List<String> identifiers = new ArrayList<>(hashes.keySet());
+        int[] components = new int[identifiers.size()];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = i;
+        }
+        for (int i = 0; i < components.length; i++) {
+            for (int j = i + 1; j < components.length; j++) {
+                double similarity = hashes.get(identifiers.get(i)).similarity(
+                        hashes.get(identifiers.get(j)), SimilarityTypes.MINIMUM);
+                if (similarity >= threshold && components[i] != components[j]) {
+                    int component = components[j];
+                    for (int k = 0; k < components.length; k++) {
+                        if (components[k] == component) {
+                            components[k] = components[i];
+                        }
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < components.length; i++) {
+            for (int j = i + 1; j < components.length; j++) {
+                Assert.assertEquals(components[i] == components[j],
+                        clusters.areInSameCluster(identifiers.get(i), identifiers.get(j)));
+            }
+        }
+
+        List<List<String>> clustersList = clusters.getClusters();
+        Assert.assertEquals(nFamilies, clustersList.size());
+        Assert.assertEquals(familiesSize, clustersList.get(0).size());
+        Assert.assertEquals("F0-0", clustersList.get(0).get(0));
+
+        clusters.saveClustersAsCsv(csvFile);
+
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Class to test the Uniform Fuzzy Hash HTML report.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashHtmlReportTest {
+
+    /**
+     * Report test.
+     * Tests that a report comparing a Uniform Fuzzy Hash computed over a test resource file to the
+     * hashes of a test resources directory is a complete HTML document, with one row per hash,
+     * escaped identifiers, and a fully matched strip for the identical file.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file or writing a
+     *         target file.
+     */
+    @Test
+    public void reportTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File file = TestResourcesUtils.getTestResourceFile("Html/As1.txt");
+        final File directory = TestResourcesUtils.getTestResourceFile("Html");
+        final File htmlFile = TestResourcesUtils.getTargetFile("Report.html");
+        final String fullyMatchedRect = "<rect class=\"matched\" x=\"0\" width=\""
+                + UniformFuzzyHashHtmlReport.STRIP_WIDTH + "\" height=\""
+                + UniformFuzzyHashHtmlReport.STRIP_HEIGHT + "\"/>";
+
+        UniformFuzzyHash hash = new UniformFuzzyHash(file, factor);
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashes.computeHashesFromDirectoryFiles(directory, factor, false);
+
+        try (UniformFuzzyHashHtmlReport<String> report =
+                new UniformFuzzyHashHtmlReport<>(htmlFile, "<As1 & co>", hash)) {
+            report.addAll(hashes);
+            Assert.assertEquals(hashes.size(), report.getRows());
+        }
+
+        String html = FileUtils.readFileToString(htmlFile, FILES_ENCODING);
+
+        Assert.assertTrue(html.startsWith("<!DOCTYPE html>"));
+        Assert.assertTrue(html.trim().endsWith("</html>"));
+        Assert.assertTrue(html.contains("<h1>&lt;As1 &amp; co&gt;</h1>"));
+        Assert.assertFalse(html.contains("<As1"));
+        Assert.assertEquals(hashes.size(), html.split("<tr><td").length - 1);
+        Assert.assertTrue(html.contains("<tr><td data-value=\"As1.txt\">"));
+
+        String as1Row = html.substring(html.indexOf("<tr><td data-value=\"As1.txt\">"));
+        as1Row = as1Row.substring(0, as1Row.indexOf("</tr>"));
+        Assert.assertTrue(as1Row.contains(fullyMatchedRect));
+
+        System.out.println(String.format(
+                "Report of %d hashes: %d bytes.",
+                hashes.size(),
+                htmlFile.length()));
+
+    }
+
+}
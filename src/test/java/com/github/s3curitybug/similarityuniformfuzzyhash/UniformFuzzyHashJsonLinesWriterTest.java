@@ -0,0 +1,167 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Class to test the UniformFuzzyHashJsonLinesWriter class.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashJsonLinesWriterTest {
+
+    /**
+     * JSON Lines test.
+     * Tests that hashes, hash to hashes similarities and all hashes similarities of the hashes of
+     * a test resources directory are written one per line, with the same values as the computed
+     * maps, and that the streamed comparisons write the same lines as the computed maps.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void jsonLinesTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("Html");
+        final String identifier = "As1 \"quoted\"";
+
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashes.computeHashesFromDirectoryFiles(directory, factor, false);
+        UniformFuzzyHash hash = hashes.get("As1.txt");
+        int n = hashes.size();
+
+        // Hashes.
+        StringWriter hashesWriter = new StringWriter();
+        try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                new UniformFuzzyHashJsonLinesWriter<>(hashesWriter)) {
+            jsonLinesWriter.writeHashes(hashes);
+            jsonLinesWriter.writeHash("Null", null);
+            Assert.assertEquals(n + 1, jsonLinesWriter.getLines());
+        }
+
+        String[] hashesLines = hashesWriter.toString().split("\n");
+        Assert.assertEquals(n + 1, hashesLines.length);
+        Assert.assertEquals("{\"name\":\"As1.txt\",\"factor\":" + factor
+                + ",\"dataSize\":" + hash.getDataSize()
+                + ",\"hash\":\"" + hash.toString() + "\"}",
+                findLine(hashesLines, "{\"name\":\"As1.txt\""));
+        Assert.assertEquals("{\"name\":\"Null\",\"hash\":null}", hashesLines[n]);
+
+        // Hash to hashes similarities.
+        Map<String, Map<SimilarityTypes, Double>> hashToHashesSimilarities =
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes);
+
+        StringWriter streamedWriter = new StringWriter();
+        StringWriter computedWriter = new StringWriter();
+        try (UniformFuzzyHashJsonLinesWriter<String> streamedJsonLinesWriter =
+                new UniformFuzzyHashJsonLinesWriter<>(streamedWriter);
+                UniformFuzzyHashJsonLinesWriter<String> computedJsonLinesWriter =
+                        new UniformFuzzyHashJsonLinesWriter<>(computedWriter)) {
+            streamedJsonLinesWriter.compareToAll(identifier, hash, hashes, -1);
+            computedJsonLinesWriter.writeHashToHashesSimilarities(
+                    identifier, hashToHashesSimilarities, -1);
+        }
+
+        Assert.assertEquals(computedWriter.toString(), streamedWriter.toString());
+
+        String[] hashToHashesLines = streamedWriter.toString().split("\n");
+        Assert.assertEquals(n, hashToHashesLines.length);
+
+        for (Entry<String, Map<SimilarityTypes, Double>> entry
+                : hashToHashesSimilarities.entrySet()) {
+            String line = findLine(hashToHashesLines,
+                    "{\"a\":\"As1 \\\"quoted\\\"\",\"b\":\"" + entry.getKey() + "\"");
+            for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+                Assert.assertTrue(line.contains("\"" + similarityType.getName() + "\":"
+                        + ToStringUtils.formatDecimal(entry.getValue().get(similarityType))));
+            }
+        }
+
+        // All hashes similarities.
+        Map<String, Map<String, Double>> allHashesSimilarities =
+                UniformFuzzyHashes.computeAllHashesSimilarities(hashes);
+
+        streamedWriter = new StringWriter();
+        computedWriter = new StringWriter();
+        try (UniformFuzzyHashJsonLinesWriter<String> streamedJsonLinesWriter =
+                new UniformFuzzyHashJsonLinesWriter<>(streamedWriter);
+                UniformFuzzyHashJsonLinesWriter<String> computedJsonLinesWriter =
+                        new UniformFuzzyHashJsonLinesWriter<>(computedWriter)) {
+            streamedJsonLinesWriter.compareAll(hashes);
+            computedJsonLinesWriter.writeAllHashesSimilarities(allHashesSimilarities);
+            Assert.assertEquals(n * n, streamedJsonLinesWriter.getLines());
+        }
+
+        Assert.assertEquals(computedWriter.toString(), streamedWriter.toString());
+
+        // Sparse similarities and rows limit.
+        Map<String, Map<String, Double>> sparseSimilarities = new LinkedHashMap<>();
+        sparseSimilarities.put("A", new LinkedHashMap<String, Double>());
+        sparseSimilarities.get("A").put("B", 0.5);
+        sparseSimilarities.get("A").put("C", null);
+        sparseSimilarities.put("B", null);
+
+        StringWriter sparseWriter = new StringWriter();
+        try (UniformFuzzyHashJsonLinesWriter<String> jsonLinesWriter =
+                new UniformFuzzyHashJsonLinesWriter<>(sparseWriter)) {
+            jsonLinesWriter.writeAllHashesSimilarities(sparseSimilarities);
+            jsonLinesWriter.compareToAll("A", hash, hashes, 2);
+            Assert.assertEquals(4, jsonLinesWriter.getLines());
+        }
+
+        Assert.assertTrue(sparseWriter.toString().startsWith(
+                "{\"a\":\"A\",\"b\":\"B\",\"similarity\":0.5}\n"
+                        + "{\"a\":\"A\",\"b\":\"C\",\"similarity\":null}\n"));
+
+        // A rows limit of 0 does not limit the number of lines.
+        streamedWriter = new StringWriter();
+        computedWriter = new StringWriter();
+        try (UniformFuzzyHashJsonLinesWriter<String> streamedJsonLinesWriter =
+                new UniformFuzzyHashJsonLinesWriter<>(streamedWriter);
+                UniformFuzzyHashJsonLinesWriter<String> computedJsonLinesWriter =
+                        new UniformFuzzyHashJsonLinesWriter<>(computedWriter)) {
+            streamedJsonLinesWriter.compareToAll(identifier, hash, hashes, 0);
+            computedJsonLinesWriter.writeHashToHashesSimilarities(
+                    identifier, hashToHashesSimilarities, 0);
+            Assert.assertEquals(n, streamedJsonLinesWriter.getLines());
+            Assert.assertEquals(n, computedJsonLinesWriter.getLines());
+        }
+
+        Assert.assertEquals(computedWriter.toString(), streamedWriter.toString());
+
+        System.out.println(hashToHashesLines[0]);
+
+    }
+
+    /**
+     * @param lines Array of lines.
+     * @param prefix Prefix of a line.
+     * @return The first line with the prefix.
+     */
+    private static String findLine(
+            String[] lines,
+            String prefix) {
+
+        for (String line : lines) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+
+        Assert.fail("No line starts with " + prefix);
+        return null;
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHashLocator.Location;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class to test the Uniform Fuzzy Hash locator.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashLocatorTest {
+
+    /**
+     * Locate test.
+     * Tests that fragments of a big target file, one of them with a modification in the middle,
+     * are located at their byte ranges inside the target, that most of their bytes are covered,
+     * and that an unrelated sample is not located.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void locateTest()
+            throws IOException {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int fragmentOffset = 200000;
+        final int fragmentSize = 20000;
+        final int modificationSize = 100;
+
+        byte[] targetData = FileUtils.readFileToByteArray(
+                TestResourcesUtils.getTestResourceFile("Html/As1.txt"));
+        UniformFuzzyHash target = new UniformFuzzyHash(targetData, factor);
+        UniformFuzzyHashLocator locator = new UniformFuzzyHashLocator(target);
+
+        // Exact fragment.
+        byte[] fragment = Arrays.copyOfRange(
+                targetData, fragmentOffset, fragmentOffset + fragmentSize);
+        List<Location> locations = locator.locate(new UniformFuzzyHash(fragment, factor));
+
+        System.out.println("Exact fragment:");
+        for (Location location : locations) {
+            System.out.println(location);
+        }
+
+        Location location = locations.get(0);
+        Assert.assertEquals(fragmentOffset, location.getTargetStartingBytePosition()
+                - location.getQueryStartingBytePosition());
+        Assert.assertEquals(location.getSize(), location.getQueryEndingBytePosition()
+                - location.getQueryStartingBytePosition() + 1);
+        Assert.assertTrue(location.getTargetStartingBytePosition() >= fragmentOffset);
+        Assert.assertTrue(location.getTargetEndingBytePosition() < fragmentOffset + fragmentSize);
+        Assert.assertTrue(UniformFuzzyHashLocator.computeQueryCoverage(locations)
+                > 0.9 * fragmentSize);
+
+        // Fragment with a modification in the middle.
+        Random random = new Random(randomSeed);
+        byte[] modification = new byte[modificationSize];
+        random.nextBytes(modification);
+        System.arraycopy(modification, 0, fragment, fragmentSize / 2, modificationSize);
+        locations = locator.locate(new UniformFuzzyHash(fragment, factor));
+
+        System.out.println("Modified fragment:");
+        for (Location location1 : locations) {
+            System.out.println(location1);
+            Assert.assertEquals(fragmentOffset, location1.getTargetStartingBytePosition()
+                    - location1.getQueryStartingBytePosition());
+            Assert.assertTrue(location1.getQueryEndingBytePosition() < fragmentSize / 2
+                    || location1.getQueryStartingBytePosition()
+                            >= fragmentSize / 2 + modificationSize);
+        }
+        Assert.assertTrue(locations.size() >= 2);
+
+        // Unrelated sample.
+        byte[] sample = new byte[fragmentSize];
+        random.nextBytes(sample);
+        Assert.assertTrue(locator.locate(new UniformFuzzyHash(sample, factor)).isEmpty());
+
+    }
+
+}
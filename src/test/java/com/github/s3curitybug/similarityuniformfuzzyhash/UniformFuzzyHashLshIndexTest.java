@@ -0,0 +1,86 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+
+/**
+ * Class to test the Uniform Fuzzy Hash locality-sensitive hashing index.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashLshIndexTest {
+
+    /**
+     * Candidates test.
+     * Tests that an index of random documents and slightly modified copies of them finds every
+     * document and its copy as candidates, that the similarities of the candidates are exact, and
+     * that far fewer pairs than all of them are compared.
+     */
+    @Test
+    public void candidatesTest() {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int nDocuments = 50;
+        final int documentsSize = 8192;
+        final int modifications = 8;
+
+        Random random = new Random(randomSeed);
+        Map<String, UniformFuzzyHash> hashes = new LinkedHashMap<>();
+
+        for (int i = 0; i < nDocuments; i++) {
+            byte[] data = new byte[documentsSize];
+            random.nextBytes(data);
+            hashes.put("D" + i, new UniformFuzzyHash(data, factor));
+            for (int j = 0; j < modifications; j++) {
+                data[random.nextInt(documentsSize)] ^= 1;
+            }
+            hashes.put("D" + i + "'", new UniformFuzzyHash(data, factor));
+        }
+
+        UniformFuzzyHashLshIndex<String> index = new UniformFuzzyHashLshIndex<>(hashes);
+        Assert.assertEquals(hashes.size(), index.size());
+
+        Map<String, Map<String, Double>> similarities = index.computeAllHashesSimilarities();
+
+        int comparedPairs = 0;
+        for (Entry<String, Map<String, Double>> entry : similarities.entrySet()) {
+            UniformFuzzyHash hash = hashes.get(entry.getKey());
+            for (Entry<String, Double> entry1 : entry.getValue().entrySet()) {
+                Assert.assertEquals(hash.similarity(hashes.get(entry1.getKey())),
+                        entry1.getValue(), 0);
+                comparedPairs++;
+            }
+        }
+
+        for (int i = 0; i < nDocuments; i++) {
+            Assert.assertTrue(similarities.get("D" + i).containsKey("D" + i + "'"));
+            Assert.assertTrue(index.getCandidates(hashes.get("D" + i)).contains("D" + i + "'"));
+        }
+
+        Map<String, Map<SimilarityTypes, Double>> hashToHashesSimilarities =
+                index.computeHashToHashesSimilarities(hashes.get("D0"));
+        Assert.assertTrue(hashToHashesSimilarities.containsKey("D0'"));
+
+        System.out.println(String.format(
+                "Hashes: %d. Compared pairs: %d of %d.",
+                hashes.size(),
+                comparedPairs,
+                hashes.size() * hashes.size()));
+
+        Assert.assertTrue(comparedPairs < hashes.size() * hashes.size() / 10);
+
+        Assert.assertTrue(index.remove("D0'"));
+        Assert.assertFalse(index.getCandidates(hashes.get("D0")).contains("D0'"));
+
+    }
+
+}
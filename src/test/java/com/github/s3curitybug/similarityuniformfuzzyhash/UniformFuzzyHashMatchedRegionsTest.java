@@ -0,0 +1,85 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class to test the Uniform Fuzzy Hash matched regions.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashMatchedRegionsTest {
+
+    /**
+     * Regions test.
+     * Tests, for every pair of test resource files of a directory, that the matched regions cover
+     * the whole data of the first file, alternating between matched and unmatched, that each
+     * block is matched if and only if it is in the other hash, and that the matched size over the
+     * data size is the similarity.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void regionsTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("InsidePdf");
+
+        List<UniformFuzzyHash> hashes = new ArrayList<>();
+        for (File file : FileUtils.listFiles(directory, null, false)) {
+            hashes.add(new UniformFuzzyHash(file, factor));
+        }
+
+        for (UniformFuzzyHash hash : hashes) {
+            for (UniformFuzzyHash other : hashes) {
+
+                UniformFuzzyHashMatchedRegions regions = hash.matchedRegions(other);
+                Set<UniformFuzzyHashBlock> otherBlocks = other.getBlocksSet();
+
+                int region = 0;
+                for (UniformFuzzyHashBlock block : hash.getBlocks()) {
+                    int start = block.getBlockStartingBytePosition();
+                    if (start > regions.getEndingBytePosition(region)) {
+                        Assert.assertEquals(start, regions.getEndingBytePosition(region) + 1);
+                        Assert.assertNotEquals(regions.isMatched(region),
+                                regions.isMatched(region + 1));
+                        region++;
+                    }
+                    Assert.assertEquals(otherBlocks.contains(block), regions.isMatched(region));
+                }
+
+                Assert.assertEquals(regions.size(), hash.getDataSize() == 0 ? 0 : region + 1);
+                Assert.assertEquals(0, regions.getStartingBytePosition(0));
+                Assert.assertEquals(hash.getDataSize() - 1,
+                        regions.getEndingBytePosition(regions.size() - 1));
+                Assert.assertEquals(hash.similarity(other),
+                        (double) regions.getMatchedSize() / hash.getDataSize(), 0);
+
+                int[] array = regions.toArray();
+                Assert.assertEquals(regions.size() * UniformFuzzyHashMatchedRegions.REGION_LENGTH,
+                        array.length);
+                Assert.assertEquals(regions.isMatched(0) ? 1 : 0,
+                        array[UniformFuzzyHashMatchedRegions.MATCHED_OFFSET]);
+
+            }
+        }
+
+        UniformFuzzyHashMatchedRegions regions = hashes.get(0).matchedRegions(hashes.get(1));
+        System.out.println(String.format(
+                "Regions: %d. Matched size: %d of %d.",
+                regions.size(),
+                regions.getMatchedSize(),
+                hashes.get(0).getDataSize()));
+
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHashMetrics.Snapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Class to test Uniform Fuzzy Hash metrics.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashMetricsTest {
+
+    /**
+     * Metrics test.
+     * Tests the metrics recorded by the computation, comparison and string conversion of two
+     * hashes, and prints them in the Prometheus text exposition format.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void metricsTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File file1 = TestResourcesUtils.getTestResourceFile("LoremIpsum/ABCD.txt");
+        final File file2 = TestResourcesUtils.getTestResourceFile("LoremIpsum/AE.txt");
+
+        UniformFuzzyHashMetrics.enable();
+        UniformFuzzyHashMetrics.reset();
+
+        try {
+
+            UniformFuzzyHash hash1 = new UniformFuzzyHash(file1, factor);
+            UniformFuzzyHash hash2 = new UniformFuzzyHash(file2, factor);
+
+            hash1.similarities(hash2);
+            hash1.similarity(hash2);
+
+            UniformFuzzyHash.rebuildFromString(hash1.toString());
+
+            Snapshot snapshot = UniformFuzzyHashMetrics.snapshot();
+
+            Assert.assertEquals(2, snapshot.getHashesComputed());
+            Assert.assertEquals(hash1.getDataSize() + hash2.getDataSize(),
+                    snapshot.getBytesHashed());
+            Assert.assertEquals(hash1.getBlocks().size() + hash2.getBlocks().size(),
+                    snapshot.getBlocksProduced());
+            Assert.assertEquals(Math.max(hash1.getBlocks().size(), hash2.getBlocks().size()),
+                    snapshot.getMaxBlocks());
+            Assert.assertEquals(3, snapshot.getSimilarityCalls());
+            Assert.assertEquals(2, snapshot.getBlocksSetBuilds());
+            Assert.assertEquals(1, snapshot.getParse().getCount());
+            Assert.assertEquals(1, snapshot.getSerialize().getCount());
+
+            System.out.println(snapshot.toPrometheusText());
+
+        } finally {
+            UniformFuzzyHashMetrics.disable();
+            UniformFuzzyHashMetrics.reset();
+        }
+
+    }
+
+    /**
+     * Similarity skips test.
+     * Tests that checking if two hashes may share blocks does not record any skipped comparison,
+     * and that comparing all the hashes of the test resource files records one for each pair of
+     * hashes which do not share any block.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file, or the parallel
+     *         comparison is interrupted.
+     */
+    @Test
+    public void similaritySkipsTest()
+            throws Exception {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+
+        Map<String, UniformFuzzyHash> hashes =
+                UniformFuzzyHashes.computeHashesFromDirectoryFiles(directory, factor, true);
+
+        UniformFuzzyHashMetrics.enable();
+        UniformFuzzyHashMetrics.reset();
+
+        try {
+
+            long skips = 0;
+            for (UniformFuzzyHash hash1 : hashes.values()) {
+                for (UniformFuzzyHash hash2 : hashes.values()) {
+                    if (!hash1.mayShareBlocks(hash2)) {
+                        skips++;
+                    }
+                }
+            }
+
+            Assert.assertTrue(skips > 0);
+            Assert.assertEquals(0, UniformFuzzyHashMetrics.snapshot().getSimilaritySkips());
+
+            UniformFuzzyHashes.computeAllHashesSimilarities(hashes);
+            Assert.assertEquals(skips, UniformFuzzyHashMetrics.snapshot().getSimilaritySkips());
+
+            UniformFuzzyHashes.computeAllHashesSimilarities(hashes, 4, Long.MAX_VALUE);
+            Assert.assertEquals(2 * skips,
+                    UniformFuzzyHashMetrics.snapshot().getSimilaritySkips());
+
+            System.out.println(String.format(
+                    "Skipped comparisons: %d of %d.",
+                    skips,
+                    hashes.size() * hashes.size()));
+
+        } finally {
+            UniformFuzzyHashMetrics.disable();
+            UniformFuzzyHashMetrics.reset();
+        }
+
+    }
+
+}
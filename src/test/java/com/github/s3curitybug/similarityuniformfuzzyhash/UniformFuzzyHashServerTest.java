@@ -0,0 +1,236 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Class to test the Uniform Fuzzy Hash server.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashServerTest {
+
+    /**
+     * Server test.
+     * Tests the status, hash, compare and top-K queries of a server which keeps the hashes of some
+     * test resource files, and prints their responses.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file or querying the
+     *         server.
+     */
+    @Test
+    public void serverTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("LoremIpsum");
+        final File file = TestResourcesUtils.getTestResourceFile("LoremIpsum/ABCD.txt");
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, false);
+
+        UniformFuzzyHashServer server = new UniformFuzzyHashServer(
+                hashes, new InetSocketAddress(UniformFuzzyHashServer.DEFAULT_HOST, 0), 2);
+        server.start();
+
+        try {
+
+            String url = "http://" + UniformFuzzyHashServer.DEFAULT_HOST + ":"
+                    + server.getAddress().getPort();
+
+            String status = query(url + "/status", null, 200);
+            Assert.assertEquals("{\"hashes\":" + hashes.size() + ",\"factor\":" + factor + "}",
+                    status);
+
+            UniformFuzzyHash hash = new UniformFuzzyHash(file, factor);
+            String hashResponse = query(url + "/hash",
+                    FileUtils.readFileToByteArray(file), 200);
+            Assert.assertTrue(hashResponse.contains("\"hash\":\"" + hash.toString() + "\""));
+
+            double similarity = hashes.get("ABCD.txt").similarity(hashes.get("AE.txt"));
+            String compare = query(url + "/compare?a=ABCD.txt&b=AE.txt", null, 200);
+            Assert.assertTrue(compare.contains("\"Similarity\":" + similarity));
+
+            String comparePosted = query(url + "/compare?b=AE.txt",
+                    hash.toString().getBytes(FILES_ENCODING), 200);
+            Assert.assertTrue(comparePosted.contains("\"Similarity\":" + similarity));
+
+            Map<String, UniformFuzzyHash> otherHashes = new LinkedHashMap<>(hashes);
+            otherHashes.remove("ABCD.txt");
+
+            String top = query(url + "/top?name=ABCD.txt&k=2&sort=ReverseDesc", null, 200);
+            Assert.assertEquals(jsonTop("ABCD.txt", UniformFuzzyHashes.sortSimilarities(
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(
+                            hashes.get("ABCD.txt"), otherHashes),
+                    SimilarityTypes.REVERSE_SIMILARITY, false), 2), top);
+
+            String topPosted = query(url + "/top?k=100&sort=MinimumAsc",
+                    hash.toString().getBytes(FILES_ENCODING), 200);
+            Assert.assertEquals(jsonTop(null, UniformFuzzyHashes.sortSimilarities(
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes),
+                    SimilarityTypes.MINIMUM, true), 100), topPosted);
+
+            query(url + "/compare?a=ABCD.txt&b=Missing.txt", null, 404);
+            query(url + "/top?name=ABCD.txt&sort=Unknown", null, 400);
+            query(url + "/hash", null, 405);
+
+        } finally {
+            server.stop(0);
+        }
+
+    }
+
+    /**
+     * Mixed factors test.
+     * Tests that the top-K queries of a server which keeps hashes with different factors only
+     * compare the hashes with the same factor as the query hash.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file or querying the
+     *         server.
+     */
+    @Test
+    public void mixedFactorsTest()
+            throws IOException {
+
+        final int factor = 11;
+        final int otherFactor = 13;
+        final File directory = TestResourcesUtils.getTestResourceFile("LoremIpsum");
+        final File file = TestResourcesUtils.getTestResourceFile("LoremIpsum/ABCD.txt");
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, false);
+        Map<String, UniformFuzzyHash> mixedHashes = new LinkedHashMap<>(hashes);
+        mixedHashes.put("Other", new UniformFuzzyHash(file, otherFactor));
+
+        UniformFuzzyHashServer server = new UniformFuzzyHashServer(
+                mixedHashes, new InetSocketAddress(UniformFuzzyHashServer.DEFAULT_HOST, 0), 2);
+        server.start();
+
+        try {
+
+            String url = "http://" + UniformFuzzyHashServer.DEFAULT_HOST + ":"
+                    + server.getAddress().getPort();
+
+            String status = query(url + "/status", null, 200);
+            Assert.assertEquals("{\"hashes\":" + mixedHashes.size() + ",\"factor\":null}",
+                    status);
+
+            String top = query(url + "/top?name=ABCD.txt&k=-1", null, 200);
+            Map<String, UniformFuzzyHash> otherHashes = new LinkedHashMap<>(hashes);
+            otherHashes.remove("ABCD.txt");
+            Assert.assertEquals(jsonTop("ABCD.txt", UniformFuzzyHashes.sortSimilarities(
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(
+                            hashes.get("ABCD.txt"), otherHashes),
+                    SimilarityTypes.SIMILARITY, false), -1), top);
+
+            top = query(url + "/top?name=Other", null, 200);
+            Assert.assertEquals("{\"name\":\"Other\",\"results\":[]}", top);
+
+        } finally {
+            server.stop(0);
+        }
+
+    }
+
+    /**
+     * Builds the expected JSON document of a top-K query.
+     * 
+     * @param name Name of the query hash, or null.
+     * @param sortedSimilarities Sorted map of the similarities to all the hashes.
+     * @param k Amount of results, or a negative number for all of them.
+     * @return The JSON document.
+     */
+    private static String jsonTop(
+            String name,
+            Map<String, Map<SimilarityTypes, Double>> sortedSimilarities,
+            int k) {
+
+        StringBuilder strB = new StringBuilder();
+        strB.append("{\"name\":").append(ToStringUtils.escapeJson(name));
+        strB.append(",\"results\":[");
+
+        int i = 0;
+        for (Entry<String, Map<SimilarityTypes, Double>> entry : sortedSimilarities.entrySet()) {
+            if (i == k) {
+                break;
+            }
+            if (i++ != 0) {
+                strB.append(",");
+            }
+            strB.append("{\"name\":").append(ToStringUtils.escapeJson(entry.getKey()));
+            strB.append(",\"similarities\":{");
+            int j = 0;
+            for (Entry<SimilarityTypes, Double> similarity : entry.getValue().entrySet()) {
+                if (j++ != 0) {
+                    strB.append(",");
+                }
+                strB.append("\"").append(similarity.getKey().getName()).append("\":");
+                strB.append(similarity.getValue());
+            }
+            strB.append("}}");
+        }
+
+        strB.append("]}");
+
+        return strB.toString();
+
+    }
+
+    /**
+     * Queries a server, checks the response status code and prints the response.
+     * 
+     * @param url The query URL.
+     * @param body The body of a POST request, or null to send a GET request.
+     * @param expectedStatus The expected response status code.
+     * @return The response.
+     * @throws IOException In case an exception occurs querying the server.
+     */
+    private static String query(
+            String url,
+            byte[] body,
+            int expectedStatus)
+            throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+
+        if (body != null) {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body);
+            }
+        }
+
+        Assert.assertEquals(expectedStatus, connection.getResponseCode());
+
+        InputStream inputStream = expectedStatus < 400 ? connection.getInputStream()
+                : connection.getErrorStream();
+        String response = IOUtils.toString(inputStream, FILES_ENCODING);
+        inputStream.close();
+        connection.disconnect();
+
+        System.out.println(url + " -> " + response);
+
+        return response;
+
+    }
+
+}
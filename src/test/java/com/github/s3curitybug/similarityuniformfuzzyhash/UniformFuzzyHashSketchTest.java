@@ -0,0 +1,114 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.SyntheticCorpusGenerator.EditTypes;
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class to test the Uniform Fuzzy Hash sketch.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashSketchTest {
+
+    /**
+     * Sketch rebuild test.
+     * Tests the sketch rebuild from a string representation of a sketch computed over a test
+     * resource file, and the sketch equals method.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void sketchRebuildTest()
+            throws IOException {
+
+        final int factor = 11;
+        final File file = TestResourcesUtils.getTestResourceFile("RandomText/RandomText1/B.txt");
+
+        UniformFuzzyHash hash = new UniformFuzzyHash(file, factor);
+        UniformFuzzyHashSketch sketch = hash.getSketch();
+        String sketchString = sketch.toString();
+
+        System.out.println(sketchString);
+
+        UniformFuzzyHashSketch rebuiltSketch = UniformFuzzyHashSketch.rebuildFromString(
+                sketchString);
+
+        Assert.assertEquals(sketch, rebuiltSketch);
+        Assert.assertEquals(sketchString, rebuiltSketch.toString());
+        Assert.assertEquals(sketch, new UniformFuzzyHashSketch(
+                UniformFuzzyHash.rebuildFromString(hash.toString())));
+        Assert.assertEquals(1, sketch.estimateSimilarity(rebuiltSketch), 0);
+
+    }
+
+    /**
+     * Estimation test.
+     * Tests that the similarities estimated by the sketches of the hashes of a synthetic corpus
+     * are close to the computed similarities.
+     */
+    @Test
+    public void estimationTest() {
+
+        final int factor = 11;
+        final long randomSeed = 1;
+        final int nDocuments = 30;
+        final int sketchSize = 256;
+        final double maxMeanError = 0.05;
+
+        SyntheticCorpusGenerator generator = new SyntheticCorpusGenerator(4, 16384, randomSeed)
+                .setSizes(2048, 8192)
+                .setEditWeight(EditTypes.SHARED_SEGMENT, 2);
+
+        List<UniformFuzzyHash> hashes = new ArrayList<>(nDocuments);
+        List<UniformFuzzyHashSketch> sketches = new ArrayList<>(nDocuments);
+
+        for (int i = 0; i < nDocuments; i++) {
+            UniformFuzzyHash hash = new UniformFuzzyHash(
+                    generator.generateDocument(Integer.toString(i)).getData(), factor);
+            hashes.add(hash);
+            sketches.add(new UniformFuzzyHashSketch(hash, sketchSize));
+        }
+
+        double errorSum = 0;
+        double maxError = 0;
+        int pairs = 0;
+
+        for (int i = 0; i < nDocuments; i++) {
+            for (int j = 0; j < nDocuments; j++) {
+                if (i == j) {
+                    continue;
+                }
+                double similarity = hashes.get(i).similarity(hashes.get(j),
+                        SimilarityTypes.MAXIMUM);
+                double estimation = sketches.get(i).estimateSimilarity(sketches.get(j),
+                        SimilarityTypes.MAXIMUM);
+                double error = Math.abs(similarity - estimation);
+                errorSum += error;
+                maxError = Math.max(maxError, error);
+                pairs++;
+            }
+        }
+
+        double meanError = errorSum / pairs;
+
+        System.out.println(String.format(
+                "Sketch size: %d. Standard error: %s. Mean error: %s. Max error: %s.",
+                sketchSize,
+                ToStringUtils.formatDecimal(sketches.get(0).getStandardError()),
+                ToStringUtils.formatDecimal(meanError),
+                ToStringUtils.formatDecimal(maxError)));
+
+        Assert.assertTrue(meanError < maxMeanError);
+
+    }
+
+}
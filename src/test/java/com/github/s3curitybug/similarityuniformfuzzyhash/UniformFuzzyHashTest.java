@@ -7,6 +7,14 @@ import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.Simila
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class to test the Uniform Fuzzy Hash.
@@ -94,4 +102,127 @@ public class UniformFuzzyHashTest {
 
     }
 
+    /**
+     * Blocks bitmap test.
+     * Tests that the bitmaps of blocks of the hashes computed over the test resource files have no
+     * false negatives: if two hashes may not share any block, their similarity is 0.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void blocksBitmapTest()
+            throws IOException {
+
+        final int factor = 1001;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+
+        int pairs = 0;
+        int skippedPairs = 0;
+
+        for (UniformFuzzyHash hash1 : hashes.values()) {
+            for (UniformFuzzyHash hash2 : hashes.values()) {
+                pairs++;
+                if (!hash1.mayShareBlocks(hash2)) {
+                    skippedPairs++;
+                    Assert.assertEquals(0, hash1.similarity(hash2), 0);
+                    Assert.assertEquals(0, hash2.similarity(hash1), 0);
+                }
+            }
+        }
+
+        System.out.println(String.format(
+                "Pairs: %d. Skipped pairs: %d.",
+                pairs,
+                skippedPairs));
+
+    }
+
+    /**
+     * Concurrent comparison test.
+     * Tests that the same hashes, whose lookup structures have not been built yet, can be compared
+     * by several threads at the same time without synchronization, getting the same similarities
+     * as a single thread.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or in a thread.
+     */
+    @Test
+    public void concurrentComparisonTest()
+            throws Exception {
+
+        final int factor = 11;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final int nThreads = 8;
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+
+        final List<UniformFuzzyHash> sharedHashes = new ArrayList<>(hashes.size());
+        final double[][] expectedSimilarities = new double[hashes.size()][hashes.size()];
+
+        int i = 0;
+        for (UniformFuzzyHash hash1 : hashes.values()) {
+            sharedHashes.add(UniformFuzzyHash.rebuildFromString(hash1.toString()));
+            int j = 0;
+            for (UniformFuzzyHash hash2 : hashes.values()) {
+                expectedSimilarities[i][j++] = hash1.mayShareBlocks(hash2)
+                        ? hash1.similarity(hash2) : 0;
+            }
+            i++;
+        }
+
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<double[][]>> futures = new ArrayList<>(nThreads);
+
+        try {
+
+            for (int thread = 0; thread < nThreads; thread++) {
+                futures.add(executor.submit(new Callable<double[][]>() {
+
+                    @Override
+                    public double[][] call()
+                            throws InterruptedException {
+
+                        startLatch.await();
+
+                        int size = sharedHashes.size();
+                        double[][] similarities = new double[size][size];
+                        for (int i1 = 0; i1 < size; i1++) {
+                            UniformFuzzyHash hash1 = sharedHashes.get(i1);
+                            for (int i2 = 0; i2 < size; i2++) {
+                                UniformFuzzyHash hash2 = sharedHashes.get(i2);
+                                similarities[i1][i2] = hash1.mayShareBlocks(hash2)
+                                        ? hash1.similarity(hash2) : 0;
+                            }
+                        }
+                        return similarities;
+
+                    }
+
+                }));
+            }
+
+            startLatch.countDown();
+
+            for (Future<double[][]> future : futures) {
+                double[][] similarities = future.get();
+                for (int i1 = 0; i1 < similarities.length; i1++) {
+                    Assert.assertArrayEquals(expectedSimilarities[i1], similarities[i1], 0);
+                }
+            }
+
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println(String.format(
+                "Threads: %d. Hashes: %d.",
+                nThreads,
+                sharedHashes.size()));
+
+    }
+
 }
@@ -0,0 +1,345 @@
+package com.github.s3curitybug.similarityuniformfuzzyhash;
+
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.FILES_ENCODING;
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.IGNORE_MARK;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.SimilarityTypes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Class to test the UniformFuzzyHashTextFileIndex class.
+ * 
+ * @author s3curitybug@gmail.com
+ *
+ */
+public class UniformFuzzyHashTextFileIndexTest {
+
+    /**
+     * Text file index test.
+     * Tests that the similarities between a file and all the hashes of a text file, queried from
+     * disk with and without threshold, limit and top k, are the same and in the same order as the
+     * similarities computed from the loaded hashes, and that the cached index is reused or built
+     * again when the text file or the interval change.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or writing a
+     *         target file, or the query is interrupted.
+     */
+    @Test
+    public void textFileIndexTest()
+            throws Exception {
+
+        final int factor = 101;
+        final int threads = 4;
+        final int interval = 3;
+        final int[] ks = {1, 5, 1000};
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final File textFile = TestResourcesUtils.getTargetFile("TextFileIndex.sufh");
+        final File indexFile = UniformFuzzyHashTextFileIndex.getIndexFile(textFile);
+        final double threshold = 0.3;
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        String name = hashes.keySet().iterator().next();
+        UniformFuzzyHash hash = hashes.get(name);
+
+        // Text file with comments, empty lines and both line separators.
+        writeTextFile(hashes, textFile);
+        if (indexFile.exists()) {
+            Assert.assertTrue(indexFile.delete());
+        }
+
+        UniformFuzzyHashTextFileIndex index =
+                new UniformFuzzyHashTextFileIndex(textFile, interval);
+        Assert.assertTrue(indexFile.isFile());
+        Assert.assertEquals(hashes.size(), index.size());
+        Assert.assertEquals(hash.toString(), index.findHash(name).toString());
+        Assert.assertNull(index.findHash("Missing"));
+
+        // Compare to all.
+        Assert.assertEquals(
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes).toString(),
+                compareToAll(index, hash, null, 0, -1, threads).toString());
+
+        for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+            Assert.assertEquals(
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(
+                            hash, hashes, similarityType, threshold).toString(),
+                    compareToAll(index, hash, similarityType, threshold, -1, threads).toString());
+        }
+
+        Map<String, Map<SimilarityTypes, Double>> limitedSimilarities =
+                compareToAll(index, hash, null, 0, interval + 1, threads);
+        Assert.assertEquals(interval + 1, limitedSimilarities.size());
+        Assert.assertEquals(
+                head(UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes),
+                        interval + 1).toString(),
+                limitedSimilarities.toString());
+
+        // Top k.
+        for (int k : ks) {
+            for (boolean sortAscending : new boolean[] {false, true}) {
+                Assert.assertEquals(
+                        head(UniformFuzzyHashes.sortSimilarities(
+                                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes),
+                                SimilarityTypes.SIMILARITY, sortAscending), k).toString(),
+                        index.computeTopSimilarities(hash, null, 0,
+                                SimilarityTypes.SIMILARITY, sortAscending, k, threads)
+                                .toString());
+                Assert.assertEquals(
+                        head(UniformFuzzyHashes.sortSimilarities(
+                                UniformFuzzyHashes.computeHashToHashesSimilarities(
+                                        hash, hashes, SimilarityTypes.MINIMUM, threshold),
+                                SimilarityTypes.MAXIMUM, sortAscending), k).toString(),
+                        index.computeTopSimilarities(hash, SimilarityTypes.MINIMUM, threshold,
+                                SimilarityTypes.MAXIMUM, sortAscending, k, threads)
+                                .toString());
+            }
+        }
+
+        // Cached index.
+        long indexLength = indexFile.length();
+        Assert.assertEquals(hashes.size(),
+                new UniformFuzzyHashTextFileIndex(textFile, interval).size());
+        Assert.assertEquals(indexLength, indexFile.length());
+
+        Assert.assertEquals(hashes.size(), new UniformFuzzyHashTextFileIndex(textFile).size());
+        Assert.assertTrue(indexLength > indexFile.length());
+
+        hashes.put("Added", hash);
+        writeTextFile(hashes, textFile);
+        index = new UniformFuzzyHashTextFileIndex(textFile, interval);
+        Assert.assertEquals(hashes.size(), index.size());
+        Assert.assertEquals(
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes).toString(),
+                compareToAll(index, hash, null, 0, -1, 1).toString());
+
+        System.out.println(String.format(
+                "Queried %d hashes from disk in %d threads.",
+                index.size(),
+                threads));
+
+    }
+
+    /**
+     * Overridden names test.
+     * Tests that, when a name is saved again in a later line of a text file (as an updated hash
+     * is appended), only its last line is queried from disk, like it is loaded, and that it takes
+     * a single result of the top k.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or writing a
+     *         target file, or the query is interrupted.
+     */
+    @Test
+    public void overriddenNamesTest()
+            throws Exception {
+
+        final int factor = 101;
+        final int threads = 4;
+        final int interval = 3;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final File textFile = TestResourcesUtils.getTargetFile("OverriddenNames.sufh");
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        Iterator<Entry<String, UniformFuzzyHash>> iterator = hashes.entrySet().iterator();
+        Entry<String, UniformFuzzyHash> entry = iterator.next();
+        String name = entry.getKey();
+        UniformFuzzyHash hash = entry.getValue();
+        UniformFuzzyHash updatedHash = iterator.next().getValue();
+
+        // Text file with the first name appended again with another hash.
+        writeTextFile(hashes, textFile);
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(textFile, true), FILES_ENCODING)) {
+            writer.write(UniformFuzzyHashes.hashToTextLine(" " + name, updatedHash) + "\n");
+        }
+
+        Map<String, UniformFuzzyHash> updatedHashes = new LinkedHashMap<>(hashes);
+        updatedHashes.remove(name);
+        updatedHashes.put(name, updatedHash);
+
+        Assert.assertEquals(updatedHash.toString(),
+                UniformFuzzyHashes.loadHashesFromTextFile(textFile).get(name).toString());
+
+        for (int i = 0; i < 2; i++) {
+
+            // Built index, and then cached index.
+            UniformFuzzyHashTextFileIndex index =
+                    new UniformFuzzyHashTextFileIndex(textFile, interval);
+            Assert.assertEquals(hashes.size(), index.size());
+            Assert.assertEquals(updatedHash.toString(), index.findHash(name).toString());
+
+            Assert.assertEquals(
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(hash, updatedHashes)
+                            .toString(),
+                    compareToAll(index, hash, null, 0, -1, threads).toString());
+
+            Map<String, Map<SimilarityTypes, Double>> top = index.computeTopSimilarities(
+                    hash, null, 0, SimilarityTypes.SIMILARITY, false, hashes.size(), threads);
+            Assert.assertEquals(hashes.size(), top.size());
+            Assert.assertEquals(
+                    UniformFuzzyHashes.sortSimilarities(
+                            UniformFuzzyHashes.computeHashToHashesSimilarities(
+                                    hash, updatedHashes),
+                            SimilarityTypes.SIMILARITY, false).toString(),
+                    top.toString());
+
+        }
+
+        System.out.println(String.format(
+                "Queried %s from its last line.",
+                name));
+
+    }
+
+    /**
+     * Uncached index test.
+     * Tests that a text file whose index cannot be cached is still queried.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or writing a
+     *         target file, or the query is interrupted.
+     */
+    @Test
+    public void uncachedIndexTest()
+            throws Exception {
+
+        final int factor = 101;
+        final int threads = 4;
+        final int interval = 3;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final File textFile = TestResourcesUtils.getTargetFile("UncachedIndex.sufh");
+        final File indexFile = UniformFuzzyHashTextFileIndex.getIndexFile(textFile);
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        UniformFuzzyHash hash = hashes.values().iterator().next();
+
+        // A directory in the place of the index file, so that it cannot be written.
+        writeTextFile(hashes, textFile);
+        File blocker = new File(indexFile, "Blocker");
+        Assert.assertTrue(blocker.isDirectory() || blocker.mkdirs());
+
+        UniformFuzzyHashTextFileIndex index =
+                new UniformFuzzyHashTextFileIndex(textFile, interval);
+        Assert.assertTrue(indexFile.isDirectory());
+        Assert.assertEquals(hashes.size(), index.size());
+        Assert.assertEquals(
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes).toString(),
+                compareToAll(index, hash, null, 0, -1, threads).toString());
+
+        System.out.println(String.format(
+                "Queried %d hashes without a cached index.",
+                index.size()));
+
+    }
+
+    /**
+     * Writes a map of identified hashes to a text file, with comments, empty lines and both line
+     * separators.
+     * 
+     * @param hashes Map of identified Uniform Fuzzy Hashes.
+     * @param textFile The text file.
+     * @throws IOException In case an exception occurs writing the text file.
+     */
+    private static void writeTextFile(
+            Map<String, UniformFuzzyHash> hashes,
+            File textFile)
+            throws IOException {
+
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(textFile), FILES_ENCODING)) {
+
+            writer.write(IGNORE_MARK + " Text file index test.\r\n\n");
+
+            int i = 0;
+            for (Entry<String, UniformFuzzyHash> entry : hashes.entrySet()) {
+                writer.write(UniformFuzzyHashes.hashToTextLine(entry.getKey(), entry.getValue()));
+                writer.write(i++ % 2 == 0 ? "\r\n" : "\n");
+                if (i % 4 == 0) {
+                    writer.write(IGNORE_MARK + "\n\r\n");
+                }
+            }
+
+        }
+
+    }
+
+    /**
+     * Queries the similarities between a hash and all the hashes of a text file.
+     * 
+     * @param index The text file index.
+     * @param hash A Uniform Fuzzy Hash.
+     * @param similarityType The type of similarity compared to the threshold, or null.
+     * @param threshold The threshold.
+     * @param limit Maximum amount of similarities, or a negative number.
+     * @param threads Amount of threads.
+     * @return Map of identified similarities.
+     * @throws Exception In case an exception occurs reading the text file or the query is
+     *         interrupted.
+     */
+    private static Map<String, Map<SimilarityTypes, Double>> compareToAll(
+            UniformFuzzyHashTextFileIndex index,
+            UniformFuzzyHash hash,
+            SimilarityTypes similarityType,
+            double threshold,
+            long limit,
+            int threads)
+            throws Exception {
+
+        final Map<String, Map<SimilarityTypes, Double>> similarities = new LinkedHashMap<>();
+
+        long notified = index.compareToAll(hash, similarityType, threshold, limit, threads,
+                new UniformFuzzyHashTextFileIndex.Listener() {
+
+                    @Override
+                    public void similaritiesComputed(
+                            String identifier,
+                            Map<SimilarityTypes, Double> identifierSimilarities) {
+
+                        similarities.put(identifier, identifierSimilarities);
+
+                    }
+
+                });
+
+        Assert.assertEquals(similarities.size(), notified);
+
+        return similarities;
+
+    }
+
+    /**
+     * @param similarities Map of identified similarities.
+     * @param n Amount of entries.
+     * @return The first n entries of the map.
+     */
+    private static Map<String, Map<SimilarityTypes, Double>> head(
+            Map<String, Map<SimilarityTypes, Double>> similarities,
+            int n) {
+
+        Map<String, Map<SimilarityTypes, Double>> head = new LinkedHashMap<>();
+
+        for (Entry<String, Map<SimilarityTypes, Double>> entry : similarities.entrySet()) {
+            if (head.size() == n) {
+                break;
+            }
+            head.put(entry.getKey(), entry.getValue());
+        }
+
+        return head;
+
+    }
+
+}
@@ -7,6 +7,8 @@ import com.github.s3curitybug.similarityuniformfuzzyhash.UniformFuzzyHash.Simila
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -144,4 +146,214 @@ public class UniformFuzzyHashesTest {
 
     }
 
+    /**
+     * Threshold test.
+     * Tests that the similarity upper bounds are never below the similarities, and that the
+     * similarities between all the test resource files which reach several thresholds, skipping
+     * the hashes whose sizes make them unreachable, are the same as filtering the similarities
+     * between all of them.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void thresholdTest()
+            throws IOException {
+
+        final int factor = 101;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final double[] thresholds = {0, 0.3, 0.5, 0.8};
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        Map<String, Map<String, Double>> allSimilarities = UniformFuzzyHashes
+                .computeAllHashesSimilarities(hashes);
+
+        for (Map.Entry<String, UniformFuzzyHash> entry1 : hashes.entrySet()) {
+            for (Map.Entry<String, UniformFuzzyHash> entry2 : hashes.entrySet()) {
+                for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+                    Assert.assertTrue(entry1.getValue().similarityUpperBound(
+                            entry2.getValue(), similarityType)
+                            >= UniformFuzzyHash.combineSimilarities(
+                                    allSimilarities.get(entry1.getKey()).get(entry2.getKey()),
+                                    allSimilarities.get(entry2.getKey()).get(entry1.getKey()),
+                                    similarityType));
+                }
+            }
+        }
+
+        for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+            for (double threshold : thresholds) {
+
+                Map<String, Map<String, Double>> similarities = UniformFuzzyHashes
+                        .computeAllHashesSimilarities(hashes, similarityType, threshold);
+
+                int pairs = 0;
+                for (Map.Entry<String, UniformFuzzyHash> entry1 : hashes.entrySet()) {
+                    Map<String, Double> similarities1 = similarities.get(entry1.getKey());
+                    for (Map.Entry<String, UniformFuzzyHash> entry2 : hashes.entrySet()) {
+                        double similarity = entry1.getKey().equals(entry2.getKey()) ? 1
+                                : UniformFuzzyHash.combineSimilarities(
+                                        allSimilarities.get(entry1.getKey()).get(entry2.getKey()),
+                                        allSimilarities.get(entry2.getKey()).get(entry1.getKey()),
+                                        similarityType);
+                        if (similarity >= threshold) {
+                            Assert.assertEquals(similarity,
+                                    similarities1.get(entry2.getKey()), 0);
+                            pairs++;
+                        } else {
+                            Assert.assertFalse(similarities1.containsKey(entry2.getKey()));
+                        }
+                    }
+                }
+
+                String name = hashes.keySet().iterator().next();
+                Map<String, Map<SimilarityTypes, Double>> hashToHashesSimilarities =
+                        UniformFuzzyHashes.computeHashToHashesSimilarities(
+                                hashes.get(name), hashes, similarityType, threshold);
+                for (Map.Entry<String, UniformFuzzyHash> entry : hashes.entrySet()) {
+                    Assert.assertEquals(similarities.get(name).containsKey(entry.getKey()),
+                            hashToHashesSimilarities.containsKey(entry.getKey()));
+                }
+
+                System.out.println(String.format(
+                        "%s >= %s: %d of %d pairs.",
+                        similarityType.getName(),
+                        ToStringUtils.formatDecimal(threshold),
+                        pairs,
+                        hashes.size() * hashes.size()));
+
+            }
+        }
+
+    }
+
+    /**
+     * Top similarities test.
+     * Tests that the k most similar test resource files to some of them, by every type of
+     * similarity, ascending and descending, skipping the hashes which cannot beat them, are the
+     * same and in the same order as the first k of sorting the similarities to all of them.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void topSimilaritiesTest()
+            throws IOException {
+
+        final int factor = 101;
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final int queries = 3;
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        final int[] ks = {1, 5, hashes.size() + 1};
+
+        Iterator<UniformFuzzyHash> iterator = hashes.values().iterator();
+        for (int i = 0; i < queries; i++) {
+
+            UniformFuzzyHash hash = iterator.next();
+            Map<String, Map<SimilarityTypes, Double>> similarities =
+                    UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes);
+
+            for (SimilarityTypes sortCriterion : SimilarityTypes.values()) {
+                for (boolean sortAscending : new boolean[] {false, true}) {
+                    Map<String, Map<SimilarityTypes, Double>> sortedSimilarities =
+                            UniformFuzzyHashes.sortSimilarities(
+                                    similarities, sortCriterion, sortAscending);
+                    for (int k : ks) {
+                        Map<String, Map<SimilarityTypes, Double>> expectedTop =
+                                new LinkedHashMap<>();
+                        for (Map.Entry<String, Map<SimilarityTypes, Double>> entry
+                                : sortedSimilarities.entrySet()) {
+                            if (expectedTop.size() == k) {
+                                break;
+                            }
+                            expectedTop.put(entry.getKey(), entry.getValue());
+                        }
+                        Assert.assertEquals(expectedTop.toString(),
+                                UniformFuzzyHashes.computeTopSimilarities(
+                                        hash, hashes, sortCriterion, sortAscending, k)
+                                        .toString());
+                    }
+                }
+            }
+
+        }
+
+        System.out.println(String.format(
+                "Top similarities of %d of %d hashes.",
+                queries,
+                hashes.size()));
+
+    }
+
+    /**
+     * Parallel test.
+     * Tests that the hashes of all the test resource files, their saving and loading, the
+     * similarities between a file and all of them and the similarities between all of them, with
+     * and without threshold, are the same and in the same order when computed by several threads
+     * with small memory budgets as when computed by a single thread.
+     * 
+     * @throws Exception In case an exception occurs reading a test resource file or writing a
+     *         target file, or the computation is interrupted.
+     */
+    @Test
+    public void parallelTest()
+            throws Exception {
+
+        final int factor = 101;
+        final int threads = 4;
+        final long[] maxMemories = {1, 64 * 1024, Long.MAX_VALUE};
+        final File directory = TestResourcesUtils.getTestResourceFile("");
+        final File storageFile = TestResourcesUtils.getTargetFile("Parallel.sufh");
+        final double threshold = 0.3;
+
+        Map<String, UniformFuzzyHash> hashes = UniformFuzzyHashes
+                .computeHashesFromDirectoryFiles(directory, factor, true);
+        UniformFuzzyHash hash = hashes.values().iterator().next();
+
+        UniformFuzzyHashes.saveHashesToTextFile(hashes, storageFile, false);
+
+        for (long maxMemory : maxMemories) {
+
+            Assert.assertEquals(hashes.toString(), UniformFuzzyHashes
+                    .computeHashesFromDirectoryFiles(directory, factor, true, threads, maxMemory)
+                    .toString());
+
+            Assert.assertEquals(hashes.toString(), UniformFuzzyHashes
+                    .loadHashesFromTextFile(storageFile, threads, maxMemory).toString());
+
+            Assert.assertEquals(
+                    UniformFuzzyHashes.computeAllHashesSimilarities(hashes).toString(),
+                    UniformFuzzyHashes.computeAllHashesSimilarities(hashes, threads, maxMemory)
+                            .toString());
+
+            for (SimilarityTypes similarityType : SimilarityTypes.values()) {
+                Assert.assertEquals(
+                        UniformFuzzyHashes.computeAllHashesSimilarities(
+                                hashes, similarityType, threshold).toString(),
+                        UniformFuzzyHashes.computeAllHashesSimilarities(
+                                hashes, similarityType, threshold, threads, maxMemory)
+                                .toString());
+            }
+
+        }
+
+        Assert.assertEquals(
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes).toString(),
+                UniformFuzzyHashes.computeHashToHashesSimilarities(hash, hashes, threads)
+                        .toString());
+
+        Assert.assertEquals(
+                UniformFuzzyHashes.computeHashToHashesSimilarities(
+                        hash, hashes, SimilarityTypes.SIMILARITY, threshold).toString(),
+                UniformFuzzyHashes.computeHashToHashesSimilarities(
+                        hash, hashes, SimilarityTypes.SIMILARITY, threshold, threads).toString());
+
+        System.out.println(String.format(
+                "Computed %d hashes and their similarities in %d threads.",
+                hashes.size(),
+                threads));
+
+    }
+
 }
@@ -1,7 +1,12 @@
 package com.github.s3curitybug.similarityuniformfuzzyhash;
 
+import static com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.NEW_LINE;
+
+import org.junit.Assert;
 import org.junit.Test;
 
+import com.github.s3curitybug.similarityuniformfuzzyhash.ToStringUtils.AnsiCodeColors;
+
 import java.io.File;
 import java.io.IOException;
 
@@ -54,4 +59,137 @@ public class VisualRepresentationTest {
 
     }
 
+    /**
+     * Rendering test.
+     * Tests that the streamed wrapped lines of a Uniform Fuzzy Hash visual representation, and of
+     * a comparison between two Uniform Fuzzy Hashes, have a fixed length and contain the full
+     * representations.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void renderTest()
+            throws IOException {
+
+        final int factor = 1001;
+        final char[] base = VisualRepresentation.DEFAULT_BASE;
+        final int factorDivisor = VisualRepresentation.DEFAULT_FACTOR_DIVISOR;
+        final int lineWrap = 40;
+        final int percentLength = 7;
+        final int separation = 5;
+        final File file1 = TestResourcesUtils.getTestResourceFile("Images/Image1.bmp");
+        final File file2 = TestResourcesUtils.getTestResourceFile("Images/Image2.bmp");
+
+        UniformFuzzyHash hash1 = new UniformFuzzyHash(file1, factor);
+        UniformFuzzyHash hash2 = new UniformFuzzyHash(file2, factor);
+        String representation = VisualRepresentation.represent(hash1, base, factorDivisor);
+
+        // Without line wrap.
+        StringBuilder rendered = new StringBuilder();
+        VisualRepresentation.render(hash1, base, factorDivisor, 0, true, rendered);
+        Assert.assertEquals(representation + NEW_LINE, rendered.toString());
+
+        // With line wrap.
+        rendered = new StringBuilder();
+        VisualRepresentation.render(hash1, base, factorDivisor, lineWrap, true, rendered);
+
+        String[] lines = rendered.toString().split(NEW_LINE);
+        StringBuilder unwrapped = new StringBuilder();
+        for (String line : lines) {
+            Assert.assertEquals(lineWrap + percentLength, line.length());
+            unwrapped.append(line.substring(percentLength));
+        }
+
+        Assert.assertTrue(lines[0].startsWith("  0.0  "));
+        Assert.assertEquals((representation.length() + lineWrap - 1) / lineWrap, lines.length);
+        Assert.assertEquals(representation, unwrapped.substring(0, representation.length()));
+
+        // Compared without line wrap.
+        rendered = new StringBuilder();
+        VisualRepresentation.renderCompared(hash1, hash2, base, factorDivisor, 0, false, rendered);
+        Assert.assertTrue(rendered.toString().startsWith(
+                VisualRepresentation.representCompared(hash1, hash2, base, factorDivisor)));
+
+        // Compared with line wrap.
+        rendered = new StringBuilder();
+        VisualRepresentation.renderCompared(hash1, hash2, base, factorDivisor, lineWrap, true,
+                rendered);
+
+        lines = AnsiCodeColors.remove(rendered.toString()).split(NEW_LINE);
+        unwrapped = new StringBuilder();
+        for (String line : lines) {
+            Assert.assertEquals(2 * (lineWrap + percentLength) + separation, line.length());
+            unwrapped.append(line.substring(percentLength, percentLength + lineWrap));
+        }
+
+        Assert.assertEquals(representation, unwrapped.substring(0, representation.length()));
+
+        System.out.println(String.format(
+                "Rendered comparison lines: %d.",
+                lines.length));
+
+    }
+
+    /**
+     * Overview test.
+     * Tests that the overview of a Uniform Fuzzy Hash, and of a comparison between two Uniform
+     * Fuzzy Hashes, have a fixed amount of cells whatever the size of the hashes, and that the
+     * cells of a hash compared to itself are all colored as present in both hashes.
+     * 
+     * @throws IOException In case an exception occurs reading a test resource file.
+     */
+    @Test
+    public void overviewTest()
+            throws IOException {
+
+        final int factor = 1001;
+        final char[] base = VisualRepresentation.DEFAULT_BASE;
+        final int columns = 30;
+        final int rows = 8;
+        final int percentLength = 7;
+        final int separation = 5;
+        final File file1 = TestResourcesUtils.getTestResourceFile("Images/Image1.bmp");
+        final File file2 = TestResourcesUtils.getTestResourceFile("Images/Image2.bmp");
+
+        UniformFuzzyHash hash1 = new UniformFuzzyHash(file1, factor);
+        UniformFuzzyHash hash2 = new UniformFuzzyHash(file2, factor);
+        UniformFuzzyHash smallHash = new UniformFuzzyHash(new byte[columns], factor);
+
+        // Overviews.
+        for (UniformFuzzyHash hash : new UniformFuzzyHash[] {hash1, smallHash}) {
+
+            StringBuilder rendered = new StringBuilder();
+            VisualRepresentation.renderOverview(hash, base, columns, rows, false, rendered);
+
+            String[] lines = rendered.toString().split(NEW_LINE, -1);
+            Assert.assertEquals(rows + 1, lines.length);
+            for (int i = 0; i < rows; i++) {
+                Assert.assertEquals(columns, lines[i].length());
+            }
+
+        }
+
+        // Compared overview.
+        StringBuilder rendered = new StringBuilder();
+        VisualRepresentation.renderOverviewCompared(hash1, hash2, base, columns, rows, true,
+                rendered);
+
+        String[] lines = AnsiCodeColors.remove(rendered.toString()).split(NEW_LINE);
+        Assert.assertEquals(rows, lines.length);
+        for (String line : lines) {
+            Assert.assertEquals(2 * (columns + percentLength) + separation, line.length());
+        }
+
+        // Overview compared to itself.
+        rendered = new StringBuilder();
+        VisualRepresentation.renderOverviewCompared(hash1, hash1, base, columns, rows, false,
+                rendered);
+
+        Assert.assertFalse(rendered.toString().contains(AnsiCodeColors.GREEN_FONT.getCode()));
+        Assert.assertFalse(rendered.toString().contains(AnsiCodeColors.YELLOW_FONT.getCode()));
+
+        VisualRepresentation.printOverviewCompared(hash1, hash2, base, columns, rows, true);
+
+    }
+
 }